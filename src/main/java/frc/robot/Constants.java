@@ -4,15 +4,17 @@
  */
 package frc.robot;
 
-import com.pathplanner.lib.PathPlanner;
-import com.pathplanner.lib.PathPlannerTrajectory;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
 import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
 import edu.wpi.first.math.util.Units;
-import java.util.LinkedList;
+import frc.tigerlib.can.StatusFrameProfile;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -25,35 +27,110 @@ public class Constants {
     // CAN IDs
     public static final int kPigeonId = 0;
 
+    public static class Profiler {
+        // Whether loop timing is recorded; cheap enough to leave on at competition.
+        public static final boolean kEnabled = true;
+        // How many loops between summarizing stats for the dashboard, 50 == 1Hz.
+        public static final int kPublishPeriod = 50;
+        // Command events kept for the trace written after each enable, ~4 per loop.
+        public static final int kCommandTraceSize = 32768;
+    }
+
+    public static class Simulation {
+        // Robot with battery and bumpers, kilograms; and its moment of inertia, kg m^2.
+        public static final double kMass = 56;
+        public static final double kMomentOfInertia = 5.5;
+        // Each wheel with its gearbox and motor, as the wheel sees it, kg m^2.
+        public static final double kWheelInertia = 0.008;
+        // Mecanum rollers on carpet.
+        public static final double kWheelFriction = 0.7;
+        // Same as the Spark MAXs' smart current limit, amps.
+        public static final double kCurrentLimit = 50;
+        // Physics step, seconds; each loop is split into steps this long.
+        public static final double kPhysicsPeriod = 0.001;
+        // Simulated seconds per real second, 0 runs as fast as possible. SIM_SPEED overrides it.
+        public static final double kSpeed = 1;
+
+        // Batch runs of autos, see BatchSimRunner. How far the start is randomized; meters and
+        // degrees.
+        public static final double kStartPositionSpread = 0.15;
+        public static final double kStartHeadingSpread = 5;
+        // Sensor noise; wheel velocity in meters per second, gyro in degrees.
+        public static final double kVelocityNoise = 0.02;
+        public static final double kHeadingNoise = 0.2;
+        // Battery voltage range, volts.
+        public static final double kMinBatteryVoltage = 11.0;
+        public static final double kMaxBatteryVoltage = 12.8;
+        // Field size, meters.
+        public static final double kFieldLength = Units.inchesToMeters(648);
+        public static final double kFieldWidth = Units.inchesToMeters(324);
+        // Half the robot's length with bumpers, meters; for staying on the field.
+        public static final double kRobotHalfLength = Units.inchesToMeters(19);
+        // The tarmac is 84.75in deep, a robot against the fender has to move that far to taxi.
+        public static final double kTarmacDepth = Units.inchesToMeters(84.75);
+        // The autonomous period, seconds.
+        public static final double kAutoLength = 15;
+    }
+
+    public static class Logging {
+        // Where match logs go; USB stick if plugged in, otherwise the rio's home directory.
+        public static final String kUsbDirectory = "/U/logs";
+        public static final String kRioDirectory = "/home/lvuser/logs";
+        public static final String kSimDirectory = "logs";
+        // Logs are about 33MB an hour; the oldest are deleted past these so they can't fill the
+        // drive over an event. The rio's flash is small and shared, so skip logging when low.
+        public static final long kUsbMaxBytes = 2L * 1024 * 1024 * 1024;
+        public static final long kRioMaxBytes = 150L * 1024 * 1024;
+        public static final long kRioMinFreeBytes = 100L * 1024 * 1024;
+
+        // Log channel names, shared by anything reading logs back.
+        public static final String kMode = "Robot/Mode"; // 0 disabled, 1 auto, 2 teleop, 3 test
+        public static final String kDriverButtons = "Driver/Buttons";
+        public static final String kDriverPOV = "Driver/POV";
+        public static final String kOperatorButtons = "Operator/Buttons";
+        public static final String kOperatorPOV = "Operator/POV";
+        public static final String kDriverLeftX = "Driver/Left X";
+        public static final String kDriverLeftY = "Driver/Left Y";
+        public static final String kDriverRightX = "Driver/Right X";
+        public static final String kHeading = "Drivetrain/Heading";
+        public static final String kFlVelocity = "Drivetrain/FL Velocity";
+        public static final String kRlVelocity = "Drivetrain/RL Velocity";
+        public static final String kFrVelocity = "Drivetrain/FR Velocity";
+        public static final String kRrVelocity = "Drivetrain/RR Velocity";
+        public static final String kFlOutput = "Drivetrain/FL Output";
+        public static final String kRlOutput = "Drivetrain/RL Output";
+        public static final String kFrOutput = "Drivetrain/FR Output";
+        public static final String kRrOutput = "Drivetrain/RR Output";
+        public static final String kArmUp = "Arm/Is Up";
+        public static final String kArmDown = "Arm/Is Down";
+        public static final String kArmOutput = "Arm/Output";
+        public static final String kIntakeOutput = "Intake/Output";
+        public static final String kClimberOutput = "Climber/Output";
+    }
+
     public enum AutoTrajectory {
         TWO_BALL("2BallAuto");
 
-        public final List<PathPlannerTrajectory> kPaths;
+        // Paths in deploy/pathplanner, loaded in the background by RobotContainer's cache.
+        public final List<String> kPathNames;
 
         private AutoTrajectory(String... pathNames) {
-            kPaths = new LinkedList<PathPlannerTrajectory>();
-            for (String name : pathNames) {
-                kPaths.add(
-                        PathPlanner.loadPath(
-                                name,
-                                Drivetrain.kMaxAutoVelocity,
-                                Drivetrain.kMaxAutoAcceleration));
-            }
+            kPathNames = Arrays.asList(pathNames);
         }
     }
 
     public static class Drivetrain {
         // Body Constants
         public static final double kWheelDiameter = Units.inchesToMeters(6);
-        // Offset in meters from center of robot (also imu)
+        // Offset in meters from center of robot (also imu); x forward, y left like WPILib.
         public static final Translation2d kFrontLeftOffset =
-                new Translation2d(Units.inchesToMeters(10.18), Units.inchesToMeters(-10.857));
+                new Translation2d(Units.inchesToMeters(10.18), Units.inchesToMeters(10.857));
         public static final Translation2d kRearLeftOffset =
-                new Translation2d(Units.inchesToMeters(-10.18), Units.inchesToMeters(-10.857));
+                new Translation2d(Units.inchesToMeters(-10.18), Units.inchesToMeters(10.857));
         public static final Translation2d kFrontRightOffset =
-                new Translation2d(Units.inchesToMeters(10.18), Units.inchesToMeters(10.857));
+                new Translation2d(Units.inchesToMeters(10.18), Units.inchesToMeters(-10.857));
         public static final Translation2d kRearRightOffset =
-                new Translation2d(Units.inchesToMeters(-10.18), Units.inchesToMeters(10.857));
+                new Translation2d(Units.inchesToMeters(-10.18), Units.inchesToMeters(-10.857));
         /**
          * Theoretical max wheel speeds
          *
@@ -66,11 +143,15 @@ public class Constants {
 
         public static final double kMaxWheelSpeedRPM = 529.97;
         public static final double kMaxWheelSpeedMPS =
-                ((2 * Math.PI * kWheelDiameter) / 60) * kMaxWheelSpeedRPM;
+                ((Math.PI * kWheelDiameter) / 60) * kMaxWheelSpeedRPM;
 
         // Joystick Constants
         public static final double kDeadband = 0.2;
         public static final double kSensitivity = 2.8;
+        // Whose joystick curve to load, from deploy/shaping/<driver>.properties. The curve above
+        // is used if it's missing.
+        public static final String kDriver = "default";
+        public static final String kShapingDirectory = "shaping";
 
         // Slew constants to allow for smoother control
         public static final double kXSlewRate = 2;
@@ -87,20 +168,76 @@ public class Constants {
         public static final CANSparkMax.MotorType kMotorType = CANSparkMax.MotorType.kBrushless;
 
         // autonomous constants
-        public static final double kMaxAutoVelocity = 8.0; // m/s
-        public static final double kMaxAutoAcceleration = 5.0; // m/s^2
-        public static final PIDController kXPID = new PIDController(.02, 0, 0);
-        public static final PIDController kYPID = new PIDController(.02, 0, 0);
+        public static final double kMaxAutoVelocity = 3.0; // m/s, leaves room to correct
+        public static final double kMaxAutoAcceleration = 3.0; // m/s^2
+        // Where PathPlanner paths are deployed, every one is loaded at startup.
+        public static final String kPathDirectory = "pathplanner";
+        public static final String kPathExtension = ".path";
+        // Paths compiled at build time, see TrajectoryCompiler; used instead if compiled from the
+        // deployed version of the path.
+        public static final String kCompiledPathDirectory = "trajectories";
+        public static final String kCompiledPathExtension = ".traj";
+        public static final double kCompiledPathPeriod = 0.01; // seconds
+        // Paths planned on the fly, see TrajectoryPlanner. The field map in deploy and its cell
+        // size; how far the robot's center keeps from anything, half its length with bumpers;
+        // and extra room searched paths leave so their corners can be rounded. Meters.
+        public static final String kFieldMapFile = "field/rapidreact.properties";
+        public static final double kPlannerResolution = 0.1;
+        public static final double kPlannerClearance = Units.inchesToMeters(19);
+        public static final double kPlannerMargin = 0.15;
+        public static final double kMaxAutoAngularVelocity = Math.PI; // rad/s
+        // Bounds a search to a few milliseconds; the field is ~13,700 cells.
+        public static final int kPlannerMaxExpansions = 20000;
+        // Plans from and to headings this close share a cache entry.
+        public static final double kPlannerHeadingStep = Math.toRadians(5);
+        public static final int kPlannerCacheSize = 32;
+        // Random plans at startup, so the first real one is already compiled.
+        public static final int kPlannerWarmup = 200;
+        // Driving to the hub; its center, and how far from it the robot's center stops, against
+        // the fender. Approach angles are rounded to the step so the same few plans get cached.
+        public static final Translation2d kHubCenter =
+                new Translation2d(Units.inchesToMeters(324), Units.inchesToMeters(162));
+        public static final double kHubStandoff = 0.85 + Units.inchesToMeters(19);
+        public static final double kHubApproachStep = Math.toRadians(45);
+        // Trajectory following; m/s per meter off, and rad/s per radian off.
+        public static final PIDController kXPID = new PIDController(3, 0, 0);
+        public static final PIDController kYPID = new PIDController(3, 0, 0);
         public static final ProfiledPIDController kThetaPID =
-                new ProfiledPIDController(.02, 0, 0, new Constraints(6.28, 3.14));
+                new ProfiledPIDController(4, 0, 0, new Constraints(6.28, 3.14));
+        // Spark MAX closed loop velocity; duty cycle per meter per second wanted, and of error.
+        public static final double kVelocityFF = 1 / kMaxWheelSpeedMPS;
+        public static final double kVelocityP = 0.2;
+        // Heading hold at the main loop's period; the control thread makes its own at its period.
         public static final PIDController kZPID = new PIDController(.018, 0, 0);
+        // Fastest heading protection turns, [0, 1].
+        public static final double kMaxHeadingTurn = 0.75;
+        // How long after turning stops to capture the heading to hold, seconds.
+        public static final double kHeadingSettleTime = 0.4;
+
+        // High rate control thread, runs heading hold and odometry faster than the robot loop.
+        public static final boolean kHighRateControl = false;
+        public static final double kControlPeriod = 0.005; // 200Hz
+        // Any real-time priority runs ahead of the main robot thread.
+        public static final int kControlPriority = 10;
+        // Stop the wheels if the main loop hasn't sent a command in this long, seconds.
+        public static final double kCommandTimeout = 0.1;
+        // How far back poses are kept for matching late measurements, seconds.
+        public static final double kPoseHistorySeconds = 1.5;
+        // Pose estimator standard deviations. Wheels per meter (forward, strafe) and radian
+        // moved, strafing slips the rollers. Gyro per reading, radians.
+        public static final double kWheelXStdDev = 0.02;
+        public static final double kWheelYStdDev = 0.08;
+        public static final double kWheelThetaStdDev = 0.1;
+        public static final double kGyroStdDev = Math.toRadians(0.1);
+        // Vision position in meters, heading in radians.
+        public static final double kVisionXYStdDev = 0.3;
+        public static final double kVisionThetaStdDev = Math.toRadians(10);
 
         // Gearbox Constants
         public static final double kGearRatio = 10.71; // 10.71:1 Toughboxes
-        public static final double kRPMtoMPSConversionFactor =
-                1.0 / (kGearRatio * (Math.PI * kWheelDiameter));
-        public static final double kDistancePerPulse =
-                1.0 / (42.0 /* Hall Effects CPR */ / kGearRatio * (Math.PI * kWheelDiameter));
+        // Spark MAX encoders count motor rotations; meters per rotation, and m/s per RPM.
+        public static final double kDistancePerPulse = Math.PI * kWheelDiameter / kGearRatio;
+        public static final double kRPMtoMPSConversionFactor = kDistancePerPulse / 60;
     }
 
     public static class Arm {
@@ -158,4 +295,94 @@ public class Constants {
         // Rate limit for SlewRateLimiter in dutyCycle/Second
         public static final double kSlewRate = 2;
     }
+
+    /**
+     * Status frame periods in ms for each CAN device; default, disabled, auto, teleop. CTRE
+     * devices max out at 255ms.
+     */
+    public static class StatusFrames {
+        // Warn if status frames alone are estimated past this much of the bus, percent; control
+        // frames and the PDP need the rest.
+        public static final double kMaxEstimatedLoad = 60;
+
+        // How often the drive reads its sensors; every control thread loop if it's running, else
+        // every main loop.
+        private static final int kDriveLoop =
+                Drivetrain.kHighRateControl
+                        ? (int) Math.round(Drivetrain.kControlPeriod * 1000)
+                        : 20;
+
+        // We read velocity and position every loop; odometry runs in every mode, even disabled so
+        // pushing the robot into place is tracked.
+        public static final StatusFrameProfile<PeriodicFrame> kDrive =
+                new StatusFrameProfile<>("Drive Spark MAX", PeriodicFrame.class, 4)
+                        // Applied output, faults.
+                        .set(PeriodicFrame.kStatus0, 10, 100, 20, 20)
+                        // Velocity, temperature, voltage, current.
+                        .set(PeriodicFrame.kStatus1, 20, kDriveLoop, kDriveLoop, kDriveLoop)
+                        // Position.
+                        .set(PeriodicFrame.kStatus2, 20, kDriveLoop, kDriveLoop, kDriveLoop)
+                        // Analog sensor, unused.
+                        .set(PeriodicFrame.kStatus3, 50, 500, 500, 500);
+
+        // Nothing is read from the intake, its output is the setpoint cached on the java side.
+        public static final StatusFrameProfile<PeriodicFrame> kIntake =
+                new StatusFrameProfile<>("Intake Spark MAX", PeriodicFrame.class, 1)
+                        .set(PeriodicFrame.kStatus0, 10, 100, 50, 50)
+                        .set(PeriodicFrame.kStatus1, 20, 500, 250, 250)
+                        .set(PeriodicFrame.kStatus2, 20, 500, 500, 500)
+                        .set(PeriodicFrame.kStatus3, 50, 500, 500, 500);
+
+        // We read the limit switches every loop, position only in the self test.
+        public static final StatusFrameProfile<StatusFrameEnhanced> kArm =
+                new StatusFrameProfile<>("Arm Talon SRX", StatusFrameEnhanced.class, 1)
+                        // Applied output, limit switches, faults.
+                        .set(StatusFrameEnhanced.Status_1_General, 10, 50, 20, 20)
+                        // Selected sensor position and velocity.
+                        .set(StatusFrameEnhanced.Status_2_Feedback0, 20, 100, 100, 100)
+                        .set(StatusFrameEnhanced.Status_3_Quadrature, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_4_AinTempVbat, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_8_PulseWidth, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_10_Targets, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_13_Base_PIDF0, 160, 255, 255, 255);
+
+        // We read the left leader's applied output every loop, and followers need their leader's
+        // general frame.
+        public static final StatusFrameProfile<StatusFrameEnhanced> kClimberLeader =
+                new StatusFrameProfile<>("Climber Talon SRX", StatusFrameEnhanced.class, 2)
+                        .set(StatusFrameEnhanced.Status_1_General, 10, 100, 20, 20)
+                        .set(StatusFrameEnhanced.Status_2_Feedback0, 20, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_3_Quadrature, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_4_AinTempVbat, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_8_PulseWidth, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_10_Targets, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_13_Base_PIDF0, 160, 255, 255, 255);
+        public static final StatusFrameProfile<StatusFrameEnhanced> kClimberFollower =
+                new StatusFrameProfile<>("Climber Follower", StatusFrameEnhanced.class, 2)
+                        .set(StatusFrameEnhanced.Status_1_General, 10, 255, 100, 100)
+                        .set(StatusFrameEnhanced.Status_2_Feedback0, 20, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_3_Quadrature, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_4_AinTempVbat, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_8_PulseWidth, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_10_Targets, 160, 255, 255, 255)
+                        .set(StatusFrameEnhanced.Status_13_Base_PIDF0, 160, 255, 255, 255);
+
+        // We read the heading every loop, in every mode for odometry.
+        public static final StatusFrameProfile<PigeonIMU_StatusFrame> kPigeon =
+                new StatusFrameProfile<>("Pigeon", PigeonIMU_StatusFrame.class, 1)
+                        .set(PigeonIMU_StatusFrame.CondStatus_1_General, 10, 100, 100, 100)
+                        .set(
+                                PigeonIMU_StatusFrame.CondStatus_9_SixDeg_YPR,
+                                10,
+                                kDriveLoop,
+                                kDriveLoop,
+                                kDriveLoop)
+                        .set(
+                                PigeonIMU_StatusFrame.CondStatus_6_SensorFusion,
+                                10,
+                                kDriveLoop,
+                                kDriveLoop,
+                                kDriveLoop)
+                        .set(PigeonIMU_StatusFrame.CondStatus_11_GyroAccum, 20, 255, 255, 255);
+    }
 }
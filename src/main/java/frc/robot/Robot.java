@@ -5,9 +5,22 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.Logging;
+import frc.robot.replay.LogReplay;
+import frc.robot.replay.ReplaySource;
+import frc.tigerlib.profiling.LoopProfiler;
+import frc.tigerlib.sim.SimPacer;
+import frc.tigerlib.telemetry.AsyncTelemetry;
+import frc.tigerlib.telemetry.CsvSampleConsumer;
+import frc.tigerlib.telemetry.NetworkTablesSampleConsumer;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
 /**
  * The main robot class, runs all loops and main control
@@ -18,20 +31,86 @@ public class Robot extends TimedRobot {
 
     // Toys'R'Us but for a robot.
     RobotContainer mContainer;
+    // The match log being replayed in simulation, null when running normally.
+    ReplaySource mReplaySource;
+    // Steps the simulated clock, when not simulating in real time.
+    SimPacer mSimPacer;
+
+    // Times each part of the loop, so we know who to blame for overruns.
+    final LoopProfiler mProfiler = LoopProfiler.getInstance();
+    final int mLoopPhase = mProfiler.register("Robot Loop");
+    final int mPeriodPhase = mProfiler.register("Loop Period");
+    final int mDashboardPhase = mProfiler.register("Update Values");
+    final int mSchedulerPhase = mProfiler.register("Scheduler");
+    final int mLogPhase = mProfiler.register("Log Values");
+    long mLastLoopStart = 0;
 
     /** Init, duh. */
     @Override
     public void robotInit() {
-        mContainer = new RobotContainer();
+        mProfiler.setEnabled(Constants.Profiler.kEnabled);
+        mProfiler.setPublishPeriod(Constants.Profiler.kPublishPeriod);
+
+        // Replaying a match log swaps the simulated sensors for recorded ones.
+        String replayLog = System.getenv(LogReplay.kEnvironmentVariable);
+        if (isSimulation() && replayLog != null) {
+            try {
+                mReplaySource = new ReplaySource(new File(replayLog));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        mContainer =
+                mReplaySource != null ? new RobotContainer(mReplaySource) : new RobotContainer();
+
+        // Subsystems push samples from the main thread, this sends them from another one.
+        AsyncTelemetry telemetry = AsyncTelemetry.getInstance();
+        telemetry.addConsumer(new NetworkTablesSampleConsumer(telemetry, "Telemetry"));
+        // In simulation there's disk to spare, so keep every sample to look through after.
+        if (isSimulation()) {
+            String name =
+                    new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".telemetry.csv";
+            try {
+                telemetry.addConsumer(
+                        new CsvSampleConsumer(telemetry, new File(Logging.kSimDirectory, name)));
+            } catch (IOException e) {
+                DriverStation.reportWarning(
+                        "Could not open telemetry file: " + e.getMessage(), false);
+            }
+        }
+        telemetry.start();
     }
 
     /** A method that runs every 20ms, no matter what. */
     @Override
     public void robotPeriodic() {
+        long loopStart = mProfiler.start();
+        // Time between loops, shows jitter and anything that ran outside robotPeriodic.
+        if (mLastLoopStart != 0) {
+            mProfiler.stop(mPeriodPhase, mLastLoopStart);
+        }
+        mLastLoopStart = loopStart;
+
+        // One timestamp for every telemetry sample this loop.
+        AsyncTelemetry.getInstance().setTimestamp(RobotController.getFPGATime());
+
         // Update the dashboard
+        long start = mProfiler.start();
         mContainer.updateValues();
+        mProfiler.stop(mDashboardPhase, start);
+
         // Run any scheduled commands
+        start = mProfiler.start();
         CommandScheduler.getInstance().run();
+        mProfiler.stop(mSchedulerPhase, start);
+
+        // Record inputs and what we did with them.
+        start = mProfiler.start();
+        mContainer.logValues();
+        mProfiler.stop(mLogPhase, start);
+
+        mProfiler.stop(mLoopPhase, loopStart);
+        mProfiler.update();
     }
 
     /** A method that runs before running {@link autonomousPeriodic} loop the first time. */
@@ -64,18 +143,45 @@ public class Robot extends TimedRobot {
     @Override
     public void simulationInit() {
         DriverStation.silenceJoystickConnectionWarning(true);
+
+        // Replay a match log as fast as possible instead of simulating, then quit.
+        if (mReplaySource != null) {
+            try {
+                new LogReplay(this, mContainer, mReplaySource).run();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            System.exit(0);
+        }
+
+        // Run faster or slower than real time, for trying autos without waiting on them.
+        double speed = Constants.Simulation.kSpeed;
+        String speedVariable = System.getenv(SimPacer.kEnvironmentVariable);
+        if (speedVariable != null) {
+            try {
+                speed = Double.parseDouble(speedVariable);
+            } catch (NumberFormatException e) {
+                DriverStation.reportWarning("Bad simulation speed: " + speedVariable, false);
+            }
+        }
+        mSimPacer = new SimPacer(getPeriod(), speed);
+        mSimPacer.start();
     }
 
     /**
      * A method that runs every 20ms when {@link edu.wpi.first.wpilibj.RobotBase#isSimulation()}.
      */
     @Override
-    public void simulationPeriodic() {}
+    public void simulationPeriodic() {
+        mSimPacer.step();
+    }
 
     /** A method that runs before running {@link disabledPeriodic} loop the first time. */
     @Override
     public void disabledInit() {
         CommandScheduler.getInstance().cancelAll();
+        // Save what the commands did while enabled, for reviewing the match.
+        mContainer.writeCommandTrace();
     }
 
     /** A method that runs every 20ms when {@link edu.wpi.first.wpilibj.RobotState#isDisabled()}. */
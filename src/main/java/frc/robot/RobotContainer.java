@@ -4,13 +4,23 @@
  */
 package frc.robot;
 
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
 import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.cscore.UsbCamera;
 import edu.wpi.first.cscore.VideoSource.ConnectionStrategy;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.drive.MecanumDrive.WheelSpeeds;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
 import edu.wpi.first.wpilibj2.command.RunCommand;
@@ -18,12 +28,53 @@ import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
 import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
+import frc.robot.Constants.AutoTrajectory;
+import frc.robot.Constants.Drivetrain;
+import frc.robot.Constants.Logging;
+import frc.robot.Constants.StatusFrames;
+import frc.robot.commands.auto.DriveToPoseCmd;
 import frc.robot.commands.auto.ExitTarmacCmd;
+import frc.robot.replay.ReplaySource;
 import frc.robot.subsystems.ArmSubsys;
 import frc.robot.subsystems.ClimberSubsys;
 import frc.robot.subsystems.DrivetrainSubsys;
 import frc.robot.subsystems.IntakeSubsys;
+import frc.robot.subsystems.io.ArmIO;
+import frc.robot.subsystems.io.ArmIOReal;
+import frc.robot.subsystems.io.ArmIOReplay;
+import frc.robot.subsystems.io.ArmIOSim;
+import frc.robot.subsystems.io.ClimberIO;
+import frc.robot.subsystems.io.ClimberIOReal;
+import frc.robot.subsystems.io.ClimberIOSim;
+import frc.robot.subsystems.io.DrivetrainIO;
+import frc.robot.subsystems.io.DrivetrainIOReal;
+import frc.robot.subsystems.io.DrivetrainIOReplay;
+import frc.robot.subsystems.io.DrivetrainIOSim;
+import frc.robot.subsystems.io.IntakeIO;
+import frc.robot.subsystems.io.IntakeIOReal;
+import frc.robot.subsystems.io.IntakeIOSim;
+import frc.tigerlib.can.CanBusReport;
+import frc.tigerlib.control.HighRateLoop;
+import frc.tigerlib.input.ControllerSnapshot;
+import frc.tigerlib.input.PacketClock;
+import frc.tigerlib.input.ShapingCurve;
 import frc.tigerlib.input.controller.XboxController;
+import frc.tigerlib.input.controller.XboxController.Axis;
+import frc.tigerlib.input.controller.XboxController.Button;
+import frc.tigerlib.logging.BinaryLogger;
+import frc.tigerlib.logging.LogFiles;
+import frc.tigerlib.planning.OccupancyGrid;
+import frc.tigerlib.planning.TrajectoryPlanner;
+import frc.tigerlib.profiling.CommandTracer;
+import frc.tigerlib.profiling.LoopProfiler;
+import frc.tigerlib.telemetry.TelemetryPublisher;
+import frc.tigerlib.telemetry.TelemetryPublisher.Rate;
+import frc.tigerlib.trajectory.SampledTrajectory;
+import frc.tigerlib.trajectory.TrajectoryCache;
+import frc.tigerlib.trajectory.TrajectoryFile;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * Contains and manages all aspects of the robot, and computer.
@@ -41,12 +92,105 @@ public class RobotContainer {
     // Camera for seeing, duh.
     private UsbCamera mCamera1;
     // Subsystems.
-    private DrivetrainSubsys mDrivetrain = new DrivetrainSubsys();
-    private ArmSubsys mArm = new ArmSubsys();
-    private IntakeSubsys mIntake = new IntakeSubsys();
-    private ClimberSubsys mClimber = new ClimberSubsys();
+    private DrivetrainSubsys mDrivetrain;
+    private ArmSubsys mArm;
+    private IntakeSubsys mIntake;
+    private ClimberSubsys mClimber;
+    // Sends dashboard values only when they change.
+    private TelemetryPublisher mTelemetry = new TelemetryPublisher();
+    // Estimates how much of the CAN bus the status frames use.
+    private CanBusReport mCanBusReport =
+            new CanBusReport(
+                    StatusFrames.kDrive,
+                    StatusFrames.kPigeon,
+                    StatusFrames.kIntake,
+                    StatusFrames.kArm,
+                    StatusFrames.kClimberLeader,
+                    StatusFrames.kClimberFollower);
+    // Records a full match to disk, every loop.
+    private BinaryLogger mLogger = new BinaryLogger();
+    private String mLogDirectory;
+    // Names this boot's files, the rio's clock isn't set until the Driver Station connects.
+    private int mBootNumber;
+    private int mTraceCount = 0;
+    // When commands ran, and for how long; written out after each enable.
+    private CommandTracer mCommandTracer = new CommandTracer(Constants.Profiler.kCommandTraceSize);
+    // Every deployed path, loaded in the background so autos never wait on a file.
+    private TrajectoryCache mTrajectoryCache;
+    // Plans paths on the fly, around the field map; null if the map couldn't be loaded.
+    private TrajectoryPlanner mPlanner;
+    // How long planning a few paths at boot took, so the first real one is quick.
+    private double mPlannerWarmupMs;
+    private int mModeChannel;
+    private int mDriverButtonsChannel;
+    private int mDriverPOVChannel;
+    private int mOperatorButtonsChannel;
+    private int mOperatorPOVChannel;
+    private int mDriverLeftXChannel;
+    private int mDriverLeftYChannel;
+    private int mDriverRightXChannel;
+    private int mHeadingChannel;
+    private int mFlVelocityChannel;
+    private int mRlVelocityChannel;
+    private int mFrVelocityChannel;
+    private int mRrVelocityChannel;
+    private int mFlOutputChannel;
+    private int mRlOutputChannel;
+    private int mFrOutputChannel;
+    private int mRrOutputChannel;
+    private int mArmUpChannel;
+    private int mArmDownChannel;
+    private int mArmOutputChannel;
+    private int mIntakeOutputChannel;
+    private int mClimberOutputChannel;
 
+    /** Constructs the robot on real hardware, or on simulated hardware when in simulation. */
     public RobotContainer() {
+        this(
+                Robot.isReal() ? new DrivetrainIOReal() : new DrivetrainIOSim(),
+                Robot.isReal() ? new ArmIOReal() : new ArmIOSim(),
+                Robot.isReal() ? new IntakeIOReal() : new IntakeIOSim(),
+                Robot.isReal() ? new ClimberIOReal() : new ClimberIOSim(),
+                Constants.Drivetrain.kHighRateControl);
+    }
+
+    /**
+     * Constructs the robot with sensors read from a match log. The intake and climber have no
+     * sensors, so they are simulated. The drivetrain always runs on the main loop so the replay is
+     * deterministic.
+     *
+     * @param replay The log being replayed.
+     */
+    public RobotContainer(ReplaySource replay) {
+        this(
+                new DrivetrainIOReplay(replay),
+                new ArmIOReplay(replay),
+                new IntakeIOSim(),
+                new ClimberIOSim(),
+                false);
+    }
+
+    private RobotContainer(
+            DrivetrainIO drivetrainIO,
+            ArmIO armIO,
+            IntakeIO intakeIO,
+            ClimberIO climberIO,
+            boolean highRateControl) {
+        mDrivetrain = new DrivetrainSubsys(drivetrainIO);
+        mArm = new ArmSubsys(armIO);
+        mIntake = new IntakeSubsys(intakeIO);
+        mClimber = new ClimberSubsys(climberIO);
+        if (highRateControl) {
+            mDrivetrain.startControlLoop();
+        }
+        // Time driver station packets, for stick to motor latency.
+        PacketClock.getInstance().start();
+
+        // Load the driver's joystick curve.
+        configureInputShaping();
+        // Start loading paths, before any auto can ask for one.
+        configureTrajectories();
+        configurePlanner();
         // Add options to the chooser.
         configureAutoChooser();
         // Configure buttons to do things.
@@ -57,18 +201,176 @@ public class RobotContainer {
 
         // Set up Commands that arn't button based, or disable.
         configureDefaultCommands();
+        // Put everything on the dashboard.
+        configureTelemetry();
+        // Start recording.
+        configureLogging();
+        // Trace commands, after all buttons are bound so execute times start after their polls.
+        mCommandTracer.install(CommandScheduler.getInstance());
+    }
+
+    /** Gives the drivetrain the driver's joystick curve, if they have one deployed. */
+    public void configureInputShaping() {
+        File file =
+                new File(
+                        new File(Filesystem.getDeployDirectory(), Drivetrain.kShapingDirectory),
+                        Drivetrain.kDriver + ".properties");
+        if (!file.isFile()) {
+            return;
+        }
+        try {
+            mDrivetrain.setShapingCurve(ShapingCurve.load(file));
+        } catch (IOException | IllegalArgumentException e) {
+            // Drive on the default curve rather than not at all.
+            DriverStation.reportWarning(
+                    "Could not load joystick curve " + file + ": " + e.getMessage(), false);
+        }
+    }
+
+    /** Starts loading every deployed path on a background thread. */
+    public void configureTrajectories() {
+        File directory = new File(Filesystem.getDeployDirectory(), Drivetrain.kPathDirectory);
+        List<String> names = TrajectoryCache.findNames(directory, Drivetrain.kPathExtension);
+        for (AutoTrajectory auto : AutoTrajectory.values()) {
+            for (String name : auto.kPathNames) {
+                if (!names.contains(name)) {
+                    DriverStation.reportWarning(
+                            "Path " + name + " for " + auto + " isn't deployed", false);
+                }
+            }
+        }
+        mTrajectoryCache = new TrajectoryCache(RobotContainer::loadPath, names);
+        for (String name : names) {
+            mTrajectoryCache
+                    .getFuture(name)
+                    .whenComplete(
+                            (trajectory, e) -> {
+                                if (e != null) {
+                                    DriverStation.reportWarning(
+                                            "Could not load path " + name + ": " + e, false);
+                                }
+                            });
+        }
+        mTrajectoryCache.start();
+    }
+
+    /**
+     * Loads a deployed path, on the trajectory cache's thread. Maps its compiled trajectory if it
+     * was compiled from this version of the path for the current constraints, otherwise has
+     * PathPlanner generate it.
+     */
+    private static SampledTrajectory loadPath(String name) {
+        File compiled = getCompiledPathFile(name);
+        if (compiled.isFile()) {
+            try {
+                TrajectoryFile file = TrajectoryFile.map(compiled);
+                if (file.getSourceChecksum() != TrajectoryFile.checksum(getPathFile(name))) {
+                    DriverStation.reportWarning(
+                            "Path " + name + " changed since it was compiled, generating it",
+                            false);
+                } else if (file.getMaxVelocity() == Drivetrain.kMaxAutoVelocity
+                        && file.getMaxAcceleration() == Drivetrain.kMaxAutoAcceleration) {
+                    return file.getTrajectory();
+                } else {
+                    DriverStation.reportWarning(
+                            "Path " + name + " was compiled for other constraints, generating it",
+                            false);
+                }
+            } catch (IOException e) {
+                DriverStation.reportWarning(
+                        "Could not map " + compiled + ": " + e.getMessage(), false);
+            }
+        }
+        return generatePath(name);
+    }
+
+    /**
+     * Reads a deployed path and generates its trajectory with PathPlanner, for the auto
+     * constraints.
+     *
+     * @param name The path's name.
+     * @return The trajectory.
+     * @throws IllegalArgumentException If PathPlanner can't read it.
+     */
+    public static SampledTrajectory generatePath(String name) {
+        PathPlannerTrajectory path =
+                PathPlanner.loadPath(
+                        name, Drivetrain.kMaxAutoVelocity, Drivetrain.kMaxAutoAcceleration);
+        if (path == null) {
+            throw new IllegalArgumentException("PathPlanner could not read it");
+        }
+        return SampledTrajectory.fromPathPlanner(path);
+    }
+
+    /** @return Where a path is deployed. */
+    public static File getPathFile(String name) {
+        return new File(
+                new File(Filesystem.getDeployDirectory(), Drivetrain.kPathDirectory),
+                name + Drivetrain.kPathExtension);
+    }
+
+    /** @return Where a path's compiled trajectory is deployed. */
+    public static File getCompiledPathFile(String name) {
+        return new File(
+                new File(Filesystem.getDeployDirectory(), Drivetrain.kCompiledPathDirectory),
+                name + Drivetrain.kCompiledPathExtension);
+    }
+
+    /** Loads the field map for planning paths on the fly, and warms the planner up. */
+    public void configurePlanner() {
+        File file = new File(Filesystem.getDeployDirectory(), Drivetrain.kFieldMapFile);
+        OccupancyGrid field;
+        try {
+            field = OccupancyGrid.load(file, Drivetrain.kPlannerResolution);
+        } catch (IOException | IllegalArgumentException e) {
+            // Without obstacles it would plan straight through the hub; better to not plan.
+            DriverStation.reportWarning(
+                    "Could not load field map " + file + ": " + e.getMessage(), false);
+            return;
+        }
+        mPlanner =
+                new TrajectoryPlanner(
+                        field,
+                        Drivetrain.kPlannerClearance,
+                        Drivetrain.kPlannerMargin,
+                        Drivetrain.kMaxAutoVelocity,
+                        Drivetrain.kMaxAutoAcceleration,
+                        Drivetrain.kMaxAutoAngularVelocity,
+                        Drivetrain.kPlannerMaxExpansions,
+                        Drivetrain.kPlannerHeadingStep,
+                        Drivetrain.kPlannerCacheSize);
+        mPlannerWarmupMs = mPlanner.warmUp(Drivetrain.kPlannerWarmup) * 1e3;
+    }
+
+    /**
+     * Finds where to stop against the hub; on the side the robot is on, rounded to an approach
+     * angle, facing it.
+     */
+    private Pose2d getHubPose() {
+        Translation2d offset = mDrivetrain.getPose().getTranslation().minus(Drivetrain.kHubCenter);
+        double angle =
+                Math.round(Math.atan2(offset.getY(), offset.getX()) / Drivetrain.kHubApproachStep)
+                        * Drivetrain.kHubApproachStep;
+        return new Pose2d(
+                Drivetrain.kHubCenter.getX() + Drivetrain.kHubStandoff * Math.cos(angle),
+                Drivetrain.kHubCenter.getY() + Drivetrain.kHubStandoff * Math.sin(angle),
+                new Rotation2d(angle + Math.PI));
     }
 
     /** Sets up the default commands for each subsystem. */
     public void configureDefaultCommands() {
         // Takes in driver inputs and gives it to the drivetrain so it can go beep boop.
+        // Right x is inverted, left x keeps the sign it has always driven with.
+        ControllerSnapshot driver = mDriver.getSnapshot();
         mDrivetrain.setDefaultCommand(
                 new RunCommand(
                                 () ->
                                         mDrivetrain.drive(
-                                                mDriver.leftX().getVal(),
-                                                mDriver.leftY().getVal(),
-                                                mDriver.rightX().getVal()),
+                                                driver.getAxis(Axis.kLeftX.value),
+                                                driver.getAxis(Axis.kLeftY.value),
+                                                -driver.getAxis(Axis.kRightX.value),
+                                                driver.getPacketMicros(),
+                                                driver.getReadMicros()),
                                 mDrivetrain)
                         .withName("Default Drive"));
         // Just disable by default.
@@ -77,25 +379,76 @@ public class RobotContainer {
         mClimber.setDefaultCommand(new RunCommand(mClimber::disable, mClimber).withName("Disable"));
     }
 
-    /** Update Dashboard values. */
-    public void updateValues() {
-
+    /**
+     * Registers dashboard values, done once as sendables only need to be put once and the rest are
+     * sent by {@link #updateValues()}.
+     */
+    public void configureTelemetry() {
         // Auto
         SmartDashboard.putData("AutoChooser", mAutoChooser);
-        if (mAutoChooser.getSelected() != null) {
-            SmartDashboard.putString("Auto To Run", mAutoChooser.getSelected().getName());
+        mTelemetry.addString(
+                "Auto To Run",
+                () -> getSelectedAuto() != null ? getSelectedAuto().getName() : null,
+                Rate.k2Hz);
+        mTelemetry.addString(
+                "Paths Loaded",
+                () -> mTrajectoryCache.getReadyCount() + "/" + mTrajectoryCache.size(),
+                Rate.k2Hz);
+        mTelemetry.addDouble(
+                "Paths Load ms",
+                () -> mTrajectoryCache.getTotalLoadSeconds() * 1e3,
+                .01,
+                Rate.k2Hz);
+
+        // Path planner
+        if (mPlanner != null) {
+            mTelemetry.addDouble("Planner/Warm Up ms", () -> mPlannerWarmupMs, .01, Rate.k2Hz);
+            mTelemetry.addDouble("Planner/Plan ms", mPlanner::getLastPlanMillis, .01, Rate.k2Hz);
+            mTelemetry.addDouble("Planner/Cache Hits", mPlanner::getCacheHits, 1, Rate.k2Hz);
+            mTelemetry.addDouble("Planner/Cache Misses", mPlanner::getCacheMisses, 1, Rate.k2Hz);
         }
 
         // Robot Info
-        // SmartDashboard.putNumber("Heading", mDrivetrain.getHeading().getDegrees());
-        SmartDashboard.putBoolean("Is up?", mArm.getFwdLimitSwitch());
-        SmartDashboard.putBoolean("Is down?", mArm.getRevLimitSwitch());
-        SmartDashboard.putBoolean("Heading Protection?", mDrivetrain.getHeadingProtection());
-        SmartDashboard.putBoolean("Field Oriented?", mDrivetrain.getFieldOriented());
+        mTelemetry.addBoolean("Is up?", mArm::getFwdLimitSwitch, Rate.k10Hz);
+        mTelemetry.addBoolean("Is down?", mArm::getRevLimitSwitch, Rate.k10Hz);
+        mTelemetry.addBoolean(
+                "Heading Protection?", mDrivetrain::getHeadingProtection, Rate.k10Hz);
+        mTelemetry.addBoolean("Field Oriented?", mDrivetrain::getFieldOriented, Rate.k10Hz);
 
         // Drivetrain headings.
-        SmartDashboard.putNumber("Current Heading", mDrivetrain.getHeading().getDegrees());
-        SmartDashboard.putNumber("Desired Heading", mDrivetrain.getDesiredHeading().getDegrees());
+        mTelemetry.addDouble("Current Heading", mDrivetrain::getHeadingDegrees, .1, Rate.k10Hz);
+        mTelemetry.addDouble(
+                "Desired Heading",
+                () -> mDrivetrain.getDesiredHeading().getDegrees(),
+                .1,
+                Rate.k10Hz);
+
+        // Drivetrain control thread timing.
+        HighRateLoop controlLoop = mDrivetrain.getControlLoop();
+        if (controlLoop != null) {
+            mTelemetry.addBoolean("Drive Loop/Real Time?", controlLoop::isRealTime, Rate.k2Hz);
+            mTelemetry.addDouble(
+                    "Drive Loop/Jitter Mean ms", controlLoop::getJitterMeanMs, .01, Rate.k2Hz);
+            mTelemetry.addDouble(
+                    "Drive Loop/Jitter P99 ms", controlLoop::getJitterP99Ms, .01, Rate.k2Hz);
+            mTelemetry.addDouble(
+                    "Drive Loop/Jitter Max ms", controlLoop::getJitterMaxMs, .01, Rate.k2Hz);
+            mTelemetry.addDouble(
+                    "Drive Loop/Duration P99 ms", controlLoop::getDurationP99Ms, .01, Rate.k2Hz);
+            mTelemetry.addDouble(
+                    "Drive Loop/Duration Max ms", controlLoop::getDurationMaxMs, .01, Rate.k2Hz);
+        }
+
+        // Loop phase timings and hardware reads, every phase and counter is registered by now.
+        LoopProfiler.getInstance().publish(mTelemetry);
+
+        // Stick to motor latency, one set of keys per path so the two can be compared.
+        mDrivetrain.getMainLoopLatency().publish(mTelemetry);
+        mDrivetrain.getControlLatency().publish(mTelemetry);
+
+        // CAN bus, estimated from the status frame profiles and measured by the rio.
+        mCanBusReport.warnIfOverloaded(StatusFrames.kMaxEstimatedLoad);
+        mCanBusReport.publish(mTelemetry);
 
         // Subsystems
         // SmartDashboard.putData("Scheduler", CommandScheduler.getInstance());
@@ -107,9 +460,133 @@ public class RobotContainer {
 
         // Self test button
         SmartDashboard.putData("Arm Self Test", (Sendable) mArm.armSelftTest());
+    }
+
+    /**
+     * Update Dashboard values.
+     *
+     * <p>Sendables are updated by TimedRobot after robotPeriodic, so there is no need to call
+     * SmartDashboard.updateValues() here.
+     */
+    public void updateValues() {
+        mTelemetry.update();
+    }
+
+    /** Registers log channels and opens a new log file. */
+    public void configureLogging() {
+        mModeChannel = mLogger.addChannel(Logging.kMode);
+        mDriverButtonsChannel = mLogger.addChannel(Logging.kDriverButtons);
+        mDriverPOVChannel = mLogger.addChannel(Logging.kDriverPOV);
+        mOperatorButtonsChannel = mLogger.addChannel(Logging.kOperatorButtons);
+        mOperatorPOVChannel = mLogger.addChannel(Logging.kOperatorPOV);
+        mDriverLeftXChannel = mLogger.addChannel(Logging.kDriverLeftX);
+        mDriverLeftYChannel = mLogger.addChannel(Logging.kDriverLeftY);
+        mDriverRightXChannel = mLogger.addChannel(Logging.kDriverRightX);
+        mHeadingChannel = mLogger.addChannel(Logging.kHeading);
+        mFlVelocityChannel = mLogger.addChannel(Logging.kFlVelocity);
+        mRlVelocityChannel = mLogger.addChannel(Logging.kRlVelocity);
+        mFrVelocityChannel = mLogger.addChannel(Logging.kFrVelocity);
+        mRrVelocityChannel = mLogger.addChannel(Logging.kRrVelocity);
+        mFlOutputChannel = mLogger.addChannel(Logging.kFlOutput);
+        mRlOutputChannel = mLogger.addChannel(Logging.kRlOutput);
+        mFrOutputChannel = mLogger.addChannel(Logging.kFrOutput);
+        mRrOutputChannel = mLogger.addChannel(Logging.kRrOutput);
+        mArmUpChannel = mLogger.addChannel(Logging.kArmUp);
+        mArmDownChannel = mLogger.addChannel(Logging.kArmDown);
+        mArmOutputChannel = mLogger.addChannel(Logging.kArmOutput);
+        mIntakeOutputChannel = mLogger.addChannel(Logging.kIntakeOutput);
+        mClimberOutputChannel = mLogger.addChannel(Logging.kClimberOutput);
+
+        String directory;
+        if (Robot.isSimulation()) {
+            directory = Logging.kSimDirectory;
+        } else if (new File(Logging.kUsbDirectory).getParentFile().isDirectory()) {
+            directory = Logging.kUsbDirectory;
+            BinaryLogger.deleteOldest(new File(directory), Logging.kUsbMaxBytes);
+        } else {
+            directory = Logging.kRioDirectory;
+            BinaryLogger.deleteOldest(new File(directory), Logging.kRioMaxBytes);
+            long free = new File(directory).getParentFile().getUsableSpace();
+            if (free < Logging.kRioMinFreeBytes) {
+                DriverStation.reportWarning(
+                        "Only " + free / (1024 * 1024) + "MB free on the rio, not logging", false);
+                return;
+            }
+        }
+        mLogDirectory = directory;
+        mBootNumber = LogFiles.nextBootNumber(new File(directory));
+        try {
+            mLogger.open(LogFiles.unusedFile(new File(directory), mBootNumber, "", ".tblog"));
+        } catch (IOException e) {
+            // Don't crash the robot over a log.
+            DriverStation.reportWarning("Could not open log: " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Writes the command trace next to the match logs in the background, if any commands ran since
+     * the last. Named after this boot's log, ie: 00042_Q12_1.trace.csv, with the match when the FMS
+     * is attached.
+     */
+    public void writeCommandTrace() {
+        if (mLogDirectory == null || !mCommandTracer.hasNewEvents()) {
+            return;
+        }
+        String tag = "_";
+        if (DriverStation.getMatchType() != DriverStation.MatchType.None) {
+            tag += DriverStation.getMatchType().name().charAt(0);
+            tag += DriverStation.getMatchNumber() + "_";
+        }
+        tag += ++mTraceCount;
+        boolean started =
+                mCommandTracer.writeInBackground(
+                        LogFiles.unusedFile(
+                                new File(mLogDirectory), mBootNumber, tag, ".trace.csv"),
+                        e ->
+                                DriverStation.reportWarning(
+                                        "Could not write command trace: " + e.getMessage(),
+                                        false));
+        if (!started) {
+            DriverStation.reportWarning("Still writing the last command trace, skipped one", false);
+        }
+    }
+
+    /** Writes this loop's record to the log, should be called after the scheduler runs. */
+    public void logValues() {
+        int mode = 0;
+        if (DriverStation.isEnabled()) {
+            mode = DriverStation.isAutonomous() ? 1 : DriverStation.isTeleop() ? 2 : 3;
+        }
+        mLogger.set(mModeChannel, mode);
+        // Raw controller values, as the scheduler read them this loop; replay feeds them back.
+        ControllerSnapshot driver = mDriver.getSnapshot();
+        ControllerSnapshot operator = mOperator.getSnapshot();
+        mLogger.set(mDriverButtonsChannel, driver.getButtons());
+        mLogger.set(mDriverPOVChannel, driver.getPOV());
+        mLogger.set(mOperatorButtonsChannel, operator.getButtons());
+        mLogger.set(mOperatorPOVChannel, operator.getPOV());
+        mLogger.set(mDriverLeftXChannel, driver.getAxis(Axis.kLeftX.value));
+        mLogger.set(mDriverLeftYChannel, driver.getAxis(Axis.kLeftY.value));
+        mLogger.set(mDriverRightXChannel, driver.getAxis(Axis.kRightX.value));
+
+        mLogger.set(mHeadingChannel, mDrivetrain.getHeadingDegrees());
+        mLogger.set(mFlVelocityChannel, mDrivetrain.getFlVelocity());
+        mLogger.set(mRlVelocityChannel, mDrivetrain.getRlVelocity());
+        mLogger.set(mFrVelocityChannel, mDrivetrain.getFrVelocity());
+        mLogger.set(mRrVelocityChannel, mDrivetrain.getRrVelocity());
+        WheelSpeeds outputs = mDrivetrain.getCommandedSpeeds();
+        mLogger.set(mFlOutputChannel, outputs.frontLeft);
+        mLogger.set(mRlOutputChannel, outputs.rearLeft);
+        mLogger.set(mFrOutputChannel, outputs.frontRight);
+        mLogger.set(mRrOutputChannel, outputs.rearRight);
+
+        mLogger.set(mArmUpChannel, mArm.isUp());
+        mLogger.set(mArmDownChannel, mArm.isDown());
+        mLogger.set(mArmOutputChannel, mArm.getOutput());
+        mLogger.set(mIntakeOutputChannel, mIntake.getOutput());
+        mLogger.set(mClimberOutputChannel, mClimber.getOutput());
 
-        // Puts all sendable data to the dashboard.
-        SmartDashboard.updateValues();
+        mLogger.commit(RobotController.getFPGATime());
     }
 
     public void configureAutoChooser() {
@@ -121,6 +598,16 @@ public class RobotContainer {
                 "Reverse Out Of Tarmac", new ExitTarmacCmd(mDrivetrain, mArm, mIntake));
     }
 
+    /** @return The drivetrain. */
+    public DrivetrainSubsys getDrivetrain() {
+        return mDrivetrain;
+    }
+
+    /** @return Every deployed path, as they load. */
+    public TrajectoryCache getTrajectoryCache() {
+        return mTrajectoryCache;
+    }
+
     /** @return The currently selected auto command. */
     public Command getSelectedAuto() {
         return mAutoChooser.getSelected();
@@ -136,75 +623,90 @@ public class RobotContainer {
          * however if the "front" of the robot was facing another direction, it will now treat that
          * direction as forward; skewing the controls.
          */
-        mDriver.y().whenPressed(new InstantCommand(() -> mDrivetrain.resetGyro()));
+        ControllerSnapshot driver = mDriver.getSnapshot();
+        driver.whenPressed(Button.kY.value, new InstantCommand(() -> mDrivetrain.resetGyro()));
 
         // Toggle field oriented.
-        mDriver.rb()
-                .whenPressed(
-                        new InstantCommand(
-                                () ->
-                                        mDrivetrain.setFieldOriented(
-                                                !mDrivetrain.getFieldOriented())));
+        driver.whenPressed(
+                Button.kRB.value,
+                new InstantCommand(
+                        () -> mDrivetrain.setFieldOriented(!mDrivetrain.getFieldOriented())));
 
         // Toggle heading protection.
-        mDriver.lb()
-                .whenPressed(
-                        new InstantCommand(
-                                () ->
-                                        mDrivetrain.setHeadingProtection(
-                                                !mDrivetrain.getHeadingProtection())));
+        driver.whenPressed(
+                Button.kLB.value,
+                new InstantCommand(
+                        () ->
+                                mDrivetrain.setHeadingProtection(
+                                        !mDrivetrain.getHeadingProtection())));
+
+        // Drive up to the hub while held, planned around it from wherever we are. Only plans once
+        // the pose is on the field, after an auto that resets it or a vision fix; until then, or
+        // if there's no way there, it stops the drivetrain until A is released.
+        if (mPlanner != null) {
+            driver.whileHeld(
+                    Button.kA.value,
+                    new DriveToPoseCmd(mDrivetrain, mPlanner, this::getHubPose, "Drive To Hub"));
+        }
     }
 
     /** Configure buttons for the operator. */
     public void configureOperatorButtons() {
+        ControllerSnapshot operator = mOperator.getSnapshot();
 
-        mOperator
-                .rb()
-                .whenPressed(new RunCommand(mIntake::eject, mIntake).withName("Eject"))
-                .whenReleased(new InstantCommand(mIntake::disable, mIntake).withName("Disable"));
-
-        mOperator
-                .lb()
-                .whenPressed(new RunCommand(mIntake::intake, mIntake).withName("Intake"))
-                .whenReleased(new InstantCommand(mIntake::disable, mIntake).withName("Disable"));
-
-        mOperator
-                .pov
-                .down()
-                .whenPressed(
-                        new SequentialCommandGroup(
-                                        new ParallelRaceGroup(
-                                                new RunCommand(mArm::lower, mArm),
-                                                new WaitUntilCommand(mArm::isDown),
-                                                new WaitCommand(2)),
-                                        new RunCommand(mArm::disable, mArm))
-                                .withName("Lower Arm Safely"),
-                        true);
+        operator.whenPressed(
+                        Button.kRB.value, new RunCommand(mIntake::eject, mIntake).withName("Eject"))
+                .whenReleased(
+                        Button.kRB.value,
+                        new InstantCommand(mIntake::disable, mIntake).withName("Disable"));
 
-        mOperator
-                .pov
-                .up()
-                .whenPressed(
-                        new SequentialCommandGroup(
-                                        new ParallelRaceGroup(
-                                                new RunCommand(mArm::raise, mArm),
-                                                new WaitUntilCommand(mArm::isUp),
-                                                new WaitCommand(2)),
-                                        new RunCommand(
-                                                mArm::holdUp,
-                                                mArm)) // keeps the arm from falling down.
-                                .withName("Raise Arm Safely"),
-                        true);
+        operator.whenPressed(
+                        Button.kLB.value,
+                        new RunCommand(mIntake::intake, mIntake).withName("Intake"))
+                .whenReleased(
+                        Button.kLB.value,
+                        new InstantCommand(mIntake::disable, mIntake).withName("Disable"));
 
-        mOperator
-                .a()
-                .whileHeld(new RunCommand(mClimber::winch).withTimeout(3).withName("Winch"), true)
-                .whenReleased(new RunCommand(mClimber::disable).withName("Disable"), true);
+        operator.whenPOV(
+                180,
+                new SequentialCommandGroup(
+                                new ParallelRaceGroup(
+                                        new RunCommand(mArm::lower, mArm),
+                                        new WaitUntilCommand(mArm::isDown),
+                                        new WaitCommand(2)),
+                                new RunCommand(mArm::disable, mArm))
+                        .withName("Lower Arm Safely"),
+                true);
 
-        mOperator
-                .y()
-                .whileHeld(new RunCommand(mClimber::rappel).withTimeout(3).withName("Rappel"), true)
-                .whenReleased(new RunCommand(mClimber::disable).withName("Disable"), true);
+        operator.whenPOV(
+                0,
+                new SequentialCommandGroup(
+                                new ParallelRaceGroup(
+                                        new RunCommand(mArm::raise, mArm),
+                                        new WaitUntilCommand(mArm::isUp),
+                                        new WaitCommand(2)),
+                                new RunCommand(
+                                        mArm::holdUp, mArm)) // keeps the arm from falling down.
+                        .withName("Raise Arm Safely"),
+                true);
+
+        operator.whileHeld(
+                        Button.kA.value,
+                        new RunCommand(mClimber::winch).withTimeout(3).withName("Winch"),
+                        true)
+                .whenReleased(
+                        Button.kA.value,
+                        new RunCommand(mClimber::disable).withName("Disable"),
+                        true);
+
+        operator.whileHeld(
+                        Button.kY.value,
+                        new RunCommand(mClimber::rappel).withTimeout(3).withName("Rappel"),
+                        true)
+                .whenReleased(
+                        Button.kY.value,
+                        new RunCommand(mClimber::disable).withName("Disable"),
+                        true);
     }
 
     public void configureCameras() {
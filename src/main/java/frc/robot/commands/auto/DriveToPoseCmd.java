@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.commands.auto;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.subsystems.DrivetrainSubsys;
+import frc.tigerlib.planning.TrajectoryPlanner;
+import java.util.function.Supplier;
+
+/**
+ * Drives to a pose, around the field's obstacles, on a trajectory planned from wherever the robot
+ * is when the command starts.
+ *
+ * <p>Only plans once the drivetrain is {@link DrivetrainSubsys#isLocalized() localized}, since a
+ * pose that isn't on the field would drive it into whatever is really there. If it isn't, or
+ * there's no way there, the command holds the drivetrain stopped until it is cancelled; so a held
+ * button doesn't restart it, and search again, every loop.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class DriveToPoseCmd extends FollowTrajectoryCmd {
+
+    private final DrivetrainSubsys mDrivetrain;
+
+    /**
+     * Constructs a DriveToPoseCmd.
+     *
+     * @param drivetrain The drivetrain.
+     * @param planner Plans the trajectory, in the command's initialize.
+     * @param goal Gives the pose to drive to when the command starts.
+     * @param name The command's name, for the dashboard and warnings.
+     */
+    public DriveToPoseCmd(
+            DrivetrainSubsys drivetrain,
+            TrajectoryPlanner planner,
+            Supplier<Pose2d> goal,
+            String name) {
+        super(
+                drivetrain,
+                () ->
+                        drivetrain.isLocalized()
+                                ? planner.plan(drivetrain.getPose(), goal.get())
+                                : null,
+                name,
+                false);
+        mDrivetrain = drivetrain;
+        setName(name);
+    }
+
+    @Override
+    protected void reportNoTrajectory() {
+        DriverStation.reportWarning(
+                getName()
+                        + (mDrivetrain.isLocalized()
+                                ? " found no way there"
+                                : " needs the pose reset or a vision fix first"),
+                false);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return hasTrajectory() && super.isFinished();
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.commands.auto;
+
+import static frc.robot.Constants.Drivetrain.kFrontLeftOffset;
+import static frc.robot.Constants.Drivetrain.kMaxWheelSpeedMPS;
+import static frc.robot.Constants.Drivetrain.kThetaPID;
+import static frc.robot.Constants.Drivetrain.kXPID;
+import static frc.robot.Constants.Drivetrain.kYPID;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.DrivetrainSubsys;
+import frc.tigerlib.control.HolonomicFollower;
+import frc.tigerlib.telemetry.AsyncTelemetry;
+import frc.tigerlib.trajectory.SampledTrajectory;
+import frc.tigerlib.trajectory.TrajectoryCache;
+import java.util.function.Supplier;
+
+/**
+ * Follows a trajectory with closed loop wheel velocities, correcting with odometry.
+ *
+ * <p>The trajectory is found when the command starts, so it can come from a {@link
+ * TrajectoryCache} that is still loading. If it isn't ready the command ends straight away, rather
+ * than waiting on the file.
+ *
+ * <p>Tracking error is pushed to telemetry every loop, and the worst of the run is kept for {@link
+ * #getMaxError()}.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class FollowTrajectoryCmd extends CommandBase {
+
+    private final DrivetrainSubsys mDrivetrain;
+    private final Supplier<SampledTrajectory> mTrajectory;
+    private final String mTrajectoryName;
+    private final boolean mResetPose;
+    // Copies of the gains, so the controllers aren't shared between trajectories. The theta gains
+    // are used without their motion profile, the trajectory already is one.
+    private final PIDController mXPID =
+            new PIDController(kXPID.getP(), kXPID.getI(), kXPID.getD());
+    private final PIDController mYPID =
+            new PIDController(kYPID.getP(), kYPID.getI(), kYPID.getD());
+    private final PIDController mThetaPID =
+            new PIDController(kThetaPID.getP(), kThetaPID.getI(), kThetaPID.getD());
+    // Made when the command starts, null if the trajectory wasn't ready.
+    private HolonomicFollower mFollower;
+    private final MecanumDriveWheelSpeeds mSpeeds = new MecanumDriveWheelSpeeds();
+    private final Timer mTimer = new Timer();
+    private double mMaxError = 0;
+
+    // Telemetry channels, shared by every trajectory.
+    private final AsyncTelemetry mTelemetry = AsyncTelemetry.getInstance();
+    private final int mErrorChannel = mTelemetry.addChannel("Trajectory/Error");
+    private final int mHeadingErrorChannel = mTelemetry.addChannel("Trajectory/Heading Error");
+
+    /**
+     * Constructs a FollowTrajectoryCmd.
+     *
+     * @param drivetrain The drivetrain.
+     * @param trajectory Gives the trajectory to follow when the command starts, or null if it
+     *     isn't ready. Must not block.
+     * @param trajectoryName The trajectory's name, for warnings.
+     * @param resetPose Whether to tell odometry the robot is at the trajectory's start first.
+     */
+    public FollowTrajectoryCmd(
+            DrivetrainSubsys drivetrain,
+            Supplier<SampledTrajectory> trajectory,
+            String trajectoryName,
+            boolean resetPose) {
+        mDrivetrain = drivetrain;
+        mTrajectory = trajectory;
+        mTrajectoryName = trajectoryName;
+        mResetPose = resetPose;
+        addRequirements(mDrivetrain);
+    }
+
+    /**
+     * Constructs a FollowTrajectoryCmd for a trajectory in a cache.
+     *
+     * @param drivetrain The drivetrain.
+     * @param cache The cache, the trajectory is taken from it when the command starts.
+     * @param trajectoryName The trajectory's name in the cache.
+     * @param resetPose Whether to tell odometry the robot is at the trajectory's start first.
+     */
+    public FollowTrajectoryCmd(
+            DrivetrainSubsys drivetrain,
+            TrajectoryCache cache,
+            String trajectoryName,
+            boolean resetPose) {
+        this(drivetrain, () -> cache.get(trajectoryName), trajectoryName, resetPose);
+    }
+
+    /**
+     * Constructs a FollowTrajectoryCmd.
+     *
+     * @param drivetrain The drivetrain.
+     * @param trajectory The trajectory to follow.
+     * @param resetPose Whether to tell odometry the robot is at the trajectory's start first.
+     */
+    public FollowTrajectoryCmd(
+            DrivetrainSubsys drivetrain, SampledTrajectory trajectory, boolean resetPose) {
+        this(drivetrain, () -> trajectory, "Trajectory", resetPose);
+    }
+
+    /**
+     * Constructs a FollowTrajectoryCmd for a PathPlanner trajectory.
+     *
+     * @param drivetrain The drivetrain.
+     * @param trajectory The trajectory to follow, made for a holonomic drivetrain.
+     * @param resetPose Whether to tell odometry the robot is at the trajectory's start first.
+     */
+    public FollowTrajectoryCmd(
+            DrivetrainSubsys drivetrain, PathPlannerTrajectory trajectory, boolean resetPose) {
+        this(drivetrain, SampledTrajectory.fromPathPlanner(trajectory), resetPose);
+    }
+
+    @Override
+    public void initialize() {
+        SampledTrajectory trajectory = mTrajectory.get();
+        if (trajectory == null) {
+            mFollower = null;
+            mDrivetrain.disable();
+            reportNoTrajectory();
+            return;
+        }
+        mFollower =
+                new HolonomicFollower(
+                        trajectory,
+                        mXPID,
+                        mYPID,
+                        mThetaPID,
+                        kFrontLeftOffset.getX() + kFrontLeftOffset.getY(),
+                        kMaxWheelSpeedMPS);
+        if (mResetPose) {
+            mDrivetrain.resetOdometry(trajectory.getInitialPose());
+        }
+        mFollower.reset();
+        mMaxError = 0;
+        mTimer.reset();
+        mTimer.start();
+    }
+
+    @Override
+    public void execute() {
+        if (mFollower == null) {
+            return;
+        }
+        Pose2d pose = mDrivetrain.getPose();
+        mFollower.calculate(
+                mTimer.get(),
+                pose.getX(),
+                pose.getY(),
+                pose.getRotation().getRadians(),
+                mSpeeds);
+        mDrivetrain.setSpeeds(mSpeeds);
+
+        double error = mFollower.getPositionError();
+        mMaxError = Math.max(mMaxError, error);
+        mTelemetry.push(mErrorChannel, error);
+        mTelemetry.push(mHeadingErrorChannel, Math.toDegrees(mFollower.getHeadingError()));
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mFollower == null || mFollower.isFinished(mTimer.get());
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        mTimer.stop();
+        mDrivetrain.disable();
+    }
+
+    /** Warns that there was no trajectory when the command started. */
+    protected void reportNoTrajectory() {
+        DriverStation.reportWarning(mTrajectoryName + " has no trajectory, skipping it", false);
+    }
+
+    /** @return Whether there was a trajectory when the command started. */
+    protected boolean hasTrajectory() {
+        return mFollower != null;
+    }
+
+    /** @return The farthest the robot has been from the trajectory this run, meters. */
+    public double getMaxError() {
+        return mMaxError;
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.replay;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.drive.MecanumDrive.WheelSpeeds;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Constants.Logging;
+import frc.robot.Robot;
+import frc.robot.RobotContainer;
+import frc.robot.subsystems.DrivetrainSubsys;
+import frc.tigerlib.input.controller.XboxController.Axis;
+import frc.tigerlib.logging.BinaryLogReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Feeds a recorded match back into the robot code in simulation, as fast as the CPU allows, and
+ * compares the drivetrain outputs against the ones recorded.
+ *
+ * <p>Each record sets the simulated driver station (mode, axes, buttons, POV), points the replay
+ * IO layers at the record so subsystems read the recorded sensors, steps the simulated clock by the
+ * recorded loop time, then runs {@link Robot#robotPeriodic()}. Because the clock is stepped, slew
+ * rate limiters and wait commands behave as they did in the match.
+ *
+ * <p>Run with: {@code REPLAY_LOG=logs/00042.tblog ./gradlew simulateJava}
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class LogReplay {
+
+    /** Environment variable holding the path of the log to replay. */
+    public static final String kEnvironmentVariable = "REPLAY_LOG";
+
+    // Ports match RobotContainer.
+    private static final int kDriverPort = 0;
+    private static final int kOperatorPort = 1;
+    // Outputs further apart than this are reported as diverged.
+    private static final double kTolerance = 1e-3;
+    // How long to wait for the driver station thread to pick up new inputs.
+    private static final long kInputTimeoutNanos = 100_000_000;
+
+    private final Robot mRobot;
+    private final DrivetrainSubsys mDrivetrain;
+    private final ReplaySource mSource;
+    private final BinaryLogReader mLog;
+    private final File mLogFile;
+
+    private final int mModeChannel;
+    private final int mDriverButtonsChannel;
+    private final int mDriverPOVChannel;
+    private final int mOperatorButtonsChannel;
+    private final int mOperatorPOVChannel;
+    private final int mLeftXChannel;
+    private final int mLeftYChannel;
+    private final int mRightXChannel;
+    private final int[] mOutputChannels;
+
+    /**
+     * Constructs a LogReplay.
+     *
+     * @param robot The robot to run.
+     * @param container The robot's container, built on the replay IO layers.
+     * @param source The log to replay, shared with the replay IO layers.
+     * @throws IOException If the log is missing channels.
+     */
+    public LogReplay(Robot robot, RobotContainer container, ReplaySource source)
+            throws IOException {
+        mRobot = robot;
+        mDrivetrain = container.getDrivetrain();
+        mSource = source;
+        mLogFile = source.getFile();
+        mLog = source.getLog();
+
+        mModeChannel = channel(Logging.kMode);
+        mDriverButtonsChannel = channel(Logging.kDriverButtons);
+        mDriverPOVChannel = channel(Logging.kDriverPOV);
+        mOperatorButtonsChannel = channel(Logging.kOperatorButtons);
+        mOperatorPOVChannel = channel(Logging.kOperatorPOV);
+        mLeftXChannel = channel(Logging.kDriverLeftX);
+        mLeftYChannel = channel(Logging.kDriverLeftY);
+        mRightXChannel = channel(Logging.kDriverRightX);
+        mOutputChannels =
+                new int[] {
+                    channel(Logging.kFlOutput),
+                    channel(Logging.kRlOutput),
+                    channel(Logging.kFrOutput),
+                    channel(Logging.kRrOutput)
+                };
+    }
+
+    private int channel(String name) throws IOException {
+        int channel = mLog.findChannel(name);
+        if (channel < 0) {
+            throw new IOException("Log is missing channel \"" + name + "\"");
+        }
+        return channel;
+    }
+
+    /**
+     * Replays the whole log, writes a CSV of recorded vs replayed outputs next to the log, and
+     * prints a summary.
+     *
+     * @throws IOException If the report could not be written.
+     */
+    public void run() throws IOException {
+        int records = mLog.getRecordCount();
+        if (records == 0) {
+            System.out.println("Replay: log is empty.");
+            return;
+        }
+
+        File reportFile = new File(mLogFile.getPath().replace(".tblog", "") + "_replay.csv");
+        double[] maxError = new double[4];
+        double[] sumSqError = new double[4];
+        int firstDivergence = -1;
+
+        SimHooks.pauseTiming();
+        setupJoysticks(kDriverPort);
+        setupJoysticks(kOperatorPort);
+        DriverStationSim.setDsAttached(true);
+
+        long startNanos = System.nanoTime();
+        try (PrintStream report = new PrintStream(reportFile)) {
+            report.println(
+                    "timestamp,fl log,rl log,fr log,rr log,"
+                            + "fl replay,rl replay,fr replay,rr replay");
+
+            int lastMode = -1;
+            long lastTimestamp = mLog.getTimestamp(0);
+            for (int r = 0; r < records; r++) {
+                long timestamp = mLog.getTimestamp(r);
+                if (r > 0) {
+                    SimHooks.stepTiming((timestamp - lastTimestamp) / 1e6);
+                }
+                lastTimestamp = timestamp;
+
+                int mode = (int) mLog.getValue(r, mModeChannel);
+                setInputs(r, mode);
+                if (mode != lastMode) {
+                    changeMode(mode);
+                    lastMode = mode;
+                }
+
+                mRobot.robotPeriodic();
+
+                WheelSpeeds replayed = mDrivetrain.getCommandedSpeeds();
+                double[] outputs = {
+                    replayed.frontLeft, replayed.rearLeft, replayed.frontRight, replayed.rearRight
+                };
+                report.print(timestamp);
+                for (int w = 0; w < 4; w++) {
+                    report.print(',');
+                    report.print(mLog.getValue(r, mOutputChannels[w]));
+                }
+                for (int w = 0; w < 4; w++) {
+                    double error = Math.abs(outputs[w] - mLog.getValue(r, mOutputChannels[w]));
+                    maxError[w] = Math.max(maxError[w], error);
+                    sumSqError[w] += error * error;
+                    if (error > kTolerance && firstDivergence < 0) {
+                        firstDivergence = r;
+                    }
+                    report.print(',');
+                    report.print(outputs[w]);
+                }
+                report.println();
+            }
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        double matchSeconds = (mLog.getTimestamp(records - 1) - mLog.getTimestamp(0)) / 1e6;
+
+        System.out.printf(
+                "Replayed %d records (%.1fs of match) in %.2fs%n", records, matchSeconds, seconds);
+        String[] wheels = {"FL", "RL", "FR", "RR"};
+        for (int w = 0; w < 4; w++) {
+            System.out.printf(
+                    "  %s output: max error %.5f, rms error %.5f%n",
+                    wheels[w], maxError[w], Math.sqrt(sumSqError[w] / records));
+        }
+        if (firstDivergence >= 0) {
+            System.out.printf(
+                    "  First diverged at record %d, %.3fs into the log%n",
+                    firstDivergence,
+                    (mLog.getTimestamp(firstDivergence) - mLog.getTimestamp(0)) / 1e6);
+        } else {
+            System.out.println("  Outputs match the log.");
+        }
+        System.out.println("  Report written to " + reportFile);
+    }
+
+    private void setupJoysticks(int port) {
+        DriverStationSim.setJoystickAxisCount(port, Axis.values().length);
+        DriverStationSim.setJoystickButtonCount(port, 10);
+        DriverStationSim.setJoystickPOVCount(port, 1);
+    }
+
+    /** Sets the simulated driver station and replay sensors to the values in the given record. */
+    private void setInputs(int r, int mode) {
+        mSource.setRecord(r);
+
+        DriverStationSim.setEnabled(mode != 0);
+        DriverStationSim.setAutonomous(mode == 1);
+        DriverStationSim.setTest(mode == 3);
+
+        int driverButtons = (int) mLog.getValue(r, mDriverButtonsChannel);
+        int operatorButtons = (int) mLog.getValue(r, mOperatorButtonsChannel);
+        double leftX = mLog.getValue(r, mLeftXChannel);
+        double leftY = mLog.getValue(r, mLeftYChannel);
+        double rightX = mLog.getValue(r, mRightXChannel);
+
+        DriverStationSim.setJoystickButtons(kDriverPort, driverButtons);
+        DriverStationSim.setJoystickPOV(kDriverPort, 0, (int) mLog.getValue(r, mDriverPOVChannel));
+        DriverStationSim.setJoystickButtons(kOperatorPort, operatorButtons);
+        DriverStationSim.setJoystickPOV(
+                kOperatorPort, 0, (int) mLog.getValue(r, mOperatorPOVChannel));
+        DriverStationSim.setJoystickAxis(kDriverPort, Axis.kLeftX.value, leftX);
+        DriverStationSim.setJoystickAxis(kDriverPort, Axis.kLeftY.value, leftY);
+        DriverStationSim.setJoystickAxis(kDriverPort, Axis.kRightX.value, rightX);
+        DriverStationSim.notifyNewData();
+
+        // The driver station caches are updated on their own thread, wait for them to catch up so
+        // this loop sees this record's inputs.
+        long deadline = System.nanoTime() + kInputTimeoutNanos;
+        while (System.nanoTime() < deadline
+                && !(DriverStation.isEnabled() == (mode != 0)
+                        && DriverStation.getStickButtons(kDriverPort) == driverButtons
+                        && DriverStation.getStickButtons(kOperatorPort) == operatorButtons
+                        && axisIs(Axis.kLeftX, leftX)
+                        && axisIs(Axis.kLeftY, leftY)
+                        && axisIs(Axis.kRightX, rightX))) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Axes go through the HAL as floats, so they don't come back exactly. */
+    private static boolean axisIs(Axis axis, double value) {
+        return Math.abs(DriverStation.getStickAxis(kDriverPort, axis.value) - value) < 1e-6;
+    }
+
+    /** Runs the robot's mode init, as TimedRobot would on a mode change. */
+    private void changeMode(int mode) {
+        switch (mode) {
+            case 0:
+                mRobot.disabledInit();
+                break;
+            case 1:
+                mRobot.autonomousInit();
+                break;
+            case 2:
+                mRobot.teleopInit();
+                break;
+            default:
+                mRobot.testInit();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.replay;
+
+import frc.tigerlib.logging.BinaryLogReader;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A match log being replayed, and which record of it is current. Shared by the replay IO classes so
+ * they all read the same loop.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class ReplaySource {
+
+    private final File mLogFile;
+    private final BinaryLogReader mLog;
+    private int mRecord = 0;
+
+    /**
+     * Constructs a ReplaySource.
+     *
+     * @param logFile The log to replay.
+     * @throws IOException If the log could not be read.
+     */
+    public ReplaySource(File logFile) throws IOException {
+        mLogFile = logFile;
+        mLog = new BinaryLogReader(logFile);
+    }
+
+    /** @return The file the log was read from. */
+    public File getFile() {
+        return mLogFile;
+    }
+
+    /** @return The log being replayed. */
+    public BinaryLogReader getLog() {
+        return mLog;
+    }
+
+    /**
+     * Finds a channel by name.
+     *
+     * @param name The name of the channel.
+     * @return The channel id.
+     * @throws IllegalArgumentException If the log does not have the channel.
+     */
+    public int channel(String name) {
+        int channel = mLog.findChannel(name);
+        if (channel < 0) {
+            throw new IllegalArgumentException("Log is missing channel \"" + name + "\"");
+        }
+        return channel;
+    }
+
+    /** Sets the current record. */
+    public void setRecord(int record) {
+        mRecord = record;
+    }
+
+    /** @return The current record. */
+    public int getRecord() {
+        return mRecord;
+    }
+
+    /** @return The timestamp of the current record, microseconds. */
+    public long getTimestamp() {
+        return mLog.getTimestamp(mRecord);
+    }
+
+    /** @return The value of a channel in the current record. */
+    public double get(int channel) {
+        return mLog.getValue(mRecord, channel);
+    }
+}
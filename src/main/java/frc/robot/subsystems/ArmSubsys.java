@@ -4,15 +4,10 @@
  */
 package frc.robot.subsystems;
 
-import static frc.robot.Constants.Arm.kId;
 import static frc.robot.Constants.Arm.kLedLength;
 import static frc.robot.Constants.Arm.kNumGradients;
 import static frc.robot.Constants.Arm.kSpeed;
 
-import com.ctre.phoenix.motorcontrol.FeedbackDevice;
-import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
-import edu.wpi.first.wpilibj.AddressableLED;
 import edu.wpi.first.wpilibj.AddressableLEDBuffer;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotState;
@@ -23,6 +18,10 @@ import edu.wpi.first.wpilibj2.command.RunCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
+import frc.robot.subsystems.io.ArmIO;
+import frc.tigerlib.can.MatchMode;
+import frc.tigerlib.profiling.LoopProfiler;
+import frc.tigerlib.telemetry.AsyncTelemetry;
 
 /**
  * Controls the arm of the robot. Forward motor direction results in arm moving up.
@@ -31,78 +30,102 @@ import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
  */
 public class ArmSubsys extends SubsystemBase {
 
-    // Motor controller for arm.
-    final WPI_TalonSRX mArm = new WPI_TalonSRX(kId);
+    // The hardware, and what was read from it this loop.
+    final ArmIO mIO;
+    final ArmIO.Inputs mInputs = new ArmIO.Inputs();
+    // The mode the status frames were last set for.
+    MatchMode mMode;
 
-    // LEDs to display arm positions.
-    final AddressableLED mLeds = new AddressableLED(0);
+    // Position of the wave the LEDs display when disabled.
     int mLedIndex = 0;
 
-    public ArmSubsys() {
-        // Setup encoder.
-        mArm.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Absolute, 0, 10);
-        // Set brake mode to help arm hold positions.
-        mArm.setNeutralMode(NeutralMode.Brake);
-        // Invert arm so that positive motor voltage results in arm moving up.
-        mArm.setInverted(true);
-
-        // Setup LEDs.
-        mLeds.setLength(kLedLength);
-        mLeds.start();
+    // Times periodic, the LEDs are not free.
+    final int mProfilerPhase = LoopProfiler.getInstance().register("Arm Periodic");
+
+    // Telemetry channels.
+    final AsyncTelemetry mTelemetry = AsyncTelemetry.getInstance();
+    final int mUpChannel = mTelemetry.addChannel("Arm/Is Up");
+    final int mDownChannel = mTelemetry.addChannel("Arm/Is Down");
+    final int mOutputChannel = mTelemetry.addChannel("Arm/Output");
+
+    /**
+     * Constructs the arm.
+     *
+     * @param io The arm's hardware.
+     */
+    public ArmSubsys(ArmIO io) {
+        mIO = io;
     }
 
     /** Disables motor output. */
     public void disable() {
-        mArm.stopMotor();
+        mIO.disable();
     }
 
     /** Raises the arm up. */
     public void raise() {
-        mArm.set(1 * kSpeed);
+        mIO.setOutput(1 * kSpeed);
     }
 
     /** Lowers the arm down. */
     public void lower() {
-        mArm.set(-1 * kSpeed);
+        mIO.setOutput(-1 * kSpeed);
     }
 
     /** Applies a small amount of power to the arm, but enough to keep it up. */
     public void holdUp() {
-        mArm.set(.1);
+        mIO.setOutput(.1);
     }
 
     /** Gets the forward (up) limit switch's (normally open) state. */
-    public Boolean getFwdLimitSwitch() {
-        return mArm.getSensorCollection().isFwdLimitSwitchClosed();
+    public boolean getFwdLimitSwitch() {
+        return mInputs.fwdLimitSwitch;
     }
 
     /** Gets the reverse (down) limit switch's (normally closed) state. */
-    public Boolean getRevLimitSwitch() {
-        return mArm.getSensorCollection().isRevLimitSwitchClosed();
+    public boolean getRevLimitSwitch() {
+        return mInputs.revLimitSwitch;
+    }
+
+    /** @return The current output of the arm motor, [-1, 1]. */
+    public double getOutput() {
+        return mInputs.output;
     }
 
     /** @return if the arm is up. */
-    public Boolean isUp() {
+    public boolean isUp() {
         return getFwdLimitSwitch();
     }
 
     /** @return if the arm is not up. */
-    public Boolean isNotUp() {
+    public boolean isNotUp() {
         return !getFwdLimitSwitch();
     }
 
     /** @return if the arm is down. */
-    public Boolean isDown() {
+    public boolean isDown() {
         return getRevLimitSwitch();
     }
 
     /** @return if the arm is not down. */
-    public Boolean isNotDown() {
+    public boolean isNotDown() {
         return !getRevLimitSwitch();
     }
 
     @Override
     public void periodic() {
+        long start = LoopProfiler.getInstance().start();
+
+        // Read all the sensors once, everything else uses these values.
+        mIO.updateInputs(mInputs);
+
+        // Only send the status frames this part of the match needs.
+        MatchMode mode = MatchMode.current();
+        if (mode != mMode) {
+            mIO.applyStatusFrames(mode);
+            mMode = mode;
+        }
+
         // Create a new data packet for the LEDs.
         AddressableLEDBuffer b = new AddressableLEDBuffer(kLedLength);
 
@@ -156,7 +179,13 @@ public class ArmSubsys extends SubsystemBase {
                 }
             }
         }
-        mLeds.setData(b);
+        mIO.setLeds(b);
+
+        mTelemetry.push(mUpChannel, isUp());
+        mTelemetry.push(mDownChannel, isDown());
+        mTelemetry.push(mOutputChannel, mInputs.output);
+
+        LoopProfiler.getInstance().stop(mProfilerPhase, start);
     }
 
     /**
@@ -168,13 +197,13 @@ public class ArmSubsys extends SubsystemBase {
      */
     public Command armSelftTest() {
         return new SequentialCommandGroup(
-                new RunCommand(this::raise).deadlineWith(new WaitUntilCommand(() -> isUp())),
-                new InstantCommand(() -> mArm.setSelectedSensorPosition(0)),
-                new RunCommand(this::lower).deadlineWith(new WaitUntilCommand(() -> isDown())),
+                new RunCommand(this::raise).deadlineWith(new WaitUntilCommand(this::isUp)),
+                new InstantCommand(mIO::resetPosition),
+                new RunCommand(this::lower).deadlineWith(new WaitUntilCommand(this::isDown)),
                 new InstantCommand(
                         () ->
                                 SmartDashboard.putNumber(
                                         "Arm Self Test Encoder Value",
-                                        mArm.getSelectedSensorPosition())));
+                                        mInputs.position)));
     }
 }
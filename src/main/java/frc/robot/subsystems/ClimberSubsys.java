@@ -4,20 +4,15 @@
  */
 package frc.robot.subsystems;
 
-import static frc.robot.Constants.Climber.kCurrentLimit;
-import static frc.robot.Constants.Climber.kLFollowerId;
-import static frc.robot.Constants.Climber.kLId;
-import static frc.robot.Constants.Climber.kRFollowerId;
-import static frc.robot.Constants.Climber.kRId;
 import static frc.robot.Constants.Climber.kSlewRate;
 import static frc.robot.Constants.Climber.kSpeed;
 
-import com.ctre.phoenix.motorcontrol.InvertType;
-import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
 import edu.wpi.first.math.filter.SlewRateLimiter;
-import edu.wpi.first.wpilibj.motorcontrol.MotorControllerGroup;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.subsystems.io.ClimberIO;
+import frc.tigerlib.can.MatchMode;
+import frc.tigerlib.profiling.LoopProfiler;
+import frc.tigerlib.telemetry.AsyncTelemetry;
 
 /**
  * Controls the climber on each side of the robot Forward motor direction will winch the the
@@ -27,52 +22,60 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
  */
 public class ClimberSubsys extends SubsystemBase {
 
-    // A single Motor Controller that can control all the motors simultaneously.
-    MotorControllerGroup mClimber;
+    // The hardware, and what was read from it this loop.
+    final ClimberIO mIO;
+    final ClimberIO.Inputs mInputs = new ClimberIO.Inputs();
+    // The mode the status frames were last set for.
+    MatchMode mMode;
+
     SlewRateLimiter mRateLimiter = new SlewRateLimiter(kSlewRate);
 
-    // The actual individual motors.
-    final WPI_TalonSRX kL = new WPI_TalonSRX(kLId);
-    final WPI_TalonSRX kLFollower = new WPI_TalonSRX(kLFollowerId);
-    final WPI_TalonSRX kR = new WPI_TalonSRX(kRId);
-    final WPI_TalonSRX kRFollower = new WPI_TalonSRX(kRFollowerId);
+    // Times periodic, so an overrun here shows up next to the others.
+    final int mProfilerPhase = LoopProfiler.getInstance().register("Climber Periodic");
 
-    public ClimberSubsys() {
-        // One motor per side just follows the instructions of its master.
-        kLFollower.follow(kL);
-        kRFollower.follow(kR);
+    // Telemetry channels.
+    final AsyncTelemetry mTelemetry = AsyncTelemetry.getInstance();
+    final int mOutputChannel = mTelemetry.addChannel("Climber/Output");
 
-        // Hold the climber up.
-        kL.setNeutralMode(NeutralMode.Brake);
-        kLFollower.setNeutralMode(NeutralMode.Brake);
-        kR.setNeutralMode(NeutralMode.Brake);
-        kRFollower.setNeutralMode(NeutralMode.Brake);
+    /**
+     * Constructs the climber.
+     *
+     * @param io The climber's hardware.
+     */
+    public ClimberSubsys(ClimberIO io) {
+        mIO = io;
+    }
+
+    @Override
+    public void periodic() {
+        long start = LoopProfiler.getInstance().start();
+        mIO.updateInputs(mInputs);
 
-        // Don't kill the motors.
-        kL.configContinuousCurrentLimit(kCurrentLimit);
-        kLFollower.configContinuousCurrentLimit(kCurrentLimit);
-        kR.configContinuousCurrentLimit(kCurrentLimit);
-        kRFollower.configContinuousCurrentLimit(kCurrentLimit);
+        // Only send the status frames this part of the match needs.
+        MatchMode mode = MatchMode.current();
+        if (mode != mMode) {
+            mIO.applyStatusFrames(mode);
+            mMode = mode;
+        }
 
-        // The Right side needs to be defaultly inverted, as it is on the opposite side.
-        kL.setInverted(InvertType.None);
-        kR.setInverted(InvertType.InvertMotorOutput);
-        kLFollower.setInverted(InvertType.FollowMaster);
-        kRFollower.setInverted(InvertType.FollowMaster);
+        mTelemetry.push(mOutputChannel, mInputs.output);
+        LoopProfiler.getInstance().stop(mProfilerPhase, start);
+    }
 
-        // Init the MCG.
-        mClimber = new MotorControllerGroup(kL, kR);
+    /** @return The current output of the climber motors, [-1, 1]. */
+    public double getOutput() {
+        return mInputs.output;
     }
 
     /** Disables motor output. */
     public void disable() {
-        mClimber.stopMotor();
+        mIO.disable();
         mRateLimiter.reset(0);
     }
 
     /** Sets the climber to winch, rope winding under the spool. */
     public void winch() {
-        mClimber.set(mRateLimiter.calculate(1 * kSpeed));
+        mIO.setOutput(mRateLimiter.calculate(1 * kSpeed));
     }
 
     /**
@@ -81,6 +84,6 @@ public class ClimberSubsys extends SubsystemBase {
      * <p>Should not use this method to complete climb, only to extend the climbers.
      */
     public void rappel() {
-        mClimber.set(mRateLimiter.calculate(-1 * kSpeed));
+        mIO.setOutput(mRateLimiter.calculate(-1 * kSpeed));
     }
 }
@@ -4,51 +4,54 @@
  */
 package frc.robot.subsystems;
 
+import static frc.robot.Constants.Drivetrain.kCommandTimeout;
+import static frc.robot.Constants.Drivetrain.kControlPeriod;
+import static frc.robot.Constants.Drivetrain.kControlPriority;
 import static frc.robot.Constants.Drivetrain.kDeadband;
-import static frc.robot.Constants.Drivetrain.kDistancePerPulse;
-import static frc.robot.Constants.Drivetrain.kFrontLeftId;
 import static frc.robot.Constants.Drivetrain.kFrontLeftOffset;
-import static frc.robot.Constants.Drivetrain.kFrontRightId;
 import static frc.robot.Constants.Drivetrain.kFrontRightOffset;
-import static frc.robot.Constants.Drivetrain.kMotorType;
-import static frc.robot.Constants.Drivetrain.kRPMtoMPSConversionFactor;
-import static frc.robot.Constants.Drivetrain.kRearLeftId;
+import static frc.robot.Constants.Drivetrain.kGyroStdDev;
+import static frc.robot.Constants.Drivetrain.kHeadingSettleTime;
+import static frc.robot.Constants.Drivetrain.kMaxHeadingTurn;
+import static frc.robot.Constants.Drivetrain.kPoseHistorySeconds;
 import static frc.robot.Constants.Drivetrain.kRearLeftOffset;
-import static frc.robot.Constants.Drivetrain.kRearRightId;
 import static frc.robot.Constants.Drivetrain.kRearRightOffset;
 import static frc.robot.Constants.Drivetrain.kSensitivity;
+import static frc.robot.Constants.Drivetrain.kVisionThetaStdDev;
+import static frc.robot.Constants.Drivetrain.kVisionXYStdDev;
+import static frc.robot.Constants.Drivetrain.kWheelThetaStdDev;
+import static frc.robot.Constants.Drivetrain.kWheelXStdDev;
+import static frc.robot.Constants.Drivetrain.kWheelYStdDev;
 import static frc.robot.Constants.Drivetrain.kXSlewRate;
 import static frc.robot.Constants.Drivetrain.kYSlewRate;
 import static frc.robot.Constants.Drivetrain.kZPID;
 import static frc.robot.Constants.Drivetrain.kZSlewRate;
 
-import com.ctre.phoenix.sensors.WPI_PigeonIMU;
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.CANSparkMax.ControlType;
-import com.revrobotics.CANSparkMax.IdleMode;
-import com.revrobotics.REVPhysicsSim;
-import com.revrobotics.RelativeEncoder;
-import com.revrobotics.SparkMaxPIDController;
-import edu.wpi.first.math.filter.SlewRateLimiter;
+import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
-import edu.wpi.first.math.kinematics.MecanumDriveOdometry;
 import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
-import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.RobotState;
-import edu.wpi.first.wpilibj.drive.MecanumDrive;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.drive.MecanumDrive.WheelSpeeds;
-import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.CommandScheduler;
-import edu.wpi.first.wpilibj2.command.InstantCommand;
-import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import edu.wpi.first.wpilibj2.command.WaitCommand;
-import frc.robot.Constants;
-import frc.robot.Robot;
-import frc.tigerlib.Util;
+import frc.robot.subsystems.io.DrivetrainIO;
+import frc.tigerlib.can.MatchMode;
+import frc.tigerlib.concurrent.SeqLockBuffer;
+import frc.tigerlib.control.DriveInput;
+import frc.tigerlib.control.HeadingHold;
+import frc.tigerlib.control.HighRateLoop;
+import frc.tigerlib.input.ShapingCurve;
+import frc.tigerlib.kinematics.MecanumDriveIK;
+import frc.tigerlib.kinematics.MecanumOdometry;
+import frc.tigerlib.kinematics.MecanumPoseEstimator;
+import frc.tigerlib.profiling.InputLatency;
+import frc.tigerlib.profiling.LoopProfiler;
+import frc.tigerlib.telemetry.AsyncTelemetry;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Controls the mecanum drivetrain of the robot.
@@ -56,109 +59,172 @@ import frc.tigerlib.Util;
  * <p>This is the most advanded subsystem of the robot; comprising PID control, odometry, heading
  * protection, rate limiters, and field oriented driving strategies.
  *
+ * <p>Optionally heading protection, odometry and motor output run on a faster control thread, see
+ * {@link #startControlLoop()}. The main loop then only shapes driver input and hands it over.
+ *
  * @author 7125 Tigerbotics - Jeffrey Morris
  */
 public class DrivetrainSubsys extends SubsystemBase {
 
-    // Motors, PID controllers, and encoders
-    final CANSparkMax mFl = new CANSparkMax(kFrontLeftId, kMotorType);
-    final CANSparkMax mRl = new CANSparkMax(kRearLeftId, kMotorType);
-    final CANSparkMax mFr = new CANSparkMax(kFrontRightId, kMotorType);
-    final CANSparkMax mRr = new CANSparkMax(kRearRightId, kMotorType);
-
-    final SparkMaxPIDController mFlPID = mFl.getPIDController();
-    final SparkMaxPIDController mRlPID = mRl.getPIDController();
-    final SparkMaxPIDController mFrPID = mFr.getPIDController();
-    final SparkMaxPIDController mRrPID = mRr.getPIDController();
-
-    final RelativeEncoder mFlEncoder = mFl.getEncoder();
-    final RelativeEncoder mRlEncoder = mRl.getEncoder();
-    final RelativeEncoder mFrEncoder = mFr.getEncoder();
-    final RelativeEncoder mRrEncoder = mRr.getEncoder();
-
-    final SlewRateLimiter mXSlew = new SlewRateLimiter(kXSlewRate);
-    final SlewRateLimiter mYSlew = new SlewRateLimiter(kYSlewRate);
-    final SlewRateLimiter mZSlew = new SlewRateLimiter(kZSlewRate);
-
-    // Pigeon gyroscope.
-    final WPI_PigeonIMU mPigeon = new WPI_PigeonIMU(Constants.kPigeonId);
+    // What the control thread should do with a command.
+    private static final int kStop = 0;
+    private static final int kDrive = 1;
+    private static final int kVelocity = 2;
+    // Command layout; mode, x y z (drive) or fl rl fr rr (velocity), then heading protection, then
+    // when the input arrived and was read.
+    private static final int kCommandMode = 0;
+    private static final int kCommandA = 1;
+    private static final int kCommandB = 2;
+    private static final int kCommandC = 3;
+    private static final int kCommandD = 4;
+    private static final int kCommandHoldHeading = 5;
+    private static final int kCommandDesiredHeading = 6;
+    private static final int kCommandFieldOriented = 7;
+    private static final int kCommandPacketTime = 8;
+    private static final int kCommandReadTime = 9;
+    private static final int kCommandSize = 10;
+    // State layout; inputs, duty cycles sent, pose, odometry pose. See publishState().
+    private static final int kStateSize = 19;
+    private static final int kStaleLoops = (int) Math.round(kCommandTimeout / kControlPeriod);
+
+    // The hardware, and what was read from it this loop.
+    final DrivetrainIO mIO;
+    final DrivetrainIO.Inputs mInputs = new DrivetrainIO.Inputs();
+    // The mode the status frames were last set for.
+    MatchMode mMode;
+    // Heading made once per loop, so callers don't each make their own.
+    Rotation2d mHeading = new Rotation2d();
+
+    // Slews and shapes driver input, and captures the heading to keep the robot facing, basically
+    // just waits a little bit after turning so it doesnt freak out. The joystick curve is replaced
+    // by the driver's own if they have one.
+    final DriveInput mDriveInput =
+            new DriveInput(
+                    kXSlewRate,
+                    kYSlewRate,
+                    kZSlewRate,
+                    kHeadingSettleTime,
+                    ShapingCurve.power(kDeadband, kSensitivity));
+    final HeadingHold mHeadingHold = mDriveInput.getHeadingHold();
 
     // Drivetrain math, allows for finding speeds of chassis from wheels and vise
     // versa.
     final MecanumDriveKinematics mKinematics =
             new MecanumDriveKinematics(
                     kFrontLeftOffset, kFrontRightOffset, kRearLeftOffset, kRearRightOffset);
+    // Finds duty cycles from driver input, heading is set once a loop.
+    final MecanumDriveIK mIK = new MecanumDriveIK();
 
-    // Tracks the position of the robot, based on encoder values.
-    final MecanumDriveOdometry mOdometry = new MecanumDriveOdometry(mKinematics, new Rotation2d());
+    // Tracks the position of the robot, based on encoder values. Cheap enough to run every loop.
+    final MecanumOdometry mOdometry =
+            new MecanumOdometry(
+                    kFrontLeftOffset, kFrontRightOffset, kRearLeftOffset, kRearRightOffset);
+    // Fuses the wheels, gyro and vision; this is where we think we are. Its history is sized for
+    // the control thread, the faster of the two places odometry runs.
+    final MecanumPoseEstimator mEstimator =
+            new MecanumPoseEstimator(
+                    kFrontLeftOffset,
+                    kFrontRightOffset,
+                    kRearLeftOffset,
+                    kRearRightOffset,
+                    (int) Math.ceil(kPoseHistorySeconds / kControlPeriod));
+    // Whether the pose is on the field; set by a pose reset or a vision fix, cleared by a gyro
+    // reset. Until then the pose is only relative to where the robot was turned on.
+    volatile boolean mLocalized = false;
 
     // Variables used for different driving techniques
-    boolean mHeadingProtect =
-            true; // whether or not the robot should be maintaining its desired heading.
     boolean mFieldOriented = true; // whether or not the robot should drive field-oriented
-    boolean mCapturedHeading =
-            false; // whether or not the robot has captured its desired heading yet.
-    Rotation2d mDesiredHeading = getHeading(); // the angle to keep the robot facing
-    // The command to capture the desired heading, basically just waits a little bit
-    // after moving so it doesnt freak out.
-    Command mCaptureHeadingCmd =
-            new SequentialCommandGroup(
-                    new WaitCommand(.4),
-                    new InstantCommand(() -> mDesiredHeading = getHeading()),
-                    new InstantCommand(() -> mCapturedHeading = true));
-    IdleMode mCurrMode = IdleMode.kBrake; // the current idle mode of the drivetrain
-
-    public DrivetrainSubsys() {
-
-        // Set up safe amperage limits.
-        mFl.setSmartCurrentLimit(50);
-        mFr.setSmartCurrentLimit(50);
-        mRl.setSmartCurrentLimit(50);
-        mRr.setSmartCurrentLimit(50);
-
-        // Invert right side because motors backwards.
-        mFl.setInverted(false);
-        mRl.setInverted(false);
-        mFr.setInverted(true);
-        mRr.setInverted(true);
-
-        // Setup PID controllers.
-        mFlPID.setP(5e-5);
-        mRlPID.setP(5e-5);
-        mFrPID.setP(5e-5);
-        mRrPID.setP(5e-5);
-
-        // Changes encoder distance from encoder ticks to meters.
-        mFlEncoder.setPositionConversionFactor(kDistancePerPulse);
-        mRlEncoder.setPositionConversionFactor(kDistancePerPulse);
-        mFrEncoder.setPositionConversionFactor(kDistancePerPulse);
-        mRrEncoder.setPositionConversionFactor(kDistancePerPulse);
-
-        // Changes encoder velocity from rotations per minute to meters per second.
-        mFlEncoder.setVelocityConversionFactor(kRPMtoMPSConversionFactor);
-        mRlEncoder.setVelocityConversionFactor(kRPMtoMPSConversionFactor);
-        mFrEncoder.setVelocityConversionFactor(kRPMtoMPSConversionFactor);
-        mRrEncoder.setVelocityConversionFactor(kRPMtoMPSConversionFactor);
-
-        // Make sure stuff starts on 0.
-        mFlEncoder.setPosition(0.0);
-        mRlEncoder.setPosition(0.0);
-        mFrEncoder.setPosition(0.0);
-        mRrEncoder.setPosition(0.0);
-        mPigeon.setFusedHeading(0.0);
-
-        // In sim add motors to physics sim.
-        if (Robot.isSimulation()) {
-            REVPhysicsSim.getInstance().addSparkMax(mFl, DCMotor.getNEO(1));
-            REVPhysicsSim.getInstance().addSparkMax(mRl, DCMotor.getNEO(1));
-            REVPhysicsSim.getInstance().addSparkMax(mFr, DCMotor.getNEO(1));
-            REVPhysicsSim.getInstance().addSparkMax(mRr, DCMotor.getNEO(1));
-        }
+    boolean mBrakeMode = true; // the current idle mode of the drivetrain
+    final WheelSpeeds mCommandedSpeeds = new WheelSpeeds(); // the last duty cycles from drive()
+
+    // The control thread, null when drive() runs on the main loop. When running it owns the IO;
+    // the main loop hands it everything it needs done with the hardware.
+    HighRateLoop mControlLoop;
+    // Main loop to control thread.
+    final SeqLockBuffer mCommand = new SeqLockBuffer(kCommandSize);
+    final AtomicBoolean mResetHeading = new AtomicBoolean();
+    final AtomicReference<Pose2d> mResetPose = new AtomicReference<>();
+    // The last reset the control thread applied, set after it publishes the state that has it.
+    volatile Pose2d mAppliedResetPose;
+    final AtomicReference<MatchMode> mApplyMode = new AtomicReference<>();
+    final AtomicReference<Boolean> mApplyBrakeMode = new AtomicReference<>();
+    // Control thread to main loop.
+    final SeqLockBuffer mState = new SeqLockBuffer(kStateSize);
+    final double[] mStateValues = new double[kStateSize];
+    double mPoseX;
+    double mPoseY;
+    double mPoseDegrees;
+    double mOdometryX;
+    double mOdometryY;
+    double mOdometryDegrees;
+    // A reset the control thread hasn't applied yet; its state still has the old pose until then.
+    Pose2d mPendingResetPose;
+    // Only touched by the control thread.
+    final DrivetrainIO.Inputs mControlInputs = new DrivetrainIO.Inputs();
+    final double[] mCommandValues = new double[kCommandSize];
+    // The heading gains at the control thread's period, so I and D mean the same as on the main
+    // loop.
+    final PIDController mControlZPID =
+            new PIDController(kZPID.getP(), kZPID.getI(), kZPID.getD(), kControlPeriod);
+    final MecanumDriveIK mControlIK = new MecanumDriveIK();
+    final WheelSpeeds mControlOutputs = new WheelSpeeds();
+    long mLastCommandVersion = -1;
+    int mStaleLoops = 0;
+    boolean mStopped = true;
+
+    // Times periodic, odometry and sim physics run here.
+    final int mProfilerPhase = LoopProfiler.getInstance().register("Drivetrain Periodic");
+    final int mOdometryPhase = LoopProfiler.getInstance().register("Drivetrain Odometry");
+    // Stick to motor latency, for each path driver input can take.
+    final InputLatency mLatency = new InputLatency("Main Loop");
+    final InputLatency mControlLatency = new InputLatency("Control Thread");
+
+    // Telemetry channels.
+    final AsyncTelemetry mTelemetry = AsyncTelemetry.getInstance();
+    final int mFlVelocityChannel = mTelemetry.addChannel("Drivetrain/FL Velocity");
+    final int mRlVelocityChannel = mTelemetry.addChannel("Drivetrain/RL Velocity");
+    final int mFrVelocityChannel = mTelemetry.addChannel("Drivetrain/FR Velocity");
+    final int mRrVelocityChannel = mTelemetry.addChannel("Drivetrain/RR Velocity");
+    final int mHeadingChannel = mTelemetry.addChannel("Drivetrain/Heading");
+
+    /**
+     * Constructs the drivetrain.
+     *
+     * @param io The drivetrain's hardware.
+     */
+    public DrivetrainSubsys(DrivetrainIO io) {
+        mIO = io;
+        mEstimator.setWheelStdDevs(kWheelXStdDev, kWheelYStdDev, kWheelThetaStdDev);
+        mEstimator.setGyroStdDev(kGyroStdDev);
+        mEstimator.setVisionStdDevs(kVisionXYStdDev, kVisionThetaStdDev);
+        mIO.setBrakeMode(mBrakeMode);
     }
 
     /** general periodic updates. */
     @Override
     public void periodic() {
+        long start = LoopProfiler.getInstance().start();
+
+        // Read all the sensors once, everything else uses these values.
+        if (mControlLoop != null) {
+            // The control thread owns the hardware, use what it last read.
+            readState();
+        } else {
+            mIO.updateInputs(mInputs);
+        }
+        mHeading = Rotation2d.fromDegrees(mInputs.headingDegrees);
+        mIK.setHeading(mInputs.headingDegrees);
+
+        // Only send the status frames this part of the match needs.
+        MatchMode mode = MatchMode.current();
+        if (mode != mMode) {
+            if (mControlLoop != null) {
+                mApplyMode.set(mode);
+            } else {
+                mIO.applyStatusFrames(mode);
+            }
+            mMode = mode;
+        }
 
         // Reset the gyroscope so its square with field on rio user button press.
         if (RobotController.getUserButton()) {
@@ -169,43 +235,128 @@ public class DrivetrainSubsys extends SubsystemBase {
         if (RobotState.isDisabled()) {
             // dont have an anurism trying to go back to whatever heading it was at before
             // disabling.
-            mDesiredHeading = getHeading();
+            mHeadingHold.reset(mInputs.headingDegrees);
         }
 
         // when the robot is disabled put the wheels in coast mode so we can push it
         // around without breaking our ankles
-        if (RobotState.isDisabled() && mCurrMode != IdleMode.kCoast) {
-            mFl.setIdleMode(IdleMode.kCoast);
-            mRl.setIdleMode(IdleMode.kCoast);
-            mFr.setIdleMode(IdleMode.kCoast);
-            mRr.setIdleMode(IdleMode.kCoast);
-            mCurrMode = IdleMode.kCoast;
-        } else if (!RobotState.isDisabled() && mCurrMode != IdleMode.kBrake) {
-            mFr.setIdleMode(IdleMode.kBrake);
-            mRr.setIdleMode(IdleMode.kBrake);
-            mFl.setIdleMode(IdleMode.kBrake);
-            mRl.setIdleMode(IdleMode.kBrake);
-            mCurrMode = IdleMode.kBrake;
+        if (RobotState.isDisabled() == mBrakeMode) {
+            mBrakeMode = !mBrakeMode;
+            if (mControlLoop != null) {
+                mApplyBrakeMode.set(mBrakeMode);
+            } else {
+                mIO.setBrakeMode(mBrakeMode);
+            }
         }
 
-        if (RobotState.isAutonomous()) {
-            // only tract robot during auto as its fairly computationally expensive.
-            mOdometry.update(getHeading(), getSpeeds());
+        if (mControlLoop == null) {
+            long odometryStart = LoopProfiler.getInstance().start();
+            updateOdometry(mInputs);
+            LoopProfiler.getInstance().stop(mOdometryPhase, odometryStart);
         }
 
-        if (Robot.isSimulation()) {
-            REVPhysicsSim.getInstance().run();
+        mTelemetry.push(mFlVelocityChannel, mInputs.flVelocity);
+        mTelemetry.push(mRlVelocityChannel, mInputs.rlVelocity);
+        mTelemetry.push(mFrVelocityChannel, mInputs.frVelocity);
+        mTelemetry.push(mRrVelocityChannel, mInputs.rrVelocity);
+        mTelemetry.push(mHeadingChannel, mInputs.headingDegrees);
+
+        LoopProfiler.getInstance().stop(mProfilerPhase, start);
+    }
+
+    /**
+     * Moves heading protection, odometry, and motor output onto a real-time thread running every
+     * {@link frc.robot.Constants.Drivetrain#kControlPeriod}. Should be called before enabling.
+     */
+    public void startControlLoop() {
+        if (mControlLoop != null) {
+            return;
         }
+        mControlLoop =
+                new HighRateLoop(
+                        "Drivetrain Control",
+                        kControlPeriod,
+                        kControlPriority,
+                        this::runControlLoop);
+        mControlLoop.start();
+    }
+
+    /** @return Stick to motor latency when the main loop drives the motors. */
+    public InputLatency getMainLoopLatency() {
+        return mLatency;
+    }
+
+    /** @return Stick to motor latency when the control thread drives the motors. */
+    public InputLatency getControlLatency() {
+        return mControlLatency;
+    }
+
+    /** @return The control thread, or null if it isn't running. */
+    public HighRateLoop getControlLoop() {
+        return mControlLoop;
     }
 
     /** reset the odometry of the drivetrain */
     public void resetOdometry(final Pose2d pose) {
-        mOdometry.resetPosition(pose, getHeading());
+        mLocalized = true;
+        if (mControlLoop != null) {
+            // A copy, so a pose passed twice is still told apart from the last applied one.
+            mPendingResetPose = new Pose2d(pose.getTranslation(), pose.getRotation());
+            mResetPose.set(mPendingResetPose);
+            mPoseX = pose.getX();
+            mPoseY = pose.getY();
+            mPoseDegrees = pose.getRotation().getDegrees();
+            mOdometryX = mPoseX;
+            mOdometryY = mPoseY;
+            mOdometryDegrees = mPoseDegrees;
+        } else {
+            resetOdometry(pose, mInputs);
+        }
+    }
+
+    /** Updates odometry from the given inputs, on whichever thread owns the IO. */
+    private void updateOdometry(DrivetrainIO.Inputs inputs) {
+        mOdometry.update(
+                Math.toRadians(inputs.headingDegrees),
+                inputs.flPosition,
+                inputs.frPosition,
+                inputs.rlPosition,
+                inputs.rrPosition);
+        mEstimator.update(
+                Timer.getFPGATimestamp(),
+                Math.toRadians(inputs.headingDegrees),
+                inputs.flVelocity,
+                inputs.frVelocity,
+                inputs.rlVelocity,
+                inputs.rrVelocity);
+    }
+
+    /** Resets odometry to the given pose, on whichever thread owns the IO. */
+    private void resetOdometry(Pose2d pose, DrivetrainIO.Inputs inputs) {
+        mOdometry.reset(
+                pose.getX(),
+                pose.getY(),
+                pose.getRotation().getRadians(),
+                Math.toRadians(inputs.headingDegrees),
+                inputs.flPosition,
+                inputs.frPosition,
+                inputs.rlPosition,
+                inputs.rrPosition);
+        mEstimator.reset(
+                pose.getX(),
+                pose.getY(),
+                pose.getRotation().getRadians(),
+                Math.toRadians(inputs.headingDegrees));
     }
 
     /** Sets the heading protection status. */
     public void setHeadingProtection(boolean headingProtection) {
-        mHeadingProtect = headingProtection;
+        mDriveInput.setHeadingProtection(headingProtection);
+    }
+
+    /** Sets the curve joystick input is shaped by in {@link #drive(double, double, double)}. */
+    public void setShapingCurve(ShapingCurve curve) {
+        mDriveInput.setShapingCurve(curve);
     }
 
     /** Sets the field oriented status. */
@@ -215,8 +366,17 @@ public class DrivetrainSubsys extends SubsystemBase {
 
     /** Resets the gyro to zero. */
     public void resetGyro() {
-        mPigeon.reset();
-        mDesiredHeading = getHeading();
+        if (mControlLoop != null) {
+            mResetHeading.set(true);
+        } else {
+            mIO.resetHeading();
+        }
+        mInputs.headingDegrees = 0;
+        mHeading = new Rotation2d();
+        mIK.setHeading(0);
+        mHeadingHold.reset(0);
+        // The estimate's heading follows the gyro, so it's no longer the field's.
+        mLocalized = false;
     }
 
     /**
@@ -227,10 +387,21 @@ public class DrivetrainSubsys extends SubsystemBase {
      * @param targetSpeeds The input speeds.
      */
     public void setSpeeds(MecanumDriveWheelSpeeds targetSpeeds) {
-        mFlPID.setReference(targetSpeeds.frontLeftMetersPerSecond, ControlType.kVelocity);
-        mRlPID.setReference(targetSpeeds.rearLeftMetersPerSecond, ControlType.kVelocity);
-        mFrPID.setReference(targetSpeeds.frontRightMetersPerSecond, ControlType.kVelocity);
-        mRrPID.setReference(targetSpeeds.rearRightMetersPerSecond, ControlType.kVelocity);
+        if (mControlLoop != null) {
+            sendCommand(
+                    kVelocity,
+                    targetSpeeds.frontLeftMetersPerSecond,
+                    targetSpeeds.rearLeftMetersPerSecond,
+                    targetSpeeds.frontRightMetersPerSecond,
+                    targetSpeeds.rearRightMetersPerSecond,
+                    false);
+            return;
+        }
+        mIO.setVelocities(
+                targetSpeeds.frontLeftMetersPerSecond,
+                targetSpeeds.rearLeftMetersPerSecond,
+                targetSpeeds.frontRightMetersPerSecond,
+                targetSpeeds.rearRightMetersPerSecond);
     }
 
     /**
@@ -242,63 +413,274 @@ public class DrivetrainSubsys extends SubsystemBase {
      * @param zSpeed Robot Z/Theta Speed, Clockwise is positive.
      */
     public void drive(double xSpeed, double ySpeed, double zSpeed) {
-        xSpeed = Util.smoothWClamp(mXSlew.calculate(xSpeed), kDeadband, kSensitivity, -1, 1);
-        ySpeed = Util.smoothWClamp(mYSlew.calculate(ySpeed), kDeadband, kSensitivity, -1, 1);
-        zSpeed = Util.smoothWClamp(mZSlew.calculate(zSpeed), kDeadband, kSensitivity, -1, 1);
-
-        // heading protection, keep us facing the same direction.
-        boolean shouldProtectHeading = mHeadingProtect && zSpeed == 0.0;
-        if (shouldProtectHeading && mCapturedHeading) {
-            // if we should protect heading and we have captured the desired heading
-
-            // negative to get us to go back to the desired orientation, not farther away;
-            // that was a fun experience.
-            double newSpeed =
-                    -kZPID.calculate(getHeading().getDegrees(), mDesiredHeading.getDegrees());
-            zSpeed = Util.clamp(newSpeed, -.75, .75);
-        } else if (shouldProtectHeading
-                && !CommandScheduler.getInstance().isScheduled(mCaptureHeadingCmd)) {
-            // if we should protect heading and we havnt started to capture desired heading
-            CommandScheduler.getInstance().schedule(mCaptureHeadingCmd);
-        } else if (!shouldProtectHeading) {
-            // if we should not protect heading
-            mCapturedHeading = false;
-            mDesiredHeading = getHeading();
+        drive(xSpeed, ySpeed, zSpeed, 0, 0);
+    }
+
+    /**
+     * Drives the robot based on driver input, and records how long that input took to reach the
+     * motors. See {@link #drive(double, double, double)}.
+     *
+     * @param xSpeed Robot X Speed, forward is positive.
+     * @param ySpeed Robot Y Speed, Right is positive.
+     * @param zSpeed Robot Z/Theta Speed, Clockwise is positive.
+     * @param packetMicros FPGA time the input's driver station packet arrived, 0 if unknown.
+     * @param readMicros FPGA time the input was read.
+     */
+    public void drive(
+            double xSpeed, double ySpeed, double zSpeed, long packetMicros, long readMicros) {
+        long computeStart = RobotController.getFPGATime();
+        // true once we've stopped turning long enough to capture the desired heading
+        boolean holdHeading =
+                mDriveInput.update(
+                        Timer.getFPGATimestamp(), xSpeed, ySpeed, zSpeed, mInputs.headingDegrees);
+        xSpeed = mDriveInput.getXSpeed();
+        ySpeed = mDriveInput.getYSpeed();
+        zSpeed = mDriveInput.getZSpeed();
+
+        if (mControlLoop != null) {
+            sendCommand(kDrive, xSpeed, ySpeed, zSpeed, 0, holdHeading, packetMicros, readMicros);
+        } else {
+            DriveInput.calculateWheels(
+                    xSpeed,
+                    ySpeed,
+                    zSpeed,
+                    holdHeading,
+                    mHeadingHold.getDesiredDegrees(),
+                    mFieldOriented,
+                    mInputs.headingDegrees,
+                    kMaxHeadingTurn,
+                    kZPID,
+                    mIK,
+                    mCommandedSpeeds);
+            long writeStart = RobotController.getFPGATime();
+            writeWheels(mCommandedSpeeds);
+            mLatency.record(
+                    packetMicros,
+                    readMicros,
+                    computeStart,
+                    writeStart,
+                    RobotController.getFPGATime());
+        }
+    }
+
+    /** Sets the speeds found by DriveInput.calculateWheels(). */
+    private void writeWheels(WheelSpeeds speeds) {
+        mIO.setDutyCycles(speeds.frontLeft, speeds.rearLeft, speeds.frontRight, speeds.rearRight);
+    }
+
+    /** Hands the latest command from the main loop to the control thread. */
+    private void sendCommand(int mode, double a, double b, double c, double d, boolean hold) {
+        sendCommand(mode, a, b, c, d, hold, 0, 0);
+    }
+
+    /** Hands the latest command, and when its input arrived and was read, to the control thread. */
+    private void sendCommand(
+            int mode,
+            double a,
+            double b,
+            double c,
+            double d,
+            boolean hold,
+            long packetMicros,
+            long readMicros) {
+        mCommand.beginWrite();
+        mCommand.set(kCommandMode, mode);
+        mCommand.set(kCommandA, a);
+        mCommand.set(kCommandB, b);
+        mCommand.set(kCommandC, c);
+        mCommand.set(kCommandD, d);
+        mCommand.set(kCommandHoldHeading, hold ? 1 : 0);
+        mCommand.set(kCommandDesiredHeading, mHeadingHold.getDesiredDegrees());
+        mCommand.set(kCommandFieldOriented, mFieldOriented ? 1 : 0);
+        mCommand.set(kCommandPacketTime, packetMicros);
+        mCommand.set(kCommandReadTime, readMicros);
+        mCommand.endWrite();
+    }
+
+    /** Runs on the control thread every {@link frc.robot.Constants.Drivetrain#kControlPeriod}. */
+    private void runControlLoop() {
+        if (mResetHeading.getAndSet(false)) {
+            mIO.resetHeading();
+        }
+        MatchMode mode = mApplyMode.getAndSet(null);
+        if (mode != null) {
+            mIO.applyStatusFrames(mode);
+        }
+        Boolean brakeMode = mApplyBrakeMode.getAndSet(null);
+        if (brakeMode != null) {
+            mIO.setBrakeMode(brakeMode);
+        }
+        mIO.updateInputs(mControlInputs);
+        mControlIK.setHeading(mControlInputs.headingDegrees);
+
+        Pose2d resetPose = mResetPose.getAndSet(null);
+        if (resetPose != null) {
+            resetOdometry(resetPose, mControlInputs);
         }
+        updateOdometry(mControlInputs);
+
+        long version = mCommand.read(mCommandValues);
+        boolean fresh = version != mLastCommandVersion;
+        if (fresh) {
+            mLastCommandVersion = version;
+            mStaleLoops = 0;
+        } else {
+            mStaleLoops++;
+        }
+
+        int command = (int) mCommandValues[kCommandMode];
+        if (command == kStop || mStaleLoops > kStaleLoops) {
+            // Stopped, or the main loop is disabled or stuck; don't keep driving on an old command.
+            if (!mStopped) {
+                mIO.disable();
+                mControlOutputs.frontLeft = 0;
+                mControlOutputs.frontRight = 0;
+                mControlOutputs.rearLeft = 0;
+                mControlOutputs.rearRight = 0;
+                mStopped = true;
+            }
+        } else if (command == kDrive) {
+            long computeStart = RobotController.getFPGATime();
+            DriveInput.calculateWheels(
+                    mCommandValues[kCommandA],
+                    mCommandValues[kCommandB],
+                    mCommandValues[kCommandC],
+                    mCommandValues[kCommandHoldHeading] != 0,
+                    mCommandValues[kCommandDesiredHeading],
+                    mCommandValues[kCommandFieldOriented] != 0,
+                    mControlInputs.headingDegrees,
+                    kMaxHeadingTurn,
+                    mControlZPID,
+                    mControlIK,
+                    mControlOutputs);
+            long writeStart = RobotController.getFPGATime();
+            writeWheels(mControlOutputs);
+            // Only the first loop to use an input says how long it took to get here.
+            if (fresh) {
+                mControlLatency.record(
+                        (long) mCommandValues[kCommandPacketTime],
+                        (long) mCommandValues[kCommandReadTime],
+                        computeStart,
+                        writeStart,
+                        RobotController.getFPGATime());
+            }
+            mStopped = false;
+        } else if (command == kVelocity) {
+            mIO.setVelocities(
+                    mCommandValues[kCommandA],
+                    mCommandValues[kCommandB],
+                    mCommandValues[kCommandC],
+                    mCommandValues[kCommandD]);
+            mStopped = false;
+        }
+
+        publishState();
+        if (resetPose != null) {
+            mAppliedResetPose = resetPose;
+        }
+    }
 
-        // Do some beep boop to get wheel speeds.
-        // Heading is negated as Drive classes are NED >:(, will be fixed 2023.
-        WheelSpeeds targetSpeeds =
-                MecanumDrive.driveCartesianIK(
-                        ySpeed, xSpeed, zSpeed, mFieldOriented ? -getHeading().getDegrees() : 0.0);
+    /** Hands what the control thread read and sent to the main loop. */
+    private void publishState() {
+        mState.beginWrite();
+        mState.set(0, mControlInputs.flVelocity);
+        mState.set(1, mControlInputs.rlVelocity);
+        mState.set(2, mControlInputs.frVelocity);
+        mState.set(3, mControlInputs.rrVelocity);
+        mState.set(4, mControlInputs.flPosition);
+        mState.set(5, mControlInputs.rlPosition);
+        mState.set(6, mControlInputs.frPosition);
+        mState.set(7, mControlInputs.rrPosition);
+        mState.set(8, mControlInputs.headingDegrees);
+        mState.set(9, mControlOutputs.frontLeft);
+        mState.set(10, mControlOutputs.rearLeft);
+        mState.set(11, mControlOutputs.frontRight);
+        mState.set(12, mControlOutputs.rearRight);
+        mState.set(13, mEstimator.getX());
+        mState.set(14, mEstimator.getY());
+        mState.set(15, Math.toDegrees(mEstimator.getHeadingRadians()));
+        mState.set(16, mOdometry.getX());
+        mState.set(17, mOdometry.getY());
+        mState.set(18, Math.toDegrees(mOdometry.getHeadingRadians()));
+        mState.endWrite();
+    }
 
-        // Set the speeds, use PID controllers for consistency.
-        mFlPID.setReference(targetSpeeds.frontLeft, ControlType.kDutyCycle);
-        mRlPID.setReference(targetSpeeds.rearLeft, ControlType.kDutyCycle);
-        mFrPID.setReference(targetSpeeds.frontRight, ControlType.kDutyCycle);
-        mRrPID.setReference(targetSpeeds.rearRight, ControlType.kDutyCycle);
+    /**
+     * Copies the control thread's latest state into the main loop's, same order as written. Keeps
+     * the reset pose until the control thread has applied it, so the pose never jumps back.
+     */
+    private void readState() {
+        // Checked before reading, the state published with the reset is written before this is.
+        boolean resetPending = mPendingResetPose != null && mAppliedResetPose != mPendingResetPose;
+        mState.read(mStateValues);
+        mInputs.flVelocity = mStateValues[0];
+        mInputs.rlVelocity = mStateValues[1];
+        mInputs.frVelocity = mStateValues[2];
+        mInputs.rrVelocity = mStateValues[3];
+        mInputs.flPosition = mStateValues[4];
+        mInputs.rlPosition = mStateValues[5];
+        mInputs.frPosition = mStateValues[6];
+        mInputs.rrPosition = mStateValues[7];
+        mInputs.headingDegrees = mStateValues[8];
+        mCommandedSpeeds.frontLeft = mStateValues[9];
+        mCommandedSpeeds.rearLeft = mStateValues[10];
+        mCommandedSpeeds.frontRight = mStateValues[11];
+        mCommandedSpeeds.rearRight = mStateValues[12];
+        if (resetPending) {
+            return;
+        }
+        mPendingResetPose = null;
+        mPoseX = mStateValues[13];
+        mPoseY = mStateValues[14];
+        mPoseDegrees = mStateValues[15];
+        mOdometryX = mStateValues[16];
+        mOdometryY = mStateValues[17];
+        mOdometryDegrees = mStateValues[18];
     }
 
     /** Disables all motor output */
     public void disable() {
-        mFl.disable();
-        mRl.disable();
-        mFr.disable();
-        mRr.disable();
+        if (mControlLoop != null) {
+            sendCommand(kStop, 0, 0, 0, 0, false);
+            return;
+        }
+        mIO.disable();
     }
 
     /** @return The current velocity of the robot. */
     public MecanumDriveWheelSpeeds getSpeeds() {
         return new MecanumDriveWheelSpeeds(
-                mFlEncoder.getVelocity(),
-                mRlEncoder.getVelocity(),
-                mFrEncoder.getVelocity(),
-                mRrEncoder.getVelocity());
+                mInputs.flVelocity, mInputs.frVelocity, mInputs.rlVelocity, mInputs.rrVelocity);
+    }
+
+    /** @return The front left wheel's velocity, meters per second. */
+    public double getFlVelocity() {
+        return mInputs.flVelocity;
+    }
+
+    /** @return The rear left wheel's velocity, meters per second. */
+    public double getRlVelocity() {
+        return mInputs.rlVelocity;
+    }
+
+    /** @return The front right wheel's velocity, meters per second. */
+    public double getFrVelocity() {
+        return mInputs.frVelocity;
+    }
+
+    /** @return The rear right wheel's velocity, meters per second. */
+    public double getRrVelocity() {
+        return mInputs.rrVelocity;
+    }
+
+    /** @return The duty cycles last sent by {@link #drive(double, double, double)}. */
+    public WheelSpeeds getCommandedSpeeds() {
+        return mCommandedSpeeds;
     }
 
     /** @return Heading protections status. */
     public boolean getHeadingProtection() {
-        return mHeadingProtect;
+        return mDriveInput.getHeadingProtection();
     }
 
     /** @return Field oriented status. */
@@ -317,16 +699,69 @@ public class DrivetrainSubsys extends SubsystemBase {
      * @return the current heading of the robot
      */
     public Rotation2d getHeading() {
-        return mPigeon.getRotation2d();
+        return mHeading;
+    }
+
+    /** @return the current heading of the robot in degrees; CCW+. */
+    public double getHeadingDegrees() {
+        return mInputs.headingDegrees;
     }
 
     /** @return the current desired heading of the robot */
     public Rotation2d getDesiredHeading() {
-        return mDesiredHeading;
+        return Rotation2d.fromDegrees(mHeadingHold.getDesiredDegrees());
+    }
+
+    /**
+     * Corrects the pose with one found by vision. Safe to call while the control thread runs.
+     *
+     * @param timestamp The FPGA time the image was taken, seconds.
+     * @param pose The pose vision found.
+     * @return False if the image is too old to use.
+     */
+    public boolean addVisionMeasurement(double timestamp, Pose2d pose) {
+        boolean used =
+                mEstimator.addVisionMeasurement(
+                        timestamp, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+        if (used) {
+            mLocalized = true;
+        }
+        return used;
+    }
+
+    /**
+     * @return Whether {@link #getPose()} is on the field; true after {@link
+     *     #resetOdometry(Pose2d)} or a vision measurement is used, until the gyro is reset.
+     */
+    public boolean isLocalized() {
+        return mLocalized;
+    }
+
+    /**
+     * Finds where the robot was at a recent time, for matching up late measurements. Safe to call
+     * while the control thread runs; each call sees one consistent history.
+     *
+     * @param timestamp The FPGA time, seconds.
+     * @param out Gets the x, y, and heading in radians; at least 3 long.
+     * @return False if the time is older than the history kept.
+     */
+    public boolean getPoseAt(double timestamp, double[] out) {
+        return mEstimator.getHistory().sample(timestamp, out);
+    }
+
+    /** @return The position found by the wheels and gyro alone, without vision. */
+    public Pose2d getOdometryPose() {
+        if (mControlLoop != null) {
+            return new Pose2d(mOdometryX, mOdometryY, Rotation2d.fromDegrees(mOdometryDegrees));
+        }
+        return mOdometry.getPose();
     }
 
     /** @returns the current position of the robot. */
     public Pose2d getPose() {
-        return mOdometry.getPoseMeters();
+        if (mControlLoop != null) {
+            return new Pose2d(mPoseX, mPoseY, Rotation2d.fromDegrees(mPoseDegrees));
+        }
+        return mEstimator.getPose();
     }
 }
@@ -4,12 +4,13 @@
  */
 package frc.robot.subsystems;
 
-import static frc.robot.Constants.Intake.kId;
-import static frc.robot.Constants.Intake.kMotorType;
 import static frc.robot.Constants.Intake.kSpeed;
 
-import com.revrobotics.CANSparkMax;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.subsystems.io.IntakeIO;
+import frc.tigerlib.can.MatchMode;
+import frc.tigerlib.profiling.LoopProfiler;
+import frc.tigerlib.telemetry.AsyncTelemetry;
 
 /**
  * Controls the intake of the robot. Forward motor direction results in intake moving in.
@@ -18,23 +19,61 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
  */
 public class IntakeSubsys extends SubsystemBase {
 
-    // Motor controller for intake.
-    final CANSparkMax mIntake = new CANSparkMax(kId, kMotorType);
+    // The hardware, and what was read from it this loop.
+    final IntakeIO mIO;
+    final IntakeIO.Inputs mInputs = new IntakeIO.Inputs();
+    // The mode the status frames were last set for.
+    MatchMode mMode;
 
-    public IntakeSubsys() {}
+    // Times periodic, so an overrun here shows up next to the others.
+    final int mProfilerPhase = LoopProfiler.getInstance().register("Intake Periodic");
+
+    // Telemetry channels.
+    final AsyncTelemetry mTelemetry = AsyncTelemetry.getInstance();
+    final int mOutputChannel = mTelemetry.addChannel("Intake/Output");
+
+    /**
+     * Constructs the intake.
+     *
+     * @param io The intake's hardware.
+     */
+    public IntakeSubsys(IntakeIO io) {
+        mIO = io;
+    }
+
+    @Override
+    public void periodic() {
+        long start = LoopProfiler.getInstance().start();
+        mIO.updateInputs(mInputs);
+
+        // Only send the status frames this part of the match needs.
+        MatchMode mode = MatchMode.current();
+        if (mode != mMode) {
+            mIO.applyStatusFrames(mode);
+            mMode = mode;
+        }
+
+        mTelemetry.push(mOutputChannel, mInputs.output);
+        LoopProfiler.getInstance().stop(mProfilerPhase, start);
+    }
+
+    /** @return The current output of the intake motor, [-1, 1]. */
+    public double getOutput() {
+        return mInputs.output;
+    }
 
     /** Stops all motor output. */
     public void disable() {
-        mIntake.stopMotor();
+        mIO.disable();
     }
 
     /** Set the motor to intake. */
     public void intake() {
-        mIntake.set(1 * kSpeed);
+        mIO.setOutput(1 * kSpeed);
     }
 
     /** Set the motor to eject. */
     public void eject() {
-        mIntake.set(-1 * kSpeed);
+        mIO.setOutput(-1 * kSpeed);
     }
 }
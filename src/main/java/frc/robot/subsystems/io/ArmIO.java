@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.wpilibj.AddressableLEDBuffer;
+import frc.tigerlib.can.MatchMode;
+
+/**
+ * The hardware of the arm; a motor with limit switches and an encoder, and the LED strip.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public interface ArmIO {
+
+    /** Everything read from the arm's hardware in a loop. */
+    public static class Inputs {
+        // Forward (up) limit switch, normally open.
+        public boolean fwdLimitSwitch;
+        // Reverse (down) limit switch, normally closed.
+        public boolean revLimitSwitch;
+        // Encoder position, ticks.
+        public double position;
+        // Motor output, [-1, 1].
+        public double output;
+    }
+
+    /** Reads all sensors into the given inputs. */
+    public default void updateInputs(Inputs inputs) {}
+
+    /** Sets the motor's output, [-1, 1]; positive moves the arm up. */
+    public default void setOutput(double output) {}
+
+    /** Sets the encoder's position to zero. */
+    public default void resetPosition() {}
+
+    /** Sends colors to the LED strip. */
+    public default void setLeds(AddressableLEDBuffer buffer) {}
+
+    /** Sets the status frame rates of the hardware's CAN devices for the given mode. */
+    public default void applyStatusFrames(MatchMode mode) {}
+
+    /** Disables motor output. */
+    public default void disable() {}
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+import static frc.robot.Constants.Arm.kId;
+import static frc.robot.Constants.Arm.kLedLength;
+
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.SensorCollection;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
+import edu.wpi.first.wpilibj.AddressableLED;
+import edu.wpi.first.wpilibj.AddressableLEDBuffer;
+import frc.robot.Constants.StatusFrames;
+import frc.tigerlib.can.MatchMode;
+import frc.tigerlib.profiling.LoopProfiler;
+
+/**
+ * The arm on the robot; a Talon SRX with limit switches and a mag encoder, and an LED strip.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class ArmIOReal implements ArmIO {
+
+    // Motor controller for arm.
+    final WPI_TalonSRX mArm = new WPI_TalonSRX(kId);
+    final SensorCollection mSensors = mArm.getSensorCollection();
+
+    // LEDs to display arm positions.
+    final AddressableLED mLeds = new AddressableLED(0);
+
+    final int mReadCounter = LoopProfiler.getInstance().registerCounter("Arm Reads");
+
+    public ArmIOReal() {
+        // Setup encoder.
+        mArm.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Absolute, 0, 10);
+        // Set brake mode to help arm hold positions.
+        mArm.setNeutralMode(NeutralMode.Brake);
+        // Invert arm so that positive motor voltage results in arm moving up.
+        mArm.setInverted(true);
+
+        // Setup LEDs.
+        mLeds.setLength(kLedLength);
+        mLeds.start();
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.fwdLimitSwitch = read(mSensors.isFwdLimitSwitchClosed());
+        inputs.revLimitSwitch = read(mSensors.isRevLimitSwitchClosed());
+        inputs.position = read(mArm.getSelectedSensorPosition());
+        // Cached on the java side, not a read.
+        inputs.output = mArm.get();
+    }
+
+    /** Counts a read that went over JNI, and passes its value through. */
+    private double read(double value) {
+        LoopProfiler.getInstance().count(mReadCounter, 1);
+        return value;
+    }
+
+    /** Counts a read that went over JNI, and passes its value through. */
+    private boolean read(boolean value) {
+        LoopProfiler.getInstance().count(mReadCounter, 1);
+        return value;
+    }
+
+    @Override
+    public void setOutput(double output) {
+        mArm.set(output);
+    }
+
+    @Override
+    public void resetPosition() {
+        mArm.setSelectedSensorPosition(0);
+    }
+
+    @Override
+    public void setLeds(AddressableLEDBuffer buffer) {
+        mLeds.setData(buffer);
+    }
+
+    @Override
+    public void applyStatusFrames(MatchMode mode) {
+        // Timeout of 0 so this doesn't wait on the bus mid match.
+        StatusFrames.kArm.apply(mode, (frame, ms) -> mArm.setStatusFramePeriod(frame, ms, 0));
+    }
+
+    @Override
+    public void disable() {
+        mArm.stopMotor();
+    }
+}
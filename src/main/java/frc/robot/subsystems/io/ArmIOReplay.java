@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+import frc.robot.Constants.Logging;
+import frc.robot.replay.ReplaySource;
+
+/**
+ * An arm whose limit switches are read from a match log.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class ArmIOReplay implements ArmIO {
+
+    private final ReplaySource mSource;
+    private final int mUpChannel;
+    private final int mDownChannel;
+    private double mOutput = 0;
+
+    /**
+     * Constructs an ArmIOReplay.
+     *
+     * @param source The log being replayed.
+     */
+    public ArmIOReplay(ReplaySource source) {
+        mSource = source;
+        mUpChannel = source.channel(Logging.kArmUp);
+        mDownChannel = source.channel(Logging.kArmDown);
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.fwdLimitSwitch = mSource.get(mUpChannel) != 0;
+        inputs.revLimitSwitch = mSource.get(mDownChannel) != 0;
+        inputs.output = mOutput;
+    }
+
+    @Override
+    public void setOutput(double output) {
+        mOutput = output;
+    }
+
+    @Override
+    public void disable() {
+        mOutput = 0;
+    }
+}
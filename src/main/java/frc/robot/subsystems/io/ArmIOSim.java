@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+/**
+ * A simple simulated arm, needs no HAL so it can run anywhere.
+ *
+ * <p>The arm moves between down (0) and up (1) at a rate proportional to output, taking about 1.5
+ * seconds at full output, and closes the limit switches at either end. Assumes it is updated once
+ * every 20ms loop.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class ArmIOSim implements ArmIO {
+
+    private static final double kDt = 0.02;
+    private static final double kFullOutputRate = 1 / 1.5; // travel per second
+    private static final double kTicksPerTravel = 4096;
+
+    private double mOutput = 0;
+    private double mTravel = 0; // starts down.
+    private double mPositionOffset = 0;
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        mTravel = Math.max(0, Math.min(1, mTravel + mOutput * kFullOutputRate * kDt));
+
+        inputs.fwdLimitSwitch = mTravel >= 1;
+        inputs.revLimitSwitch = mTravel <= 0;
+        inputs.position = mTravel * kTicksPerTravel - mPositionOffset;
+        inputs.output = mOutput;
+    }
+
+    @Override
+    public void setOutput(double output) {
+        mOutput = output;
+    }
+
+    @Override
+    public void resetPosition() {
+        mPositionOffset = mTravel * kTicksPerTravel;
+    }
+
+    @Override
+    public void disable() {
+        mOutput = 0;
+    }
+}
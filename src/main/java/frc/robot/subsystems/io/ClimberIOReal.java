@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+import static frc.robot.Constants.Climber.kCurrentLimit;
+import static frc.robot.Constants.Climber.kLFollowerId;
+import static frc.robot.Constants.Climber.kLId;
+import static frc.robot.Constants.Climber.kRFollowerId;
+import static frc.robot.Constants.Climber.kRId;
+
+import com.ctre.phoenix.motorcontrol.InvertType;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
+import edu.wpi.first.wpilibj.motorcontrol.MotorControllerGroup;
+import frc.robot.Constants.StatusFrames;
+import frc.tigerlib.can.MatchMode;
+import frc.tigerlib.profiling.LoopProfiler;
+
+/**
+ * The climber on the robot; a Talon SRX and a follower on each side.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class ClimberIOReal implements ClimberIO {
+
+    // A single Motor Controller that can control all the motors simultaneously.
+    MotorControllerGroup mClimber;
+
+    // The actual individual motors.
+    final WPI_TalonSRX kL = new WPI_TalonSRX(kLId);
+    final WPI_TalonSRX kLFollower = new WPI_TalonSRX(kLFollowerId);
+    final WPI_TalonSRX kR = new WPI_TalonSRX(kRId);
+    final WPI_TalonSRX kRFollower = new WPI_TalonSRX(kRFollowerId);
+
+    final int mReadCounter = LoopProfiler.getInstance().registerCounter("Climber Reads");
+
+    public ClimberIOReal() {
+        // One motor per side just follows the instructions of its master.
+        kLFollower.follow(kL);
+        kRFollower.follow(kR);
+
+        // Hold the climber up.
+        kL.setNeutralMode(NeutralMode.Brake);
+        kLFollower.setNeutralMode(NeutralMode.Brake);
+        kR.setNeutralMode(NeutralMode.Brake);
+        kRFollower.setNeutralMode(NeutralMode.Brake);
+
+        // Don't kill the motors.
+        kL.configContinuousCurrentLimit(kCurrentLimit);
+        kLFollower.configContinuousCurrentLimit(kCurrentLimit);
+        kR.configContinuousCurrentLimit(kCurrentLimit);
+        kRFollower.configContinuousCurrentLimit(kCurrentLimit);
+
+        // The Right side needs to be defaultly inverted, as it is on the opposite side.
+        kL.setInverted(InvertType.None);
+        kR.setInverted(InvertType.InvertMotorOutput);
+        kLFollower.setInverted(InvertType.FollowMaster);
+        kRFollower.setInverted(InvertType.FollowMaster);
+
+        // Init the MCG.
+        mClimber = new MotorControllerGroup(kL, kR);
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        // What the left leader is really applying; the group's get() is only what was last set.
+        inputs.output = read(kL.getMotorOutputPercent());
+    }
+
+    /** Counts a read that went over JNI, and passes its value through. */
+    private double read(double value) {
+        LoopProfiler.getInstance().count(mReadCounter, 1);
+        return value;
+    }
+
+    @Override
+    public void setOutput(double output) {
+        mClimber.set(output);
+    }
+
+    @Override
+    public void applyStatusFrames(MatchMode mode) {
+        // Timeout of 0 so this doesn't wait on the bus mid match.
+        StatusFrames.kClimberLeader.apply(
+                mode, (frame, ms) -> kL.setStatusFramePeriod(frame, ms, 0));
+        StatusFrames.kClimberLeader.apply(
+                mode, (frame, ms) -> kR.setStatusFramePeriod(frame, ms, 0));
+        StatusFrames.kClimberFollower.apply(
+                mode, (frame, ms) -> kLFollower.setStatusFramePeriod(frame, ms, 0));
+        StatusFrames.kClimberFollower.apply(
+                mode, (frame, ms) -> kRFollower.setStatusFramePeriod(frame, ms, 0));
+    }
+
+    @Override
+    public void disable() {
+        mClimber.stopMotor();
+    }
+}
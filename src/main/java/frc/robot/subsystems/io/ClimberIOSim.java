@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+/**
+ * A simulated climber. It has no sensors, so this is also used when replaying logs.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class ClimberIOSim implements ClimberIO {
+
+    private double mOutput = 0;
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.output = mOutput;
+    }
+
+    @Override
+    public void setOutput(double output) {
+        mOutput = output;
+    }
+
+    @Override
+    public void disable() {
+        mOutput = 0;
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+import frc.tigerlib.can.MatchMode;
+
+/**
+ * The hardware of the drivetrain; four wheel motors with encoders, and a gyro.
+ *
+ * <p>All sensors are read once per loop into {@link Inputs} by {@link #updateInputs(Inputs)}, the
+ * drivetrain only ever reads from there. This lets the drivetrain run on real hardware, a
+ * simulation, or a log without knowing the difference.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public interface DrivetrainIO {
+
+    /** Everything read from the drivetrain's hardware in a loop. */
+    public static class Inputs {
+        // Wheel velocities, meters per second.
+        public double flVelocity;
+        public double rlVelocity;
+        public double frVelocity;
+        public double rrVelocity;
+        // Wheel distances, meters.
+        public double flPosition;
+        public double rlPosition;
+        public double frPosition;
+        public double rrPosition;
+        // Heading of the robot, degrees CCW+.
+        public double headingDegrees;
+    }
+
+    /** Reads all sensors into the given inputs. */
+    public default void updateInputs(Inputs inputs) {}
+
+    /** Sets each wheel's duty cycle, [-1, 1]. */
+    public default void setDutyCycles(double fl, double rl, double fr, double rr) {}
+
+    /** Sets each wheel's closed loop velocity, meters per second. */
+    public default void setVelocities(double fl, double rl, double fr, double rr) {}
+
+    /** Sets the motors to brake (true) or coast (false) when not driven. */
+    public default void setBrakeMode(boolean brake) {}
+
+    /** Resets the gyro's heading to zero. */
+    public default void resetHeading() {}
+
+    /** Sets the status frame rates of the hardware's CAN devices for the given mode. */
+    public default void applyStatusFrames(MatchMode mode) {}
+
+    /** Disables all motor output. */
+    public default void disable() {}
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+import static frc.robot.Constants.Drivetrain.kDistancePerPulse;
+import static frc.robot.Constants.Drivetrain.kFrontLeftId;
+import static frc.robot.Constants.Drivetrain.kFrontRightId;
+import static frc.robot.Constants.Drivetrain.kMotorType;
+import static frc.robot.Constants.Drivetrain.kRPMtoMPSConversionFactor;
+import static frc.robot.Constants.Drivetrain.kRearLeftId;
+import static frc.robot.Constants.Drivetrain.kRearRightId;
+import static frc.robot.Constants.Drivetrain.kVelocityFF;
+import static frc.robot.Constants.Drivetrain.kVelocityP;
+
+import com.ctre.phoenix.sensors.WPI_PigeonIMU;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMax.ControlType;
+import com.revrobotics.CANSparkMax.IdleMode;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkMaxPIDController;
+import frc.robot.Constants;
+import frc.robot.Constants.StatusFrames;
+import frc.tigerlib.can.MatchMode;
+import frc.tigerlib.profiling.LoopProfiler;
+
+/**
+ * The drivetrain on the robot; four Spark MAXes driving NEOs, and a Pigeon.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class DrivetrainIOReal implements DrivetrainIO {
+
+    // Motors, PID controllers, and encoders
+    final CANSparkMax mFl = new CANSparkMax(kFrontLeftId, kMotorType);
+    final CANSparkMax mRl = new CANSparkMax(kRearLeftId, kMotorType);
+    final CANSparkMax mFr = new CANSparkMax(kFrontRightId, kMotorType);
+    final CANSparkMax mRr = new CANSparkMax(kRearRightId, kMotorType);
+
+    final SparkMaxPIDController mFlPID = mFl.getPIDController();
+    final SparkMaxPIDController mRlPID = mRl.getPIDController();
+    final SparkMaxPIDController mFrPID = mFr.getPIDController();
+    final SparkMaxPIDController mRrPID = mRr.getPIDController();
+
+    final RelativeEncoder mFlEncoder = mFl.getEncoder();
+    final RelativeEncoder mRlEncoder = mRl.getEncoder();
+    final RelativeEncoder mFrEncoder = mFr.getEncoder();
+    final RelativeEncoder mRrEncoder = mRr.getEncoder();
+
+    // Pigeon gyroscope.
+    final WPI_PigeonIMU mPigeon = new WPI_PigeonIMU(Constants.kPigeonId);
+
+    // Counts every read, on whichever thread owns the drivetrain.
+    final int mReadCounter = LoopProfiler.getInstance().registerCounter("Drivetrain Reads");
+
+    public DrivetrainIOReal() {
+        // Set up safe amperage limits.
+        mFl.setSmartCurrentLimit(50);
+        mFr.setSmartCurrentLimit(50);
+        mRl.setSmartCurrentLimit(50);
+        mRr.setSmartCurrentLimit(50);
+
+        // Invert right side because motors backwards.
+        mFl.setInverted(false);
+        mRl.setInverted(false);
+        mFr.setInverted(true);
+        mRr.setInverted(true);
+
+        // Setup PID controllers, in meters per second once the conversion factors are set.
+        mFlPID.setFF(kVelocityFF);
+        mRlPID.setFF(kVelocityFF);
+        mFrPID.setFF(kVelocityFF);
+        mRrPID.setFF(kVelocityFF);
+        mFlPID.setP(kVelocityP);
+        mRlPID.setP(kVelocityP);
+        mFrPID.setP(kVelocityP);
+        mRrPID.setP(kVelocityP);
+
+        // Changes encoder distance from encoder ticks to meters.
+        mFlEncoder.setPositionConversionFactor(kDistancePerPulse);
+        mRlEncoder.setPositionConversionFactor(kDistancePerPulse);
+        mFrEncoder.setPositionConversionFactor(kDistancePerPulse);
+        mRrEncoder.setPositionConversionFactor(kDistancePerPulse);
+
+        // Changes encoder velocity from rotations per minute to meters per second.
+        mFlEncoder.setVelocityConversionFactor(kRPMtoMPSConversionFactor);
+        mRlEncoder.setVelocityConversionFactor(kRPMtoMPSConversionFactor);
+        mFrEncoder.setVelocityConversionFactor(kRPMtoMPSConversionFactor);
+        mRrEncoder.setVelocityConversionFactor(kRPMtoMPSConversionFactor);
+
+        // Make sure stuff starts on 0.
+        mFlEncoder.setPosition(0.0);
+        mRlEncoder.setPosition(0.0);
+        mFrEncoder.setPosition(0.0);
+        mRrEncoder.setPosition(0.0);
+        mPigeon.setFusedHeading(0.0);
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.flVelocity = read(mFlEncoder.getVelocity());
+        inputs.rlVelocity = read(mRlEncoder.getVelocity());
+        inputs.frVelocity = read(mFrEncoder.getVelocity());
+        inputs.rrVelocity = read(mRrEncoder.getVelocity());
+        inputs.flPosition = read(mFlEncoder.getPosition());
+        inputs.rlPosition = read(mRlEncoder.getPosition());
+        inputs.frPosition = read(mFrEncoder.getPosition());
+        inputs.rrPosition = read(mRrEncoder.getPosition());
+        // Same as getRotation2d(), without making a new Rotation2d.
+        inputs.headingDegrees = -read(mPigeon.getAngle());
+    }
+
+    /** Counts a read that went over JNI, and passes its value through. */
+    private double read(double value) {
+        LoopProfiler.getInstance().count(mReadCounter, 1);
+        return value;
+    }
+
+    @Override
+    public void setDutyCycles(double fl, double rl, double fr, double rr) {
+        // Use PID controllers for consistency.
+        mFlPID.setReference(fl, ControlType.kDutyCycle);
+        mRlPID.setReference(rl, ControlType.kDutyCycle);
+        mFrPID.setReference(fr, ControlType.kDutyCycle);
+        mRrPID.setReference(rr, ControlType.kDutyCycle);
+    }
+
+    @Override
+    public void setVelocities(double fl, double rl, double fr, double rr) {
+        mFlPID.setReference(fl, ControlType.kVelocity);
+        mRlPID.setReference(rl, ControlType.kVelocity);
+        mFrPID.setReference(fr, ControlType.kVelocity);
+        mRrPID.setReference(rr, ControlType.kVelocity);
+    }
+
+    @Override
+    public void setBrakeMode(boolean brake) {
+        IdleMode mode = brake ? IdleMode.kBrake : IdleMode.kCoast;
+        mFl.setIdleMode(mode);
+        mRl.setIdleMode(mode);
+        mFr.setIdleMode(mode);
+        mRr.setIdleMode(mode);
+    }
+
+    @Override
+    public void applyStatusFrames(MatchMode mode) {
+        StatusFrames.kDrive.apply(mode, mFl::setPeriodicFramePeriod);
+        StatusFrames.kDrive.apply(mode, mRl::setPeriodicFramePeriod);
+        StatusFrames.kDrive.apply(mode, mFr::setPeriodicFramePeriod);
+        StatusFrames.kDrive.apply(mode, mRr::setPeriodicFramePeriod);
+        // Timeout of 0 so this doesn't wait on the bus mid match.
+        StatusFrames.kPigeon.apply(mode, (frame, ms) -> mPigeon.setStatusFramePeriod(frame, ms, 0));
+    }
+
+    @Override
+    public void resetHeading() {
+        mPigeon.reset();
+    }
+
+    @Override
+    public void disable() {
+        mFl.disable();
+        mRl.disable();
+        mFr.disable();
+        mRr.disable();
+    }
+}
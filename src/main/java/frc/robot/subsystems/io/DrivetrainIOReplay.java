@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+import frc.robot.Constants.Logging;
+import frc.robot.replay.ReplaySource;
+
+/**
+ * A drivetrain whose sensors are read from a match log. Outputs go nowhere, the drivetrain keeps
+ * track of what it commanded itself.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class DrivetrainIOReplay implements DrivetrainIO {
+
+    private final ReplaySource mSource;
+    private final int mFlVelocityChannel;
+    private final int mRlVelocityChannel;
+    private final int mFrVelocityChannel;
+    private final int mRrVelocityChannel;
+    private final int mHeadingChannel;
+
+    // The log has velocities only, distances are integrated from them.
+    private long mLastTimestamp = -1;
+
+    /**
+     * Constructs a DrivetrainIOReplay.
+     *
+     * @param source The log being replayed.
+     */
+    public DrivetrainIOReplay(ReplaySource source) {
+        mSource = source;
+        mFlVelocityChannel = source.channel(Logging.kFlVelocity);
+        mRlVelocityChannel = source.channel(Logging.kRlVelocity);
+        mFrVelocityChannel = source.channel(Logging.kFrVelocity);
+        mRrVelocityChannel = source.channel(Logging.kRrVelocity);
+        mHeadingChannel = source.channel(Logging.kHeading);
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        long timestamp = mSource.getTimestamp();
+        double dt = mLastTimestamp < 0 ? 0 : (timestamp - mLastTimestamp) / 1e6;
+        mLastTimestamp = timestamp;
+
+        inputs.flVelocity = mSource.get(mFlVelocityChannel);
+        inputs.rlVelocity = mSource.get(mRlVelocityChannel);
+        inputs.frVelocity = mSource.get(mFrVelocityChannel);
+        inputs.rrVelocity = mSource.get(mRrVelocityChannel);
+        inputs.flPosition += inputs.flVelocity * dt;
+        inputs.rlPosition += inputs.rlVelocity * dt;
+        inputs.frPosition += inputs.frVelocity * dt;
+        inputs.rrPosition += inputs.rrVelocity * dt;
+        // Any gyro resets from the match are already in the logged heading.
+        inputs.headingDegrees = mSource.get(mHeadingChannel);
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+import static frc.robot.Constants.Drivetrain.kFrontLeftOffset;
+import static frc.robot.Constants.Drivetrain.kGearRatio;
+import static frc.robot.Constants.Drivetrain.kVelocityFF;
+import static frc.robot.Constants.Drivetrain.kVelocityP;
+import static frc.robot.Constants.Drivetrain.kWheelDiameter;
+import static frc.robot.Constants.Simulation.kCurrentLimit;
+import static frc.robot.Constants.Simulation.kMass;
+import static frc.robot.Constants.Simulation.kMomentOfInertia;
+import static frc.robot.Constants.Simulation.kPhysicsPeriod;
+import static frc.robot.Constants.Simulation.kWheelFriction;
+import static frc.robot.Constants.Simulation.kWheelInertia;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.Timer;
+import frc.tigerlib.sim.MecanumChassisSim;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A simulated drivetrain, needs no HAL so it can run anywhere.
+ *
+ * <p>The motors, wheels and body are simulated by a {@link MecanumChassisSim}; NEOs through the
+ * gearboxes, wheels slipping on carpet, the robot's mass. The encoders and gyro read from it.
+ *
+ * <p>Each read steps the physics up to the clock in fixed steps, so it doesn't matter how often it
+ * is read, and stepping the clock faster than real time runs the physics faster too. Pass in a
+ * clock to run without HAL.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class DrivetrainIOSim implements DrivetrainIO {
+
+    // Steps past this are dropped rather than caught up on, ie: after a breakpoint.
+    private static final double kMaxCatchUp = 0.1;
+
+    private final DoubleSupplier mClock;
+    private final MecanumChassisSim mChassis =
+            new MecanumChassisSim(
+                    DCMotor.getNEO(1),
+                    kGearRatio,
+                    kWheelDiameter / 2,
+                    kFrontLeftOffset.getX(),
+                    kFrontLeftOffset.getY(),
+                    kMass,
+                    kMomentOfInertia,
+                    kWheelInertia,
+                    kWheelFriction);
+    // Duty cycles, or closed loop velocity targets.
+    private final double[] mTargets = new double[4];
+    private boolean mVelocityControl = false;
+    // Voltages sent to the motors, reused each step.
+    private final double[] mVoltages = new double[4];
+    private double mHeadingOffset = 0;
+    private double mBatteryVoltage = 12;
+    // Sensor noise, none without a random.
+    private Random mRandom;
+    private double mVelocityStdDev = 0;
+    private double mHeadingStdDev = 0;
+    // Time the physics has been stepped to.
+    private double mSimTime = -1;
+
+    /** Constructs a DrivetrainIOSim that uses the robot's clock. */
+    public DrivetrainIOSim() {
+        this(Timer::getFPGATimestamp);
+    }
+
+    /**
+     * Constructs a DrivetrainIOSim.
+     *
+     * @param clock The current time, seconds.
+     */
+    public DrivetrainIOSim(DoubleSupplier clock) {
+        mClock = clock;
+        mChassis.setCurrentLimit(kCurrentLimit);
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        double timestamp = mClock.getAsDouble();
+        if (mSimTime < 0 || timestamp - mSimTime > kMaxCatchUp) {
+            mSimTime = timestamp;
+        }
+        while (mSimTime + kPhysicsPeriod <= timestamp) {
+            step();
+            mSimTime += kPhysicsPeriod;
+        }
+
+        inputs.flVelocity =
+                mChassis.getWheelVelocity(MecanumChassisSim.kFrontLeft) + noise(mVelocityStdDev);
+        inputs.rlVelocity =
+                mChassis.getWheelVelocity(MecanumChassisSim.kRearLeft) + noise(mVelocityStdDev);
+        inputs.frVelocity =
+                mChassis.getWheelVelocity(MecanumChassisSim.kFrontRight) + noise(mVelocityStdDev);
+        inputs.rrVelocity =
+                mChassis.getWheelVelocity(MecanumChassisSim.kRearRight) + noise(mVelocityStdDev);
+        inputs.flPosition = mChassis.getWheelPosition(MecanumChassisSim.kFrontLeft);
+        inputs.rlPosition = mChassis.getWheelPosition(MecanumChassisSim.kRearLeft);
+        inputs.frPosition = mChassis.getWheelPosition(MecanumChassisSim.kFrontRight);
+        inputs.rrPosition = mChassis.getWheelPosition(MecanumChassisSim.kRearRight);
+        double heading = Math.toDegrees(mChassis.getHeadingRadians()) - mHeadingOffset;
+        inputs.headingDegrees = heading + noise(mHeadingStdDev);
+    }
+
+    private double noise(double stdDev) {
+        return mRandom != null ? mRandom.nextGaussian() * stdDev : 0;
+    }
+
+    private void step() {
+        // Velocity control runs every step, like the Spark MAXs' own 1kHz loop.
+        for (int i = 0; i < 4; i++) {
+            double duty = mTargets[i];
+            if (mVelocityControl) {
+                double error = mTargets[i] - mChassis.getWheelVelocity(i);
+                duty = mTargets[i] * kVelocityFF + error * kVelocityP;
+            }
+            mVoltages[i] = Math.max(-1, Math.min(1, duty)) * mBatteryVoltage;
+        }
+        mChassis.setVoltages(mVoltages[0], mVoltages[1], mVoltages[2], mVoltages[3]);
+        mChassis.update(kPhysicsPeriod);
+    }
+
+    @Override
+    public void setDutyCycles(double fl, double rl, double fr, double rr) {
+        mVelocityControl = false;
+        mTargets[0] = fl;
+        mTargets[1] = rl;
+        mTargets[2] = fr;
+        mTargets[3] = rr;
+    }
+
+    @Override
+    public void setVelocities(double fl, double rl, double fr, double rr) {
+        mVelocityControl = true;
+        mTargets[0] = fl;
+        mTargets[1] = rl;
+        mTargets[2] = fr;
+        mTargets[3] = rr;
+    }
+
+    @Override
+    public void setBrakeMode(boolean brake) {
+        mChassis.setBrakeMode(brake);
+    }
+
+    @Override
+    public void resetHeading() {
+        mHeadingOffset = Math.toDegrees(mChassis.getHeadingRadians());
+    }
+
+    @Override
+    public void disable() {
+        setDutyCycles(0, 0, 0, 0);
+    }
+
+    /** Sets the battery voltage the motors are driven from, 12 by default. */
+    public void setBatteryVoltage(double volts) {
+        mBatteryVoltage = volts;
+    }
+
+    /**
+     * Adds gaussian noise to the sensors.
+     *
+     * @param random Where the noise comes from, null for none.
+     * @param velocityStdDev Of each wheel velocity, meters per second.
+     * @param headingStdDev Of the gyro heading, degrees.
+     */
+    public void setSensorNoise(Random random, double velocityStdDev, double headingStdDev) {
+        mRandom = random;
+        mVelocityStdDev = velocityStdDev;
+        mHeadingStdDev = headingStdDev;
+    }
+
+    /** @return The simulated chassis, for where the robot really is. */
+    public MecanumChassisSim getChassis() {
+        return mChassis;
+    }
+}
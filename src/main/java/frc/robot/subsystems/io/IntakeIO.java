@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+import frc.tigerlib.can.MatchMode;
+
+/**
+ * The hardware of the intake; a single motor with no sensors.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public interface IntakeIO {
+
+    /** Everything read from the intake's hardware in a loop. */
+    public static class Inputs {
+        // Motor output, [-1, 1].
+        public double output;
+    }
+
+    /** Reads all sensors into the given inputs. */
+    public default void updateInputs(Inputs inputs) {}
+
+    /** Sets the motor's output, [-1, 1]; positive intakes. */
+    public default void setOutput(double output) {}
+
+    /** Sets the status frame rates of the hardware's CAN devices for the given mode. */
+    public default void applyStatusFrames(MatchMode mode) {}
+
+    /** Disables motor output. */
+    public default void disable() {}
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems.io;
+
+import static frc.robot.Constants.Intake.kId;
+import static frc.robot.Constants.Intake.kMotorType;
+
+import com.revrobotics.CANSparkMax;
+import frc.robot.Constants.StatusFrames;
+import frc.tigerlib.can.MatchMode;
+
+/**
+ * The intake on the robot; a Spark MAX driving a Redline.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class IntakeIOReal implements IntakeIO {
+
+    // Motor controller for intake.
+    final CANSparkMax mIntake = new CANSparkMax(kId, kMotorType);
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        // Cached on the java side, not a read.
+        inputs.output = mIntake.get();
+    }
+
+    @Override
+    public void setOutput(double output) {
+        mIntake.set(output);
+    }
+
+    @Override
+    public void applyStatusFrames(MatchMode mode) {
+        StatusFrames.kIntake.apply(mode, mIntake::setPeriodicFramePeriod);
+    }
+
+    @Override
+    public void disable() {
+        mIntake.stopMotor();
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.can;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.tigerlib.telemetry.TelemetryPublisher;
+import frc.tigerlib.telemetry.TelemetryPublisher.Rate;
+
+/**
+ * Estimates CAN bus load from the status frame profiles, so the effect of a profile can be seen
+ * before it goes on the robot, and reads the measured load to compare against.
+ *
+ * <p>The estimate only counts status frames; control frames and devices without a profile show up
+ * as the difference between the estimated and measured loads. Problems are reported on the Driver
+ * Station, everything else goes to the dashboard through a {@link TelemetryPublisher}.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class CanBusReport {
+
+    // A CAN 2.0B frame with 8 data bytes, before bit stuffing.
+    private static final int kBitsPerFrame = 131;
+    private static final int kBitsPerSecond = 1_000_000;
+
+    private final StatusFrameProfile<?>[] mProfiles;
+    private int mBusOffCount = 0;
+
+    /**
+     * Constructs a CanBusReport.
+     *
+     * @param profiles Every profile on the bus.
+     */
+    public CanBusReport(StatusFrameProfile<?>... profiles) {
+        mProfiles = profiles;
+    }
+
+    /**
+     * @param mode The mode, or null for the device defaults.
+     * @return The estimated percent of the bus used by status frames.
+     */
+    public double getEstimatedLoad(MatchMode mode) {
+        double frames = 0;
+        for (StatusFrameProfile<?> profile : mProfiles) {
+            frames += profile.getFramesPerSecond(mode);
+        }
+        return toLoad(frames);
+    }
+
+    /** @return The percent of the bus in use, as measured by the roboRIO. */
+    public double getMeasuredLoad() {
+        return RobotController.getCANStatus().percentBusUtilization * 100;
+    }
+
+    /**
+     * Warns on the Driver Station if status frames alone are estimated to use too much of the bus
+     * in any mode, naming the profile using the most.
+     *
+     * @param maxLoad The most of the bus status frames should use, percent.
+     */
+    public void warnIfOverloaded(double maxLoad) {
+        for (MatchMode mode : MatchMode.values()) {
+            double load = getEstimatedLoad(mode);
+            if (load <= maxLoad) {
+                continue;
+            }
+            StatusFrameProfile<?> busiest = mProfiles[0];
+            for (StatusFrameProfile<?> profile : mProfiles) {
+                if (profile.getFramesPerSecond(mode) > busiest.getFramesPerSecond(mode)) {
+                    busiest = profile;
+                }
+            }
+            DriverStation.reportWarning(
+                    String.format(
+                            "CAN status frames use an estimated %.1f%% of the bus in %s, over"
+                                    + " %.0f%%; %s sends the most at %.0f frames/s",
+                            load,
+                            mode.name().substring(1),
+                            maxLoad,
+                            busiest.getName(),
+                            busiest.getFramesPerSecond(mode)),
+                    false);
+        }
+    }
+
+    /**
+     * Publishes each profile's frames per second and estimated load in the current mode, the
+     * estimated and measured totals, and the bus's error counts. A bus off is also warned about on
+     * the Driver Station, since every device on it stops responding.
+     *
+     * @param telemetry Where to publish.
+     */
+    public void publish(TelemetryPublisher telemetry) {
+        for (StatusFrameProfile<?> profile : mProfiles) {
+            String prefix = "CAN/" + profile.getName() + "/";
+            telemetry.addDouble(
+                    prefix + "Frames per s",
+                    () -> profile.getFramesPerSecond(MatchMode.current()),
+                    .5,
+                    Rate.k2Hz);
+            telemetry.addDouble(
+                    prefix + "Load %",
+                    () -> toLoad(profile.getFramesPerSecond(MatchMode.current())),
+                    .1,
+                    Rate.k2Hz);
+        }
+        telemetry.addDouble(
+                "CAN/Estimated Load %", () -> getEstimatedLoad(MatchMode.current()), .1, Rate.k2Hz);
+        telemetry.addDouble("CAN/Measured Load %", this::getMeasuredLoad, .1, Rate.k2Hz);
+        telemetry.addDouble(
+                "CAN/Transmit Errors",
+                () -> RobotController.getCANStatus().transmitErrorCount,
+                0,
+                Rate.k2Hz);
+        telemetry.addDouble(
+                "CAN/Receive Errors",
+                () -> RobotController.getCANStatus().receiveErrorCount,
+                0,
+                Rate.k2Hz);
+        telemetry.addDouble("CAN/Bus Off Count", this::checkBusOff, 0, Rate.k2Hz);
+    }
+
+    /** @return The times the bus has gone off, warning if that went up since the last check. */
+    private double checkBusOff() {
+        int busOffCount = RobotController.getCANStatus().busOffCount;
+        if (busOffCount > mBusOffCount) {
+            DriverStation.reportWarning(
+                    "CAN bus off " + busOffCount + " times, check the wiring", false);
+        }
+        mBusOffCount = busOffCount;
+        return busOffCount;
+    }
+
+    private static double toLoad(double framesPerSecond) {
+        return framesPerSecond * kBitsPerFrame / kBitsPerSecond * 100;
+    }
+}
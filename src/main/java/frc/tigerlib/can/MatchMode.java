@@ -0,0 +1,26 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.can;
+
+import edu.wpi.first.wpilibj.RobotState;
+
+/**
+ * The parts of a match that need different status frame rates. Test mode counts as teleop.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public enum MatchMode {
+    kDisabled,
+    kAuto,
+    kTeleop;
+
+    /** @return The mode the robot is in right now. */
+    public static MatchMode current() {
+        if (RobotState.isDisabled()) {
+            return kDisabled;
+        }
+        return RobotState.isAutonomous() ? kAuto : kTeleop;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.can;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * How often a kind of CAN device should send each of its status frames, for each {@link
+ * MatchMode}. Frames we read are sped up, frames we don't are slowed down.
+ *
+ * <p>Usage:
+ *
+ * <pre><code>
+ * // frame, default ms, disabled ms, auto ms, teleop ms
+ * StatusFrameProfile&lt;PeriodicFrame&gt; profile =
+ *         new StatusFrameProfile&lt;&gt;("Drive", PeriodicFrame.class, 4)
+ *                 .set(PeriodicFrame.kStatus1, 20, 100, 20, 20)
+ *                 .set(PeriodicFrame.kStatus3, 50, 500, 500, 500);
+ * ...
+ * profile.apply(MatchMode.current(), motor::setPeriodicFramePeriod);
+ * </code></pre>
+ *
+ * @param <F> The status frame enum of the device.
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class StatusFrameProfile<F extends Enum<F>> {
+
+    // Periods are kept in this order, default first then by match mode.
+    private static final int kDefault = 0;
+
+    private final String mName;
+    private final int mDeviceCount;
+    private final EnumMap<F, int[]> mPeriods;
+
+    /**
+     * Constructs a StatusFrameProfile.
+     *
+     * @param name The name shown in the bus load report.
+     * @param frames The status frame enum of the device.
+     * @param deviceCount How many devices use this profile, for the bus load estimate.
+     */
+    public StatusFrameProfile(String name, Class<F> frames, int deviceCount) {
+        mName = name;
+        mDeviceCount = deviceCount;
+        mPeriods = new EnumMap<>(frames);
+    }
+
+    /**
+     * Sets the periods of a frame. Frames that are never set are left alone.
+     *
+     * @param frame The status frame.
+     * @param defaultMs The period the device uses out of the box, for comparison.
+     * @param disabledMs The period while disabled.
+     * @param autoMs The period during auto.
+     * @param teleopMs The period during teleop.
+     * @return This profile, for chaining.
+     */
+    public StatusFrameProfile<F> set(
+            F frame, int defaultMs, int disabledMs, int autoMs, int teleopMs) {
+        mPeriods.put(frame, new int[] {defaultMs, disabledMs, autoMs, teleopMs});
+        return this;
+    }
+
+    /**
+     * Sends every frame's period for the given mode to a device.
+     *
+     * @param mode The mode to apply.
+     * @param setter Sets one frame's period on the device, in milliseconds.
+     */
+    public void apply(MatchMode mode, ObjIntConsumer<F> setter) {
+        for (Map.Entry<F, int[]> entry : mPeriods.entrySet()) {
+            setter.accept(entry.getKey(), entry.getValue()[index(mode)]);
+        }
+    }
+
+    /** @return The period of the frame in the given mode, or -1 if the frame is not set. */
+    public int getPeriodMs(F frame, MatchMode mode) {
+        int[] periods = mPeriods.get(frame);
+        return periods != null ? periods[index(mode)] : -1;
+    }
+
+    /**
+     * @param mode The mode, or null for the device defaults.
+     * @return The status frames sent per second by all devices using this profile.
+     */
+    public double getFramesPerSecond(MatchMode mode) {
+        int i = index(mode);
+        double frames = 0;
+        for (int[] periods : mPeriods.values()) {
+            if (periods[i] > 0) {
+                frames += 1000.0 / periods[i];
+            }
+        }
+        return frames * mDeviceCount;
+    }
+
+    /** @return The name shown in the bus load report. */
+    public String getName() {
+        return mName;
+    }
+
+    /** @return How many devices use this profile. */
+    public int getDeviceCount() {
+        return mDeviceCount;
+    }
+
+    private static int index(MatchMode mode) {
+        return mode == null ? kDefault : mode.ordinal() + 1;
+    }
+}
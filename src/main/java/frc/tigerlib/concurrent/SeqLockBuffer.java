@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.concurrent;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands the latest set of doubles from one thread to another without locks or allocation.
+ *
+ * <p>The writer never waits; a reader that catches a write in progress just reads again. Only one
+ * thread may write, any number may read. Readers only ever see the latest complete write, older
+ * ones are overwritten.
+ *
+ * <p>Usage:
+ *
+ * <pre><code>
+ * // writer
+ * buffer.beginWrite();
+ * buffer.set(0, x);
+ * buffer.set(1, y);
+ * buffer.endWrite();
+ *
+ * // reader
+ * long version = buffer.read(values);
+ * </code></pre>
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class SeqLockBuffer {
+
+    // Odd while a write is in progress, so two even and equal reads means the values between
+    // them were not torn.
+    private final AtomicLong mSequence = new AtomicLong();
+    private final double[] mValues;
+
+    /**
+     * Constructs a SeqLockBuffer.
+     *
+     * @param size The amount of values.
+     */
+    public SeqLockBuffer(int size) {
+        mValues = new double[size];
+    }
+
+    /** Starts a write. */
+    public void beginWrite() {
+        mSequence.set(mSequence.get() + 1);
+        // Keep the value writes from moving before the sequence goes odd.
+        VarHandle.storeStoreFence();
+    }
+
+    /** Sets a value, only between {@link #beginWrite()} and {@link #endWrite()}. */
+    public void set(int index, double value) {
+        mValues[index] = value;
+    }
+
+    /** Finishes a write, making the values visible to readers. */
+    public void endWrite() {
+        mSequence.set(mSequence.get() + 1);
+    }
+
+    /**
+     * Copies the latest complete write.
+     *
+     * @param out The array to copy into, at least as long as the buffer.
+     * @return The amount of writes so far, changes every time the values are written.
+     */
+    public long read(double[] out) {
+        while (true) {
+            long before = mSequence.get();
+            if ((before & 1) == 0) {
+                System.arraycopy(mValues, 0, out, 0, mValues.length);
+                // Keep the value reads from moving after the sequence is checked again.
+                VarHandle.loadLoadFence();
+                if (mSequence.get() == before) {
+                    return before / 2;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** @return The amount of values. */
+    public int size() {
+        return mValues.length;
+    }
+}
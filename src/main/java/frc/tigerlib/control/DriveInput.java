@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.control;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.wpilibj.drive.MecanumDrive.WheelSpeeds;
+import frc.tigerlib.Util;
+import frc.tigerlib.input.ShapingCurve;
+import frc.tigerlib.kinematics.MecanumDriveIK;
+
+/**
+ * Turns driver input into wheel duty cycles; slew limited, shaped, and holding the robot's heading
+ * once the driver stops turning.
+ *
+ * <p>Split in two like the drivetrain is; {@link #update} runs where the driver is read, and {@link
+ * #calculateWheels} runs on whichever thread owns the motors. Time is passed in, so this needs no
+ * scheduler or HAL, and a simulation can run it faster than real time. Not thread safe; use from
+ * one thread.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class DriveInput {
+
+    // Slew rates, units per second.
+    private final double mXSlewRate;
+    private final double mYSlewRate;
+    private final double mZSlewRate;
+    private final HeadingHold mHeadingHold;
+    private ShapingCurve mShaping;
+    private boolean mHeadingProtect = true;
+
+    // Slew limited input, before shaping.
+    private double mX = 0;
+    private double mY = 0;
+    private double mZ = 0;
+    private double mLastTimestamp = Double.NaN;
+
+    // What the last update() found.
+    private double mXSpeed = 0;
+    private double mYSpeed = 0;
+    private double mZSpeed = 0;
+    private boolean mHoldHeading = false;
+
+    /**
+     * Constructs a DriveInput.
+     *
+     * @param xSlewRate How fast x input can change, per second.
+     * @param ySlewRate How fast y input can change, per second.
+     * @param zSlewRate How fast z input can change, per second.
+     * @param settleSeconds How long to wait after turning stops before holding the heading.
+     * @param shaping The curve input is shaped by.
+     */
+    public DriveInput(
+            double xSlewRate,
+            double ySlewRate,
+            double zSlewRate,
+            double settleSeconds,
+            ShapingCurve shaping) {
+        mXSlewRate = xSlewRate;
+        mYSlewRate = ySlewRate;
+        mZSlewRate = zSlewRate;
+        mHeadingHold = new HeadingHold(settleSeconds);
+        mShaping = shaping;
+    }
+
+    /** Sets the curve input is shaped by. */
+    public void setShapingCurve(ShapingCurve curve) {
+        mShaping = curve;
+    }
+
+    /** Sets whether the heading is held while the driver isn't turning. */
+    public void setHeadingProtection(boolean headingProtection) {
+        mHeadingProtect = headingProtection;
+    }
+
+    /** @return Whether the heading is held while the driver isn't turning. */
+    public boolean getHeadingProtection() {
+        return mHeadingProtect;
+    }
+
+    /** @return What decides when to hold the heading, and which heading to hold. */
+    public HeadingHold getHeadingHold() {
+        return mHeadingHold;
+    }
+
+    /**
+     * Slew limits and shapes driver input, and decides whether to hold the heading.
+     *
+     * @param timestamp The current time, seconds.
+     * @param xSpeed Robot X Speed, forward is positive.
+     * @param ySpeed Robot Y Speed, Right is positive.
+     * @param zSpeed Robot Z/Theta Speed, Clockwise is positive.
+     * @param headingDegrees The robot's current heading, CCW+.
+     * @return Whether to hold the desired heading.
+     */
+    public boolean update(
+            double timestamp, double xSpeed, double ySpeed, double zSpeed, double headingDegrees) {
+        // Nothing to limit against on the first update.
+        double dt = Double.isNaN(mLastTimestamp) ? 0 : timestamp - mLastTimestamp;
+        mLastTimestamp = timestamp;
+        mX = slew(mX, xSpeed, mXSlewRate * dt);
+        mY = slew(mY, ySpeed, mYSlewRate * dt);
+        mZ = slew(mZ, zSpeed, mZSlewRate * dt);
+        mXSpeed = mShaping.apply(mX);
+        mYSpeed = mShaping.apply(mY);
+        mZSpeed = mShaping.apply(mZ);
+
+        // heading protection, keep us facing the same direction.
+        boolean shouldProtectHeading = mHeadingProtect && mZSpeed == 0.0;
+        // true once we've stopped turning long enough to capture the desired heading
+        mHoldHeading = mHeadingHold.update(timestamp, shouldProtectHeading, headingDegrees);
+        return mHoldHeading;
+    }
+
+    /** @return The last update's shaped x speed. */
+    public double getXSpeed() {
+        return mXSpeed;
+    }
+
+    /** @return The last update's shaped y speed. */
+    public double getYSpeed() {
+        return mYSpeed;
+    }
+
+    /** @return The last update's shaped z speed. */
+    public double getZSpeed() {
+        return mZSpeed;
+    }
+
+    /** @return Whether the last update held the heading. */
+    public boolean getHoldHeading() {
+        return mHoldHeading;
+    }
+
+    /** @return The heading to hold, CCW+ degrees. */
+    public double getDesiredDegrees() {
+        return mHeadingHold.getDesiredDegrees();
+    }
+
+    /** @return value moved towards target, by at most maxStep. */
+    private static double slew(double value, double target, double maxStep) {
+        return value + Util.clamp(target - value, -maxStep, maxStep);
+    }
+
+    /**
+     * Holds heading and finds wheel speeds. Runs on whichever thread owns the motors, with that
+     * thread's heading controller, ik and output.
+     *
+     * @param xSpeed Shaped x speed.
+     * @param ySpeed Shaped y speed.
+     * @param zSpeed Shaped z speed, replaced by the heading controller's while holding.
+     * @param holdHeading Whether to hold the desired heading.
+     * @param desiredHeadingDegrees The heading to hold, CCW+.
+     * @param fieldOriented Whether to drive field oriented.
+     * @param headingDegrees The robot's current heading, CCW+.
+     * @param maxHeadingTurn The fastest the heading controller may turn.
+     * @param zPID The heading controller, working in degrees.
+     * @param ik Finds the wheel speeds; its heading should already be set.
+     * @param out Where the wheel speeds go.
+     * @return The z speed driven, the heading controller's while holding.
+     */
+    public static double calculateWheels(
+            double xSpeed,
+            double ySpeed,
+            double zSpeed,
+            boolean holdHeading,
+            double desiredHeadingDegrees,
+            boolean fieldOriented,
+            double headingDegrees,
+            double maxHeadingTurn,
+            PIDController zPID,
+            MecanumDriveIK ik,
+            WheelSpeeds out) {
+        if (holdHeading) {
+            double newSpeed = HeadingHold.turnSpeed(zPID, desiredHeadingDegrees, headingDegrees);
+            zSpeed = Util.clamp(newSpeed, -maxHeadingTurn, maxHeadingTurn);
+        }
+
+        // Do some beep boop to get wheel speeds.
+        // Same args as MecanumDrive.driveCartesianIK, whose y and x are swapped from ours.
+        ik.calculate(ySpeed, xSpeed, zSpeed, fieldOriented, out);
+        return zSpeed;
+    }
+}
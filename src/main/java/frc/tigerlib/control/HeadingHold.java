@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.control;
+
+import edu.wpi.first.math.controller.PIDController;
+
+/**
+ * Decides when to hold the robot's heading, and which heading to hold.
+ *
+ * <p>While the driver turns we are idle, and the desired heading follows the robot. Once they stop
+ * turning we settle for a moment, letting the robot coast to a stop, then capture the heading and
+ * hold it until they turn again.
+ *
+ * <p>Time is passed in, so this needs no scheduler or HAL and runs the same on any thread. Not
+ * thread safe; use from one thread.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class HeadingHold {
+
+    /** What the heading hold is doing. */
+    public enum State {
+        /** Not holding, the desired heading follows the robot. */
+        kIdle,
+        /** Waiting for the robot to stop turning before capturing its heading. */
+        kSettling,
+        /** Holding the captured heading. */
+        kHolding
+    }
+
+    private final double mSettleSeconds;
+
+    private State mState = State.kIdle;
+    private double mSettleStart = 0;
+    private double mDesiredDegrees = 0;
+
+    /**
+     * Constructs a HeadingHold.
+     *
+     * @param settleSeconds How long to wait after turning stops before capturing the heading.
+     */
+    public HeadingHold(double settleSeconds) {
+        mSettleSeconds = settleSeconds;
+    }
+
+    /**
+     * Steps the state machine; call once each time the drivetrain is driven.
+     *
+     * @param timestamp The current time, seconds.
+     * @param protect Whether the heading should be protected, false while turning.
+     * @param headingDegrees The robot's current heading, CCW+.
+     * @return Whether to hold the desired heading.
+     */
+    public boolean update(double timestamp, boolean protect, double headingDegrees) {
+        if (!protect) {
+            reset(headingDegrees);
+            return false;
+        }
+        switch (mState) {
+            case kIdle:
+                mState = State.kSettling;
+                mSettleStart = timestamp;
+                return false;
+            case kSettling:
+                if (timestamp - mSettleStart < mSettleSeconds) {
+                    return false;
+                }
+                mDesiredDegrees = headingDegrees;
+                mState = State.kHolding;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Stops holding, and makes the current heading the desired one.
+     *
+     * @param headingDegrees The robot's current heading, CCW+.
+     */
+    public void reset(double headingDegrees) {
+        mState = State.kIdle;
+        mDesiredDegrees = headingDegrees;
+    }
+
+    /** @return What the heading hold is doing. */
+    public State getState() {
+        return mState;
+    }
+
+    /** @return The heading to hold, CCW+ degrees. */
+    public double getDesiredDegrees() {
+        return mDesiredDegrees;
+    }
+
+    /**
+     * Finds the shortest way from one heading to another, so crossing 180 or having wound up
+     * several turns doesn't send the robot the long way around.
+     *
+     * @param desiredDegrees The heading wanted.
+     * @param headingDegrees The current heading.
+     * @return The error in [-180, 180], CCW+ degrees.
+     */
+    public static double errorDegrees(double desiredDegrees, double headingDegrees) {
+        return Math.IEEEremainder(desiredDegrees - headingDegrees, 360);
+    }
+
+    /**
+     * Finds how fast to turn back to the desired heading.
+     *
+     * @param pid The heading controller, working in degrees.
+     * @param desiredDegrees The heading wanted.
+     * @param headingDegrees The current heading.
+     * @return The turn speed, clockwise is positive like the drivetrain's; unclamped.
+     */
+    public static double turnSpeed(
+            PIDController pid, double desiredDegrees, double headingDegrees) {
+        // negative to get us to go back to the desired orientation, not farther away;
+        // that was a fun experience. Setpoint is whichever turn of the desired heading is
+        // closest, so we never go the long way around.
+        double error = errorDegrees(desiredDegrees, headingDegrees);
+        return -pid.calculate(headingDegrees, headingDegrees + error);
+    }
+}
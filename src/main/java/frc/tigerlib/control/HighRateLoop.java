@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.control;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Threads;
+import frc.tigerlib.profiling.TimingStats;
+
+/**
+ * Runs a control loop on its own real-time thread, faster than the 20ms robot loop.
+ *
+ * <p>The loop must not touch anything the main thread uses without a handoff, such as {@link
+ * frc.tigerlib.concurrent.SeqLockBuffer}, and must never use the CommandScheduler.
+ *
+ * <p>Jitter (how far each start is from one period after the last) and duration are measured every
+ * loop; the stats are calculated on the loop's thread once a second and can be read from any
+ * thread.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class HighRateLoop {
+
+    private final Notifier mNotifier;
+    private final Runnable mBody;
+    private final long mPeriodNanos;
+    private final int mPriority;
+    private final int mStatsPeriod;
+
+    // Only touched by the loop's thread.
+    private final TimingStats mJitter;
+    private final TimingStats mDuration;
+    private boolean mPrioritySet = false;
+    private long mLastStart = 0;
+    private int mLoopsSinceStats = 0;
+
+    // Results, written by the loop's thread.
+    private volatile double mJitterMeanMs = 0;
+    private volatile double mJitterP99Ms = 0;
+    private volatile double mJitterMaxMs = 0;
+    private volatile double mDurationP99Ms = 0;
+    private volatile double mDurationMaxMs = 0;
+    private volatile boolean mRealTime = false;
+    // Set by stop() so the gap before the next start isn't counted as jitter.
+    private volatile boolean mRestarted = false;
+
+    /**
+     * Constructs a HighRateLoop, it does not run until {@link #start()}.
+     *
+     * @param name The name of the thread.
+     * @param periodSeconds The period of the loop.
+     * @param priority The real-time priority of the thread, 1 to 99.
+     * @param body What to run every loop.
+     */
+    public HighRateLoop(String name, double periodSeconds, int priority, Runnable body) {
+        mBody = body;
+        mPeriodNanos = (long) (periodSeconds * 1e9);
+        mPriority = priority;
+        // Five seconds of samples, stats every second.
+        mStatsPeriod = (int) Math.max(1, Math.round(1 / periodSeconds));
+        mJitter = new TimingStats(name + " Jitter", mStatsPeriod * 5);
+        mDuration = new TimingStats(name + " Duration", mStatsPeriod * 5);
+        mNotifier = new Notifier(this::loop);
+        mNotifier.setName(name);
+    }
+
+    /** Starts running the loop. */
+    public void start() {
+        mNotifier.startPeriodic(mPeriodNanos / 1e9);
+    }
+
+    /** Stops running the loop, it may be started again. */
+    public void stop() {
+        mNotifier.stop();
+        mRestarted = true;
+    }
+
+    private void loop() {
+        if (!mPrioritySet) {
+            // The notifier's thread is only known from inside it.
+            mRealTime = Threads.setCurrentThreadPriority(true, mPriority);
+            mPrioritySet = true;
+        }
+
+        long start = System.nanoTime();
+        if (mRestarted) {
+            mRestarted = false;
+            mLastStart = 0;
+        }
+        if (mLastStart != 0) {
+            mJitter.record(Math.abs(start - mLastStart - mPeriodNanos));
+        }
+        mLastStart = start;
+
+        mBody.run();
+
+        mDuration.record(System.nanoTime() - start);
+        if (++mLoopsSinceStats >= mStatsPeriod) {
+            mLoopsSinceStats = 0;
+            mJitter.compute();
+            mDuration.compute();
+            mJitterMeanMs = mJitter.getMeanMs();
+            mJitterP99Ms = mJitter.getP99Ms();
+            mJitterMaxMs = mJitter.getMaxMs();
+            mDurationP99Ms = mDuration.getP99Ms();
+            mDurationMaxMs = mDuration.getMaxMs();
+        }
+    }
+
+    /** @return The mean difference between the actual and expected period in milliseconds. */
+    public double getJitterMeanMs() {
+        return mJitterMeanMs;
+    }
+
+    /** @return The 99th percentile of jitter in milliseconds. */
+    public double getJitterP99Ms() {
+        return mJitterP99Ms;
+    }
+
+    /** @return The maximum jitter in milliseconds. */
+    public double getJitterMaxMs() {
+        return mJitterMaxMs;
+    }
+
+    /** @return The 99th percentile of how long the loop body took in milliseconds. */
+    public double getDurationP99Ms() {
+        return mDurationP99Ms;
+    }
+
+    /** @return The maximum of how long the loop body took in milliseconds. */
+    public double getDurationMaxMs() {
+        return mDurationMaxMs;
+    }
+
+    /** @return If the thread got real-time priority. */
+    public boolean isRealTime() {
+        return mRealTime;
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.control;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+import frc.tigerlib.trajectory.SampledTrajectory;
+
+/**
+ * Finds mecanum wheel velocities that follow a {@link SampledTrajectory}.
+ *
+ * <p>Each wheel gets the trajectory's own velocity, plus PID corrections for how far off it the
+ * robot is in x, y and heading. The corrections are field relative, then turned into the robot's
+ * frame like the velocity.
+ *
+ * <p>Time and pose are passed in, so this needs no scheduler or HAL and runs the same in a
+ * simulation. Not thread safe; use from one thread.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class HolonomicFollower {
+
+    private final SampledTrajectory mTrajectory;
+    private final PIDController mXPID;
+    private final PIDController mYPID;
+    private final PIDController mThetaPID;
+    // Distance along x plus along y from the robot center to a wheel, meters.
+    private final double mWheelLeverArm;
+    private final double mMaxWheelSpeed;
+    private final SampledTrajectory.Sample mSample = new SampledTrajectory.Sample();
+
+    // How far off the last calculate was.
+    private double mErrorX = 0;
+    private double mErrorY = 0;
+    private double mErrorHeading = 0;
+
+    /**
+     * Constructs a HolonomicFollower. The controllers are its own; don't share them.
+     *
+     * @param trajectory The trajectory to follow.
+     * @param xPID Field x correction, meters per second per meter off.
+     * @param yPID Field y correction, meters per second per meter off.
+     * @param thetaPID Heading correction, radians per second per radian off.
+     * @param wheelLeverArm Distance along x plus along y from the robot center to a wheel, meters.
+     * @param maxWheelSpeed The fastest a wheel can go, meters per second.
+     */
+    public HolonomicFollower(
+            SampledTrajectory trajectory,
+            PIDController xPID,
+            PIDController yPID,
+            PIDController thetaPID,
+            double wheelLeverArm,
+            double maxWheelSpeed) {
+        mTrajectory = trajectory;
+        mXPID = xPID;
+        mYPID = yPID;
+        mThetaPID = thetaPID;
+        mWheelLeverArm = wheelLeverArm;
+        mMaxWheelSpeed = maxWheelSpeed;
+    }
+
+    /** Clears the controllers, call before starting the trajectory. */
+    public void reset() {
+        mXPID.reset();
+        mYPID.reset();
+        mThetaPID.reset();
+    }
+
+    /**
+     * Finds wheel velocities to follow the trajectory.
+     *
+     * @param time Time since the trajectory started, seconds.
+     * @param x The robot's field x, meters.
+     * @param y The robot's field y, meters.
+     * @param heading The robot's heading, radians CCW+.
+     * @param out Where to put the wheel velocities, meters per second.
+     * @return out, for convenience.
+     */
+    public MecanumDriveWheelSpeeds calculate(
+            double time, double x, double y, double heading, MecanumDriveWheelSpeeds out) {
+        SampledTrajectory.Sample sample =
+                mTrajectory.sample(mTrajectory.getStartTime() + time, mSample);
+        mErrorX = sample.x - x;
+        mErrorY = sample.y - y;
+        // Whichever turn of the desired heading is closest, so we never go the long way around.
+        mErrorHeading = Math.IEEEremainder(sample.heading - heading, 2 * Math.PI);
+
+        double vx = sample.vx + mXPID.calculate(x, sample.x);
+        double vy = sample.vy + mYPID.calculate(y, sample.y);
+        double omega = sample.omega + mThetaPID.calculate(heading, heading + mErrorHeading);
+
+        // Field to robot relative.
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        double forward = vx * cos + vy * sin;
+        double left = -vx * sin + vy * cos;
+        double turn = omega * mWheelLeverArm;
+
+        double fl = forward - left - turn;
+        double fr = forward + left + turn;
+        double rl = forward + left - turn;
+        double rr = forward - left + turn;
+        // Slow every wheel alike if one can't keep up, so the robot still goes the right way.
+        double max =
+                Math.max(
+                        Math.max(Math.abs(fl), Math.abs(fr)), Math.max(Math.abs(rl), Math.abs(rr)));
+        if (max > mMaxWheelSpeed) {
+            double scale = mMaxWheelSpeed / max;
+            fl *= scale;
+            fr *= scale;
+            rl *= scale;
+            rr *= scale;
+        }
+
+        out.frontLeftMetersPerSecond = fl;
+        out.frontRightMetersPerSecond = fr;
+        out.rearLeftMetersPerSecond = rl;
+        out.rearRightMetersPerSecond = rr;
+        return out;
+    }
+
+    /** @return Where the robot should have been at the last calculate. */
+    public SampledTrajectory.Sample getSample() {
+        return mSample;
+    }
+
+    /** @return How far from the trajectory the robot was at the last calculate, meters. */
+    public double getPositionError() {
+        return Math.hypot(mErrorX, mErrorY);
+    }
+
+    /** @return Field x from the robot to the trajectory at the last calculate, meters. */
+    public double getErrorX() {
+        return mErrorX;
+    }
+
+    /** @return Field y from the robot to the trajectory at the last calculate, meters. */
+    public double getErrorY() {
+        return mErrorY;
+    }
+
+    /** @return Heading from the robot to the trajectory at the last calculate, radians CCW+. */
+    public double getHeadingError() {
+        return mErrorHeading;
+    }
+
+    /** @return Whether the trajectory is over at a time since it started. */
+    public boolean isFinished(double time) {
+        return time >= mTrajectory.getTotalTime();
+    }
+}
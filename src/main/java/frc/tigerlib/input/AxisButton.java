@@ -54,7 +54,8 @@ public class AxisButton extends Button {
 
     /** @return The axis value * -1 if the axis is inverted. */
     public double getVal() {
-        return mJoystick.getRawAxis(mAxis * (mInverted ? -1 : 1));
+        double value = mJoystick.getRawAxis(mAxis);
+        return mInverted ? -value : value;
     }
 
     /** @return Whether the axis is pressed. */
@@ -0,0 +1,254 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.input;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.GenericHID;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.ArrayList;
+
+/**
+ * Everything a controller reported this loop, read all at once.
+ *
+ * <p>Buttons are read as one bitmask, axes into an array, and the POV once; a handful of driver
+ * station calls a loop instead of one per button object. Commands bound here are only looked at
+ * when a button or the POV changes, or while a {@link #whileHeld} button is down.
+ *
+ * <p>Updates itself each time the {@link CommandScheduler} polls buttons, so values are fresh for
+ * the commands run after; clearing the scheduler's buttons stops it.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class ControllerSnapshot {
+
+    // The most axes the driver station sends.
+    private static final int kMaxAxes = 12;
+
+    private enum Trigger {
+        kPressed,
+        kReleased,
+        kHeld,
+        kPOV
+    }
+
+    /** A command, and what starts it. */
+    private static class Binding {
+        final Trigger trigger;
+        // Button mask, or POV angle.
+        final int value;
+        final Command command;
+        final boolean interruptible;
+
+        Binding(Trigger trigger, int value, Command command, boolean interruptible) {
+            this.trigger = trigger;
+            this.value = value;
+            this.command = command;
+            this.interruptible = interruptible;
+        }
+    }
+
+    private final int mPort;
+    private final double[] mAxes = new double[kMaxAxes];
+    private int mAxisCount = 0;
+    private int mButtons = 0;
+    private int mLastButtons = 0;
+    private int mPOV = -1;
+    private int mLastPOV = -1;
+    // When the values were read, and when the packet they came in arrived; FPGA microseconds.
+    private long mReadMicros = 0;
+    private long mPacketMicros = 0;
+
+    private final ArrayList<Binding> mBindings = new ArrayList<>();
+    // Buttons with whileHeld commands, which need looking at every loop they're down.
+    private int mHeldMask = 0;
+
+    /**
+     * Constructs a ControllerSnapshot, and has the scheduler update it every loop.
+     *
+     * @param hid The controller to read.
+     */
+    public ControllerSnapshot(GenericHID hid) {
+        mPort = hid.getPort();
+        CommandScheduler.getInstance().addButton(this::update);
+    }
+
+    /** Reads the controller, and starts or stops bound commands. Called by the scheduler. */
+    public void update() {
+        mLastButtons = mButtons;
+        mLastPOV = mPOV;
+        mPacketMicros = PacketClock.getInstance().getLastPacketMicros();
+        mReadMicros = RobotController.getFPGATime();
+        mButtons = DriverStation.getStickButtons(mPort);
+        mPOV = DriverStation.getStickPOV(mPort, 0);
+        mAxisCount = Math.min(DriverStation.getStickAxisCount(mPort), kMaxAxes);
+        for (int i = 0; i < mAxisCount; i++) {
+            mAxes[i] = DriverStation.getStickAxis(mPort, i);
+        }
+
+        int pressed = mButtons & ~mLastButtons;
+        int released = ~mButtons & mLastButtons;
+        boolean povChanged = mPOV != mLastPOV;
+        if (pressed == 0 && released == 0 && !povChanged && (mButtons & mHeldMask) == 0) {
+            return;
+        }
+        for (int i = 0; i < mBindings.size(); i++) {
+            Binding binding = mBindings.get(i);
+            switch (binding.trigger) {
+                case kPressed:
+                    if ((pressed & binding.value) != 0) {
+                        schedule(binding);
+                    }
+                    break;
+                case kReleased:
+                    if ((released & binding.value) != 0) {
+                        schedule(binding);
+                    }
+                    break;
+                case kHeld:
+                    // Rescheduled each loop, so it restarts if it finishes while still held.
+                    if ((mButtons & binding.value) != 0) {
+                        schedule(binding);
+                    } else if ((released & binding.value) != 0) {
+                        binding.command.cancel();
+                    }
+                    break;
+                case kPOV:
+                    if (povChanged && mPOV == binding.value) {
+                        schedule(binding);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static void schedule(Binding binding) {
+        binding.command.schedule(binding.interruptible);
+    }
+
+    /**
+     * Starts a command when a button is pressed.
+     *
+     * @param button The button number, starting at 1.
+     * @param command The command to start.
+     * @param interruptible Whether other commands can interrupt it.
+     * @return This, for chaining.
+     */
+    public ControllerSnapshot whenPressed(int button, Command command, boolean interruptible) {
+        mBindings.add(new Binding(Trigger.kPressed, mask(button), command, interruptible));
+        return this;
+    }
+
+    /** Starts an interruptible command when a button is pressed. */
+    public ControllerSnapshot whenPressed(int button, Command command) {
+        return whenPressed(button, command, true);
+    }
+
+    /**
+     * Starts a command when a button is released.
+     *
+     * @param button The button number, starting at 1.
+     * @param command The command to start.
+     * @param interruptible Whether other commands can interrupt it.
+     * @return This, for chaining.
+     */
+    public ControllerSnapshot whenReleased(int button, Command command, boolean interruptible) {
+        mBindings.add(new Binding(Trigger.kReleased, mask(button), command, interruptible));
+        return this;
+    }
+
+    /** Starts an interruptible command when a button is released. */
+    public ControllerSnapshot whenReleased(int button, Command command) {
+        return whenReleased(button, command, true);
+    }
+
+    /**
+     * Keeps a command running while a button is held, and cancels it when released.
+     *
+     * @param button The button number, starting at 1.
+     * @param command The command to run.
+     * @param interruptible Whether other commands can interrupt it.
+     * @return This, for chaining.
+     */
+    public ControllerSnapshot whileHeld(int button, Command command, boolean interruptible) {
+        mBindings.add(new Binding(Trigger.kHeld, mask(button), command, interruptible));
+        mHeldMask |= mask(button);
+        return this;
+    }
+
+    /** Keeps an interruptible command running while a button is held. */
+    public ControllerSnapshot whileHeld(int button, Command command) {
+        return whileHeld(button, command, true);
+    }
+
+    /**
+     * Starts a command when the POV moves to an angle.
+     *
+     * @param angle The angle in degrees, clockwise from up; -1 for centered.
+     * @param command The command to start.
+     * @param interruptible Whether other commands can interrupt it.
+     * @return This, for chaining.
+     */
+    public ControllerSnapshot whenPOV(int angle, Command command, boolean interruptible) {
+        mBindings.add(new Binding(Trigger.kPOV, angle, command, interruptible));
+        return this;
+    }
+
+    /** @return Whether a button is down, numbered from 1. */
+    public boolean getButton(int button) {
+        return (mButtons & mask(button)) != 0;
+    }
+
+    /** @return Whether a button went down this loop, numbered from 1. */
+    public boolean wasPressed(int button) {
+        return (mButtons & ~mLastButtons & mask(button)) != 0;
+    }
+
+    /** @return Whether a button came up this loop, numbered from 1. */
+    public boolean wasReleased(int button) {
+        return (~mButtons & mLastButtons & mask(button)) != 0;
+    }
+
+    /** @return Every button, button 1 in the lowest bit. */
+    public int getButtons() {
+        return mButtons;
+    }
+
+    /** @return An axis' value, or 0 if the controller doesn't have it. */
+    public double getAxis(int axis) {
+        return axis < mAxisCount ? mAxes[axis] : 0;
+    }
+
+    /** @return The POV angle in degrees, clockwise from up; -1 for centered. */
+    public int getPOV() {
+        return mPOV;
+    }
+
+    /** @return The FPGA time these values were read, microseconds. */
+    public long getReadMicros() {
+        return mReadMicros;
+    }
+
+    /**
+     * @return The FPGA time the packet these values came in arrived, microseconds; 0 if the {@link
+     *     PacketClock} isn't running.
+     */
+    public long getPacketMicros() {
+        return mPacketMicros;
+    }
+
+    /** @return The driver station port being read. */
+    public int getPort() {
+        return mPort;
+    }
+
+    private static int mask(int button) {
+        if (button < 1 || button > 32) {
+            throw new IllegalArgumentException("Button must be in [1, 32], was " + button);
+        }
+        return 1 << (button - 1);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.input;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Notes when each driver station packet arrives, so we know how old the joystick values a loop
+ * reads are.
+ *
+ * <p>A background thread waits on new driver station data and stamps it with the FPGA time. The
+ * robot loop only reads that stamp.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class PacketClock {
+
+    private static PacketClock sInstance;
+
+    private Thread mThread;
+    private volatile boolean mRunning = false;
+    private volatile long mLastPacketMicros = 0;
+    private volatile long mPacketCount = 0;
+
+    private PacketClock() {}
+
+    /** @return The one and only PacketClock. */
+    public static synchronized PacketClock getInstance() {
+        if (sInstance == null) {
+            sInstance = new PacketClock();
+        }
+        return sInstance;
+    }
+
+    /** Starts the background thread. */
+    public synchronized void start() {
+        if (mRunning) {
+            return;
+        }
+        mRunning = true;
+        mThread = new Thread(this::run, "PacketClock");
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+    /** Stops the background thread. */
+    public synchronized void stop() {
+        mRunning = false;
+        if (mThread != null) {
+            mThread.interrupt();
+            mThread = null;
+        }
+    }
+
+    /** @return Whether packets are being timed. */
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    /** @return The FPGA time the latest packet arrived, microseconds; 0 before the first. */
+    public long getLastPacketMicros() {
+        return mLastPacketMicros;
+    }
+
+    /** @return The amount of packets seen since starting. */
+    public long getPacketCount() {
+        return mPacketCount;
+    }
+
+    private void run() {
+        while (mRunning) {
+            // Times out so stop() is noticed even with no driver station.
+            if (DriverStation.waitForData(0.1)) {
+                mLastPacketMicros = RobotController.getFPGATime();
+                mPacketCount++;
+            }
+        }
+    }
+}
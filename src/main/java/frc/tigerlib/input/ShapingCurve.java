@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.input;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Properties;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Shapes joystick input with a curve, looked up from a table instead of found every loop.
+ *
+ * <p>Input is clamped to [-1, 1], zeroed inside the deadband, then mapped by the curve; the curve
+ * is given for [0, 1] and mirrored for negative input, so sign is preserved. Outside the deadband
+ * the curve sees the raw magnitude, like {@link frc.tigerlib.Util#smooth(double, double, double)}.
+ *
+ * <p>Curves can be loaded from a properties file, so each driver can have their own:
+ *
+ * <pre>
+ * # power, piecewise, or spline
+ * type=power
+ * deadband=0.2
+ * exponent=2.8
+ * # piecewise and spline only; x:y pairs from 0 to 1
+ * points=0:0, 0.5:0.2, 1:1
+ * </pre>
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class ShapingCurve {
+
+    // Table entries across [0, 1]; a power of two plus one so entries land on even steps.
+    private static final int kTableSize = 513;
+    private static final double kScale = kTableSize - 1;
+
+    private final double mDeadband;
+    private final double[] mTable = new double[kTableSize];
+
+    private ShapingCurve(double deadband, DoubleUnaryOperator curve) {
+        if (deadband < 0 || deadband >= 1) {
+            throw new IllegalArgumentException("Deadband must be in [0, 1), was " + deadband);
+        }
+        mDeadband = deadband;
+        for (int i = 0; i < kTableSize; i++) {
+            mTable[i] = curve.applyAsDouble(i / kScale);
+        }
+    }
+
+    /**
+     * Makes a curve of |x|^exponent, the same as {@link frc.tigerlib.Util#smoothWClamp(double,
+     * double, double, double, double)} clamped to [-1, 1].
+     *
+     * @param deadband Input magnitudes below this are zero.
+     * @param exponent The exponent, 1 is linear.
+     */
+    public static ShapingCurve power(double deadband, double exponent) {
+        return new ShapingCurve(deadband, x -> Math.pow(x, exponent));
+    }
+
+    /**
+     * Makes a curve of straight lines between points.
+     *
+     * @param deadband Input magnitudes below this are zero.
+     * @param xs Point inputs, increasing from 0 to 1.
+     * @param ys Point outputs.
+     */
+    public static ShapingCurve piecewise(double deadband, double[] xs, double[] ys) {
+        checkPoints(xs, ys);
+        return new ShapingCurve(
+                deadband,
+                x -> {
+                    int i = segment(xs, x);
+                    double t = (x - xs[i]) / (xs[i + 1] - xs[i]);
+                    return ys[i] + (ys[i + 1] - ys[i]) * t;
+                });
+    }
+
+    /**
+     * Makes a smooth curve through points. Never overshoots between points, so a curve through
+     * increasing points always increases.
+     *
+     * @param deadband Input magnitudes below this are zero.
+     * @param xs Point inputs, increasing from 0 to 1.
+     * @param ys Point outputs.
+     */
+    public static ShapingCurve spline(double deadband, double[] xs, double[] ys) {
+        checkPoints(xs, ys);
+        double[] slopes = monotoneSlopes(xs, ys);
+        return new ShapingCurve(
+                deadband,
+                x -> {
+                    // Cubic hermite between the points around x.
+                    int i = segment(xs, x);
+                    double h = xs[i + 1] - xs[i];
+                    double t = (x - xs[i]) / h;
+                    double t2 = t * t;
+                    double t3 = t2 * t;
+                    return (2 * t3 - 3 * t2 + 1) * ys[i]
+                            + (t3 - 2 * t2 + t) * h * slopes[i]
+                            + (-2 * t3 + 3 * t2) * ys[i + 1]
+                            + (t3 - t2) * h * slopes[i + 1];
+                });
+    }
+
+    /**
+     * Makes a curve from properties, see the class description for the keys.
+     *
+     * @throws IllegalArgumentException If a key is missing or bad.
+     */
+    public static ShapingCurve fromProperties(Properties properties) {
+        String type = properties.getProperty("type", "power").trim();
+        double deadband = parse(properties, "deadband");
+        switch (type) {
+            case "power":
+                return power(deadband, parse(properties, "exponent"));
+            case "piecewise":
+            case "spline":
+                String[] pairs = properties.getProperty("points", "").split(",");
+                double[] xs = new double[pairs.length];
+                double[] ys = new double[pairs.length];
+                for (int i = 0; i < pairs.length; i++) {
+                    String[] pair = pairs[i].split(":");
+                    if (pair.length != 2) {
+                        throw new IllegalArgumentException("Bad point \"" + pairs[i] + "\"");
+                    }
+                    xs[i] = Double.parseDouble(pair[0].trim());
+                    ys[i] = Double.parseDouble(pair[1].trim());
+                }
+                return type.equals("spline")
+                        ? spline(deadband, xs, ys)
+                        : piecewise(deadband, xs, ys);
+            default:
+                throw new IllegalArgumentException("Unknown curve type \"" + type + "\"");
+        }
+    }
+
+    /**
+     * Loads a curve from a properties file, see the class description for the keys.
+     *
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If a key is missing or bad.
+     */
+    public static ShapingCurve load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(file)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Shapes an input.
+     *
+     * @param x The input.
+     * @return The shaped input, in [-1, 1].
+     */
+    public double apply(double x) {
+        double magnitude = Math.abs(x);
+        if (magnitude < mDeadband) {
+            return 0;
+        }
+        double index = Math.min(magnitude, 1.0) * kScale;
+        int i = Math.min((int) index, kTableSize - 2);
+        double shaped = mTable[i] + (mTable[i + 1] - mTable[i]) * (index - i);
+        shaped = Math.max(-1.0, Math.min(shaped, 1.0));
+        return x < 0 ? -shaped : shaped;
+    }
+
+    /** @return Input magnitudes below this are zero. */
+    public double getDeadband() {
+        return mDeadband;
+    }
+
+    private static double parse(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing \"" + key + "\"");
+        }
+        return Double.parseDouble(value.trim());
+    }
+
+    private static void checkPoints(double[] xs, double[] ys) {
+        if (xs.length != ys.length || xs.length < 2) {
+            throw new IllegalArgumentException("Need at least two points, with an x and y each");
+        }
+        if (xs[0] != 0 || xs[xs.length - 1] != 1) {
+            throw new IllegalArgumentException("Points must go from x = 0 to x = 1");
+        }
+        for (int i = 1; i < xs.length; i++) {
+            if (xs[i] <= xs[i - 1]) {
+                throw new IllegalArgumentException("Point inputs must increase");
+            }
+        }
+    }
+
+    /** @return The index of the point at or before x, never the last point. */
+    private static int segment(double[] xs, double x) {
+        int i = 0;
+        while (i < xs.length - 2 && x >= xs[i + 1]) {
+            i++;
+        }
+        return i;
+    }
+
+    /** Finds slopes at each point that keep the spline from overshooting; Fritsch-Carlson. */
+    private static double[] monotoneSlopes(double[] xs, double[] ys) {
+        int n = xs.length;
+        double[] secants = new double[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            secants[i] = (ys[i + 1] - ys[i]) / (xs[i + 1] - xs[i]);
+        }
+        double[] slopes = new double[n];
+        slopes[0] = secants[0];
+        slopes[n - 1] = secants[n - 2];
+        for (int i = 1; i < n - 1; i++) {
+            slopes[i] =
+                    secants[i - 1] * secants[i] <= 0 ? 0 : (secants[i - 1] + secants[i]) / 2;
+        }
+        for (int i = 0; i < n - 1; i++) {
+            if (secants[i] == 0) {
+                slopes[i] = 0;
+                slopes[i + 1] = 0;
+                continue;
+            }
+            double a = slopes[i] / secants[i];
+            double b = slopes[i + 1] / secants[i];
+            double length = a * a + b * b;
+            if (length > 9) {
+                double tau = 3 / Math.sqrt(length);
+                slopes[i] = tau * a * secants[i];
+                slopes[i + 1] = tau * b * secants[i];
+            }
+        }
+        return slopes;
+    }
+}
@@ -7,6 +7,7 @@ package frc.tigerlib.input.controller;
 import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import edu.wpi.first.wpilibj2.command.button.POVButton;
+import frc.tigerlib.input.ControllerSnapshot;
 
 /**
  * An input wrapper for the logitech flight joystick that actually makes sense.
@@ -76,6 +77,7 @@ public class GExtreme3DProJoystick extends GenericHID {
     private POVButton _dlButton;
     private POVButton _lButton;
     private POVButton _ulButton;
+    private ControllerSnapshot _snapshot;
 
     /**
      * Constructs a new instance of the joystick
@@ -86,6 +88,17 @@ public class GExtreme3DProJoystick extends GenericHID {
         super(port);
     }
 
+    /**
+     * Returns this joystick's {@link ControllerSnapshot}, made on first use. Cheaper than the
+     * button objects when binding many commands, as it reads the joystick once a loop.
+     */
+    public ControllerSnapshot getSnapshot() {
+        if (_snapshot == null) {
+            _snapshot = new ControllerSnapshot(this);
+        }
+        return _snapshot;
+    }
+
     /**
      * Returns the trigger's {@link JoystickButton}.
      *
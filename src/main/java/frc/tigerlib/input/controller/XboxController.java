@@ -10,6 +10,7 @@ import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import frc.tigerlib.input.AxisButton;
 import frc.tigerlib.input.AxisButton.ThresholdType;
+import frc.tigerlib.input.ControllerSnapshot;
 import java.util.EnumMap;
 
 /**
@@ -61,6 +62,7 @@ public class XboxController extends GenericHID {
     private final EnumMap<Button, JoystickButton> mButtons = new EnumMap<>(Button.class);
     private final EnumMap<Axis, AxisButton> mAxes = new EnumMap<>(Axis.class);
     public final POV pov;
+    private ControllerSnapshot mSnapshot;
 
     /**
      * Constructs a new instance of the joystick
@@ -75,6 +77,17 @@ public class XboxController extends GenericHID {
         HAL.report(tResourceType.kResourceType_XboxController, port + 1);
     }
 
+    /**
+     * Returns this controller's {@link ControllerSnapshot}, made on first use. Cheaper than the
+     * button objects when binding many commands, as it reads the controller once a loop.
+     */
+    public ControllerSnapshot getSnapshot() {
+        if (mSnapshot == null) {
+            mSnapshot = new ControllerSnapshot(this);
+        }
+        return mSnapshot;
+    }
+
     /**
      * Builds a {@link JoystickButton} for this controller from the provided {@link Button}
      *
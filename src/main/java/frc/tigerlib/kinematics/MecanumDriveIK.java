@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+import edu.wpi.first.wpilibj.drive.MecanumDrive;
+import edu.wpi.first.wpilibj.drive.MecanumDrive.WheelSpeeds;
+
+/**
+ * The same math as {@link MecanumDrive#driveCartesianIK(double, double, double, double)}, without
+ * making a new WheelSpeeds or Vector2d each call.
+ *
+ * <p>The heading's sin and cos are found once by {@link #setHeading(double)}, then every {@link
+ * #calculate} that loop reuses them. One instance per thread, it keeps state.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class MecanumDriveIK {
+
+    private double mHeadingDegrees = Double.NaN;
+    private double mCos = 1;
+    private double mSin = 0;
+
+    /**
+     * Sets the heading used by field oriented calculations; call once a loop after reading the
+     * gyro.
+     *
+     * @param degrees The robot's heading, CCW+.
+     */
+    public void setHeading(double degrees) {
+        if (degrees == mHeadingDegrees) {
+            return;
+        }
+        mHeadingDegrees = degrees;
+        double radians = Math.toRadians(degrees);
+        mCos = Math.cos(radians);
+        mSin = Math.sin(radians);
+    }
+
+    /**
+     * Finds duty cycles for each wheel, normalized to [-1, 1]. Arguments match {@link
+     * MecanumDrive#driveCartesianIK(double, double, double, double)}, with the gyro angle being
+     * the negated heading from {@link #setHeading(double)}.
+     *
+     * @param ySpeed Speed along the Y axis, clamped to [-1, 1].
+     * @param xSpeed Speed along the X axis, clamped to [-1, 1].
+     * @param zRotation Rotation rate, clockwise is positive.
+     * @param fieldOriented Whether to drive relative to the field, using the set heading.
+     * @param out Where to put the duty cycles.
+     * @return out, for convenience.
+     */
+    public WheelSpeeds calculate(
+            double ySpeed,
+            double xSpeed,
+            double zRotation,
+            boolean fieldOriented,
+            WheelSpeeds out) {
+        ySpeed = Math.max(-1.0, Math.min(ySpeed, 1.0));
+        xSpeed = Math.max(-1.0, Math.min(xSpeed, 1.0));
+
+        double x = ySpeed;
+        double y = xSpeed;
+        if (fieldOriented) {
+            x = ySpeed * mCos - xSpeed * mSin;
+            y = ySpeed * mSin + xSpeed * mCos;
+        }
+
+        double fl = x + y + zRotation;
+        double fr = x - y - zRotation;
+        double rl = x - y + zRotation;
+        double rr = x + y - zRotation;
+
+        double max =
+                Math.max(
+                        Math.max(Math.abs(fl), Math.abs(fr)), Math.max(Math.abs(rl), Math.abs(rr)));
+        if (max > 1.0) {
+            fl /= max;
+            fr /= max;
+            rl /= max;
+            rr /= max;
+        }
+
+        out.frontLeft = fl;
+        out.frontRight = fr;
+        out.rearLeft = rl;
+        out.rearRight = rr;
+        return out;
+    }
+}
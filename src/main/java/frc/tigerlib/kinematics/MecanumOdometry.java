@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Tracks the position of a four wheel mecanum drivetrain on the field, from wheel distances and a
+ * gyro.
+ *
+ * <p>Does the same math as {@link edu.wpi.first.math.kinematics.MecanumDriveOdometry}, but on
+ * primitives with the kinematics worked out once at construction, so an update allocates nothing
+ * and is cheap enough to run every loop. It integrates the change in wheel distance rather than
+ * velocity times loop time, so it doesn't care how often it is updated.
+ *
+ * <p>Field coordinates are WPILib's; x forward, y left, headings CCW+ in radians.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class MecanumOdometry {
+
+    // Forward kinematics, the pseudo-inverse of the inverse kinematics. Each row gives a chassis
+    // component (x, y, theta) from the wheel (fl, fr, rl, rr) distances.
+    private final double[][] mForward;
+
+    // Pose.
+    private double mX = 0;
+    private double mY = 0;
+    private double mHeading = 0;
+
+    // Last update, for finding the change.
+    private double mGyroOffset = 0;
+    private double mLastFl = 0;
+    private double mLastFr = 0;
+    private double mLastRl = 0;
+    private double mLastRr = 0;
+    // The first update only records where the wheels start.
+    private boolean mStarted = false;
+
+    /**
+     * Constructs a MecanumOdometry at the origin, with its heading following the gyro.
+     *
+     * @param frontLeft Location of the front left wheel relative to the robot center.
+     * @param frontRight Location of the front right wheel relative to the robot center.
+     * @param rearLeft Location of the rear left wheel relative to the robot center.
+     * @param rearRight Location of the rear right wheel relative to the robot center.
+     */
+    public MecanumOdometry(
+            Translation2d frontLeft,
+            Translation2d frontRight,
+            Translation2d rearLeft,
+            Translation2d rearRight) {
+        mForward = forwardKinematics(frontLeft, frontRight, rearLeft, rearRight);
+    }
+
+    /**
+     * Works out the forward kinematics of a mecanum drivetrain.
+     *
+     * @return Rows of chassis x, y, and theta; columns of fl, fr, rl, and rr wheel movement.
+     */
+    static double[][] forwardKinematics(
+            Translation2d frontLeft,
+            Translation2d frontRight,
+            Translation2d rearLeft,
+            Translation2d rearRight) {
+        // Inverse kinematics, same as MecanumDriveKinematics; wheel speed from vx, vy, omega.
+        double[][] inverse = {
+            {1, -1, -(frontLeft.getX() + frontLeft.getY())},
+            {1, 1, frontRight.getX() - frontRight.getY()},
+            {1, 1, rearLeft.getX() - rearLeft.getY()},
+            {1, -1, -(rearRight.getX() + rearRight.getY())}
+        };
+
+        // pinv(A) = (A^T A)^-1 A^T, A^T A is 3x3.
+        double[][] ata = new double[3][3];
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                for (int w = 0; w < 4; w++) {
+                    ata[r][c] += inverse[w][r] * inverse[w][c];
+                }
+            }
+        }
+        double[][] ataInv = invert3x3(ata);
+        double[][] forward = new double[3][4];
+        for (int r = 0; r < 3; r++) {
+            for (int w = 0; w < 4; w++) {
+                for (int k = 0; k < 3; k++) {
+                    forward[r][w] += ataInv[r][k] * inverse[w][k];
+                }
+            }
+        }
+        return forward;
+    }
+
+    /**
+     * Updates the pose from the latest sensor readings.
+     *
+     * @param gyroRadians The gyro's heading, CCW+.
+     * @param fl Front left wheel distance, meters.
+     * @param fr Front right wheel distance, meters.
+     * @param rl Rear left wheel distance, meters.
+     * @param rr Rear right wheel distance, meters.
+     */
+    public void update(double gyroRadians, double fl, double fr, double rl, double rr) {
+        if (!mStarted) {
+            reset(mX, mY, gyroRadians, gyroRadians, fl, fr, rl, rr);
+            return;
+        }
+
+        double dFl = fl - mLastFl;
+        double dFr = fr - mLastFr;
+        double dRl = rl - mLastRl;
+        double dRr = rr - mLastRr;
+        mLastFl = fl;
+        mLastFr = fr;
+        mLastRl = rl;
+        mLastRr = rr;
+
+        // Robot relative movement; the gyro is trusted over the wheels for rotation.
+        double[] fx = mForward[0];
+        double[] fy = mForward[1];
+        double dx = fx[0] * dFl + fx[1] * dFr + fx[2] * dRl + fx[3] * dRr;
+        double dy = fy[0] * dFl + fy[1] * dFr + fy[2] * dRl + fy[3] * dRr;
+        double heading = gyroRadians + mGyroOffset;
+        double dTheta = heading - mHeading;
+
+        // Pose exponential, moves along an arc instead of a straight line.
+        double s;
+        double c;
+        if (Math.abs(dTheta) < 1e-9) {
+            s = 1.0 - dTheta * dTheta / 6.0;
+            c = 0.5 * dTheta;
+        } else {
+            s = Math.sin(dTheta) / dTheta;
+            c = (1 - Math.cos(dTheta)) / dTheta;
+        }
+        double tx = dx * s - dy * c;
+        double ty = dx * c + dy * s;
+
+        double cos = Math.cos(mHeading);
+        double sin = Math.sin(mHeading);
+        mX += tx * cos - ty * sin;
+        mY += tx * sin + ty * cos;
+        mHeading = heading;
+    }
+
+    /**
+     * Resets the pose. The gyro and wheels do not need to be reset.
+     *
+     * @param x The new x, meters.
+     * @param y The new y, meters.
+     * @param headingRadians The new heading, CCW+.
+     * @param gyroRadians The gyro's current heading, CCW+.
+     * @param fl Front left wheel's current distance, meters.
+     * @param fr Front right wheel's current distance, meters.
+     * @param rl Rear left wheel's current distance, meters.
+     * @param rr Rear right wheel's current distance, meters.
+     */
+    public void reset(
+            double x,
+            double y,
+            double headingRadians,
+            double gyroRadians,
+            double fl,
+            double fr,
+            double rl,
+            double rr) {
+        mX = x;
+        mY = y;
+        mHeading = headingRadians;
+        mGyroOffset = headingRadians - gyroRadians;
+        mLastFl = fl;
+        mLastFr = fr;
+        mLastRl = rl;
+        mLastRr = rr;
+        mStarted = true;
+    }
+
+    /** @return The x position, meters. */
+    public double getX() {
+        return mX;
+    }
+
+    /** @return The y position, meters. */
+    public double getY() {
+        return mY;
+    }
+
+    /** @return The heading, CCW+ radians. */
+    public double getHeadingRadians() {
+        return mHeading;
+    }
+
+    /** @return A new Pose2d of the current pose. */
+    public Pose2d getPose() {
+        return new Pose2d(mX, mY, new Rotation2d(mHeading));
+    }
+
+    /** Inverts a 3x3 matrix by cofactors. */
+    private static double[][] invert3x3(double[][] m) {
+        double[][] inv = new double[3][3];
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                // Cofactor of (c, r), the transpose gives the adjugate.
+                int r1 = (c + 1) % 3;
+                int r2 = (c + 2) % 3;
+                int c1 = (r + 1) % 3;
+                int c2 = (r + 2) % 3;
+                inv[r][c] = m[r1][c1] * m[r2][c2] - m[r1][c2] * m[r2][c1];
+            }
+        }
+        double det = m[0][0] * inv[0][0] + m[0][1] * inv[1][0] + m[0][2] * inv[2][0];
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                inv[r][c] /= det;
+            }
+        }
+        return inv;
+    }
+}
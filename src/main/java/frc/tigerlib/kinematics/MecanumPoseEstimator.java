@@ -0,0 +1,382 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Estimates the pose of a four wheel mecanum drivetrain with an extended Kalman filter, fusing
+ * wheel velocities, a gyro, and (optionally) late vision poses.
+ *
+ * <p>Each update predicts with the wheels, then corrects the heading with the gyro. Each source is
+ * weighted by a standard deviation, so sources we trust less (such as strafing, where the wheels
+ * slip) move the estimate less. Vision poses are compared against the estimate at the time the
+ * image was taken, from the {@link PoseHistory}.
+ *
+ * <p>The state is a 3x3 problem; all matrices are preallocated primitive arrays so the cost of an
+ * update is fixed and nothing is allocated. Safe to update from one thread and add vision from
+ * another.
+ *
+ * <p>Field coordinates are WPILib's; x forward, y left, headings CCW+ in radians.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class MecanumPoseEstimator {
+
+    private static final double kTwoPi = 2 * Math.PI;
+
+    private final double[][] mForward;
+    private final PoseHistory mHistory;
+
+    // Standard deviations; wheels per meter or radian moved, gyro per update.
+    private double mWheelXStd = 0.02;
+    private double mWheelYStd = 0.1;
+    private double mWheelThetaStd = 0.1;
+    private double mGyroStd = Math.toRadians(0.1);
+    private double mVisionXYStd = 0.3;
+    private double mVisionThetaStd = Math.toRadians(10);
+
+    // State and its covariance, row major.
+    private double mX = 0;
+    private double mY = 0;
+    private double mTheta = 0;
+    private final double[] mP = new double[9];
+
+    private double mGyroOffset = 0;
+    private double mLastTimestamp = 0;
+    // The first update only records the time, and the gyro if we were never reset.
+    private boolean mStarted = false;
+    private boolean mReset = false;
+
+    // Scratch space, so updates don't allocate.
+    private final double[] mA = new double[9];
+    private final double[] mTemp = new double[9];
+    private final double[] mS = new double[9];
+    private final double[] mK = new double[9];
+    private final double[] mSample = new double[3];
+
+    /**
+     * Constructs a MecanumPoseEstimator at the origin, with its heading following the gyro.
+     *
+     * @param frontLeft Location of the front left wheel relative to the robot center.
+     * @param frontRight Location of the front right wheel relative to the robot center.
+     * @param rearLeft Location of the rear left wheel relative to the robot center.
+     * @param rearRight Location of the rear right wheel relative to the robot center.
+     * @param historySize The amount of past poses to keep for vision.
+     */
+    public MecanumPoseEstimator(
+            Translation2d frontLeft,
+            Translation2d frontRight,
+            Translation2d rearLeft,
+            Translation2d rearRight,
+            int historySize) {
+        mForward = MecanumOdometry.forwardKinematics(frontLeft, frontRight, rearLeft, rearRight);
+        mHistory = new PoseHistory(historySize);
+    }
+
+    /**
+     * Sets how much the wheels are trusted.
+     *
+     * @param xPerMeter Standard deviation of robot relative forward movement, per meter moved.
+     * @param yPerMeter Standard deviation of robot relative sideways movement, per meter moved.
+     * @param thetaPerRadian Standard deviation of rotation, per radian turned.
+     */
+    public synchronized void setWheelStdDevs(
+            double xPerMeter, double yPerMeter, double thetaPerRadian) {
+        mWheelXStd = xPerMeter;
+        mWheelYStd = yPerMeter;
+        mWheelThetaStd = thetaPerRadian;
+    }
+
+    /** Sets how much the gyro is trusted; standard deviation of each reading, radians. */
+    public synchronized void setGyroStdDev(double radians) {
+        mGyroStd = radians;
+    }
+
+    /**
+     * Sets how much vision is trusted by default.
+     *
+     * @param xyMeters Standard deviation of the position, meters.
+     * @param thetaRadians Standard deviation of the heading, radians.
+     */
+    public synchronized void setVisionStdDevs(double xyMeters, double thetaRadians) {
+        mVisionXYStd = xyMeters;
+        mVisionThetaStd = thetaRadians;
+    }
+
+    /**
+     * Resets the pose, and forgets all past poses. The gyro does not need to be reset.
+     *
+     * @param x The new x, meters.
+     * @param y The new y, meters.
+     * @param headingRadians The new heading, CCW+.
+     * @param gyroRadians The gyro's current heading, CCW+.
+     */
+    public synchronized void reset(double x, double y, double headingRadians, double gyroRadians) {
+        mX = x;
+        mY = y;
+        mTheta = headingRadians;
+        mGyroOffset = headingRadians - gyroRadians;
+        mReset = true;
+        for (int i = 0; i < 9; i++) {
+            mP[i] = 0;
+        }
+        mHistory.clear();
+    }
+
+    /**
+     * Updates the estimate from the latest wheel and gyro readings.
+     *
+     * @param timestamp The time of the readings, seconds.
+     * @param gyroRadians The gyro's heading, CCW+.
+     * @param fl Front left wheel velocity, meters per second.
+     * @param fr Front right wheel velocity, meters per second.
+     * @param rl Rear left wheel velocity, meters per second.
+     * @param rr Rear right wheel velocity, meters per second.
+     */
+    public synchronized void update(
+            double timestamp, double gyroRadians, double fl, double fr, double rl, double rr) {
+        if (!mStarted) {
+            if (!mReset) {
+                reset(mX, mY, gyroRadians, gyroRadians);
+            }
+            mLastTimestamp = timestamp;
+            mStarted = true;
+            mHistory.add(timestamp, mX, mY, mTheta);
+            return;
+        }
+        double dt = timestamp - mLastTimestamp;
+        mLastTimestamp = timestamp;
+        if (dt <= 0) {
+            return;
+        }
+
+        predict(fl * dt, fr * dt, rl * dt, rr * dt);
+        correctHeading(gyroRadians + mGyroOffset);
+        mHistory.add(timestamp, mX, mY, mTheta);
+    }
+
+    /**
+     * Corrects the estimate with a pose from vision, using the default standard deviations.
+     *
+     * @param timestamp The time the image was taken, seconds.
+     * @param x The measured x, meters.
+     * @param y The measured y, meters.
+     * @param headingRadians The measured heading, CCW+.
+     * @return False if the measurement is older than the pose history, and was ignored.
+     */
+    public synchronized boolean addVisionMeasurement(
+            double timestamp, double x, double y, double headingRadians) {
+        return addVisionMeasurement(
+                timestamp, x, y, headingRadians, mVisionXYStd, mVisionThetaStd);
+    }
+
+    /**
+     * Corrects the estimate with a pose from vision.
+     *
+     * <p>The difference between the measurement and where we were when the image was taken is
+     * applied to where we are now, so the movement since is kept. The gyro offset and past poses
+     * are moved by the same correction.
+     *
+     * @param timestamp The time the image was taken, seconds.
+     * @param x The measured x, meters.
+     * @param y The measured y, meters.
+     * @param headingRadians The measured heading, CCW+.
+     * @param xyStd Standard deviation of the position, meters.
+     * @param thetaStd Standard deviation of the heading, radians.
+     * @return False if the measurement is older than the pose history, and was ignored.
+     */
+    public synchronized boolean addVisionMeasurement(
+            double timestamp,
+            double x,
+            double y,
+            double headingRadians,
+            double xyStd,
+            double thetaStd) {
+        if (!mHistory.sample(timestamp, mSample)) {
+            return false;
+        }
+        double ex = x - mSample[0];
+        double ey = y - mSample[1];
+        double eTheta = Math.IEEEremainder(headingRadians - mSample[2], kTwoPi);
+
+        // S = P + R, K = P S^-1
+        System.arraycopy(mP, 0, mS, 0, 9);
+        mS[0] += xyStd * xyStd;
+        mS[4] += xyStd * xyStd;
+        mS[8] += thetaStd * thetaStd;
+        if (!invert(mS, mTemp)) {
+            return false;
+        }
+        multiply(mP, mTemp, mK);
+
+        double dx = mK[0] * ex + mK[1] * ey + mK[2] * eTheta;
+        double dy = mK[3] * ex + mK[4] * ey + mK[5] * eTheta;
+        double dTheta = mK[6] * ex + mK[7] * ey + mK[8] * eTheta;
+        mX += dx;
+        mY += dy;
+        mTheta += dTheta;
+        // Move the gyro with the heading, or the next gyro correction pulls it back.
+        mGyroOffset += dTheta;
+        // And the past poses, so the next measurement isn't compared against where we were
+        // before this one and applied twice.
+        mHistory.offset(dx, dy, dTheta);
+
+        // P = (I - K) P
+        multiply(mK, mP, mTemp);
+        for (int i = 0; i < 9; i++) {
+            mP[i] -= mTemp[i];
+        }
+        return true;
+    }
+
+    /** Moves the state by the wheels' movement, and grows the uncertainty with it. */
+    private void predict(double dFl, double dFr, double dRl, double dRr) {
+        double[] fx = mForward[0];
+        double[] fy = mForward[1];
+        double[] fTheta = mForward[2];
+        double dx = fx[0] * dFl + fx[1] * dFr + fx[2] * dRl + fx[3] * dRr;
+        double dy = fy[0] * dFl + fy[1] * dFr + fy[2] * dRl + fy[3] * dRr;
+        double dTheta =
+                fTheta[0] * dFl + fTheta[1] * dFr + fTheta[2] * dRl + fTheta[3] * dRr;
+
+        double cos = Math.cos(mTheta);
+        double sin = Math.sin(mTheta);
+        mX += dx * cos - dy * sin;
+        mY += dx * sin + dy * cos;
+        mTheta += dTheta;
+
+        // P = A P A^T + Q, A is the jacobian of the move with respect to the state.
+        mA[0] = 1;
+        mA[1] = 0;
+        mA[2] = -dx * sin - dy * cos;
+        mA[3] = 0;
+        mA[4] = 1;
+        mA[5] = dx * cos - dy * sin;
+        mA[6] = 0;
+        mA[7] = 0;
+        mA[8] = 1;
+        multiply(mA, mP, mTemp);
+        multiplyTransposed(mTemp, mA, mP);
+
+        // Wheel noise is robot relative, rotate it onto the field.
+        double qx = square(mWheelXStd * dx);
+        double qy = square(mWheelYStd * dy);
+        mP[0] += cos * cos * qx + sin * sin * qy;
+        mP[1] += cos * sin * (qx - qy);
+        mP[3] += cos * sin * (qx - qy);
+        mP[4] += sin * sin * qx + cos * cos * qy;
+        mP[8] += square(mWheelThetaStd * dTheta);
+    }
+
+    /** Corrects the heading with a gyro reading already in field terms. */
+    private void correctHeading(double heading) {
+        double error = Math.IEEEremainder(heading - mTheta, kTwoPi);
+        double s = mP[8] + mGyroStd * mGyroStd;
+        if (s <= 0) {
+            return;
+        }
+        // K is the third column of P over s.
+        double k0 = mP[2] / s;
+        double k1 = mP[5] / s;
+        double k2 = mP[8] / s;
+        mX += k0 * error;
+        mY += k1 * error;
+        mTheta += k2 * error;
+
+        // P = P - K * (third row of P)
+        double p6 = mP[6];
+        double p7 = mP[7];
+        double p8 = mP[8];
+        mP[0] -= k0 * p6;
+        mP[1] -= k0 * p7;
+        mP[2] -= k0 * p8;
+        mP[3] -= k1 * p6;
+        mP[4] -= k1 * p7;
+        mP[5] -= k1 * p8;
+        mP[6] -= k2 * p6;
+        mP[7] -= k2 * p7;
+        mP[8] -= k2 * p8;
+    }
+
+    /** @return The x position, meters. */
+    public synchronized double getX() {
+        return mX;
+    }
+
+    /** @return The y position, meters. */
+    public synchronized double getY() {
+        return mY;
+    }
+
+    /** @return The heading, CCW+ radians. */
+    public synchronized double getHeadingRadians() {
+        return mTheta;
+    }
+
+    /** @return A new Pose2d of the current estimate. */
+    public synchronized Pose2d getPose() {
+        return new Pose2d(mX, mY, new Rotation2d(mTheta));
+    }
+
+    /** @return The past estimates, with the time of the update that made them. */
+    public PoseHistory getHistory() {
+        return mHistory;
+    }
+
+    /** out = a * b, all 3x3 row major. */
+    private static void multiply(double[] a, double[] b, double[] out) {
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                out[r * 3 + c] =
+                        a[r * 3] * b[c] + a[r * 3 + 1] * b[3 + c] + a[r * 3 + 2] * b[6 + c];
+            }
+        }
+    }
+
+    /** out = a * b^T, all 3x3 row major. */
+    private static void multiplyTransposed(double[] a, double[] b, double[] out) {
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                out[r * 3 + c] =
+                        a[r * 3] * b[c * 3]
+                                + a[r * 3 + 1] * b[c * 3 + 1]
+                                + a[r * 3 + 2] * b[c * 3 + 2];
+            }
+        }
+    }
+
+    /**
+     * Inverts a 3x3 row major matrix by cofactors.
+     *
+     * @return False if the matrix is singular.
+     */
+    private static boolean invert(double[] m, double[] out) {
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                // Cofactor of (c, r), the transpose gives the adjugate.
+                int r1 = (c + 1) % 3;
+                int r2 = (c + 2) % 3;
+                int c1 = (r + 1) % 3;
+                int c2 = (r + 2) % 3;
+                out[r * 3 + c] = m[r1 * 3 + c1] * m[r2 * 3 + c2] - m[r1 * 3 + c2] * m[r2 * 3 + c1];
+            }
+        }
+        double det = m[0] * out[0] + m[1] * out[3] + m[2] * out[6];
+        if (det == 0) {
+            return false;
+        }
+        for (int i = 0; i < 9; i++) {
+            out[i] /= det;
+        }
+        return true;
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+/**
+ * A fixed size history of timestamped poses, so late measurements (vision, the driver station) can
+ * be matched with where the robot was when they were taken.
+ *
+ * <p>Poses are kept in a ring of primitive arrays; adding never allocates and the oldest pose is
+ * overwritten once full. Looking up a past time is a binary search, and poses between samples are
+ * interpolated.
+ *
+ * <p>Safe to add from one thread (such as a control loop) while reading from another.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class PoseHistory {
+
+    private final double[] mTimes;
+    private final double[] mX;
+    private final double[] mY;
+    private final double[] mHeading;
+    // Index of the oldest pose, and the amount of poses.
+    private int mStart = 0;
+    private int mCount = 0;
+
+    /**
+     * Constructs a PoseHistory.
+     *
+     * @param capacity The amount of poses to keep.
+     */
+    public PoseHistory(int capacity) {
+        mTimes = new double[capacity];
+        mX = new double[capacity];
+        mY = new double[capacity];
+        mHeading = new double[capacity];
+    }
+
+    /**
+     * Adds a pose, overwriting the oldest if full. Poses must be added in time order, one that
+     * isn't newer than the last is ignored.
+     *
+     * @param timestamp The time of the pose, seconds.
+     * @param x The x position, meters.
+     * @param y The y position, meters.
+     * @param headingRadians The heading, CCW+.
+     */
+    public synchronized void add(double timestamp, double x, double y, double headingRadians) {
+        if (mCount > 0 && timestamp <= mTimes[index(mCount - 1)]) {
+            return;
+        }
+        int i;
+        if (mCount < mTimes.length) {
+            i = index(mCount);
+            mCount++;
+        } else {
+            i = mStart;
+            mStart = index(1);
+        }
+        mTimes[i] = timestamp;
+        mX[i] = x;
+        mY[i] = y;
+        mHeading[i] = headingRadians;
+    }
+
+    /**
+     * Finds the pose at a past time, interpolating between the poses around it. Times after the
+     * newest pose get the newest pose.
+     *
+     * @param timestamp The time, seconds.
+     * @param out Gets the x, y, and heading; at least 3 long.
+     * @return False if the time is older than the history, or the history is empty.
+     */
+    public synchronized boolean sample(double timestamp, double[] out) {
+        if (mCount == 0 || timestamp < mTimes[mStart]) {
+            return false;
+        }
+        int newest = index(mCount - 1);
+        if (timestamp >= mTimes[newest]) {
+            out[0] = mX[newest];
+            out[1] = mY[newest];
+            out[2] = mHeading[newest];
+            return true;
+        }
+
+        // Find the last pose at or before the time, in order of age.
+        int low = 0;
+        int high = mCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (mTimes[index(mid)] <= timestamp) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int before = index(low);
+        int after = index(low + 1);
+
+        double t = (timestamp - mTimes[before]) / (mTimes[after] - mTimes[before]);
+        out[0] = mX[before] + (mX[after] - mX[before]) * t;
+        out[1] = mY[before] + (mY[after] - mY[before]) * t;
+        // The short way around, so -179 to 179 goes through 180.
+        double turn = Math.IEEEremainder(mHeading[after] - mHeading[before], 2 * Math.PI);
+        out[2] = mHeading[before] + turn * t;
+        return true;
+    }
+
+    /**
+     * Moves every pose, such as after a correction to the estimate that made them.
+     *
+     * @param dx Added to every x, meters.
+     * @param dy Added to every y, meters.
+     * @param dHeadingRadians Added to every heading.
+     */
+    public synchronized void offset(double dx, double dy, double dHeadingRadians) {
+        for (int n = 0; n < mCount; n++) {
+            int i = index(n);
+            mX[i] += dx;
+            mY[i] += dy;
+            mHeading[i] += dHeadingRadians;
+        }
+    }
+
+    /** Removes all poses. */
+    public synchronized void clear() {
+        mStart = 0;
+        mCount = 0;
+    }
+
+    /** @return The amount of poses kept. */
+    public synchronized int size() {
+        return mCount;
+    }
+
+    /** @return The time of the oldest pose, or NaN if empty. */
+    public synchronized double getOldestTime() {
+        return mCount > 0 ? mTimes[mStart] : Double.NaN;
+    }
+
+    /** @return The time of the newest pose, or NaN if empty. */
+    public synchronized double getNewestTime() {
+        return mCount > 0 ? mTimes[index(mCount - 1)] : Double.NaN;
+    }
+
+    /** @return The array index of the nth oldest pose. */
+    private int index(int n) {
+        return (mStart + n) % mTimes.length;
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads logs written by {@link BinaryLogger}. Has no WPILib dependencies so it can run on a laptop:
+ *
+ * <pre>
+ * java -cp robot.jar frc.tigerlib.logging.BinaryLogReader log.tblog &gt; log.csv
+ * </pre>
+ *
+ * <p>If the robot lost power the header's record count may be behind or the last records may be
+ * empty, so records are only trusted up to the last one with an increasing timestamp.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class BinaryLogReader {
+
+    private final MappedByteBuffer mBuffer;
+    private final List<String> mChannelNames;
+    private final long mStartTimeMillis;
+    private final int mHeaderSize;
+    private final int mRecordSize;
+    private final int mRecordCount;
+
+    /**
+     * Opens a log.
+     *
+     * @param file The log file.
+     * @throws IOException If the file could not be read or is not a log.
+     */
+    public BinaryLogReader(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            mBuffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        }
+        mBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        byte[] magic = new byte[BinaryLogger.kMagic.length];
+        mBuffer.get(magic);
+        if (!Arrays.equals(magic, BinaryLogger.kMagic)) {
+            throw new IOException(file + " is not a robot log.");
+        }
+        int version = mBuffer.getInt();
+        if (version != BinaryLogger.kVersion) {
+            throw new IOException("Unsupported log version " + version);
+        }
+        int channelCount = mBuffer.getInt();
+        mRecordSize = mBuffer.getInt();
+        mHeaderSize = mBuffer.getInt();
+        mStartTimeMillis = mBuffer.getLong();
+        // Committed record count, can be behind after a brownout so records are scanned instead.
+        mBuffer.getLong();
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < channelCount; i++) {
+            byte[] name = new byte[mBuffer.getShort()];
+            mBuffer.get(name);
+            names.add(new String(name, StandardCharsets.UTF_8));
+        }
+        mChannelNames = Collections.unmodifiableList(names);
+
+        // The file is grown a chunk at a time, so the end of it may be empty records.
+        long count = (mBuffer.capacity() - mHeaderSize) / mRecordSize;
+        long lastTimestamp = Long.MIN_VALUE;
+        int valid = 0;
+        for (; valid < count; valid++) {
+            long timestamp = mBuffer.getLong(recordOffset(valid));
+            if (timestamp <= lastTimestamp || timestamp == 0) {
+                break;
+            }
+            lastTimestamp = timestamp;
+        }
+        mRecordCount = valid;
+    }
+
+    private int recordOffset(int record) {
+        return mHeaderSize + record * mRecordSize;
+    }
+
+    /** @return The channel names, index is the channel id. */
+    public List<String> getChannelNames() {
+        return mChannelNames;
+    }
+
+    /**
+     * Finds a channel by name.
+     *
+     * @param name The name of the channel.
+     * @return The channel id, -1 if not in this log.
+     */
+    public int findChannel(String name) {
+        return mChannelNames.indexOf(name);
+    }
+
+    /** @return The amount of valid records. */
+    public int getRecordCount() {
+        return mRecordCount;
+    }
+
+    /** @return The wall clock time the log was opened, in milliseconds since epoch. */
+    public long getStartTimeMillis() {
+        return mStartTimeMillis;
+    }
+
+    /** @return The timestamp of the given record in microseconds. */
+    public long getTimestamp(int record) {
+        return mBuffer.getLong(recordOffset(record));
+    }
+
+    /** @return The value of a channel in the given record. */
+    public double getValue(int record, int channel) {
+        return mBuffer.getDouble(recordOffset(record) + Long.BYTES + channel * Double.BYTES);
+    }
+
+    /**
+     * Writes the log as CSV, one row per record.
+     *
+     * @param out Where to write.
+     */
+    public void writeCsv(PrintStream out) {
+        StringBuilder line = new StringBuilder("timestamp");
+        for (String name : mChannelNames) {
+            line.append(',').append(name);
+        }
+        out.println(line);
+        for (int r = 0; r < mRecordCount; r++) {
+            line.setLength(0);
+            line.append(getTimestamp(r));
+            for (int c = 0; c < mChannelNames.size(); c++) {
+                line.append(',').append(getValue(r, c));
+            }
+            out.println(line);
+        }
+    }
+
+    /** Converts a log to CSV on stdout, or prints a summary with "--info". */
+    public static void main(String... args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: BinaryLogReader [--info] <log file>");
+            System.exit(1);
+        }
+        boolean info = args[0].equals("--info");
+        BinaryLogReader reader = new BinaryLogReader(new File(args[args.length - 1]));
+        if (info) {
+            int n = reader.getRecordCount();
+            System.out.println("Records: " + n);
+            if (n > 0) {
+                System.out.println(
+                        "Duration: "
+                                + (reader.getTimestamp(n - 1) - reader.getTimestamp(0)) / 1e6
+                                + "s");
+            }
+            System.out.println("Channels:");
+            for (String name : reader.getChannelNames()) {
+                System.out.println("  " + name);
+            }
+        } else {
+            reader.writeCsv(System.out);
+        }
+    }
+}
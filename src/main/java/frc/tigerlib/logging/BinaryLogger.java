@@ -0,0 +1,338 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.logging;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Records every channel, every loop, to a compact binary file through memory mapped buffers.
+ *
+ * <p>Channels are registered before {@link #open(File)}, which writes the schema. After that each
+ * loop call {@link #set(int, double)} for each channel then {@link #commit(long)}; no objects are
+ * created per sample. A background thread flushes the file to disk every second so at most about a
+ * second is lost on a brownout. It also maps the next chunk of the file ahead of time and flushes
+ * the last one once it's full, so the robot loop only ever writes to memory.
+ *
+ * <p>If the disk fails, or the stick is pulled, logging stops and warns the Driver Station instead
+ * of crashing the robot.
+ *
+ * <p>File layout, little endian:
+ *
+ * <pre>
+ * header:
+ *   8 bytes   magic "7125LOG\0"
+ *   int       format version
+ *   int       channel count
+ *   int       record size in bytes
+ *   int       header size in bytes (offset of the first record)
+ *   long      wall clock time the log was opened, milliseconds since epoch
+ *   long      committed record count, updated every record
+ *   per channel: short name length, then the UTF-8 name
+ * records:
+ *   long      timestamp in microseconds
+ *   double    value of each channel, in registration order
+ * </pre>
+ *
+ * <p>Read logs with {@link BinaryLogReader}.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class BinaryLogger {
+
+    static final byte[] kMagic = "7125LOG\0".getBytes(StandardCharsets.US_ASCII);
+    static final int kVersion = 1;
+    static final int kRecordCountOffset = 32;
+    static final int kFixedHeaderSize = 40;
+
+    // Each mapped chunk holds this many records, about 8MB with 40 channels.
+    private static final int kRecordsPerChunk = 25_000;
+    private static final long kFlushPeriodMs = 1000;
+
+    private final List<String> mChannelNames = new ArrayList<>();
+    private double[] mRow;
+
+    private FileChannel mChannel;
+    private MappedByteBuffer mHeader;
+    private volatile Chunk mChunk;
+    // Mapped by the flush thread before the current chunk fills.
+    private volatile Chunk mNextChunk;
+    // Full, waiting for the flush thread to force it to disk.
+    private final AtomicReference<Chunk> mFullChunk = new AtomicReference<>();
+    private int mHeaderSize;
+    private int mRecordSize;
+    private long mRecordCount = 0;
+    private Thread mFlushThread;
+    private volatile boolean mOpen = false;
+    private volatile boolean mFailed = false;
+
+    /** A mapped part of the file, and the first record in it. */
+    private static class Chunk {
+        final MappedByteBuffer buffer;
+        final long startRecord;
+
+        Chunk(MappedByteBuffer buffer, long startRecord) {
+            this.buffer = buffer;
+            this.startRecord = startRecord;
+        }
+    }
+
+    /**
+     * Registers a channel, must be called before {@link #open(File)}.
+     *
+     * @param name The name of the channel, ie: "Drivetrain/Heading".
+     * @return The id of the channel.
+     */
+    public int addChannel(String name) {
+        if (mOpen) {
+            throw new IllegalStateException("Channels must be added before the log is opened.");
+        }
+        mChannelNames.add(name);
+        return mChannelNames.size() - 1;
+    }
+
+    /**
+     * Creates the log file and writes the schema. Never overwrites an earlier log; pick a name with
+     * {@link LogFiles#unusedFile(File, int, String, String)}.
+     *
+     * @param file The file to write, must not exist.
+     * @throws java.nio.file.FileAlreadyExistsException If the file exists.
+     * @throws IOException If the file could not be created.
+     */
+    public synchronized void open(File file) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        mRow = new double[mChannelNames.size()];
+        mRecordSize = Long.BYTES + Double.BYTES * mRow.length;
+
+        List<byte[]> names = new ArrayList<>();
+        int headerSize = kFixedHeaderSize;
+        for (String name : mChannelNames) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            names.add(bytes);
+            headerSize += Short.BYTES + bytes.length;
+        }
+        // Keep records 8 byte aligned.
+        mHeaderSize = (headerSize + 7) & ~7;
+
+        mChannel =
+                FileChannel.open(
+                        file.toPath(),
+                        StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+
+        mHeader = mChannel.map(FileChannel.MapMode.READ_WRITE, 0, mHeaderSize);
+        mHeader.order(ByteOrder.LITTLE_ENDIAN);
+        mHeader.put(kMagic);
+        mHeader.putInt(kVersion);
+        mHeader.putInt(mRow.length);
+        mHeader.putInt(mRecordSize);
+        mHeader.putInt(mHeaderSize);
+        mHeader.putLong(System.currentTimeMillis());
+        mHeader.putLong(0);
+        for (byte[] name : names) {
+            mHeader.putShort((short) name.length);
+            mHeader.put(name);
+        }
+        mHeader.force();
+
+        mRecordCount = 0;
+        mChunk = mapChunk(0);
+        mNextChunk = null;
+        mFullChunk.set(null);
+        mFailed = false;
+
+        mOpen = true;
+        mFlushThread = new Thread(this::flushLoop, "BinaryLogger Flush");
+        mFlushThread.setDaemon(true);
+        mFlushThread.setPriority(Thread.MIN_PRIORITY);
+        mFlushThread.start();
+    }
+
+    /**
+     * Sets a channel's value for the current record.
+     *
+     * @param channel The id from {@link #addChannel(String)}.
+     * @param value The value.
+     */
+    public void set(int channel, double value) {
+        mRow[channel] = value;
+    }
+
+    /**
+     * Sets a channel's value for the current record as 1 or 0.
+     *
+     * @param channel The id from {@link #addChannel(String)}.
+     * @param value The value.
+     */
+    public void set(int channel, boolean value) {
+        mRow[channel] = value ? 1 : 0;
+    }
+
+    /**
+     * Writes the current record. Values not set this loop keep their last value.
+     *
+     * @param timestamp The time of the record in microseconds.
+     */
+    public void commit(long timestamp) {
+        if (!mOpen || mFailed) {
+            return;
+        }
+        try {
+            Chunk chunk = mChunk;
+            if (mRecordCount - chunk.startRecord >= kRecordsPerChunk) {
+                chunk = nextChunk(chunk);
+            }
+            MappedByteBuffer buffer = chunk.buffer;
+            int pos = (int) (mRecordCount - chunk.startRecord) * mRecordSize;
+            buffer.putLong(pos, timestamp);
+            pos += Long.BYTES;
+            for (int i = 0; i < mRow.length; i++) {
+                buffer.putDouble(pos, mRow[i]);
+                pos += Double.BYTES;
+            }
+            mRecordCount++;
+            mHeader.putLong(kRecordCountOffset, mRecordCount);
+        } catch (IOException | UncheckedIOException | InternalError e) {
+            // Most likely the stick was pulled or filled up, a pulled stick faults the mapping as
+            // an InternalError. Stop logging instead of spamming or crashing the robot.
+            fail(e);
+        }
+    }
+
+    /** Moves on from a full chunk, to the one the flush thread mapped if it's ready. */
+    private Chunk nextChunk(Chunk full) throws IOException {
+        long start = full.startRecord + kRecordsPerChunk;
+        Chunk next = mNextChunk;
+        if (next == null || next.startRecord != start) {
+            // Only if the flush thread fell a whole chunk behind.
+            next = mapChunk(start);
+        }
+        Chunk unflushed = mFullChunk.getAndSet(full);
+        if (unflushed != null) {
+            // Only if the flush thread fell a whole chunk behind.
+            unflushed.buffer.force();
+        }
+        mChunk = next;
+        mNextChunk = null;
+        return next;
+    }
+
+    /** @return The amount of records written. */
+    public long getRecordCount() {
+        return mRecordCount;
+    }
+
+    /** @return If the log is open and writing. */
+    public boolean isOpen() {
+        return mOpen && !mFailed;
+    }
+
+    /** Flushes and closes the log, trimming unused space from the end of the file. */
+    public synchronized void close() {
+        if (!mOpen) {
+            return;
+        }
+        mOpen = false;
+        mFlushThread.interrupt();
+        try {
+            mFlushThread.join(1000);
+            if (!mFailed) {
+                flush();
+            }
+            mChannel.truncate(mHeaderSize + mRecordCount * mRecordSize);
+            mChannel.close();
+        } catch (IOException | UncheckedIOException | InternalError e) {
+            DriverStation.reportWarning("Could not close the log: " + e, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Chunk mapChunk(long startRecord) throws IOException {
+        MappedByteBuffer buffer =
+                mChannel.map(
+                        FileChannel.MapMode.READ_WRITE,
+                        mHeaderSize + startRecord * mRecordSize,
+                        (long) kRecordsPerChunk * mRecordSize);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return new Chunk(buffer, startRecord);
+    }
+
+    private void flush() {
+        // Taken before forcing, so a chunk filled meanwhile waits for the next flush.
+        Chunk full = mFullChunk.getAndSet(null);
+        if (full != null) {
+            full.buffer.force();
+        }
+        mChunk.buffer.force();
+        mHeader.force();
+    }
+
+    private void fail(Throwable e) {
+        if (!mFailed) {
+            mFailed = true;
+            DriverStation.reportWarning("Log stopped recording: " + e, false);
+        }
+    }
+
+    private void flushLoop() {
+        while (mOpen && !mFailed) {
+            try {
+                Thread.sleep(kFlushPeriodMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                flush();
+                long start = mChunk.startRecord + kRecordsPerChunk;
+                Chunk next = mNextChunk;
+                if (next == null || next.startRecord != start) {
+                    mNextChunk = mapChunk(start);
+                }
+            } catch (IOException | UncheckedIOException | InternalError e) {
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Deletes the oldest files in a log directory until the rest fit in the given size. Logs are
+     * named by boot number, see {@link LogFiles}, so oldest is first by name.
+     *
+     * @param directory The log directory.
+     * @param maxBytes How much the remaining files may take up, in bytes.
+     */
+    public static void deleteOldest(File directory, long maxBytes) {
+        File[] files = directory.listFiles(File::isFile);
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        for (int i = 0; i < files.length && total > maxBytes; i++) {
+            long length = files[i].length();
+            if (files[i].delete()) {
+                total -= length;
+            }
+        }
+    }
+}
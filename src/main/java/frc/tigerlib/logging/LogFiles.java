@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.logging;
+
+import java.io.File;
+
+/**
+ * Names log files by boot instead of by the clock.
+ *
+ * <p>The rio's clock isn't set until the Driver Station connects, so names from the time of day
+ * repeat across boots. Instead each boot takes the next number after the highest one already in
+ * the log directory, zero padded so names still sort oldest first for {@link
+ * BinaryLogger#deleteOldest(File, long)}. Files are opened create-new, so a name that's somehow
+ * taken gets a suffix rather than overwriting an earlier log.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class LogFiles {
+
+    // Digits in a boot number; a boot every minute for a season still fits.
+    private static final int kDigits = 5;
+
+    private LogFiles() {}
+
+    /**
+     * Finds this boot's number from the logs already in a directory.
+     *
+     * @param directory The log directory, may not exist yet.
+     * @return One more than the highest boot number in the directory, or 1 if there are none.
+     */
+    public static int nextBootNumber(File directory) {
+        String[] names = directory.list();
+        int highest = 0;
+        if (names != null) {
+            for (String name : names) {
+                highest = Math.max(highest, parseBootNumber(name));
+            }
+        }
+        return highest + 1;
+    }
+
+    /**
+     * Reads the boot number a log file was named with.
+     *
+     * @param name The file's name.
+     * @return The boot number, or 0 if the name doesn't start with one.
+     */
+    static int parseBootNumber(String name) {
+        if (name.length() <= kDigits || Character.isDigit(name.charAt(kDigits))) {
+            // Too short, or something else like a date.
+            return 0;
+        }
+        int number = 0;
+        for (int i = 0; i < kDigits; i++) {
+            char c = name.charAt(i);
+            if (!Character.isDigit(c)) {
+                return 0;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    /**
+     * Picks a file for a log that doesn't exist yet; ie: 00042.tblog, or 00042-1.tblog if taken.
+     * Open it create-new, so it can't overwrite one written in between.
+     *
+     * @param directory The log directory.
+     * @param bootNumber This boot's number, from {@link #nextBootNumber(File)}.
+     * @param tag Added after the boot number, ie: "_Q12_1"; or empty.
+     * @param extension The file's extension with its dot, ie: ".tblog".
+     * @return A file that didn't exist.
+     */
+    public static File unusedFile(File directory, int bootNumber, String tag, String extension) {
+        String base = String.format("%0" + kDigits + "d", bootNumber) + tag;
+        File file = new File(directory, base + extension);
+        for (int suffix = 1; file.exists(); suffix++) {
+            file = new File(directory, base + "-" + suffix + extension);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.math;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Finds a minimum of a function without needing its derivative, by the Nelder-Mead simplex method.
+ *
+ * <p>Good for tuning against a simulation, where the cost is noisy or flat in places and there is
+ * no gradient to follow. Finds a local minimum near the start, so start it somewhere sensible, ie:
+ * the best of a coarse grid search.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class NelderMead {
+
+    // Standard reflection, expansion, contraction and shrink coefficients.
+    private static final double kReflect = 1;
+    private static final double kExpand = 2;
+    private static final double kContract = 0.5;
+    private static final double kShrink = 0.5;
+
+    private final ToDoubleFunction<double[]> mCost;
+    private int mMaxEvaluations = 200;
+    private double mTolerance = 1e-6;
+    private int mEvaluations = 0;
+
+    /**
+     * Constructs a NelderMead.
+     *
+     * @param cost The function to minimize; must not keep or change the array it is given.
+     */
+    public NelderMead(ToDoubleFunction<double[]> cost) {
+        mCost = cost;
+    }
+
+    /**
+     * Sets how many times the cost is evaluated before giving up, 200 by default. The step that
+     * reaches it is finished, which is at most dimensions + 1 more.
+     */
+    public void setMaxEvaluations(int evaluations) {
+        mMaxEvaluations = evaluations;
+    }
+
+    /** Sets how close the best and worst costs have to be to stop, 1e-6 by default. */
+    public void setTolerance(double tolerance) {
+        mTolerance = tolerance;
+    }
+
+    /** @return How many times the cost was evaluated by the last {@link #minimize}. */
+    public int getEvaluations() {
+        return mEvaluations;
+    }
+
+    /**
+     * Searches for a minimum.
+     *
+     * @param start Where to start.
+     * @param steps How far the first simplex reaches along each axis from the start.
+     * @return The best point found.
+     */
+    public double[] minimize(double[] start, double[] steps) {
+        int n = start.length;
+        mEvaluations = 0;
+
+        // n + 1 points; the start, and a step along each axis.
+        double[][] points = new double[n + 1][];
+        double[] costs = new double[n + 1];
+        for (int i = 0; i <= n; i++) {
+            points[i] = start.clone();
+            if (i > 0) {
+                points[i][i - 1] += steps[i - 1];
+            }
+            costs[i] = evaluate(points[i]);
+        }
+
+        double[] centroid = new double[n];
+        while (mEvaluations < mMaxEvaluations) {
+            sort(points, costs);
+            if (Math.abs(costs[n] - costs[0]) <= mTolerance) {
+                break;
+            }
+
+            // Centroid of all but the worst.
+            for (int d = 0; d < n; d++) {
+                centroid[d] = 0;
+                for (int i = 0; i < n; i++) {
+                    centroid[d] += points[i][d] / n;
+                }
+            }
+
+            double[] reflected = along(centroid, points[n], -kReflect);
+            double reflectedCost = evaluate(reflected);
+            if (reflectedCost < costs[0]) {
+                // Best yet, see if going further is better still.
+                double[] expanded = along(centroid, points[n], -kExpand);
+                double expandedCost = evaluate(expanded);
+                if (expandedCost < reflectedCost) {
+                    points[n] = expanded;
+                    costs[n] = expandedCost;
+                } else {
+                    points[n] = reflected;
+                    costs[n] = reflectedCost;
+                }
+            } else if (reflectedCost < costs[n - 1]) {
+                points[n] = reflected;
+                costs[n] = reflectedCost;
+            } else {
+                // Reflecting didn't help, pull the worst point in towards the others.
+                double[] contracted = along(centroid, points[n], kContract);
+                double contractedCost = evaluate(contracted);
+                if (contractedCost < costs[n]) {
+                    points[n] = contracted;
+                    costs[n] = contractedCost;
+                } else {
+                    // Nothing helped, shrink everything towards the best.
+                    for (int i = 1; i <= n; i++) {
+                        points[i] = along(points[0], points[i], kShrink);
+                        costs[i] = evaluate(points[i]);
+                    }
+                }
+            }
+        }
+        sort(points, costs);
+        return points[0];
+    }
+
+    private double evaluate(double[] point) {
+        mEvaluations++;
+        return mCost.applyAsDouble(point);
+    }
+
+    /** @return from + (to - from) * amount. */
+    private static double[] along(double[] from, double[] to, double amount) {
+        double[] point = new double[from.length];
+        for (int d = 0; d < from.length; d++) {
+            point[d] = from[d] + (to[d] - from[d]) * amount;
+        }
+        return point;
+    }
+
+    /** Sorts points by cost, best first; insertion sort, there are only a few. */
+    private static void sort(double[][] points, double[] costs) {
+        for (int i = 1; i < costs.length; i++) {
+            double[] point = points[i];
+            double cost = costs[i];
+            int j = i - 1;
+            while (j >= 0 && costs[j] > cost) {
+                points[j + 1] = points[j];
+                costs[j + 1] = costs[j];
+                j--;
+            }
+            points[j + 1] = point;
+            costs[j + 1] = cost;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.planning;
+
+/**
+ * Finds short paths across an {@link OccupancyGrid} with Lazy Theta*.
+ *
+ * <p>Theta* is A* where a cell may take its parent's parent as its own when there's a clear line
+ * to it, so paths go straight between obstacle corners at any angle instead of in grid steps. The
+ * lazy version assumes the line is clear, and only checks when the cell is expanded; one check per
+ * expansion rather than one per neighbor.
+ *
+ * <p>Every array is made up front, sized for the grid; a search allocates nothing. Cells are
+ * marked with the number of the search that last touched them, so nothing is cleared between
+ * searches either. The open set is a binary heap of cell numbers, ordered by each cell's estimated
+ * total cost, that knows where each cell is so it can move one when a cheaper way is found.
+ *
+ * <p>Not thread safe; use from one thread.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class GridPlanner {
+
+    private static final double kSqrt2 = Math.sqrt(2);
+
+    private final OccupancyGrid mGrid;
+    private final int mColumns;
+    private final int mMaxExpansions;
+
+    // Per cell. Cost from the start and parent are only valid if mSeen is this search's number.
+    private final double[] mCost;
+    private final double[] mPriority;
+    private final int[] mParent;
+    private final int[] mSeen;
+    private final int[] mClosed;
+    // Where each open cell is in the heap.
+    private final int[] mHeapIndex;
+    private final int[] mHeap;
+    private int mHeapSize;
+    private int mSearch = 0;
+
+    // The last path found, start to goal.
+    private final int[] mPath;
+    private int mPathLength = 0;
+    private int mExpansions = 0;
+
+    /**
+     * Constructs a GridPlanner.
+     *
+     * @param grid The grid to search; shouldn't change after.
+     * @param maxExpansions How many cells a search may expand before it gives up, to bound how
+     *     long it takes.
+     */
+    public GridPlanner(OccupancyGrid grid, int maxExpansions) {
+        mGrid = grid;
+        mColumns = grid.getColumns();
+        mMaxExpansions = maxExpansions;
+        int cells = grid.getCellCount();
+        mCost = new double[cells];
+        mPriority = new double[cells];
+        mParent = new int[cells];
+        mSeen = new int[cells];
+        mClosed = new int[cells];
+        mHeapIndex = new int[cells];
+        mHeap = new int[cells];
+        mPath = new int[cells];
+    }
+
+    /**
+     * Searches for a path between two free cells.
+     *
+     * @param start The cell to start from.
+     * @param goal The cell to get to.
+     * @return Whether a path was found; see {@link #getPathLength()} and {@link #getPathCell(int)}.
+     */
+    public boolean plan(int start, int goal) {
+        mSearch++;
+        mHeapSize = 0;
+        mPathLength = 0;
+        mExpansions = 0;
+        if (mGrid.isBlocked(start) || mGrid.isBlocked(goal)) {
+            return false;
+        }
+        open(start, start, 0, goal);
+
+        while (mHeapSize > 0) {
+            int cell = pop();
+            mClosed[cell] = mSearch;
+            if (mExpansions++ >= mMaxExpansions) {
+                return false;
+            }
+            int parent = mParent[cell];
+            if (parent != cell && !mGrid.hasLineOfSight(parent, cell)) {
+                // The shortcut was blocked; take the best neighbor already expanded instead.
+                // There always is one, the cell was opened from it.
+                setCheapestClosedParent(cell);
+                parent = mParent[cell];
+            }
+            if (cell == goal) {
+                tracePath(start, goal);
+                return true;
+            }
+
+            int column = cell % mColumns;
+            int row = cell / mColumns;
+            for (int dr = -1; dr <= 1; dr++) {
+                int r = row + dr;
+                if (r < 0 || r >= mGrid.getRows()) {
+                    continue;
+                }
+                for (int dc = -1; dc <= 1; dc++) {
+                    int c = column + dc;
+                    if ((dc == 0 && dr == 0) || c < 0 || c >= mColumns) {
+                        continue;
+                    }
+                    int neighbor = r * mColumns + c;
+                    if (mClosed[neighbor] == mSearch || mGrid.isBlocked(neighbor)) {
+                        continue;
+                    }
+                    // Diagonal steps can't cut a blocked corner.
+                    if (dc != 0 && dr != 0 && !mGrid.hasLineOfSight(cell, neighbor)) {
+                        continue;
+                    }
+                    // Lazily assume the parent can see the neighbor.
+                    double cost = mCost[parent] + distance(parent, neighbor);
+                    if (mSeen[neighbor] != mSearch || cost < mCost[neighbor]) {
+                        open(neighbor, parent, cost, goal);
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void setCheapestClosedParent(int cell) {
+        int column = cell % mColumns;
+        int row = cell / mColumns;
+        double best = Double.POSITIVE_INFINITY;
+        for (int dr = -1; dr <= 1; dr++) {
+            int r = row + dr;
+            if (r < 0 || r >= mGrid.getRows()) {
+                continue;
+            }
+            for (int dc = -1; dc <= 1; dc++) {
+                int c = column + dc;
+                if ((dc == 0 && dr == 0) || c < 0 || c >= mColumns) {
+                    continue;
+                }
+                int neighbor = r * mColumns + c;
+                if (mClosed[neighbor] != mSearch) {
+                    continue;
+                }
+                if (dc != 0 && dr != 0 && !mGrid.hasLineOfSight(neighbor, cell)) {
+                    continue;
+                }
+                double cost = mCost[neighbor] + (dc != 0 && dr != 0 ? kSqrt2 : 1);
+                if (cost < best) {
+                    best = cost;
+                    mParent[cell] = neighbor;
+                    mCost[cell] = cost;
+                }
+            }
+        }
+    }
+
+    private void tracePath(int start, int goal) {
+        int length = 0;
+        for (int cell = goal; cell != start; cell = mParent[cell]) {
+            mPath[length++] = cell;
+        }
+        mPath[length++] = start;
+        for (int i = 0; i < length / 2; i++) {
+            int swap = mPath[i];
+            mPath[i] = mPath[length - 1 - i];
+            mPath[length - 1 - i] = swap;
+        }
+        mPathLength = length;
+    }
+
+    /** Distance between two cells' centers, in cells. */
+    private double distance(int a, int b) {
+        return Math.hypot(a % mColumns - b % mColumns, a / mColumns - b / mColumns);
+    }
+
+    /** Adds a cell to the open set, or moves it if it's already there. */
+    private void open(int cell, int parent, double cost, int goal) {
+        boolean isOpen = mSeen[cell] == mSearch;
+        mSeen[cell] = mSearch;
+        mParent[cell] = parent;
+        mCost[cell] = cost;
+        mPriority[cell] = cost + distance(cell, goal);
+        if (!isOpen) {
+            mHeapIndex[cell] = mHeapSize;
+            mHeap[mHeapSize++] = cell;
+        }
+        // Only ever cheaper, so it only moves up.
+        siftUp(mHeapIndex[cell]);
+    }
+
+    private int pop() {
+        int top = mHeap[0];
+        int last = mHeap[--mHeapSize];
+        if (mHeapSize > 0) {
+            mHeap[0] = last;
+            mHeapIndex[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int i) {
+        int cell = mHeap[i];
+        double priority = mPriority[cell];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            int above = mHeap[parent];
+            if (mPriority[above] <= priority) {
+                break;
+            }
+            mHeap[i] = above;
+            mHeapIndex[above] = i;
+            i = parent;
+        }
+        mHeap[i] = cell;
+        mHeapIndex[cell] = i;
+    }
+
+    private void siftDown(int i) {
+        int cell = mHeap[i];
+        double priority = mPriority[cell];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= mHeapSize) {
+                break;
+            }
+            if (child + 1 < mHeapSize && mPriority[mHeap[child + 1]] < mPriority[mHeap[child]]) {
+                child++;
+            }
+            int below = mHeap[child];
+            if (mPriority[below] >= priority) {
+                break;
+            }
+            mHeap[i] = below;
+            mHeapIndex[below] = i;
+            i = child;
+        }
+        mHeap[i] = cell;
+        mHeapIndex[cell] = i;
+    }
+
+    /** @return How many cells the last path goes through, start and goal included; 0 if none. */
+    public int getPathLength() {
+        return mPathLength;
+    }
+
+    /** @return A cell on the last path, 0 is the start. */
+    public int getPathCell(int i) {
+        return mPath[i];
+    }
+
+    /** @return How many cells the last search expanded. */
+    public int getExpansions() {
+        return mExpansions;
+    }
+
+    /** @return The grid being searched. */
+    public OccupancyGrid getGrid() {
+        return mGrid;
+    }
+}
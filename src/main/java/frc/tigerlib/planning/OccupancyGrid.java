@@ -0,0 +1,326 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.planning;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Properties;
+
+/**
+ * A map of the field as square cells, each either free or blocked.
+ *
+ * <p>Cells are numbered row by row from the field origin, {@code row * columns + column}, with
+ * columns along x and rows along y. A cell is blocked if its center is inside an obstacle.
+ *
+ * <p>Loaded from a properties file in meters:
+ *
+ * <ul>
+ *   <li>length, width: the field's size along x and y.
+ *   <li>rectangle.<i>name</i>: x0, y0, x1, y1; opposite corners of a blocked rectangle.
+ *   <li>circle.<i>name</i>: x, y, radius; a blocked circle.
+ * </ul>
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class OccupancyGrid {
+
+    private final double mLength;
+    private final double mWidth;
+    private final double mResolution;
+    private final int mColumns;
+    private final int mRows;
+    private final boolean[] mBlocked;
+
+    /**
+     * Constructs an OccupancyGrid with every cell free.
+     *
+     * @param length The field's size along x, meters.
+     * @param width The field's size along y, meters.
+     * @param resolution The size of a cell, meters.
+     */
+    public OccupancyGrid(double length, double width, double resolution) {
+        if (!(length > 0 && width > 0 && resolution > 0)) {
+            throw new IllegalArgumentException("Field size and resolution must be positive");
+        }
+        mLength = length;
+        mWidth = width;
+        mResolution = resolution;
+        mColumns = (int) Math.ceil(length / resolution);
+        mRows = (int) Math.ceil(width / resolution);
+        mBlocked = new boolean[mColumns * mRows];
+    }
+
+    private OccupancyGrid(OccupancyGrid grid) {
+        this(grid.mLength, grid.mWidth, grid.mResolution);
+        System.arraycopy(grid.mBlocked, 0, mBlocked, 0, mBlocked.length);
+    }
+
+    /**
+     * Makes a grid from properties, see the class description for the keys.
+     *
+     * @param properties The properties.
+     * @param resolution The size of a cell, meters.
+     * @return The grid.
+     * @throws IllegalArgumentException If a key is missing or bad.
+     */
+    public static OccupancyGrid fromProperties(Properties properties, double resolution) {
+        OccupancyGrid grid =
+                new OccupancyGrid(
+                        parse(properties, "length", 1)[0],
+                        parse(properties, "width", 1)[0],
+                        resolution);
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("rectangle.")) {
+                double[] r = parse(properties, key, 4);
+                grid.addRectangle(r[0], r[1], r[2], r[3]);
+            } else if (key.startsWith("circle.")) {
+                double[] c = parse(properties, key, 3);
+                grid.addCircle(c[0], c[1], c[2]);
+            } else if (!key.equals("length") && !key.equals("width")) {
+                throw new IllegalArgumentException("Unknown key \"" + key + "\"");
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Loads a grid from a properties file, see the class description for the keys.
+     *
+     * @param file The file.
+     * @param resolution The size of a cell, meters.
+     * @return The grid.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If a key is missing or bad.
+     */
+    public static OccupancyGrid load(File file, double resolution) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(file)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties, resolution);
+    }
+
+    private static double[] parse(Properties properties, String key, int count) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing \"" + key + "\"");
+        }
+        String[] parts = value.split(",");
+        if (parts.length != count) {
+            throw new IllegalArgumentException(
+                    "\"" + key + "\" needs " + count + " numbers, has " + parts.length);
+        }
+        double[] numbers = new double[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = Double.parseDouble(parts[i].trim());
+        }
+        return numbers;
+    }
+
+    /** Blocks every cell whose center is in a rectangle, given by opposite corners in meters. */
+    public void addRectangle(double x0, double y0, double x1, double y1) {
+        double minX = Math.min(x0, x1);
+        double maxX = Math.max(x0, x1);
+        double minY = Math.min(y0, y1);
+        double maxY = Math.max(y0, y1);
+        for (int row = 0; row < mRows; row++) {
+            double y = (row + 0.5) * mResolution;
+            if (y < minY || y > maxY) {
+                continue;
+            }
+            for (int column = 0; column < mColumns; column++) {
+                double x = (column + 0.5) * mResolution;
+                if (x >= minX && x <= maxX) {
+                    mBlocked[row * mColumns + column] = true;
+                }
+            }
+        }
+    }
+
+    /** Blocks every cell whose center is in a circle, in meters. */
+    public void addCircle(double x, double y, double radius) {
+        for (int cell = 0; cell < mBlocked.length; cell++) {
+            if (Math.hypot(getX(cell) - x, getY(cell) - y) <= radius) {
+                mBlocked[cell] = true;
+            }
+        }
+    }
+
+    /**
+     * Grows every obstacle, and the field's walls, by a distance; so a robot whose center stays
+     * in free cells keeps that far from anything.
+     *
+     * @param radius How far to grow them, meters.
+     * @return A new grid, this one is unchanged.
+     */
+    public OccupancyGrid inflate(double radius) {
+        OccupancyGrid inflated = new OccupancyGrid(this);
+        int reach = (int) Math.ceil(radius / mResolution);
+        for (int cell = 0; cell < mBlocked.length; cell++) {
+            double x = getX(cell);
+            double y = getY(cell);
+            if (x < radius || y < radius || mLength - x < radius || mWidth - y < radius) {
+                inflated.mBlocked[cell] = true;
+            }
+            // Only obstacle edges can block anything new.
+            if (!mBlocked[cell] || !hasFreeNeighbor(cell)) {
+                continue;
+            }
+            int column = cell % mColumns;
+            int row = cell / mColumns;
+            for (int r = Math.max(0, row - reach); r <= Math.min(mRows - 1, row + reach); r++) {
+                for (int c = Math.max(0, column - reach);
+                        c <= Math.min(mColumns - 1, column + reach);
+                        c++) {
+                    if (Math.hypot(c - column, r - row) * mResolution <= radius) {
+                        inflated.mBlocked[r * mColumns + c] = true;
+                    }
+                }
+            }
+        }
+        return inflated;
+    }
+
+    private boolean hasFreeNeighbor(int cell) {
+        int column = cell % mColumns;
+        int row = cell / mColumns;
+        return (column > 0 && !mBlocked[cell - 1])
+                || (column < mColumns - 1 && !mBlocked[cell + 1])
+                || (row > 0 && !mBlocked[cell - mColumns])
+                || (row < mRows - 1 && !mBlocked[cell + mColumns]);
+    }
+
+    /**
+     * Finds the free cell nearest another, for starting or ending a search that's in a blocked
+     * one.
+     *
+     * @param cell The cell.
+     * @param maxDistance How far to look, meters.
+     * @return The nearest free cell, the cell itself if it's free, or -1 if there's none in reach.
+     */
+    public int findNearestFree(int cell, double maxDistance) {
+        if (!mBlocked[cell]) {
+            return cell;
+        }
+        int column = cell % mColumns;
+        int row = cell / mColumns;
+        int reach = (int) Math.ceil(maxDistance / mResolution);
+        int nearest = -1;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (int r = Math.max(0, row - reach); r <= Math.min(mRows - 1, row + reach); r++) {
+            for (int c = Math.max(0, column - reach);
+                    c <= Math.min(mColumns - 1, column + reach);
+                    c++) {
+                double distance = Math.hypot(c - column, r - row) * mResolution;
+                if (distance < nearestDistance
+                        && distance <= maxDistance
+                        && !mBlocked[r * mColumns + c]) {
+                    nearest = r * mColumns + c;
+                    nearestDistance = distance;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Checks whether a straight line between two cells' centers crosses only free cells. Where
+     * the line passes exactly through a corner, both cells beside it must be free.
+     *
+     * @param from One cell.
+     * @param to The other.
+     * @return Whether the line is clear.
+     */
+    public boolean hasLineOfSight(int from, int to) {
+        int column = from % mColumns;
+        int row = from / mColumns;
+        int dc = Math.abs(to % mColumns - column);
+        int dr = Math.abs(to / mColumns - row);
+        int stepC = to % mColumns > column ? 1 : -1;
+        int stepR = to / mColumns > row ? mColumns : -mColumns;
+        int cell = from;
+        // Which cell edge the line reaches next; positive means a column edge. Scaled by 2 to
+        // stay in integers, since the line starts from a cell's center.
+        int error = dc - dr;
+        dc *= 2;
+        dr *= 2;
+        for (int n = 1 + (dc + dr) / 2; n > 0; n--) {
+            if (mBlocked[cell]) {
+                return false;
+            }
+            // Lines that end on a diagonal reach a corner again at the end; nothing past it.
+            if (cell == to) {
+                return true;
+            }
+            if (error > 0) {
+                cell += stepC;
+                error -= dr;
+            } else if (error < 0) {
+                cell += stepR;
+                error += dc;
+            } else {
+                if (mBlocked[cell + stepC] || mBlocked[cell + stepR]) {
+                    return false;
+                }
+                cell += stepC + stepR;
+                error += dc - dr;
+                n--;
+            }
+        }
+        return true;
+    }
+
+    /** @return The cell containing a point, clamped onto the field. */
+    public int getCell(double x, double y) {
+        int column = Math.max(0, Math.min(mColumns - 1, (int) Math.floor(x / mResolution)));
+        int row = Math.max(0, Math.min(mRows - 1, (int) Math.floor(y / mResolution)));
+        return row * mColumns + column;
+    }
+
+    /** @return The x of a cell's center, meters. */
+    public double getX(int cell) {
+        return (cell % mColumns + 0.5) * mResolution;
+    }
+
+    /** @return The y of a cell's center, meters. */
+    public double getY(int cell) {
+        return (cell / mColumns + 0.5) * mResolution;
+    }
+
+    /** @return Whether a cell is blocked. */
+    public boolean isBlocked(int cell) {
+        return mBlocked[cell];
+    }
+
+    /** @return Whether a point is blocked, or off the field. */
+    public boolean isBlocked(double x, double y) {
+        if (x < 0 || y < 0 || x >= mColumns * mResolution || y >= mRows * mResolution) {
+            return true;
+        }
+        return mBlocked[getCell(x, y)];
+    }
+
+    /** @return How many columns there are, along x. */
+    public int getColumns() {
+        return mColumns;
+    }
+
+    /** @return How many rows there are, along y. */
+    public int getRows() {
+        return mRows;
+    }
+
+    /** @return How many cells there are. */
+    public int getCellCount() {
+        return mBlocked.length;
+    }
+
+    /** @return The size of a cell, meters. */
+    public double getResolution() {
+        return mResolution;
+    }
+}
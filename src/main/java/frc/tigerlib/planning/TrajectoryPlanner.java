@@ -0,0 +1,516 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.planning;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.tigerlib.trajectory.SampledTrajectory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Plans trajectories between poses on the fly, around the obstacles in an {@link OccupancyGrid}.
+ *
+ * <p>A {@link GridPlanner} finds the path's corners on the grid grown by the robot's clearance
+ * plus a margin. Each corner is rounded with a quadratic Bezier, as wide as the margin allows; the
+ * rounding is checked against the grid grown by only the clearance, and narrowed where it would
+ * clip something. The smoothed path is then timed for the velocity and acceleration limits, and
+ * slowed around curves so sideways acceleration stays in the limit too. The heading turns evenly
+ * from the start's to the goal's along the way.
+ *
+ * <p>Starts and goals in blocked cells, like against the hub's fender, are joined by a straight
+ * line to the nearest free cell, so the search itself only ever sees free cells.
+ *
+ * <p>Trajectories are cached by start and goal, rounded to a cell and {@code headingStep}, so
+ * asking for the same thing again costs a map lookup. The cached trajectory starts and ends where
+ * the first request did; the follower corrects the difference, at most half a cell.
+ *
+ * <p>Not thread safe; use from one thread.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class TrajectoryPlanner {
+
+    // Distance between the smoothed path's points, meters.
+    private static final double kSpacing = 0.05;
+    // Corners narrower than this are taken as a stop and turn, meters.
+    private static final double kMinBlend = 0.02;
+    // How many times the corners are narrowed before giving up on rounding them.
+    private static final int kMaxSmoothingPasses = 6;
+    // How far from a blocked start or goal to look for a free cell, meters.
+    private static final double kMaxSnapDistance = 1;
+
+    private final OccupancyGrid mClearanceGrid;
+    private final GridPlanner mPlanner;
+    private final double mMaxVelocity;
+    private final double mMaxAcceleration;
+    private final double mMaxAngularVelocity;
+    private final double mMaxBlend;
+    private final double mHeadingStep;
+    private final int mHeadingBuckets;
+    private final Map<Long, SampledTrajectory> mCache;
+
+    // Corners of the path, and how wide each is rounded.
+    private double[] mCornerX = new double[64];
+    private double[] mCornerY = new double[64];
+    private double[] mBlend = new double[64];
+    private boolean[] mClips = new boolean[64];
+    private int mCorners;
+    // Points along the smoothed path, grown as needed.
+    private double[] mX = new double[1024];
+    private double[] mY = new double[1024];
+    private double[] mCurvature = new double[1024];
+    private double[] mMaxSpeed = new double[1024];
+    private double[] mDistance = new double[1024];
+    private double[] mSpeed = new double[1024];
+    private int mPoints;
+
+    private long mLastPlanNanos = 0;
+    private int mHits = 0;
+    private int mMisses = 0;
+
+    /**
+     * Constructs a TrajectoryPlanner.
+     *
+     * @param field The field's obstacles, not grown.
+     * @param clearance How far the robot's center must stay from anything, meters.
+     * @param margin Extra room searched paths leave, so their corners can be rounded, meters.
+     * @param maxVelocity Fastest the robot may go, meters per second.
+     * @param maxAcceleration Fastest it may speed up, slow down, or turn; meters per second
+     *     squared.
+     * @param maxAngularVelocity Fastest it may turn, radians per second.
+     * @param maxExpansions How many cells a search may expand, bounding how long it takes.
+     * @param headingStep Headings within this are the same for the cache, radians.
+     * @param cacheSize How many trajectories to keep; the least recently used go first.
+     */
+    public TrajectoryPlanner(
+            OccupancyGrid field,
+            double clearance,
+            double margin,
+            double maxVelocity,
+            double maxAcceleration,
+            double maxAngularVelocity,
+            int maxExpansions,
+            double headingStep,
+            int cacheSize) {
+        mClearanceGrid = field.inflate(clearance);
+        mPlanner = new GridPlanner(field.inflate(clearance + margin), maxExpansions);
+        mMaxVelocity = maxVelocity;
+        mMaxAcceleration = maxAcceleration;
+        mMaxAngularVelocity = maxAngularVelocity;
+        // A quadratic Bezier cuts a corner by at most half its width.
+        mMaxBlend = 2 * margin;
+        mHeadingBuckets = (int) Math.ceil(2 * Math.PI / headingStep);
+        mHeadingStep = 2 * Math.PI / mHeadingBuckets;
+        mCache =
+                new LinkedHashMap<>(cacheSize * 2, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Long, SampledTrajectory> eldest) {
+                        return size() > cacheSize;
+                    }
+                };
+    }
+
+    /**
+     * Plans a trajectory from one pose to another, or finds it in the cache.
+     *
+     * @param start Where the robot is.
+     * @param goal Where it should end up.
+     * @return The trajectory, or null if there's no way there.
+     */
+    public SampledTrajectory plan(Pose2d start, Pose2d goal) {
+        return plan(
+                start.getX(),
+                start.getY(),
+                start.getRotation().getRadians(),
+                goal.getX(),
+                goal.getY(),
+                goal.getRotation().getRadians());
+    }
+
+    /**
+     * Plans a trajectory from one pose to another, or finds it in the cache.
+     *
+     * @return The trajectory, or null if there's no way there. Positions in meters and headings in
+     *     radians.
+     */
+    public SampledTrajectory plan(
+            double startX,
+            double startY,
+            double startHeading,
+            double goalX,
+            double goalY,
+            double goalHeading) {
+        long startNanos = System.nanoTime();
+        OccupancyGrid grid = mPlanner.getGrid();
+        int startCell = grid.getCell(startX, startY);
+        int goalCell = grid.getCell(goalX, goalY);
+        long key =
+                (((long) startCell * grid.getCellCount() + goalCell) * mHeadingBuckets
+                                        + headingBucket(startHeading))
+                                * mHeadingBuckets
+                        + headingBucket(goalHeading);
+        SampledTrajectory trajectory = mCache.get(key);
+        if (trajectory != null) {
+            mHits++;
+        } else {
+            mMisses++;
+            trajectory =
+                    generate(
+                            startX,
+                            startY,
+                            startHeading,
+                            goalX,
+                            goalY,
+                            goalHeading,
+                            startCell,
+                            goalCell);
+            if (trajectory != null) {
+                mCache.put(key, trajectory);
+            }
+        }
+        mLastPlanNanos = System.nanoTime() - startNanos;
+        return trajectory;
+    }
+
+    private int headingBucket(double heading) {
+        int bucket = (int) Math.round(heading / mHeadingStep) % mHeadingBuckets;
+        return bucket < 0 ? bucket + mHeadingBuckets : bucket;
+    }
+
+    private SampledTrajectory generate(
+            double startX,
+            double startY,
+            double startHeading,
+            double goalX,
+            double goalY,
+            double goalHeading,
+            int startCell,
+            int goalCell) {
+        OccupancyGrid grid = mPlanner.getGrid();
+        int searchStart = grid.findNearestFree(startCell, kMaxSnapDistance);
+        int searchGoal = grid.findNearestFree(goalCell, kMaxSnapDistance);
+        if (searchStart < 0 || searchGoal < 0 || !mPlanner.plan(searchStart, searchGoal)) {
+            return null;
+        }
+
+        // The path's corners; the exact start and goal, with the search's cells between.
+        mCorners = 0;
+        addCorner(startX, startY);
+        int length = mPlanner.getPathLength();
+        for (int i = 0; i < length; i++) {
+            int cell = mPlanner.getPathCell(i);
+            boolean snapped =
+                    (i == 0 && searchStart != startCell)
+                            || (i == length - 1 && searchGoal != goalCell);
+            if (snapped || (i > 0 && i < length - 1)) {
+                addCorner(grid.getX(cell), grid.getY(cell));
+            }
+        }
+        addCorner(goalX, goalY);
+
+        smooth();
+        return time(startHeading, goalHeading);
+    }
+
+    private void addCorner(double x, double y) {
+        if (mCorners > 0
+                && Math.hypot(x - mCornerX[mCorners - 1], y - mCornerY[mCorners - 1]) < 1e-6) {
+            return;
+        }
+        if (mCorners == mCornerX.length) {
+            mCornerX = Arrays.copyOf(mCornerX, mCorners * 2);
+            mCornerY = Arrays.copyOf(mCornerY, mCorners * 2);
+            mBlend = Arrays.copyOf(mBlend, mCorners * 2);
+            mClips = Arrays.copyOf(mClips, mCorners * 2);
+        }
+        mCornerX[mCorners] = x;
+        mCornerY[mCorners] = y;
+        mCorners++;
+    }
+
+    /** Rounds the corners as wide as they can be without clipping anything. */
+    private void smooth() {
+        for (int i = 1; i < mCorners - 1; i++) {
+            mBlend[i] = Math.min(mMaxBlend, 0.5 * Math.min(segmentLength(i - 1), segmentLength(i)));
+        }
+        for (int pass = 0; pass < kMaxSmoothingPasses; pass++) {
+            if (!buildPoints()) {
+                return;
+            }
+            for (int i = 1; i < mCorners - 1; i++) {
+                if (mClips[i]) {
+                    mBlend[i] /= 2;
+                }
+            }
+        }
+        // Still clipping; stop and turn at those corners instead.
+        for (int i = 1; i < mCorners - 1; i++) {
+            if (mClips[i]) {
+                mBlend[i] = 0;
+            }
+        }
+        buildPoints();
+    }
+
+    private double segmentLength(int i) {
+        return Math.hypot(mCornerX[i + 1] - mCornerX[i], mCornerY[i + 1] - mCornerY[i]);
+    }
+
+    /**
+     * Fills in the points along the path, with the corners rounded by their blends.
+     *
+     * @return Whether any rounding clips an obstacle; those corners are marked in mClips.
+     */
+    private boolean buildPoints() {
+        mPoints = 0;
+        addPoint(mCornerX[0], mCornerY[0], 0, 0);
+        boolean clips = false;
+        for (int i = 0; i < mCorners - 1; i++) {
+            double ux = (mCornerX[i + 1] - mCornerX[i]) / segmentLength(i);
+            double uy = (mCornerY[i + 1] - mCornerY[i]) / segmentLength(i);
+            // The straight part, between the rounding at each end.
+            double fromBlend = i > 0 ? mBlend[i] : 0;
+            double toBlend = i + 1 < mCorners - 1 ? mBlend[i + 1] : 0;
+            double ax = mCornerX[i] + ux * fromBlend;
+            double ay = mCornerY[i] + uy * fromBlend;
+            double bx = mCornerX[i + 1] - ux * toBlend;
+            double by = mCornerY[i + 1] - uy * toBlend;
+            // At least two steps, so two stops are never next to each other.
+            int steps = Math.max(2, (int) Math.ceil(Math.hypot(bx - ax, by - ay) / kSpacing));
+            for (int s = 1; s <= steps; s++) {
+                double t = (double) s / steps;
+                addPoint(ax + (bx - ax) * t, ay + (by - ay) * t, 0, mMaxVelocity);
+            }
+            if (i + 1 == mCorners - 1) {
+                break;
+            }
+
+            int corner = i + 1;
+            if (mBlend[corner] < kMinBlend) {
+                // Too tight to round; stop, and turn in place.
+                mMaxSpeed[mPoints - 1] = 0;
+                mClips[corner] = false;
+                continue;
+            }
+            mClips[corner] = !addRounding(corner, ux, uy);
+            clips |= mClips[corner];
+        }
+        // Always end stopped.
+        mMaxSpeed[mPoints - 1] = 0;
+        return clips;
+    }
+
+    /**
+     * Adds the rounding at a corner, a quadratic Bezier from the end of the straight part before
+     * it, with the corner as its control point.
+     *
+     * @return Whether it's clear of everything.
+     */
+    private boolean addRounding(int corner, double inX, double inY) {
+        double length = segmentLength(corner);
+        double outX = (mCornerX[corner + 1] - mCornerX[corner]) / length;
+        double outY = (mCornerY[corner + 1] - mCornerY[corner]) / length;
+        double d = mBlend[corner];
+        double x0 = mCornerX[corner] - inX * d;
+        double y0 = mCornerY[corner] - inY * d;
+        double x1 = mCornerX[corner];
+        double y1 = mCornerY[corner];
+        double x2 = mCornerX[corner] + outX * d;
+        double y2 = mCornerY[corner] + outY * d;
+        // Second derivative is the same all along.
+        double ddx = 2 * (x2 - 2 * x1 + x0);
+        double ddy = 2 * (y2 - 2 * y1 + y0);
+        boolean clear = true;
+        int steps = Math.max(4, (int) Math.ceil(2 * d / kSpacing));
+        for (int s = 1; s <= steps; s++) {
+            double t = (double) s / steps;
+            double u = 1 - t;
+            double x = u * u * x0 + 2 * u * t * x1 + t * t * x2;
+            double y = u * u * y0 + 2 * u * t * y1 + t * t * y2;
+            double dx = 2 * u * (x1 - x0) + 2 * t * (x2 - x1);
+            double dy = 2 * u * (y1 - y0) + 2 * t * (y2 - y1);
+            double speed = Math.hypot(dx, dy);
+            double curvature = speed > 1e-9 ? (dx * ddy - dy * ddx) / (speed * speed * speed) : 0;
+            // Sideways acceleration is v^2 * curvature.
+            double maxSpeed =
+                    speed > 1e-9
+                            ? Math.min(
+                                    mMaxVelocity, Math.sqrt(mMaxAcceleration / Math.abs(curvature)))
+                            : 0;
+            addPoint(x, y, curvature, maxSpeed);
+            if (mClearanceGrid.isBlocked(x, y)) {
+                clear = false;
+            }
+        }
+        return clear;
+    }
+
+    private void addPoint(double x, double y, double curvature, double maxSpeed) {
+        if (mPoints > 0 && Math.hypot(x - mX[mPoints - 1], y - mY[mPoints - 1]) < 1e-9) {
+            // Where a rounding meets the next; one point, as slow as either.
+            mMaxSpeed[mPoints - 1] = Math.min(mMaxSpeed[mPoints - 1], maxSpeed);
+            return;
+        }
+        if (mPoints == mX.length) {
+            int size = mPoints * 2;
+            mX = Arrays.copyOf(mX, size);
+            mY = Arrays.copyOf(mY, size);
+            mCurvature = Arrays.copyOf(mCurvature, size);
+            mMaxSpeed = Arrays.copyOf(mMaxSpeed, size);
+            mDistance = Arrays.copyOf(mDistance, size);
+            mSpeed = Arrays.copyOf(mSpeed, size);
+        }
+        mX[mPoints] = x;
+        mY[mPoints] = y;
+        mCurvature[mPoints] = curvature;
+        mMaxSpeed[mPoints] = maxSpeed;
+        mDistance[mPoints] =
+                mPoints > 0
+                        ? mDistance[mPoints - 1]
+                                + Math.hypot(x - mX[mPoints - 1], y - mY[mPoints - 1])
+                        : 0;
+        mPoints++;
+    }
+
+    /** Times the points for the limits, and turns them into a trajectory. */
+    private SampledTrajectory time(double startHeading, double goalHeading) {
+        int n = mPoints;
+        double total = mDistance[n - 1];
+        double turn = Math.IEEEremainder(goalHeading - startHeading, 2 * Math.PI);
+        if (total < 1e-6) {
+            // Already there, only turn.
+            double duration = Math.max(0.1, Math.abs(turn) / mMaxAngularVelocity);
+            return SampledTrajectory.withOmega(
+                    new double[] {0, duration},
+                    new double[] {mX[0], mX[0]},
+                    new double[] {mY[0], mY[0]},
+                    new double[] {startHeading, startHeading + turn},
+                    new double[2],
+                    new double[2],
+                    new double[2]);
+        }
+
+        // Fastest allowed at each point, then as fast as speeding up from the start and slowing
+        // down for the goal allow. Whatever acceleration curving uses can't also change speed.
+        mSpeed[0] = 0;
+        for (int i = 1; i < n; i++) {
+            double ds = mDistance[i] - mDistance[i - 1];
+            double along = getAlongAcceleration(mSpeed[i - 1], mCurvature[i - 1]);
+            mSpeed[i] =
+                    Math.min(
+                            mMaxSpeed[i],
+                            Math.sqrt(mSpeed[i - 1] * mSpeed[i - 1] + 2 * along * ds));
+        }
+        for (int i = n - 2; i >= 0; i--) {
+            double ds = mDistance[i + 1] - mDistance[i];
+            double along = getAlongAcceleration(mSpeed[i + 1], mCurvature[i + 1]);
+            mSpeed[i] =
+                    Math.min(mSpeed[i], Math.sqrt(mSpeed[i + 1] * mSpeed[i + 1] + 2 * along * ds));
+        }
+        // Turning evenly with distance turns fastest where the robot is fastest; slow everything
+        // if that's too fast.
+        double turnPerMeter = Math.abs(turn) / total;
+        double fastest = 0;
+        for (int i = 0; i < n; i++) {
+            fastest = Math.max(fastest, mSpeed[i]);
+        }
+        double scale =
+                turnPerMeter * fastest > mMaxAngularVelocity
+                        ? mMaxAngularVelocity / (turnPerMeter * fastest)
+                        : 1;
+
+        double[] times = new double[n];
+        double[] x = Arrays.copyOf(mX, n);
+        double[] y = Arrays.copyOf(mY, n);
+        double[] heading = new double[n];
+        double[] vx = new double[n];
+        double[] vy = new double[n];
+        double[] curvature = Arrays.copyOf(mCurvature, n);
+        for (int i = 0; i < n; i++) {
+            double speed = mSpeed[i] * scale;
+            if (i > 0) {
+                double ds = mDistance[i] - mDistance[i - 1];
+                times[i] = times[i - 1] + 2 * ds / (mSpeed[i - 1] * scale + speed);
+            }
+            heading[i] = startHeading + turn * mDistance[i] / total;
+            // Along the path, toward the next point.
+            int from = i < n - 1 ? i : i - 1;
+            double ds = mDistance[from + 1] - mDistance[from];
+            if (ds > 1e-9) {
+                vx[i] = speed * (mX[from + 1] - mX[from]) / ds;
+                vy[i] = speed * (mY[from + 1] - mY[from]) / ds;
+            }
+        }
+        return SampledTrajectory.withOmega(times, x, y, heading, vx, vy, curvature);
+    }
+
+    /** @return Acceleration left for speeding up or slowing down, after curving at a speed. */
+    private double getAlongAcceleration(double speed, double curvature) {
+        double sideways = speed * speed * curvature;
+        return Math.sqrt(Math.max(0, mMaxAcceleration * mMaxAcceleration - sideways * sideways));
+    }
+
+    /**
+     * Plans between random free points, then empties the cache; so the JIT has compiled the
+     * planner before it's needed.
+     *
+     * @param plans How many to plan.
+     * @return How long it took, seconds.
+     */
+    public double warmUp(int plans) {
+        long start = System.nanoTime();
+        OccupancyGrid grid = mPlanner.getGrid();
+        Random random = new Random(7125);
+        for (int i = 0; i < plans; i++) {
+            int from = random.nextInt(grid.getCellCount());
+            int to = random.nextInt(grid.getCellCount());
+            if (!grid.isBlocked(from) && !grid.isBlocked(to)) {
+                plan(
+                        grid.getX(from),
+                        grid.getY(from),
+                        random.nextDouble() * 2 * Math.PI,
+                        grid.getX(to),
+                        grid.getY(to),
+                        random.nextDouble() * 2 * Math.PI);
+            }
+        }
+        clearCache();
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    /** Forgets every cached trajectory, and the hit and miss counts. */
+    public void clearCache() {
+        mCache.clear();
+        mHits = 0;
+        mMisses = 0;
+    }
+
+    /** @return How long the last {@link #plan} took, cached or not, milliseconds. */
+    public double getLastPlanMillis() {
+        return mLastPlanNanos / 1e6;
+    }
+
+    /** @return How many plans were found in the cache. */
+    public int getCacheHits() {
+        return mHits;
+    }
+
+    /** @return How many plans had to be planned. */
+    public int getCacheMisses() {
+        return mMisses;
+    }
+
+    /** @return The grid searched, grown by the clearance and margin. */
+    public OccupancyGrid getSearchGrid() {
+        return mPlanner.getGrid();
+    }
+
+    /** @return How many cells the last search expanded. */
+    public int getLastExpansions() {
+        return mPlanner.getExpansions();
+    }
+}
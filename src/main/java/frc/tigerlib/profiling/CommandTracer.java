@@ -0,0 +1,275 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.profiling;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Records when commands start, run, finish and get interrupted, and how long each execute takes.
+ *
+ * <p>Events go into a preallocated ring buffer, so recording never creates garbage once every
+ * command has been seen once. The buffer and per command totals can be written out as CSV after a
+ * match for review; {@link #writeInBackground(File, Consumer)} copies them into preallocated
+ * arrays and writes the copy on its own thread, so the main loop only pays for the copy.
+ *
+ * <p>The scheduler only tells us after a command's execute, so its time is measured from the
+ * previous event that loop; it includes the previous command's isFinished. The first command is
+ * timed from the end of the button polls, so this should be installed after all buttons are bound.
+ *
+ * <p>Not thread safe; the scheduler and the calls to write should be on the main thread.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class CommandTracer {
+
+    /** Something that happened to a command. */
+    public enum Event {
+        kInitialize,
+        kExecute,
+        kFinish,
+        kInterrupt
+    }
+
+    private static final Event[] kEvents = Event.values();
+    // Commands past this many all share the last slot.
+    private static final int kMaxCommands = 128;
+
+    // Ring buffer of events.
+    private final long[] mTimes;
+    private final int[] mCommands;
+    private final byte[] mEvents;
+    private final long[] mDurations;
+    private int mIndex = 0;
+    private long mCount = 0;
+    private long mWrittenCount = 0;
+
+    // Per command totals.
+    private final IdentityHashMap<Command, Integer> mIds = new IdentityHashMap<>();
+    private final String[] mNames = new String[kMaxCommands];
+    private final long[][] mEventCounts = new long[kMaxCommands][kEvents.length];
+    private final long[] mExecuteNanos = new long[kMaxCommands];
+    private final long[] mExecuteMaxNanos = new long[kMaxCommands];
+
+    // What's being written, copied from the above so recording can carry on meanwhile.
+    private final long[] mSnapshotTimes;
+    private final int[] mSnapshotCommands;
+    private final byte[] mSnapshotEvents;
+    private final long[] mSnapshotDurations;
+    private final String[] mSnapshotNames = new String[kMaxCommands];
+    private final long[][] mSnapshotEventCounts = new long[kMaxCommands][kEvents.length];
+    private final long[] mSnapshotExecuteNanos = new long[kMaxCommands];
+    private final long[] mSnapshotExecuteMaxNanos = new long[kMaxCommands];
+    private int mSnapshotSize = 0;
+    private int mSnapshotCommandCount = 0;
+    private Thread mWriteThread;
+
+    // When the last event, or the end of the button polls, happened.
+    private long mLastNanos = 0;
+    // Adds to nanoTime to get FPGA time, so traces line up with match logs.
+    private long mFpgaOffsetNanos = 0;
+
+    /**
+     * Constructs a CommandTracer.
+     *
+     * @param capacity The amount of events to keep, the oldest are overwritten.
+     */
+    public CommandTracer(int capacity) {
+        mTimes = new long[capacity];
+        mCommands = new int[capacity];
+        mEvents = new byte[capacity];
+        mDurations = new long[capacity];
+        mSnapshotTimes = new long[capacity];
+        mSnapshotCommands = new int[capacity];
+        mSnapshotEvents = new byte[capacity];
+        mSnapshotDurations = new long[capacity];
+    }
+
+    /** Hooks into the scheduler, should only be called once. */
+    public void install(CommandScheduler scheduler) {
+        mFpgaOffsetNanos = RobotController.getFPGATime() * 1000 - System.nanoTime();
+        scheduler.onCommandInitialize(command -> record(Event.kInitialize, command));
+        scheduler.onCommandExecute(command -> record(Event.kExecute, command));
+        scheduler.onCommandFinish(command -> record(Event.kFinish, command));
+        scheduler.onCommandInterrupt(command -> record(Event.kInterrupt, command));
+        // Buttons are polled in the order they were added, right before commands run.
+        scheduler.addButton(() -> mLastNanos = System.nanoTime());
+    }
+
+    private void record(Event event, Command command) {
+        long now = System.nanoTime();
+        int id = idOf(command);
+
+        long duration = 0;
+        if (event == Event.kExecute) {
+            duration = now - mLastNanos;
+            mExecuteNanos[id] += duration;
+            if (duration > mExecuteMaxNanos[id]) {
+                mExecuteMaxNanos[id] = duration;
+            }
+        }
+        mEventCounts[id][event.ordinal()]++;
+
+        mTimes[mIndex] = now;
+        mCommands[mIndex] = id;
+        mEvents[mIndex] = (byte) event.ordinal();
+        mDurations[mIndex] = duration;
+        mIndex = (mIndex + 1) % mTimes.length;
+        mCount++;
+        mLastNanos = now;
+    }
+
+    private int idOf(Command command) {
+        Integer id = mIds.get(command);
+        if (id != null) {
+            return id;
+        }
+        int next = Math.min(mIds.size(), kMaxCommands - 1);
+        mNames[next] = next == kMaxCommands - 1 ? "Other" : command.getName();
+        mIds.put(command, next);
+        return next;
+    }
+
+    /** @return Whether anything has happened since the last {@link #write(File)}. */
+    public boolean hasNewEvents() {
+        return mCount != mWrittenCount;
+    }
+
+    /** @return The total amount of events recorded, including ones overwritten. */
+    public long getEventCount() {
+        return mCount;
+    }
+
+    /**
+     * Writes the kept events, then each command's totals, as CSV. Waits for any background write
+     * to finish first. Never overwrites an earlier trace.
+     *
+     * @param file Where to write, must not exist.
+     * @throws java.nio.file.FileAlreadyExistsException If the file exists.
+     * @throws IOException If the file can't be written.
+     */
+    public void write(File file) throws IOException {
+        waitForWrite();
+        snapshot();
+        writeSnapshot(file);
+    }
+
+    /**
+     * Copies the kept events and each command's totals, then writes them as CSV on a low priority
+     * thread. Does nothing if the last background write hasn't finished.
+     *
+     * @param file Where to write, must not exist.
+     * @param onError Told if the file can't be written, on the writing thread.
+     * @return False if the last background write was still going, and nothing was written.
+     */
+    public boolean writeInBackground(File file, Consumer<IOException> onError) {
+        if (mWriteThread != null && mWriteThread.isAlive()) {
+            return false;
+        }
+        snapshot();
+        mWriteThread =
+                new Thread(
+                        () -> {
+                            try {
+                                writeSnapshot(file);
+                            } catch (IOException e) {
+                                onError.accept(e);
+                            }
+                        },
+                        "CommandTracer Write");
+        mWriteThread.setDaemon(true);
+        mWriteThread.setPriority(Thread.MIN_PRIORITY);
+        mWriteThread.start();
+        return true;
+    }
+
+    private void waitForWrite() {
+        if (mWriteThread == null) {
+            return;
+        }
+        try {
+            mWriteThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Copies the kept events, oldest first, and the totals into the snapshot arrays. */
+    private void snapshot() {
+        int kept = (int) Math.min(mCount, mTimes.length);
+        int start = (mIndex - kept + mTimes.length) % mTimes.length;
+        // The ring in two pieces, from the oldest to the end then from the start.
+        int first = Math.min(kept, mTimes.length - start);
+        copyRing(start, 0, first);
+        copyRing(0, first, kept - first);
+        mSnapshotSize = kept;
+
+        mSnapshotCommandCount = Math.min(mIds.size(), kMaxCommands);
+        for (int id = 0; id < mSnapshotCommandCount; id++) {
+            mSnapshotNames[id] = mNames[id];
+            System.arraycopy(mEventCounts[id], 0, mSnapshotEventCounts[id], 0, kEvents.length);
+        }
+        System.arraycopy(mExecuteNanos, 0, mSnapshotExecuteNanos, 0, mSnapshotCommandCount);
+        System.arraycopy(mExecuteMaxNanos, 0, mSnapshotExecuteMaxNanos, 0, mSnapshotCommandCount);
+        mWrittenCount = mCount;
+    }
+
+    private void copyRing(int from, int to, int length) {
+        System.arraycopy(mTimes, from, mSnapshotTimes, to, length);
+        System.arraycopy(mCommands, from, mSnapshotCommands, to, length);
+        System.arraycopy(mEvents, from, mSnapshotEvents, to, length);
+        System.arraycopy(mDurations, from, mSnapshotDurations, to, length);
+    }
+
+    private void writeSnapshot(File file) throws IOException {
+        try (PrintWriter out =
+                new PrintWriter(
+                        Files.newBufferedWriter(
+                                file.toPath(),
+                                StandardOpenOption.CREATE_NEW,
+                                StandardOpenOption.WRITE))) {
+            out.println("FPGA Time (s),Event,Command,Execute (ms)");
+            for (int e = 0; e < mSnapshotSize; e++) {
+                Event event = kEvents[mSnapshotEvents[e]];
+                out.printf(
+                        Locale.ROOT,
+                        "%.6f,%s,\"%s\",",
+                        (mSnapshotTimes[e] + mFpgaOffsetNanos) / 1e9,
+                        event.name().substring(1),
+                        mSnapshotNames[mSnapshotCommands[e]]);
+                if (event == Event.kExecute) {
+                    out.printf(Locale.ROOT, "%.3f", mSnapshotDurations[e] / 1e6);
+                }
+                out.println();
+            }
+
+            out.println();
+            out.println("Command,Initializes,Executes,Finishes,Interrupts,Mean ms,Max ms");
+            for (int id = 0; id < mSnapshotCommandCount; id++) {
+                long[] counts = mSnapshotEventCounts[id];
+                long executes = counts[Event.kExecute.ordinal()];
+                out.printf(
+                        Locale.ROOT,
+                        "\"%s\",%d,%d,%d,%d,%.3f,%.3f%n",
+                        mSnapshotNames[id],
+                        counts[Event.kInitialize.ordinal()],
+                        executes,
+                        counts[Event.kFinish.ordinal()],
+                        counts[Event.kInterrupt.ordinal()],
+                        executes == 0 ? 0 : mSnapshotExecuteNanos[id] / (double) executes / 1e6,
+                        mSnapshotExecuteMaxNanos[id] / 1e6);
+            }
+        }
+    }
+}
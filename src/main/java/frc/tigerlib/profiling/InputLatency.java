@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.profiling;
+
+import frc.tigerlib.telemetry.TelemetryPublisher;
+import frc.tigerlib.telemetry.TelemetryPublisher.Rate;
+
+/**
+ * Tracks how long driver input takes to reach the motors, split into where the time goes.
+ *
+ * <ul>
+ *   <li>Input Age: the packet arriving, until the loop reads the controller.
+ *   <li>Loop Wait: reading the controller, until the motor math starts.
+ *   <li>Compute: the motor math.
+ *   <li>CAN Write: sending the outputs to the motor controllers.
+ *   <li>Total: the packet arriving, until the outputs are sent.
+ * </ul>
+ *
+ * <p>All times are FPGA microseconds. Each path input can take to the motors gets its own
+ * instance, so they can be compared on the dashboard.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class InputLatency {
+
+    private static final String[] kStages = {
+        "Input Age", "Loop Wait", "Compute", "CAN Write", "Total"
+    };
+    private static final double[] kPercentiles = {0.5, 0.9, 0.99};
+    private static final String[] kPercentileNames = {"P50 ms", "P90 ms", "P99 ms"};
+
+    private final String mName;
+    private final LatencyHistogram[] mStages = new LatencyHistogram[kStages.length];
+
+    /**
+     * Constructs an InputLatency.
+     *
+     * @param name The name of the path, shown on the dashboard under "Latency/".
+     */
+    public InputLatency(String name) {
+        mName = name;
+        for (int i = 0; i < kStages.length; i++) {
+            mStages[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records one input's trip to the motors. Skipped if the packet time is unknown.
+     *
+     * @param packet When the driver station packet arrived.
+     * @param read When the controller was read.
+     * @param computeStart When the motor math started.
+     * @param writeStart When the outputs started being sent.
+     * @param writeEnd When the outputs were sent.
+     */
+    public void record(long packet, long read, long computeStart, long writeStart, long writeEnd) {
+        if (packet <= 0) {
+            return;
+        }
+        mStages[0].record(read - packet);
+        mStages[1].record(computeStart - read);
+        mStages[2].record(writeStart - computeStart);
+        mStages[3].record(writeEnd - writeStart);
+        mStages[4].record(writeEnd - packet);
+    }
+
+    /** @return The histogram of the end to end latency. */
+    public LatencyHistogram getTotal() {
+        return mStages[4];
+    }
+
+    /**
+     * Registers the percentiles of each stage with the dashboard, under "Latency/name/". Only the
+     * path driving the motors gets samples, the other's count stays at 0.
+     *
+     * @param telemetry The publisher that sends them.
+     */
+    public void publish(TelemetryPublisher telemetry) {
+        String path = "Latency/" + mName + "/";
+        telemetry.addDouble(path + "Samples", getTotal()::getCount, 0, Rate.k2Hz);
+        for (int i = 0; i < kStages.length; i++) {
+            LatencyHistogram stage = mStages[i];
+            String prefix = path + kStages[i] + "/";
+            for (int p = 0; p < kPercentiles.length; p++) {
+                double percentile = kPercentiles[p];
+                telemetry.addDouble(
+                        prefix + kPercentileNames[p],
+                        () -> stage.getPercentileMs(percentile),
+                        .01,
+                        Rate.k2Hz);
+            }
+            telemetry.addDouble(prefix + "Max ms", stage::getMaxMs, .01, Rate.k2Hz);
+        }
+    }
+
+    /** Clears all samples. */
+    public void reset() {
+        for (LatencyHistogram stage : mStages) {
+            stage.reset();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.profiling;
+
+/**
+ * Counts latencies into fixed width bins, for percentiles over a whole match rather than a window.
+ *
+ * <p>Bins are {@link #kBinMicros} wide up to {@link #kMaxMicros}; anything longer lands in the
+ * last bin. Recording never allocates and costs the same no matter how many samples there are.
+ *
+ * <p>Should be recorded to from one thread. Reading from another is fine, though a percentile may
+ * miss the samples being recorded at the time.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class LatencyHistogram {
+
+    public static final int kBinMicros = 250;
+    public static final int kMaxMicros = 200_000;
+    private static final int kBins = kMaxMicros / kBinMicros + 1;
+
+    private final long[] mBins = new long[kBins];
+    private volatile long mCount = 0;
+    private long mSumMicros = 0;
+    private long mMaxMicros = 0;
+
+    /**
+     * Adds a sample. Negative samples, from clocks read out of order, count as 0.
+     *
+     * @param micros The latency in microseconds.
+     */
+    public void record(long micros) {
+        if (micros < 0) {
+            micros = 0;
+        }
+        mBins[(int) Math.min(micros / kBinMicros, kBins - 1)]++;
+        mSumMicros += micros;
+        if (micros > mMaxMicros) {
+            mMaxMicros = micros;
+        }
+        mCount++;
+    }
+
+    /**
+     * Finds a percentile, to within a bin.
+     *
+     * @param percentile The percentile in [0, 1], ie: 0.99.
+     * @return The upper edge of the bin holding the percentile, in milliseconds; 0 if empty.
+     */
+    public double getPercentileMs(double percentile) {
+        long count = mCount;
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * percentile));
+        long seen = 0;
+        for (int i = 0; i < kBins; i++) {
+            seen += mBins[i];
+            if (seen >= target) {
+                // The last bin has no upper edge, everything past it is there.
+                long edge = i == kBins - 1 ? mMaxMicros : (i + 1) * (long) kBinMicros;
+                return Math.min(edge, mMaxMicros) / 1e3;
+            }
+        }
+        return mMaxMicros / 1e3;
+    }
+
+    /** @return The mean in milliseconds; 0 if empty. */
+    public double getMeanMs() {
+        long count = mCount;
+        return count == 0 ? 0 : mSumMicros / (double) count / 1e3;
+    }
+
+    /** @return The longest sample in milliseconds. */
+    public double getMaxMs() {
+        return mMaxMicros / 1e3;
+    }
+
+    /** @return The amount of samples. */
+    public long getCount() {
+        return mCount;
+    }
+
+    /** Clears all samples. */
+    public void reset() {
+        for (int i = 0; i < kBins; i++) {
+            mBins[i] = 0;
+        }
+        mCount = 0;
+        mSumMicros = 0;
+        mMaxMicros = 0;
+    }
+}
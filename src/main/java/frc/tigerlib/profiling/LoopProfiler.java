@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.profiling;
+
+import frc.tigerlib.telemetry.TelemetryPublisher;
+import frc.tigerlib.telemetry.TelemetryPublisher.Rate;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Times the phases of the robot loop so we can find what is overrunning it.
+ *
+ * <p>Usage:
+ *
+ * <pre><code>
+ * int phase = LoopProfiler.getInstance().register("Thing");
+ * ...
+ * long start = LoopProfiler.getInstance().start();
+ * doThing();
+ * LoopProfiler.getInstance().stop(phase, start);
+ * </code></pre>
+ *
+ * <p>Counters track how often something happens per loop, such as reads that go over JNI or CAN:
+ *
+ * <pre><code>
+ * int counter = LoopProfiler.getInstance().registerCounter("Thing Reads");
+ * ...
+ * LoopProfiler.getInstance().count(counter, 1);
+ * </code></pre>
+ *
+ * <p>Counters can be added to from any thread, ie: the drivetrain's control thread. "Per loop" is
+ * always per robot loop, so a thread running four times as fast shows four times the count.
+ *
+ * <p>{@link #update()} summarizes the stats once per publish period, and {@link
+ * #publish(TelemetryPublisher)} sends the summaries to the dashboard.
+ *
+ * <p>When disabled {@link #start()} and {@link #stop(int, long)} return right away without reading
+ * the clock, so it can be left in the code for competition.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class LoopProfiler {
+
+    private static final int kMaxPhases = 32;
+    private static final int kWindowSize = 250; // 5 seconds of 20ms loops.
+
+    private static LoopProfiler sInstance;
+
+    private final TimingStats[] mPhases = new TimingStats[kMaxPhases];
+    private int mPhaseCount = 0;
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(kMaxPhases);
+    private final String[] mCounterNames = new String[kMaxPhases];
+    // Each counter's average over the last publish period.
+    private final double[] mPerLoop = new double[kMaxPhases];
+    private int mCounterCount = 0;
+
+    // Set on the main thread, read by the control thread's counters too.
+    private volatile boolean mEnabled = true;
+    private int mPublishPeriod = 50;
+    private int mLoopCount = 0;
+
+    private LoopProfiler() {}
+
+    /** @return The one and only LoopProfiler. */
+    public static synchronized LoopProfiler getInstance() {
+        if (sInstance == null) {
+            sInstance = new LoopProfiler();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Registers a new phase to time. Registering a name again gives the same phase, so rebuilt
+     * subsystems (ie: in batch simulation) share one.
+     *
+     * @param name The name shown on the dashboard.
+     * @return The id of the phase, to be passed to {@link #stop(int, long)}.
+     */
+    public synchronized int register(String name) {
+        for (int i = 0; i < mPhaseCount; i++) {
+            if (mPhases[i].getName().equals(name)) {
+                return i;
+            }
+        }
+        if (mPhaseCount >= kMaxPhases) {
+            throw new IllegalStateException("Too many profiler phases, maximum " + kMaxPhases);
+        }
+        mPhases[mPhaseCount] = new TimingStats(name, kWindowSize);
+        return mPhaseCount++;
+    }
+
+    /**
+     * Registers a new counter. Registering a name again gives the same counter.
+     *
+     * @param name The name shown on the dashboard.
+     * @return The id of the counter, to be passed to {@link #count(int, int)}.
+     */
+    public synchronized int registerCounter(String name) {
+        for (int i = 0; i < mCounterCount; i++) {
+            if (mCounterNames[i].equals(name)) {
+                return i;
+            }
+        }
+        if (mCounterCount >= kMaxPhases) {
+            throw new IllegalStateException("Too many profiler counters, maximum " + kMaxPhases);
+        }
+        mCounterNames[mCounterCount] = name;
+        return mCounterCount++;
+    }
+
+    /** Enables or disables timing, disabling also clears all samples. */
+    public void setEnabled(boolean enabled) {
+        if (!enabled) {
+            for (int i = 0; i < mPhaseCount; i++) {
+                mPhases[i].reset();
+            }
+            for (int i = 0; i < mCounterCount; i++) {
+                mCounts.set(i, 0);
+                mPerLoop[i] = 0;
+            }
+        }
+        mEnabled = enabled;
+    }
+
+    /** @return If the profiler is timing. */
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * Sets how often the stats are summarized for the dashboard.
+     *
+     * @param loops The amount of calls to {@link #update()} between summaries.
+     */
+    public void setPublishPeriod(int loops) {
+        mPublishPeriod = Math.max(1, loops);
+    }
+
+    /** @return The start timestamp to pass to {@link #stop(int, long)}, 0 if disabled. */
+    public long start() {
+        return mEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time elapsed since start for the given phase.
+     *
+     * @param phase The id from {@link #register(String)}.
+     * @param start The timestamp from {@link #start()}.
+     */
+    public void stop(int phase, long start) {
+        if (!mEnabled || start == 0) {
+            return;
+        }
+        mPhases[phase].record(System.nanoTime() - start);
+    }
+
+    /**
+     * Adds to the given counter, safe to call from any thread.
+     *
+     * @param counter The id from {@link #registerCounter(String)}.
+     * @param amount The amount to add.
+     */
+    public void count(int counter, int amount) {
+        if (mEnabled) {
+            mCounts.addAndGet(counter, amount);
+        }
+    }
+
+    /** @return The stats of the given phase. */
+    public TimingStats getStats(int phase) {
+        return mPhases[phase];
+    }
+
+    /** Should be called once per loop, summarizes the stats every publish period. */
+    public void update() {
+        if (!mEnabled || ++mLoopCount < mPublishPeriod) {
+            return;
+        }
+        mLoopCount = 0;
+
+        for (int i = 0; i < mPhaseCount; i++) {
+            mPhases[i].compute();
+        }
+        for (int i = 0; i < mCounterCount; i++) {
+            mPerLoop[i] = mCounts.getAndSet(i, 0) / (double) mPublishPeriod;
+        }
+    }
+
+    /**
+     * Registers the summary of every phase and counter with the dashboard, under "Profiler/".
+     * Should be called after they're all registered, the summaries are read on the main thread.
+     *
+     * @param telemetry The publisher that sends them.
+     */
+    public synchronized void publish(TelemetryPublisher telemetry) {
+        for (int i = 0; i < mPhaseCount; i++) {
+            TimingStats stats = mPhases[i];
+            String prefix = "Profiler/" + stats.getName() + "/";
+            telemetry.addDouble(prefix + "Min ms", stats::getMinMs, .01, Rate.k2Hz);
+            telemetry.addDouble(prefix + "Mean ms", stats::getMeanMs, .01, Rate.k2Hz);
+            telemetry.addDouble(prefix + "P99 ms", stats::getP99Ms, .01, Rate.k2Hz);
+            telemetry.addDouble(prefix + "Max ms", stats::getMaxMs, .01, Rate.k2Hz);
+        }
+        for (int i = 0; i < mCounterCount; i++) {
+            int counter = i;
+            telemetry.addDouble(
+                    "Profiler/" + mCounterNames[i] + "/Per Loop",
+                    () -> mPerLoop[counter],
+                    .01,
+                    Rate.k2Hz);
+        }
+    }
+}
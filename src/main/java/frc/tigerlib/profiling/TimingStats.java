@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.profiling;
+
+import java.util.Arrays;
+
+/**
+ * A rolling window of nanosecond durations, with min / mean / p99 / max over the window.
+ *
+ * <p>All storage is allocated up front so recording a sample never creates garbage. Stats are only
+ * calculated when {@link #compute()} is called, which should be done at a low rate.
+ *
+ * <p>Not thread safe; each instance should only be recorded to from one thread.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class TimingStats {
+
+    private final String mName;
+    // Ring buffer of samples, and a scratch copy used for sorting.
+    private final long[] mSamples;
+    private final long[] mSorted;
+    private int mIndex = 0;
+    private int mCount = 0;
+
+    // Results of the last compute().
+    private double mMinMs = 0;
+    private double mMeanMs = 0;
+    private double mP99Ms = 0;
+    private double mMaxMs = 0;
+
+    /**
+     * Constructs a TimingStats.
+     *
+     * @param name The name of what is being timed.
+     * @param windowSize The amount of samples to keep.
+     */
+    public TimingStats(String name, int windowSize) {
+        mName = name;
+        mSamples = new long[windowSize];
+        mSorted = new long[windowSize];
+    }
+
+    /**
+     * Adds a sample to the window, overwriting the oldest one if full.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        mSamples[mIndex] = nanos;
+        mIndex = (mIndex + 1) % mSamples.length;
+        if (mCount < mSamples.length) {
+            mCount++;
+        }
+    }
+
+    /** Calculates the stats of the current window. */
+    public void compute() {
+        if (mCount == 0) {
+            return;
+        }
+        System.arraycopy(mSamples, 0, mSorted, 0, mCount);
+        Arrays.sort(mSorted, 0, mCount);
+
+        long sum = 0;
+        for (int i = 0; i < mCount; i++) {
+            sum += mSorted[i];
+        }
+
+        mMinMs = mSorted[0] / 1e6;
+        mMaxMs = mSorted[mCount - 1] / 1e6;
+        mMeanMs = (sum / (double) mCount) / 1e6;
+        mP99Ms = mSorted[Math.min(mCount - 1, (int) Math.ceil(mCount * 0.99) - 1)] / 1e6;
+    }
+
+    /** Clears all samples. */
+    public void reset() {
+        mIndex = 0;
+        mCount = 0;
+        mMinMs = mMeanMs = mP99Ms = mMaxMs = 0;
+    }
+
+    /** @return The name of what is being timed. */
+    public String getName() {
+        return mName;
+    }
+
+    /** @return The amount of samples in the window. */
+    public int getCount() {
+        return mCount;
+    }
+
+    /** @return The minimum of the last {@link #compute()} in milliseconds. */
+    public double getMinMs() {
+        return mMinMs;
+    }
+
+    /** @return The mean of the last {@link #compute()} in milliseconds. */
+    public double getMeanMs() {
+        return mMeanMs;
+    }
+
+    /** @return The 99th percentile of the last {@link #compute()} in milliseconds. */
+    public double getP99Ms() {
+        return mP99Ms;
+    }
+
+    /** @return The maximum of the last {@link #compute()} in milliseconds. */
+    public double getMaxMs() {
+        return mMaxMs;
+    }
+}
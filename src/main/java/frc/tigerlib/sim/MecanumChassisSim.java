@@ -0,0 +1,271 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.system.plant.DCMotor;
+
+/**
+ * Physics of a four wheel mecanum chassis on flat carpet; needs no HAL so it can run anywhere.
+ *
+ * <p>Each wheel is a motor through a gearbox, spinning against the torque the carpet puts back on
+ * it. A wheel only grips along its rollers' axis, sliding freely across it; the grip grows with
+ * slip until it reaches the wheel's share of the robot's weight times the friction coefficient,
+ * after which the wheel spins out. The grip of all four wheels moves and turns the body.
+ *
+ * <p>Steps are explicit, and stable for steps up to a few milliseconds; {@link #update(double)}
+ * should be called with a small fixed step. Wheels are ordered fl, rl, fr, rr. Field coordinates
+ * are WPILib's; x forward, y left, headings CCW+ in radians.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class MecanumChassisSim {
+
+    public static final int kFrontLeft = 0;
+    public static final int kRearLeft = 1;
+    public static final int kFrontRight = 2;
+    public static final int kRearRight = 3;
+
+    private static final double kGravity = 9.81;
+    // Slip at which a wheel reaches full grip, meters per second.
+    private static final double kFullGripSlip = 0.1;
+    // Resistance of the rollers rolling, newtons per meter per second; keeps it from coasting
+    // forever.
+    private static final double kRollerDamping = 5;
+    // Friction in each wheel's gearbox and bearings, newton meters per radian per second; a
+    // coasting robot takes a couple seconds to stop.
+    private static final double kWheelDamping = 0.04;
+
+    // Wheel positions relative to the center, x forward and y left.
+    private static final double[] kWheelX = {1, -1, 1, -1};
+    private static final double[] kWheelY = {1, 1, -1, -1};
+    // Which way each wheel's rollers grip; along (1, side) / sqrt(2), the usual X pattern.
+    private static final double[] kRollerSide = {-1, 1, 1, -1};
+
+    private final DCMotor mMotor;
+    private final double mGearing;
+    private final double mWheelRadius;
+    private final double[] mWheelX = new double[4];
+    private final double[] mWheelY = new double[4];
+    private final double mMass;
+    private final double mMomentOfInertia;
+    private final double mWheelInertia;
+    private final double mMaxGrip;
+    private final double mGripPerSlip;
+
+    // Inputs.
+    private final double[] mVoltages = new double[4];
+    private boolean mBrakeMode = true;
+    private double mCurrentLimit = Double.POSITIVE_INFINITY;
+
+    // Body, field relative.
+    private double mX = 0;
+    private double mY = 0;
+    private double mHeading = 0;
+    private double mVx = 0;
+    private double mVy = 0;
+    private double mOmega = 0;
+    // Wheels; radians per second and meters rolled.
+    private final double[] mWheelSpeeds = new double[4];
+    private final double[] mWheelPositions = new double[4];
+    private final double[] mCurrents = new double[4];
+
+    /**
+     * Constructs a MecanumChassisSim, at rest at the origin.
+     *
+     * @param motor The motor driving each wheel.
+     * @param gearing The reduction from motor to wheel, ie: 10.71.
+     * @param wheelRadius The wheel radius, meters.
+     * @param halfLength The distance from the center to the wheels, front to back, meters.
+     * @param halfWidth The distance from the center to the wheels, side to side, meters.
+     * @param mass The robot's mass, kilograms.
+     * @param momentOfInertia The robot's moment of inertia about its center, kg m^2.
+     * @param wheelInertia Each wheel's moment of inertia, including its gearbox and motor, kg m^2.
+     * @param friction The coefficient of friction between the wheels and the carpet.
+     */
+    public MecanumChassisSim(
+            DCMotor motor,
+            double gearing,
+            double wheelRadius,
+            double halfLength,
+            double halfWidth,
+            double mass,
+            double momentOfInertia,
+            double wheelInertia,
+            double friction) {
+        mMotor = motor;
+        mGearing = gearing;
+        mWheelRadius = wheelRadius;
+        for (int i = 0; i < 4; i++) {
+            mWheelX[i] = kWheelX[i] * halfLength;
+            mWheelY[i] = kWheelY[i] * halfWidth;
+        }
+        mMass = mass;
+        mMomentOfInertia = momentOfInertia;
+        mWheelInertia = wheelInertia;
+        mMaxGrip = friction * mass * kGravity / 4;
+        mGripPerSlip = mMaxGrip / kFullGripSlip;
+    }
+
+    /**
+     * Sets the voltage across each motor, positive drives the robot forward.
+     *
+     * @param fl The front left motor's voltage.
+     * @param rl The rear left motor's voltage.
+     * @param fr The front right motor's voltage.
+     * @param rr The rear right motor's voltage.
+     */
+    public void setVoltages(double fl, double rl, double fr, double rr) {
+        mVoltages[kFrontLeft] = fl;
+        mVoltages[kRearLeft] = rl;
+        mVoltages[kFrontRight] = fr;
+        mVoltages[kRearRight] = rr;
+    }
+
+    /** Sets whether an idle motor brakes (true), or lets its wheel spin freely (false). */
+    public void setBrakeMode(boolean brake) {
+        mBrakeMode = brake;
+    }
+
+    /** Sets the most current each motor can draw, amps. */
+    public void setCurrentLimit(double amps) {
+        mCurrentLimit = amps;
+    }
+
+    /**
+     * Moves the robot, without changing its speed.
+     *
+     * @param x The field x position, meters.
+     * @param y The field y position, meters.
+     * @param heading The heading, radians.
+     */
+    public void setPose(double x, double y, double heading) {
+        mX = x;
+        mY = y;
+        mHeading = heading;
+    }
+
+    /**
+     * Advances the physics.
+     *
+     * @param dt The time to step, seconds; a millisecond or so.
+     */
+    public void update(double dt) {
+        double cos = Math.cos(mHeading);
+        double sin = Math.sin(mHeading);
+        // Body velocity, robot relative.
+        double vx = mVx * cos + mVy * sin;
+        double vy = -mVx * sin + mVy * cos;
+
+        double forceX = 0;
+        double forceY = 0;
+        double torque = 0;
+        for (int i = 0; i < 4; i++) {
+            // How the carpet under the wheel moves relative to the wheel's surface.
+            double contactX = vx - mOmega * mWheelY[i] - mWheelSpeeds[i] * mWheelRadius;
+            double contactY = vy + mOmega * mWheelX[i];
+
+            // Grip along the rollers' axis fights the slip, up to what friction allows.
+            double side = kRollerSide[i];
+            double slip = (contactX + side * contactY) / Math.sqrt(2);
+            double grip = Math.max(-mMaxGrip, Math.min(mMaxGrip, -slip * mGripPerSlip));
+            // Across the axis the rollers roll.
+            double roll = (side * contactX - contactY) / Math.sqrt(2);
+            double drag = -roll * kRollerDamping;
+
+            double wheelForceX = (grip + side * drag) / Math.sqrt(2);
+            double wheelForceY = (side * grip - drag) / Math.sqrt(2);
+            forceX += wheelForceX;
+            forceY += wheelForceY;
+            torque += mWheelX[i] * wheelForceY - mWheelY[i] * wheelForceX;
+
+            // The motor turns the wheel, the carpet's grip pushes back on it.
+            double current = motorCurrent(mVoltages[i], mWheelSpeeds[i] * mGearing);
+            mCurrents[i] = current;
+            double wheelTorque = mMotor.KtNMPerAmp * current * mGearing;
+            double carpetTorque = -grip / Math.sqrt(2) * mWheelRadius;
+            double frictionTorque = -mWheelSpeeds[i] * kWheelDamping;
+            mWheelSpeeds[i] += (wheelTorque + carpetTorque + frictionTorque) / mWheelInertia * dt;
+            mWheelPositions[i] += mWheelSpeeds[i] * mWheelRadius * dt;
+        }
+
+        // Back to field relative, then velocity before position.
+        mVx += (forceX * cos - forceY * sin) / mMass * dt;
+        mVy += (forceX * sin + forceY * cos) / mMass * dt;
+        mOmega += torque / mMomentOfInertia * dt;
+        mX += mVx * dt;
+        mY += mVy * dt;
+        mHeading += mOmega * dt;
+    }
+
+    private double motorCurrent(double voltage, double motorSpeed) {
+        if (voltage == 0 && !mBrakeMode) {
+            // Coasting leaves the windings open.
+            return 0;
+        }
+        double current = (voltage - motorSpeed / mMotor.KvRadPerSecPerVolt) / mMotor.rOhms;
+        return Math.max(-mCurrentLimit, Math.min(mCurrentLimit, current));
+    }
+
+    /** @return A wheel's surface speed, meters per second. */
+    public double getWheelVelocity(int wheel) {
+        return mWheelSpeeds[wheel] * mWheelRadius;
+    }
+
+    /** @return How far a wheel's surface has rolled, meters. */
+    public double getWheelPosition(int wheel) {
+        return mWheelPositions[wheel];
+    }
+
+    /** @return The current through a motor, amps. */
+    public double getCurrent(int wheel) {
+        return mCurrents[wheel];
+    }
+
+    /** @return The current through all four motors, amps. */
+    public double getTotalCurrent() {
+        double total = 0;
+        for (double current : mCurrents) {
+            total += Math.abs(current);
+        }
+        return total;
+    }
+
+    /** @return The heading, radians CCW+; not wrapped. */
+    public double getHeadingRadians() {
+        return mHeading;
+    }
+
+    /** @return The turn rate, radians per second CCW+. */
+    public double getAngularVelocity() {
+        return mOmega;
+    }
+
+    /** @return The field x position, meters. */
+    public double getX() {
+        return mX;
+    }
+
+    /** @return The field y position, meters. */
+    public double getY() {
+        return mY;
+    }
+
+    /** @return The field x velocity, meters per second. */
+    public double getVelocityX() {
+        return mVx;
+    }
+
+    /** @return The field y velocity, meters per second. */
+    public double getVelocityY() {
+        return mVy;
+    }
+
+    /** @return Where the robot really is, for comparing against odometry. */
+    public Pose2d getPose() {
+        return new Pose2d(mX, mY, new Rotation2d(mHeading));
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.sim;
+
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+
+/**
+ * Runs a simulated robot faster, or slower, than real time.
+ *
+ * <p>Pauses the simulated clock, then each loop steps it forward by one period; the robot's next
+ * loop is then due straight away, so it runs as soon as this one ends. Waiting between steps holds
+ * the chosen speed.
+ *
+ * <p>Notifiers faster than the robot loop only get one run per loop, so a high rate control thread
+ * runs at the robot loop's rate.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class SimPacer {
+
+    // Overrides the speed from the command line, ie: SIM_SPEED=0 ./gradlew simulateJava
+    public static final String kEnvironmentVariable = "SIM_SPEED";
+
+    private final double mPeriod;
+    private final double mSpeed;
+    private long mNextStepNanos = 0;
+
+    /**
+     * Constructs a SimPacer.
+     *
+     * @param period The robot's loop period, seconds.
+     * @param speed Simulated seconds per real second; 0 for as fast as possible.
+     */
+    public SimPacer(double period, double speed) {
+        mPeriod = period;
+        mSpeed = speed;
+    }
+
+    /** @return Whether the pace differs from real time, and the clock needs stepping. */
+    public boolean isPacing() {
+        return mSpeed != 1;
+    }
+
+    /** Takes over the simulated clock, if not running in real time. */
+    public void start() {
+        if (isPacing()) {
+            SimHooks.pauseTiming();
+            mNextStepNanos = System.nanoTime();
+        }
+    }
+
+    /** Should be called at the end of each loop, steps the clock once it's time to. */
+    public void step() {
+        if (!isPacing()) {
+            return;
+        }
+        if (mSpeed > 0) {
+            mNextStepNanos += (long) (mPeriod / mSpeed * 1e9);
+            long wait = mNextStepNanos - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                // Fell behind, don't rush to catch up.
+                mNextStepNanos = System.nanoTime();
+            }
+        }
+        // Async, the robot loop is the one waiting on it.
+        SimHooks.stepTimingAsync(mPeriod);
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.telemetry;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Moves telemetry off of the main robot thread.
+ *
+ * <p>The main thread pushes primitive samples into a lock free ring buffer, and a background thread
+ * drains them to each {@link SampleConsumer} (NetworkTables, disk, etc.). If the background thread
+ * falls behind samples are dropped and counted, the robot loop never waits.
+ *
+ * <p>{@link #push(int, double)} must only be called from the main robot thread.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class AsyncTelemetry {
+
+    private static final int kCapacity = 4096;
+    private static final long kDrainPeriodMs = 10;
+
+    private static AsyncTelemetry sInstance;
+
+    private final SampleRingBuffer mBuffer = new SampleRingBuffer(kCapacity);
+    private final List<String> mChannelNames = new CopyOnWriteArrayList<>();
+    private final List<SampleConsumer> mConsumers = new CopyOnWriteArrayList<>();
+    private final SampleConsumer mFanOut = this::fanOut;
+
+    private Thread mThread;
+    private volatile boolean mRunning = false;
+    private long mTimestamp = 0;
+
+    private AsyncTelemetry() {}
+
+    /** @return The one and only AsyncTelemetry. */
+    public static synchronized AsyncTelemetry getInstance() {
+        if (sInstance == null) {
+            sInstance = new AsyncTelemetry();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Registers a channel to push samples to. Adding a name again gives the same channel.
+     *
+     * @param name The name of the channel, ie: "Drivetrain/Heading".
+     * @return The id of the channel.
+     */
+    public synchronized int addChannel(String name) {
+        int existing = mChannelNames.indexOf(name);
+        if (existing >= 0) {
+            return existing;
+        }
+        mChannelNames.add(name);
+        return mChannelNames.size() - 1;
+    }
+
+    /** @return The name of the given channel. */
+    public String getChannelName(int channel) {
+        return mChannelNames.get(channel);
+    }
+
+    /** @return The amount of registered channels. */
+    public int getChannelCount() {
+        return mChannelNames.size();
+    }
+
+    /** Adds somewhere for samples to go. */
+    public void addConsumer(SampleConsumer consumer) {
+        mConsumers.add(consumer);
+    }
+
+    /** Starts the background thread. */
+    public synchronized void start() {
+        if (mRunning) {
+            return;
+        }
+        mRunning = true;
+        mThread = new Thread(this::run, "AsyncTelemetry");
+        mThread.setDaemon(true);
+        mThread.setPriority(Thread.MIN_PRIORITY);
+        mThread.start();
+    }
+
+    /** Stops the background thread, draining anything left. */
+    public synchronized void stop() {
+        mRunning = false;
+        if (mThread != null) {
+            mThread.interrupt();
+            try {
+                mThread.join(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mThread = null;
+        }
+    }
+
+    /**
+     * Sets the timestamp used by {@link #push(int, double)}, should be called at the top of each
+     * loop so the clock is only read once.
+     *
+     * @param timestamp The time in microseconds.
+     */
+    public void setTimestamp(long timestamp) {
+        mTimestamp = timestamp;
+    }
+
+    /**
+     * Pushes a sample stamped with the current loop timestamp.
+     *
+     * @param channel The id from {@link #addChannel(String)}.
+     * @param value The value of the sample.
+     */
+    public void push(int channel, double value) {
+        mBuffer.offer(channel, mTimestamp, value);
+    }
+
+    /**
+     * Pushes a boolean sample as 1 or 0.
+     *
+     * @param channel The id from {@link #addChannel(String)}.
+     * @param value The value of the sample.
+     */
+    public void push(int channel, boolean value) {
+        mBuffer.offer(channel, mTimestamp, value ? 1 : 0);
+    }
+
+    /** @return The total amount of samples dropped because the buffer was full. */
+    public long getDropped() {
+        return mBuffer.getDropped();
+    }
+
+    private void run() {
+        while (mRunning) {
+            drainAll();
+            try {
+                Thread.sleep(kDrainPeriodMs);
+            } catch (InterruptedException e) {
+                // stop() was called.
+            }
+        }
+        drainAll();
+        for (SampleConsumer consumer : mConsumers) {
+            consumer.close();
+        }
+    }
+
+    private void drainAll() {
+        if (mBuffer.drain(mFanOut, mBuffer.capacity()) > 0) {
+            for (SampleConsumer consumer : mConsumers) {
+                consumer.flush();
+            }
+        }
+    }
+
+    private void fanOut(int channel, long timestamp, double value) {
+        for (int i = 0; i < mConsumers.size(); i++) {
+            mConsumers.get(i).accept(channel, timestamp, value);
+        }
+    }
+}
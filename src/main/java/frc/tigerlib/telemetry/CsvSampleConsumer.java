@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.telemetry;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Writes every sample to a CSV file as "timestamp (us),channel,value".
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class CsvSampleConsumer implements SampleConsumer {
+
+    private final AsyncTelemetry mTelemetry;
+    private final BufferedWriter mWriter;
+    private boolean mFailed = false;
+
+    /**
+     * Constructs a CsvSampleConsumer.
+     *
+     * @param telemetry Where to get channel names from.
+     * @param file The file to write to, overwritten if it exists.
+     * @throws IOException If the file could not be opened.
+     */
+    public CsvSampleConsumer(AsyncTelemetry telemetry, File file) throws IOException {
+        mTelemetry = telemetry;
+        file.getParentFile().mkdirs();
+        mWriter = new BufferedWriter(new FileWriter(file), 1 << 16);
+        mWriter.write("timestamp,channel,value\n");
+    }
+
+    @Override
+    public void accept(int channel, long timestamp, double value) {
+        if (mFailed) {
+            return;
+        }
+        try {
+            mWriter.write(Long.toString(timestamp));
+            mWriter.write(',');
+            mWriter.write(mTelemetry.getChannelName(channel));
+            mWriter.write(',');
+            mWriter.write(Double.toString(value));
+            mWriter.write('\n');
+        } catch (IOException e) {
+            // Out of space or unplugged, stop trying rather than spam errors.
+            mFailed = true;
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (mFailed) {
+            return;
+        }
+        try {
+            mWriter.flush();
+        } catch (IOException e) {
+            mFailed = true;
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            mWriter.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
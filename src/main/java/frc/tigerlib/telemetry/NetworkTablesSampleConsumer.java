@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.telemetry;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import java.util.Arrays;
+
+/**
+ * Puts the latest value of each channel in NetworkTables.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class NetworkTablesSampleConsumer implements SampleConsumer {
+
+    private final AsyncTelemetry mTelemetry;
+    private final NetworkTable mTable;
+    private final NetworkTableEntry mDroppedEntry;
+    private NetworkTableEntry[] mEntries = new NetworkTableEntry[64];
+
+    /**
+     * Constructs a NetworkTablesSampleConsumer.
+     *
+     * @param telemetry Where to get channel names from.
+     * @param tableName The table to put values in.
+     */
+    public NetworkTablesSampleConsumer(AsyncTelemetry telemetry, String tableName) {
+        mTelemetry = telemetry;
+        mTable = NetworkTableInstance.getDefault().getTable(tableName);
+        mDroppedEntry = mTable.getEntry("Dropped Samples");
+    }
+
+    @Override
+    public void accept(int channel, long timestamp, double value) {
+        if (channel >= mEntries.length) {
+            mEntries = Arrays.copyOf(mEntries, Math.max(channel + 1, mEntries.length * 2));
+        }
+        if (mEntries[channel] == null) {
+            mEntries[channel] = mTable.getEntry(mTelemetry.getChannelName(channel));
+        }
+        mEntries[channel].setDouble(value);
+    }
+
+    @Override
+    public void flush() {
+        mDroppedEntry.setDouble(mTelemetry.getDropped());
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.telemetry;
+
+/**
+ * Receives telemetry samples drained from a {@link SampleRingBuffer}.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public interface SampleConsumer {
+
+    /**
+     * Handles one sample.
+     *
+     * @param channel The channel the sample belongs to.
+     * @param timestamp The time of the sample in microseconds.
+     * @param value The value of the sample.
+     */
+    void accept(int channel, long timestamp, double value);
+
+    /** Called after each batch of samples, for consumers that buffer their output. */
+    default void flush() {}
+
+    /** Called when telemetry stops, release any resources. */
+    default void close() {}
+}
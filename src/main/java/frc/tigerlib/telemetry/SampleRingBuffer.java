@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single producer, single consumer, lock free ring buffer of (channel, timestamp, value) samples.
+ *
+ * <p>Samples are stored in parallel primitive arrays so offering a sample never allocates. When the
+ * buffer is full the sample is dropped and counted, the producer never waits on the consumer.
+ *
+ * <p>Only one thread may call {@link #offer(int, long, double)} and only one (other) thread may
+ * call {@link #drain(SampleConsumer, int)}.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class SampleRingBuffer {
+
+    private final int mMask;
+    private final int[] mChannels;
+    private final long[] mTimestamps;
+    private final double[] mValues;
+
+    // Next index to be written, only written by the producer.
+    private final AtomicLong mHead = new AtomicLong();
+    // Next index to be read, only written by the consumer.
+    private final AtomicLong mTail = new AtomicLong();
+    private final AtomicLong mDropped = new AtomicLong();
+
+    /**
+     * Constructs a SampleRingBuffer.
+     *
+     * @param capacity The amount of samples to hold, rounded up to a power of two.
+     */
+    public SampleRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        mMask = size - 1;
+        mChannels = new int[size];
+        mTimestamps = new long[size];
+        mValues = new double[size];
+    }
+
+    /**
+     * Adds a sample, called from the producer thread.
+     *
+     * @param channel The channel the sample belongs to.
+     * @param timestamp The time of the sample in microseconds.
+     * @param value The value of the sample.
+     * @return If the sample was added, false if the buffer was full and it was dropped.
+     */
+    public boolean offer(int channel, long timestamp, double value) {
+        long head = mHead.get();
+        if (head - mTail.get() > mMask) {
+            mDropped.lazySet(mDropped.get() + 1);
+            return false;
+        }
+        int i = (int) (head & mMask);
+        mChannels[i] = channel;
+        mTimestamps[i] = timestamp;
+        mValues[i] = value;
+        // Ordered write, makes the sample visible to the consumer after its data.
+        mHead.lazySet(head + 1);
+        return true;
+    }
+
+    /**
+     * Passes samples to the consumer, called from the consumer thread.
+     *
+     * @param consumer Where to send the samples.
+     * @param max The maximum amount of samples to drain.
+     * @return The amount of samples drained.
+     */
+    public int drain(SampleConsumer consumer, int max) {
+        long tail = mTail.get();
+        int count = (int) Math.min(max, mHead.get() - tail);
+        for (int n = 0; n < count; n++) {
+            int i = (int) ((tail + n) & mMask);
+            consumer.accept(mChannels[i], mTimestamps[i], mValues[i]);
+        }
+        mTail.lazySet(tail + count);
+        return count;
+    }
+
+    /** @return The amount of samples waiting to be drained. */
+    public int size() {
+        return (int) (mHead.get() - mTail.get());
+    }
+
+    /** @return The size of the buffer. */
+    public int capacity() {
+        return mMask + 1;
+    }
+
+    /** @return The total amount of samples dropped because the buffer was full. */
+    public long getDropped() {
+        return mDropped.get();
+    }
+}
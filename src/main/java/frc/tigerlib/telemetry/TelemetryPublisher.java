@@ -0,0 +1,189 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.telemetry;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Sends values to NetworkTables only when they change, at a rate picked per value.
+ *
+ * <p>Entries are looked up once when a value is added, rather than by key every loop like {@link
+ * edu.wpi.first.wpilibj.smartdashboard.SmartDashboard}. Sendables should still be put on the
+ * dashboard once with {@code SmartDashboard.putData}; {@code TimedRobot} already updates them every
+ * loop.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class TelemetryPublisher {
+
+    /** How often a value is checked for changes, assuming {@link #update()} is called at 50Hz. */
+    public enum Rate {
+        k50Hz(1),
+        k10Hz(5),
+        k2Hz(25);
+
+        /** The amount of loops between checks. */
+        public final int period;
+
+        Rate(int period) {
+            this.period = period;
+        }
+    }
+
+    private final NetworkTable mTable;
+    private final List<Signal> mSignals = new ArrayList<>();
+    private int mLoopCount = 0;
+
+    /** Constructs a TelemetryPublisher which puts values on the SmartDashboard table. */
+    public TelemetryPublisher() {
+        this(NetworkTableInstance.getDefault().getTable("SmartDashboard"));
+    }
+
+    /**
+     * Constructs a TelemetryPublisher.
+     *
+     * @param table The table to put values in.
+     */
+    public TelemetryPublisher(NetworkTable table) {
+        mTable = table;
+    }
+
+    /**
+     * Adds a number to publish.
+     *
+     * @param key The key of the value.
+     * @param supplier Gets the value.
+     * @param epsilon How much the value has to change by to be sent again.
+     * @param rate How often to check the value.
+     */
+    public void addDouble(String key, DoubleSupplier supplier, double epsilon, Rate rate) {
+        add(new DoubleSignal(mTable.getEntry(key), rate, supplier, epsilon));
+    }
+
+    /**
+     * Adds a boolean to publish.
+     *
+     * @param key The key of the value.
+     * @param supplier Gets the value.
+     * @param rate How often to check the value.
+     */
+    public void addBoolean(String key, BooleanSupplier supplier, Rate rate) {
+        add(new BooleanSignal(mTable.getEntry(key), rate, supplier));
+    }
+
+    /**
+     * Adds a string to publish; a null value is not sent.
+     *
+     * @param key The key of the value.
+     * @param supplier Gets the value.
+     * @param rate How often to check the value.
+     */
+    public void addString(String key, Supplier<String> supplier, Rate rate) {
+        add(new StringSignal(mTable.getEntry(key), rate, supplier));
+    }
+
+    private void add(Signal signal) {
+        // Offset each signal within its period so slow values don't all land on the same loop.
+        signal.mOffset = mSignals.size() % signal.mPeriod;
+        mSignals.add(signal);
+    }
+
+    /** Checks each value that is due this loop, and sends the ones that changed. */
+    public void update() {
+        for (int i = 0; i < mSignals.size(); i++) {
+            Signal signal = mSignals.get(i);
+            if ((mLoopCount + signal.mOffset) % signal.mPeriod == 0) {
+                signal.update();
+            }
+        }
+        mLoopCount++;
+    }
+
+    private abstract static class Signal {
+        final NetworkTableEntry mEntry;
+        final int mPeriod;
+        int mOffset = 0;
+
+        Signal(NetworkTableEntry entry, Rate rate) {
+            mEntry = entry;
+            mPeriod = rate.period;
+        }
+
+        abstract void update();
+    }
+
+    private static class DoubleSignal extends Signal {
+        final DoubleSupplier mSupplier;
+        final double mEpsilon;
+        boolean mSent = false;
+        double mLast;
+
+        DoubleSignal(NetworkTableEntry entry, Rate rate, DoubleSupplier supplier, double epsilon) {
+            super(entry, rate);
+            mSupplier = supplier;
+            mEpsilon = epsilon;
+        }
+
+        @Override
+        void update() {
+            double val = mSupplier.getAsDouble();
+            // NaN never compares as changed, so going to or from it is checked on its own.
+            if (!mSent
+                    || Math.abs(val - mLast) > mEpsilon
+                    || Double.isNaN(val) != Double.isNaN(mLast)) {
+                mEntry.setDouble(val);
+                mLast = val;
+                mSent = true;
+            }
+        }
+    }
+
+    private static class BooleanSignal extends Signal {
+        final BooleanSupplier mSupplier;
+        boolean mSent = false;
+        boolean mLast;
+
+        BooleanSignal(NetworkTableEntry entry, Rate rate, BooleanSupplier supplier) {
+            super(entry, rate);
+            mSupplier = supplier;
+        }
+
+        @Override
+        void update() {
+            boolean val = mSupplier.getAsBoolean();
+            if (!mSent || val != mLast) {
+                mEntry.setBoolean(val);
+                mLast = val;
+                mSent = true;
+            }
+        }
+    }
+
+    private static class StringSignal extends Signal {
+        final Supplier<String> mSupplier;
+        String mLast;
+
+        StringSignal(NetworkTableEntry entry, Rate rate, Supplier<String> supplier) {
+            super(entry, rate);
+            mSupplier = supplier;
+        }
+
+        @Override
+        void update() {
+            String val = mSupplier.get();
+            if (val != null && !val.equals(mLast)) {
+                mEntry.setString(val);
+                mLast = val;
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.trajectory;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A holonomic trajectory stored as arrays of primitives, one entry per state, so sampling it
+ * allocates nothing.
+ *
+ * <p>{@link #sample(double, Sample)} finds the two states around a time with a binary search, then
+ * interpolates between them. Headings are unwrapped when built, so they interpolate the short way
+ * and never jump by a full turn.
+ *
+ * <p>Field coordinates are WPILib's; x forward, y left, headings CCW+ in radians. Velocities are
+ * field relative. Immutable, safe to share between threads.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class SampledTrajectory {
+
+    /** Where the robot should be at a time, filled in by {@link #sample(double, Sample)}. */
+    public static class Sample {
+        public double time;
+        public double x;
+        public double y;
+        public double heading;
+        public double vx;
+        public double vy;
+        public double omega;
+        public double curvature;
+    }
+
+    private final double[] mTimes;
+    private final double[] mX;
+    private final double[] mY;
+    private final double[] mHeading;
+    private final double[] mVx;
+    private final double[] mVy;
+    private final double[] mOmega;
+    private final double[] mCurvature;
+
+    /**
+     * Constructs a SampledTrajectory from its states. The arrays are kept, not copied; don't change
+     * them after.
+     *
+     * @param times When each state is reached, seconds, increasing.
+     * @param x Field x of each state, meters.
+     * @param y Field y of each state, meters.
+     * @param heading The robot's heading at each state, radians; unwrapped here.
+     * @param vx Field x velocity at each state, meters per second.
+     * @param vy Field y velocity at each state, meters per second.
+     * @param omega Angular velocity at each state, radians per second CCW+.
+     * @param curvature Curvature of the path at each state, radians per meter.
+     * @throws IllegalArgumentException If the arrays are empty, differ in length, or the times
+     *     don't increase.
+     */
+    public SampledTrajectory(
+            double[] times,
+            double[] x,
+            double[] y,
+            double[] heading,
+            double[] vx,
+            double[] vy,
+            double[] omega,
+            double[] curvature) {
+        int n = times.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Trajectory has no states");
+        }
+        if (x.length != n
+                || y.length != n
+                || heading.length != n
+                || vx.length != n
+                || vy.length != n
+                || omega.length != n
+                || curvature.length != n) {
+            throw new IllegalArgumentException("Trajectory arrays differ in length");
+        }
+        for (int i = 1; i < n; i++) {
+            if (!(times[i] > times[i - 1])) {
+                throw new IllegalArgumentException("Trajectory times don't increase at " + i);
+            }
+            heading[i] =
+                    heading[i - 1] + Math.IEEEremainder(heading[i] - heading[i - 1], 2 * Math.PI);
+        }
+        mTimes = times;
+        mX = x;
+        mY = y;
+        mHeading = heading;
+        mVx = vx;
+        mVy = vy;
+        mOmega = omega;
+        mCurvature = curvature;
+    }
+
+    /**
+     * Samples a PathPlanner trajectory's states. The robot faces its holonomic rotation, and
+     * travels along the path's tangent.
+     *
+     * @param trajectory The trajectory, made for a holonomic drivetrain.
+     * @return The trajectory's states as arrays.
+     */
+    public static SampledTrajectory fromPathPlanner(PathPlannerTrajectory trajectory) {
+        List<Trajectory.State> states = trajectory.getStates();
+        int n = states.size();
+        double[] times = new double[n];
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] heading = new double[n];
+        double[] vx = new double[n];
+        double[] vy = new double[n];
+        double[] curvature = new double[n];
+        for (int i = 0; i < n; i++) {
+            PathPlannerState state = (PathPlannerState) states.get(i);
+            Pose2d pose = state.poseMeters;
+            times[i] = state.timeSeconds;
+            x[i] = pose.getX();
+            y[i] = pose.getY();
+            heading[i] = state.holonomicRotation.getRadians();
+            vx[i] = state.velocityMetersPerSecond * pose.getRotation().getCos();
+            vy[i] = state.velocityMetersPerSecond * pose.getRotation().getSin();
+            curvature[i] = state.curvatureRadPerMeter;
+        }
+        return withOmega(times, x, y, heading, vx, vy, curvature);
+    }
+
+    /**
+     * Makes a SampledTrajectory, finding angular velocity from the change in heading.
+     *
+     * @return The trajectory; see {@link #SampledTrajectory} for the arguments.
+     */
+    public static SampledTrajectory withOmega(
+            double[] times,
+            double[] x,
+            double[] y,
+            double[] heading,
+            double[] vx,
+            double[] vy,
+            double[] curvature) {
+        int n = times.length;
+        double[] omega = new double[n];
+        SampledTrajectory trajectory =
+                new SampledTrajectory(times, x, y, heading, vx, vy, omega, curvature);
+        // Central differences inside, one sided at the ends; the headings are unwrapped by now.
+        for (int i = 0; i < n && n > 1; i++) {
+            int before = Math.max(0, i - 1);
+            int after = Math.min(n - 1, i + 1);
+            omega[i] = (heading[after] - heading[before]) / (times[after] - times[before]);
+        }
+        return trajectory;
+    }
+
+    /** @return How many states there are. */
+    public int size() {
+        return mTimes.length;
+    }
+
+    /** @return When the first state is reached, seconds. */
+    public double getStartTime() {
+        return mTimes[0];
+    }
+
+    /** @return When the last state is reached, seconds. */
+    public double getEndTime() {
+        return mTimes[mTimes.length - 1];
+    }
+
+    /** @return How long the trajectory takes, seconds. */
+    public double getTotalTime() {
+        return getEndTime() - getStartTime();
+    }
+
+    /** @return Where the trajectory starts. */
+    public Pose2d getInitialPose() {
+        return new Pose2d(mX[0], mY[0], new Rotation2d(mHeading[0]));
+    }
+
+    /** @return Where the trajectory ends. */
+    public Pose2d getFinalPose() {
+        int last = mTimes.length - 1;
+        return new Pose2d(mX[last], mY[last], new Rotation2d(mHeading[last]));
+    }
+
+    /**
+     * Finds where the robot should be at a time, interpolating between the states around it.
+     * Before the start or after the end, the first or last state.
+     *
+     * @param time The time, seconds, on the same clock as the states.
+     * @param out Where to put the sample.
+     * @return out, for convenience.
+     */
+    public Sample sample(double time, Sample out) {
+        int last = mTimes.length - 1;
+        if (time <= mTimes[0]) {
+            return state(0, time, out);
+        }
+        if (time >= mTimes[last]) {
+            return state(last, time, out);
+        }
+        // The state at or after the time; there is always one before it.
+        int after = Arrays.binarySearch(mTimes, time);
+        if (after >= 0) {
+            return state(after, time, out);
+        }
+        after = -after - 1;
+        int before = after - 1;
+        double t = (time - mTimes[before]) / (mTimes[after] - mTimes[before]);
+        out.time = time;
+        out.x = lerp(mX, before, t);
+        out.y = lerp(mY, before, t);
+        out.heading = lerp(mHeading, before, t);
+        out.vx = lerp(mVx, before, t);
+        out.vy = lerp(mVy, before, t);
+        out.omega = lerp(mOmega, before, t);
+        out.curvature = lerp(mCurvature, before, t);
+        return out;
+    }
+
+    private Sample state(int i, double time, Sample out) {
+        out.time = time;
+        out.x = mX[i];
+        out.y = mY[i];
+        out.heading = mHeading[i];
+        out.vx = mVx[i];
+        out.vy = mVy[i];
+        out.omega = mOmega[i];
+        out.curvature = mCurvature[i];
+        return out;
+    }
+
+    private static double lerp(double[] values, int before, double t) {
+        return values[before] + (values[before + 1] - values[before]) * t;
+    }
+}
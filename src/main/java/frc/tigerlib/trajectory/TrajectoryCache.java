@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.trajectory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Loads trajectories on a background thread, so reading and generating them never holds up the
+ * robot loop.
+ *
+ * <p>Every trajectory is named up front, then {@link #start()} loads them one after another on a
+ * low priority daemon thread. {@link #get(String)} never blocks; it returns null until a
+ * trajectory is ready, so an auto started early skips its path rather than stalling the loop.
+ * {@link #getFuture(String)} is there for anything that would rather wait.
+ *
+ * <p>How long each took to load is kept, see {@link #getReport()}; printing or publishing it is
+ * left to the robot.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class TrajectoryCache {
+
+    /** One trajectory, and how loading it went. */
+    private static class Entry {
+        final CompletableFuture<SampledTrajectory> future = new CompletableFuture<>();
+        // How long it took to load, seconds; NaN until done.
+        volatile double loadSeconds = Double.NaN;
+    }
+
+    private final Function<String, SampledTrajectory> mLoader;
+    // Filled in by the constructor, only the entries change after.
+    private final Map<String, Entry> mEntries = new LinkedHashMap<>();
+    private Thread mThread;
+    // How long loading them all took, seconds; NaN until done.
+    private volatile double mTotalLoadSeconds = Double.NaN;
+
+    /**
+     * Constructs a TrajectoryCache.
+     *
+     * @param loader Loads a trajectory by name, throwing if it can't; runs on the loading thread.
+     * @param names The trajectories to load, in the order to load them.
+     */
+    public TrajectoryCache(Function<String, SampledTrajectory> loader, Collection<String> names) {
+        mLoader = loader;
+        for (String name : names) {
+            mEntries.put(name, new Entry());
+        }
+    }
+
+    /**
+     * Finds the names of every file in a directory with an extension, without the extension.
+     * Lists the directory, so call it before the match starts.
+     *
+     * @param directory The directory, ie: deploy/pathplanner.
+     * @param extension The extension, with its dot.
+     * @return The names, sorted; empty if the directory doesn't exist.
+     */
+    public static List<String> findNames(File directory, String extension) {
+        List<String> names = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return names;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isFile() && name.endsWith(extension)) {
+                names.add(name.substring(0, name.length() - extension.length()));
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /** Starts loading on a background thread; does nothing if already started. */
+    public synchronized void start() {
+        if (mThread != null) {
+            return;
+        }
+        mThread = new Thread(this::loadAll, "TrajectoryCache");
+        mThread.setDaemon(true);
+        mThread.setPriority(Thread.MIN_PRIORITY);
+        mThread.start();
+    }
+
+    private void loadAll() {
+        long allStart = System.nanoTime();
+        for (Map.Entry<String, Entry> named : mEntries.entrySet()) {
+            Entry entry = named.getValue();
+            long start = System.nanoTime();
+            try {
+                SampledTrajectory trajectory = mLoader.apply(named.getKey());
+                if (trajectory == null) {
+                    throw new IllegalStateException("loader returned nothing");
+                }
+                entry.loadSeconds = (System.nanoTime() - start) / 1e9;
+                entry.future.complete(trajectory);
+            } catch (Throwable e) {
+                // Even an error, like running out of memory on a huge path, only fails this one;
+                // the rest still load and every future finishes.
+                entry.loadSeconds = (System.nanoTime() - start) / 1e9;
+                entry.future.completeExceptionally(e);
+            }
+        }
+        mTotalLoadSeconds = (System.nanoTime() - allStart) / 1e9;
+    }
+
+    /**
+     * Gets a trajectory if it's ready. Never blocks.
+     *
+     * @param name The trajectory's name.
+     * @return The trajectory, or null if it's still loading, failed to, or was never named.
+     */
+    public SampledTrajectory get(String name) {
+        Entry entry = mEntries.get(name);
+        if (entry == null || !entry.future.isDone() || entry.future.isCompletedExceptionally()) {
+            return null;
+        }
+        return entry.future.join();
+    }
+
+    /**
+     * Gets a trajectory's future, completed once it has loaded, or exceptionally if it couldn't.
+     *
+     * @param name The trajectory's name.
+     * @return The future.
+     * @throws IllegalArgumentException If there's no trajectory by that name.
+     */
+    public CompletableFuture<SampledTrajectory> getFuture(String name) {
+        Entry entry = mEntries.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("No trajectory named \"" + name + "\"");
+        }
+        return entry.future;
+    }
+
+    /** @return Whether a trajectory has loaded and can be used. */
+    public boolean isReady(String name) {
+        return get(name) != null;
+    }
+
+    /** @return Whether every trajectory has finished loading, or failed to. */
+    public boolean isDone() {
+        for (Entry entry : mEntries.values()) {
+            if (!entry.future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return How many trajectories have loaded and can be used. */
+    public int getReadyCount() {
+        int ready = 0;
+        for (Entry entry : mEntries.values()) {
+            if (entry.future.isDone() && !entry.future.isCompletedExceptionally()) {
+                ready++;
+            }
+        }
+        return ready;
+    }
+
+    /** @return How many trajectories there are, loaded or not. */
+    public int size() {
+        return mEntries.size();
+    }
+
+    /** @return How long a trajectory took to load, seconds; NaN if it hasn't finished. */
+    public double getLoadSeconds(String name) {
+        Entry entry = mEntries.get(name);
+        return entry != null ? entry.loadSeconds : Double.NaN;
+    }
+
+    /** @return How long loading every trajectory took, seconds; NaN until they're all done. */
+    public double getTotalLoadSeconds() {
+        return mTotalLoadSeconds;
+    }
+
+    /** @return A line for each trajectory; how long it took, and how big it is or why it failed. */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Entry> named : mEntries.entrySet()) {
+            Entry entry = named.getValue();
+            report.append("  ").append(named.getKey()).append(": ");
+            if (!entry.future.isDone()) {
+                report.append("loading\n");
+                continue;
+            }
+            report.append(String.format(Locale.ROOT, "%.1f ms, ", entry.loadSeconds * 1e3));
+            try {
+                report.append(entry.future.join().size()).append(" states\n");
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                String message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+                report.append("failed, ").append(message).append('\n');
+            }
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.trajectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A trajectory compiled into a table of doubles at a fixed timestep, so loading it on the robot is
+ * a memory map and a copy, with nothing to parse or generate.
+ *
+ * <p>Layout, little endian: a header of magic, version, state count, column count (ints), then
+ * timestep, start and end time, and the max velocity and acceleration it was made for (doubles),
+ * then a checksum of the path file it was made from (long). Then each column in turn, one double
+ * per state; x, y, heading, vx, vy, omega, curvature. Columns are contiguous so each is read with
+ * one bulk copy. States are a timestep apart, except the last which is at the end time.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class TrajectoryFile {
+
+    // "TBTJ"
+    private static final int kMagic = 0x4a544254;
+    private static final int kVersion = 2;
+    private static final int kColumns = 7;
+    private static final int kHeaderBytes = 4 * Integer.BYTES + 5 * Double.BYTES + Long.BYTES;
+
+    private final SampledTrajectory mTrajectory;
+    private final double mPeriod;
+    private final double mMaxVelocity;
+    private final double mMaxAcceleration;
+    private final long mSourceChecksum;
+
+    private TrajectoryFile(
+            SampledTrajectory trajectory,
+            double period,
+            double maxVelocity,
+            double maxAcceleration,
+            long sourceChecksum) {
+        mTrajectory = trajectory;
+        mPeriod = period;
+        mMaxVelocity = maxVelocity;
+        mMaxAcceleration = maxAcceleration;
+        mSourceChecksum = sourceChecksum;
+    }
+
+    /**
+     * Checksums the file a trajectory is made from, so a compiled one can be checked against it.
+     *
+     * @param source The file, ie: a PathPlanner path.
+     * @return Its CRC32.
+     * @throws IOException If it can't be read.
+     */
+    public static long checksum(File source) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(source.toPath()));
+        return crc.getValue();
+    }
+
+    /**
+     * Samples a trajectory at a fixed timestep and writes it. Written to a temporary file first,
+     * then moved over the old one, so a reader never sees half a file.
+     *
+     * @param trajectory The trajectory.
+     * @param period The timestep, seconds.
+     * @param maxVelocity The max velocity it was made for, meters per second; kept for checking.
+     * @param maxAcceleration The max acceleration it was made for, meters per second squared.
+     * @param sourceChecksum The {@link #checksum(File)} of the file it was made from.
+     * @param file Where to write it.
+     * @throws IOException If it can't be written.
+     */
+    public static void write(
+            SampledTrajectory trajectory,
+            double period,
+            double maxVelocity,
+            double maxAcceleration,
+            long sourceChecksum,
+            File file)
+            throws IOException {
+        // Always include the end, even if it isn't a whole number of steps.
+        int n = (int) Math.ceil(trajectory.getTotalTime() / period - 1e-9) + 1;
+        ByteBuffer buffer =
+                ByteBuffer.allocate(kHeaderBytes + n * kColumns * Double.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(kMagic).putInt(kVersion).putInt(n).putInt(kColumns);
+        buffer.putDouble(period).putDouble(trajectory.getStartTime());
+        buffer.putDouble(trajectory.getEndTime());
+        buffer.putDouble(maxVelocity).putDouble(maxAcceleration);
+        buffer.putLong(sourceChecksum);
+
+        SampledTrajectory.Sample[] samples = new SampledTrajectory.Sample[n];
+        for (int i = 0; i < n; i++) {
+            double time = Math.min(i * period, trajectory.getTotalTime());
+            samples[i] =
+                    trajectory.sample(
+                            trajectory.getStartTime() + time, new SampledTrajectory.Sample());
+        }
+        DoubleBuffer columns = buffer.asDoubleBuffer();
+        for (SampledTrajectory.Sample sample : samples) {
+            columns.put(sample.x);
+        }
+        for (SampledTrajectory.Sample sample : samples) {
+            columns.put(sample.y);
+        }
+        for (SampledTrajectory.Sample sample : samples) {
+            columns.put(sample.heading);
+        }
+        for (SampledTrajectory.Sample sample : samples) {
+            columns.put(sample.vx);
+        }
+        for (SampledTrajectory.Sample sample : samples) {
+            columns.put(sample.vy);
+        }
+        for (SampledTrajectory.Sample sample : samples) {
+            columns.put(sample.omega);
+        }
+        for (SampledTrajectory.Sample sample : samples) {
+            columns.put(sample.curvature);
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        Files.write(temp.toPath(), buffer.array());
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Maps a compiled trajectory into memory and copies its columns out.
+     *
+     * @param file The file, written by {@link #write}.
+     * @return The trajectory, and what it was made for.
+     * @throws IOException If it can't be read, or isn't a compiled trajectory of this version.
+     */
+    public static TrajectoryFile map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < kHeaderBytes) {
+                throw new IOException(file + " is too short to be a trajectory");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != kMagic) {
+                throw new IOException(file + " isn't a compiled trajectory");
+            }
+            int version = buffer.getInt();
+            if (version != kVersion) {
+                throw new IOException(file + " is version " + version + ", not " + kVersion);
+            }
+            int n = buffer.getInt();
+            int columns = buffer.getInt();
+            if (n < 1
+                    || columns != kColumns
+                    || size != kHeaderBytes + (long) n * columns * Double.BYTES) {
+                throw new IOException(file + " is the wrong size for its header");
+            }
+            double period = buffer.getDouble();
+            double startTime = buffer.getDouble();
+            double endTime = buffer.getDouble();
+            double maxVelocity = buffer.getDouble();
+            double maxAcceleration = buffer.getDouble();
+            long sourceChecksum = buffer.getLong();
+
+            double[] times = new double[n];
+            for (int i = 0; i < n - 1; i++) {
+                times[i] = startTime + i * period;
+            }
+            times[n - 1] = endTime;
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            double[] x = column(doubles, n);
+            double[] y = column(doubles, n);
+            double[] heading = column(doubles, n);
+            double[] vx = column(doubles, n);
+            double[] vy = column(doubles, n);
+            double[] omega = column(doubles, n);
+            double[] curvature = column(doubles, n);
+            return new TrajectoryFile(
+                    new SampledTrajectory(times, x, y, heading, vx, vy, omega, curvature),
+                    period,
+                    maxVelocity,
+                    maxAcceleration,
+                    sourceChecksum);
+        }
+    }
+
+    private static double[] column(DoubleBuffer doubles, int n) {
+        double[] column = new double[n];
+        doubles.get(column);
+        return column;
+    }
+
+    /** @return The trajectory. */
+    public SampledTrajectory getTrajectory() {
+        return mTrajectory;
+    }
+
+    /** @return The timestep it was compiled at, seconds. */
+    public double getPeriod() {
+        return mPeriod;
+    }
+
+    /** @return The max velocity it was made for, meters per second. */
+    public double getMaxVelocity() {
+        return mMaxVelocity;
+    }
+
+    /** @return The max acceleration it was made for, meters per second squared. */
+    public double getMaxAcceleration() {
+        return mMaxAcceleration;
+    }
+
+    /** @return The checksum of the file it was made from. */
+    public long getSourceChecksum() {
+        return mSourceChecksum;
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.sim;
+
+import java.util.Locale;
+
+/**
+ * How one simulated run of an auto went, passed from a worker to the runner as a line of CSV.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class BatchSimResult {
+
+    /** Starts each result line a worker prints, anything else it prints is passed through. */
+    public static final String kPrefix = "RESULT,";
+
+    public static final String kHeader =
+            "Run,Start X,Start Y,Start Heading,Battery,End X,End Y,End Heading,"
+                    + "Error (m),Heading Error (deg),Odometry Error (m),Duration (s),Violations";
+
+    // Rule violations, as bits.
+    public static final int kOverTime = 1;
+    public static final int kOutOfField = 1 << 1;
+    public static final int kNoTaxi = 1 << 2;
+    private static final String[] kViolationNames = {"Over Time", "Out Of Field", "No Taxi"};
+    public static final int kViolationKinds = kViolationNames.length;
+
+    public int run;
+    // Where it started; meters, degrees CCW+.
+    public double startX;
+    public double startY;
+    public double startDegrees;
+    public double batteryVoltage;
+    // Where it really ended.
+    public double endX;
+    public double endY;
+    public double endDegrees;
+    // How far the end was from where an unrandomized run ends, relative to the start.
+    public double error;
+    public double headingError;
+    // How far the robot's own pose was from where it really ended.
+    public double odometryError;
+    public double duration;
+    public int violations;
+
+    /** @return The result as a line, starting with {@link #kPrefix}. */
+    public String toLine() {
+        return kPrefix + values() + violations;
+    }
+
+    /** @return The result as a row under {@link #kHeader}, violations by name. */
+    public String toRow() {
+        return values() + violationNames(violations);
+    }
+
+    private String values() {
+        // Always '.' for decimals, so the runner can read it back.
+        return String.format(
+                Locale.ROOT,
+                "%d,%.4f,%.4f,%.3f,%.3f,%.4f,%.4f,%.3f,%.4f,%.3f,%.4f,%.3f,",
+                run,
+                startX,
+                startY,
+                startDegrees,
+                batteryVoltage,
+                endX,
+                endY,
+                endDegrees,
+                error,
+                headingError,
+                odometryError,
+                duration);
+    }
+
+    /**
+     * Reads a result back from {@link #toLine()}.
+     *
+     * @param line The line, starting with {@link #kPrefix}.
+     * @return The result.
+     * @throws IllegalArgumentException If the line isn't a result.
+     */
+    public static BatchSimResult fromLine(String line) {
+        if (!line.startsWith(kPrefix)) {
+            throw new IllegalArgumentException("Not a result: " + line);
+        }
+        String[] values = line.substring(kPrefix.length()).split(",");
+        if (values.length != 13) {
+            throw new IllegalArgumentException("Result has the wrong amount of values: " + line);
+        }
+        BatchSimResult result = new BatchSimResult();
+        result.run = Integer.parseInt(values[0]);
+        result.startX = Double.parseDouble(values[1]);
+        result.startY = Double.parseDouble(values[2]);
+        result.startDegrees = Double.parseDouble(values[3]);
+        result.batteryVoltage = Double.parseDouble(values[4]);
+        result.endX = Double.parseDouble(values[5]);
+        result.endY = Double.parseDouble(values[6]);
+        result.endDegrees = Double.parseDouble(values[7]);
+        result.error = Double.parseDouble(values[8]);
+        result.headingError = Double.parseDouble(values[9]);
+        result.odometryError = Double.parseDouble(values[10]);
+        result.duration = Double.parseDouble(values[11]);
+        result.violations = Integer.parseInt(values[12]);
+        return result;
+    }
+
+    /** @return The names of the given violations, separated by semicolons. */
+    public static String violationNames(int violations) {
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < kViolationNames.length; i++) {
+            if ((violations & (1 << i)) != 0) {
+                if (names.length() > 0) {
+                    names.append(';');
+                }
+                names.append(kViolationNames[i]);
+            }
+        }
+        return names.toString();
+    }
+}
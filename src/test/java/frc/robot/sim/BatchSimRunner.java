@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.sim;
+
+import frc.robot.Constants.Logging;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Runs an auto hundreds of times in simulation, spread across every core, and reports how it went.
+ *
+ * <p>HAL's simulation state belongs to the whole process, so runs can't share one; the runs are
+ * split between worker JVMs ({@link BatchSimWorker}), each with its own HAL, and their results
+ * gathered here. Every run starts a little off, on a different battery, with noisy sensors.
+ *
+ * <p>Writes every run to a CSV in the simulation log directory, and prints percentiles of where the
+ * auto ended compared to an unrandomized run, how long it took, and which rules it broke.
+ *
+ * <p>Run with: {@code ./gradlew simulateAutos --args="<auto> [runs] [workers] [seed]"}
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class BatchSimRunner {
+
+    private static final int kDefaultRuns = 200;
+    private static final long kDefaultSeed = 7125;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1 || args.length > 4) {
+            System.err.println("Usage: BatchSimRunner <auto> [runs] [workers] [seed]");
+            System.err.println(
+                    "Autos: "
+                            + Arrays.stream(SimAuto.values())
+                                    .map(auto -> auto.name)
+                                    .collect(Collectors.joining(", ")));
+            System.exit(2);
+        }
+        SimAuto auto = SimAuto.fromName(args[0]);
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : kDefaultRuns;
+        int workers =
+                args.length > 2
+                        ? Integer.parseInt(args[2])
+                        : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : kDefaultSeed;
+        workers = Math.max(1, Math.min(workers, runs));
+
+        long startNanos = System.nanoTime();
+        List<BatchSimResult> results = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> readers = new ArrayList<>();
+        List<Process> processes = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            // Contiguous runs per worker, the first few take one extra.
+            int first = w * (runs / workers) + Math.min(w, runs % workers);
+            int count = runs / workers + (w < runs % workers ? 1 : 0);
+            Process process = startWorker(auto, seed, first, count);
+            processes.add(process);
+            Thread reader = new Thread(() -> read(process, results), "BatchSim Worker " + w);
+            reader.start();
+            readers.add(reader);
+        }
+        int failed = 0;
+        for (int w = 0; w < workers; w++) {
+            readers.get(w).join();
+            if (processes.get(w).waitFor() != 0) {
+                failed++;
+            }
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+        results.sort(Comparator.comparingInt(result -> result.run));
+        File reportFile =
+                new File(
+                        Logging.kSimDirectory,
+                        "batch_"
+                                + auto.name
+                                + "_"
+                                + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date())
+                                + ".csv");
+        reportFile.getParentFile().mkdirs();
+        try (PrintStream report = new PrintStream(reportFile)) {
+            report.println(BatchSimResult.kHeader);
+            for (BatchSimResult result : results) {
+                report.println(result.toRow());
+            }
+        }
+
+        System.out.printf(
+                "%s: %d of %d runs on %d workers in %.1fs%n",
+                auto.name, results.size(), runs, workers, seconds);
+        if (failed > 0) {
+            System.out.printf("  %d workers failed, see above%n", failed);
+        }
+        if (results.isEmpty()) {
+            return;
+        }
+        System.out.println("                        P50      P90      P99      Max");
+        printPercentiles("  End error (m)", results, result -> result.error);
+        printPercentiles("  Heading error (deg)", results, result -> Math.abs(result.headingError));
+        printPercentiles("  Odometry error (m)", results, result -> result.odometryError);
+        printPercentiles("  Duration (s)", results, result -> result.duration);
+        for (int i = 0; i < BatchSimResult.kViolationKinds; i++) {
+            int violation = 1 << i;
+            long count = results.stream().filter(r -> (r.violations & violation) != 0).count();
+            System.out.printf(
+                    "  %-20s %d runs (%.1f%%)%n",
+                    BatchSimResult.violationNames(violation),
+                    count,
+                    100.0 * count / results.size());
+        }
+        BatchSimResult worst =
+                Collections.max(results, Comparator.comparingDouble(result -> result.error));
+        System.out.printf(
+                "  Worst run %d, repeat it with: BatchSimWorker %s %d %d 1%n",
+                worst.run, auto.name, seed, worst.run);
+        System.out.println("  Report written to " + reportFile);
+    }
+
+    /** Starts a worker JVM, with the same classpath and native libraries as this one. */
+    private static Process startWorker(SimAuto auto, long seed, int first, int count)
+            throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder =
+                new ProcessBuilder(
+                        java,
+                        "-cp",
+                        System.getProperty("java.class.path"),
+                        "-Djava.library.path=" + System.getProperty("java.library.path"),
+                        BatchSimWorker.class.getName(),
+                        auto.name,
+                        Long.toString(seed),
+                        Integer.toString(first),
+                        Integer.toString(count));
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        return builder.start();
+    }
+
+    /** Collects a worker's results, passing on anything else it prints. */
+    private static void read(Process process, List<BatchSimResult> results) {
+        try (BufferedReader reader =
+                new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(BatchSimResult.kPrefix)) {
+                    results.add(BatchSimResult.fromLine(line));
+                } else {
+                    System.out.println(line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Lost a worker's output: " + e);
+        }
+    }
+
+    private static void printPercentiles(
+            String name, List<BatchSimResult> results, ToDoubleFunction<BatchSimResult> value) {
+        double[] values = results.stream().mapToDouble(value).sorted().toArray();
+        System.out.printf(
+                "%-22s %8.3f %8.3f %8.3f %8.3f%n",
+                name,
+                percentile(values, 0.5),
+                percentile(values, 0.9),
+                percentile(values, 0.99),
+                values[values.length - 1]);
+    }
+
+    /** @return The nearest rank percentile of sorted values. */
+    private static double percentile(double[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
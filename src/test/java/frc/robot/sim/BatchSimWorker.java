@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.sim;
+
+import static frc.robot.Constants.Simulation.kAutoLength;
+import static frc.robot.Constants.Simulation.kFieldLength;
+import static frc.robot.Constants.Simulation.kFieldWidth;
+import static frc.robot.Constants.Simulation.kHeadingNoise;
+import static frc.robot.Constants.Simulation.kMaxBatteryVoltage;
+import static frc.robot.Constants.Simulation.kMinBatteryVoltage;
+import static frc.robot.Constants.Simulation.kRobotHalfLength;
+import static frc.robot.Constants.Simulation.kStartHeadingSpread;
+import static frc.robot.Constants.Simulation.kStartPositionSpread;
+import static frc.robot.Constants.Simulation.kVelocityNoise;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.subsystems.ArmSubsys;
+import frc.robot.subsystems.DrivetrainSubsys;
+import frc.robot.subsystems.IntakeSubsys;
+import frc.robot.subsystems.io.ArmIOSim;
+import frc.robot.subsystems.io.DrivetrainIOSim;
+import frc.robot.subsystems.io.IntakeIOSim;
+import frc.tigerlib.sim.MecanumChassisSim;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Runs an auto a number of times in one JVM, started by {@link BatchSimRunner}, and prints a
+ * {@link BatchSimResult} line for each run.
+ *
+ * <p>Each run builds fresh subsystems on simulated IO, starts the robot somewhere near the auto's
+ * start with a random battery voltage and sensor noise, then steps the simulated clock a loop at a
+ * time until the auto finishes. A run's randomness only depends on the seed and its number, so any
+ * run can be repeated on its own.
+ *
+ * <p>Run with: {@code <auto> <seed> <first run> <run count>}
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class BatchSimWorker {
+
+    private static final double kLoopPeriod = 0.02;
+    // Autos still running this long are stopped, seconds.
+    private static final double kTimeout = 20;
+    // How long to wait for the driver station thread to pick up a new mode.
+    private static final long kInputTimeoutNanos = 100_000_000;
+
+    private final SimAuto mAuto;
+    // Where an unrandomized run ends, relative to its start.
+    private double mNominalX = 0;
+    private double mNominalY = 0;
+    private double mNominalDegrees = 0;
+
+    /**
+     * Constructs a BatchSimWorker, HAL must be initialized.
+     *
+     * @param auto The auto to run.
+     */
+    public BatchSimWorker(SimAuto auto) {
+        mAuto = auto;
+        // What every other run is compared against.
+        BatchSimResult nominal = run(-1, null);
+        double[] moved = moved(nominal);
+        mNominalX = moved[0];
+        mNominalY = moved[1];
+        mNominalDegrees = moved[2];
+    }
+
+    /**
+     * Runs the auto once.
+     *
+     * @param run The run's number, reported with its result.
+     * @param random Where the run's randomness comes from, null for an unrandomized run.
+     * @return How the run went.
+     */
+    public BatchSimResult run(int run, Random random) {
+        BatchSimResult result = new BatchSimResult();
+        result.run = run;
+        result.startX = mAuto.startX + spread(random, kStartPositionSpread);
+        result.startY = mAuto.startY + spread(random, kStartPositionSpread);
+        result.startDegrees = mAuto.startDegrees + spread(random, kStartHeadingSpread);
+        result.batteryVoltage =
+                random != null
+                        ? kMinBatteryVoltage
+                                + random.nextDouble() * (kMaxBatteryVoltage - kMinBatteryVoltage)
+                        : 12;
+
+        DrivetrainIOSim io = new DrivetrainIOSim();
+        io.setBatteryVoltage(result.batteryVoltage);
+        io.setSensorNoise(random, kVelocityNoise, kHeadingNoise);
+        MecanumChassisSim chassis = io.getChassis();
+        chassis.setPose(result.startX, result.startY, Math.toRadians(result.startDegrees));
+        // The gyro was zeroed facing where the robot starts.
+        io.resetHeading();
+
+        DrivetrainSubsys drivetrain = new DrivetrainSubsys(io);
+        ArmSubsys arm = new ArmSubsys(new ArmIOSim());
+        IntakeSubsys intake = new IntakeSubsys(new IntakeIOSim());
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+
+        // A disabled loop so everything has read its sensors, then tell odometry where we are.
+        setEnabled(false);
+        scheduler.run();
+        drivetrain.resetOdometry(
+                new Pose2d(
+                        result.startX,
+                        result.startY,
+                        Rotation2d.fromDegrees(result.startDegrees)));
+
+        setEnabled(true);
+        Command command = mAuto.factory.create(drivetrain, arm, intake);
+        command.schedule();
+        double time = 0;
+        while (command.isScheduled() && time < kTimeout) {
+            SimHooks.stepTiming(kLoopPeriod);
+            time += kLoopPeriod;
+            scheduler.run();
+            if (chassis.getX() < kRobotHalfLength
+                    || chassis.getX() > kFieldLength - kRobotHalfLength
+                    || chassis.getY() < kRobotHalfLength
+                    || chassis.getY() > kFieldWidth - kRobotHalfLength) {
+                result.violations |= BatchSimResult.kOutOfField;
+            }
+        }
+
+        result.duration = time;
+        result.endX = chassis.getX();
+        result.endY = chassis.getY();
+        result.endDegrees = Math.toDegrees(chassis.getHeadingRadians());
+        Pose2d pose = drivetrain.getPose();
+        result.odometryError = Math.hypot(pose.getX() - result.endX, pose.getY() - result.endY);
+
+        double[] moved = moved(result);
+        result.error = Math.hypot(moved[0] - mNominalX, moved[1] - mNominalY);
+        result.headingError = Math.IEEEremainder(moved[2] - mNominalDegrees, 360);
+        if (time > kAutoLength) {
+            result.violations |= BatchSimResult.kOverTime;
+        }
+        if (Math.hypot(moved[0], moved[1]) < mAuto.taxiDistance) {
+            result.violations |= BatchSimResult.kNoTaxi;
+        }
+
+        // Leave the scheduler empty for the next run.
+        scheduler.cancelAll();
+        setEnabled(false);
+        scheduler.unregisterSubsystem(drivetrain, arm, intake);
+        return result;
+    }
+
+    /** @return How far a run moved and turned, relative to its start; x, y, and degrees. */
+    private static double[] moved(BatchSimResult result) {
+        double cos = Math.cos(Math.toRadians(result.startDegrees));
+        double sin = Math.sin(Math.toRadians(result.startDegrees));
+        double dx = result.endX - result.startX;
+        double dy = result.endY - result.startY;
+        return new double[] {
+            dx * cos + dy * sin, -dx * sin + dy * cos, result.endDegrees - result.startDegrees
+        };
+    }
+
+    /** @return A uniform random value in [-spread, spread], or 0 without a random. */
+    private static double spread(Random random, double spread) {
+        return random != null ? (random.nextDouble() * 2 - 1) * spread : 0;
+    }
+
+    /** Enables or disables the simulated robot in autonomous, and waits for it to take effect. */
+    private static void setEnabled(boolean enabled) {
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setEnabled(enabled);
+        DriverStationSim.notifyNewData();
+        long deadline = System.nanoTime() + kInputTimeoutNanos;
+        while (System.nanoTime() < deadline && DriverStation.isEnabled() != enabled) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            System.err.println("Usage: BatchSimWorker <auto> <seed> <first run> <run count>");
+            System.exit(2);
+        }
+        SimAuto auto = SimAuto.fromName(args[0]);
+        long seed = Long.parseLong(args[1]);
+        int first = Integer.parseInt(args[2]);
+        int count = Integer.parseInt(args[3]);
+
+        HAL.initialize(500, 0);
+        SimHooks.pauseTiming();
+        DriverStationSim.setDsAttached(true);
+
+        BatchSimWorker worker = new BatchSimWorker(auto);
+        for (int run = first; run < first + count; run++) {
+            // Neighbouring seeds start java.util.Random off alike, so mix them first.
+            Random random = new Random(new SplittableRandom(seed + run).nextLong());
+            System.out.println(worker.run(run, random).toLine());
+        }
+        System.out.flush();
+        // HAL leaves threads running.
+        System.exit(0);
+    }
+}
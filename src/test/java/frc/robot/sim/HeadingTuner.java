@@ -0,0 +1,360 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.sim;
+
+import static frc.robot.Constants.Drivetrain.kDeadband;
+import static frc.robot.Constants.Drivetrain.kHeadingSettleTime;
+import static frc.robot.Constants.Drivetrain.kMaxHeadingTurn;
+import static frc.robot.Constants.Drivetrain.kSensitivity;
+import static frc.robot.Constants.Drivetrain.kXSlewRate;
+import static frc.robot.Constants.Drivetrain.kYSlewRate;
+import static frc.robot.Constants.Drivetrain.kZPID;
+import static frc.robot.Constants.Drivetrain.kZSlewRate;
+import static frc.robot.Constants.Simulation.kHeadingNoise;
+import static frc.robot.Constants.Simulation.kVelocityNoise;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.wpilibj.drive.MecanumDrive.WheelSpeeds;
+import frc.robot.subsystems.io.DrivetrainIO;
+import frc.robot.subsystems.io.DrivetrainIOSim;
+import frc.tigerlib.control.DriveInput;
+import frc.tigerlib.control.HeadingHold;
+import frc.tigerlib.input.ShapingCurve;
+import frc.tigerlib.kinematics.MecanumDriveIK;
+import frc.tigerlib.math.NelderMead;
+import frc.tigerlib.sim.MecanumChassisSim;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Searches for heading protection gains ({@link frc.robot.Constants.Drivetrain#kZPID}) by knocking
+ * a simulated robot off its heading and scoring how it recovers.
+ *
+ * <p>Drives the simulated chassis, with noisy sensors, through the same {@link DriveInput} as
+ * {@link frc.robot.subsystems.DrivetrainSubsys#drive}; slew, shaping and heading hold included.
+ * Each robot sits still, drives or strafes until it's holding its heading, then gets knocked. A
+ * coarse grid of gains is scored across every core, then the best few are refined with {@link
+ * NelderMead}. The best gains are printed ready to paste into Constants.
+ *
+ * <p>The simulation needs no HAL, so everything runs in this JVM. The drive Spark MAXs' velocity
+ * gain isn't searched; heading protection drives them by duty cycle.
+ *
+ * <p>Run with: {@code ./gradlew tuneHeading}
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class HeadingTuner {
+
+    private static final double kLoopPeriod = 0.02;
+    // How long the robot drives before it's knocked, long enough to get up to speed and start
+    // holding its heading; seconds.
+    private static final double kWarmup = 1;
+    // How long each disturbance is watched, seconds.
+    private static final double kDuration = 3;
+    // Within this many degrees counts as settled.
+    private static final double kSettleBand = 1;
+    // The sensor noise is the same for every set of gains, so scores are comparable.
+    private static final long kSeed = 7125;
+
+    // Cost weights; seconds to settle, plus these per degree of overshoot, per oscillation, per
+    // degree of steady state error, and per unit of turn speed change each loop.
+    private static final double kOvershootWeight = 0.02;
+    private static final double kOscillationWeight = 0.1;
+    private static final double kSteadyStateWeight = 0.5;
+    private static final double kChatterWeight = 2;
+
+    // The grid; P, I and D values tried.
+    private static final double[] kGridP = {0.005, 0.008, 0.012, 0.018, 0.027, 0.04, 0.06};
+    private static final double[] kGridI = {0, 0.002, 0.005};
+    private static final double[] kGridD = {0, 0.0005, 0.001, 0.002, 0.004};
+    // How many of the best grid points are refined.
+    private static final int kRefineCount = 3;
+    private static final int kRefineEvaluations = 80;
+    // How many of the best gains are printed.
+    private static final int kTableSize = 10;
+    // Gains closer than this, in the searches' units, are shown once in the table.
+    private static final double kDistinctGains = 0.25;
+
+    /** A disturbance; the robot gets knocked off its heading while driving. */
+    private static class Scenario {
+        final String name;
+        // drive() arguments while it happens.
+        final double x;
+        final double y;
+        final double knockDegrees;
+
+        Scenario(String name, double x, double y, double knockDegrees) {
+            this.name = name;
+            this.x = x;
+            this.y = y;
+            this.knockDegrees = knockDegrees;
+        }
+    }
+
+    private static final Scenario[] kScenarios = {
+        new Scenario("still", 0, 0, 20),
+        new Scenario("driving", 0.6, 0, 20),
+        new Scenario("strafing", 0, 0.6, -20)
+    };
+
+    /** How a set of gains did, summed over every scenario. */
+    private static class Score {
+        final double p;
+        final double i;
+        final double d;
+        double settleTime = 0;
+        double overshoot = 0;
+        int oscillations = 0;
+        double steadyState = 0;
+        double chatter = 0;
+        double cost = 0;
+
+        Score(double p, double i, double d) {
+            this.p = p;
+            this.i = i;
+            this.d = d;
+        }
+    }
+
+    /**
+     * Scores a set of gains.
+     *
+     * @param p The proportional gain.
+     * @param i The integral gain.
+     * @param d The derivative gain.
+     * @return How it did; lower cost is better.
+     */
+    public static Score evaluate(double p, double i, double d) {
+        Score score = new Score(p, i, d);
+        for (Scenario scenario : kScenarios) {
+            simulate(scenario, score);
+        }
+        score.cost =
+                score.settleTime
+                        + score.overshoot * kOvershootWeight
+                        + score.oscillations * kOscillationWeight
+                        + score.steadyState * kSteadyStateWeight
+                        + score.chatter * kChatterWeight;
+        return score;
+    }
+
+    /** Runs one scenario, adding how it went to the score. */
+    private static void simulate(Scenario scenario, Score score) {
+        double[] time = {0};
+        DrivetrainIOSim io = new DrivetrainIOSim(() -> time[0]);
+        io.setSensorNoise(new Random(kSeed), kVelocityNoise, kHeadingNoise);
+        io.setBrakeMode(true);
+        DrivetrainIO.Inputs inputs = new DrivetrainIO.Inputs();
+        MecanumDriveIK ik = new MecanumDriveIK();
+        WheelSpeeds speeds = new WheelSpeeds();
+
+        // The drivetrain's own input path, with its slew rates, curve and settle time.
+        DriveInput input =
+                new DriveInput(
+                        kXSlewRate,
+                        kYSlewRate,
+                        kZSlewRate,
+                        kHeadingSettleTime,
+                        ShapingCurve.power(kDeadband, kSensitivity));
+        HeadingHold hold = input.getHeadingHold();
+
+        int warmupLoops = (int) Math.round(kWarmup / kLoopPeriod);
+        int loops = (int) Math.round(kDuration / kLoopPeriod);
+        int steadyLoops = loops / 6;
+        double lastOutside = 0;
+        double lastSign = Math.signum(scenario.knockDegrees);
+        boolean left = false;
+        double lastTurn = 0;
+        try (PIDController pid = new PIDController(score.p, score.i, score.d, kLoopPeriod)) {
+            for (int loop = -warmupLoops; loop < loops; loop++) {
+                if (loop == 0) {
+                    // Up to speed and holding its heading, then it gets knocked.
+                    MecanumChassisSim chassis = io.getChassis();
+                    chassis.setPose(
+                            chassis.getX(),
+                            chassis.getY(),
+                            chassis.getHeadingRadians() + Math.toRadians(scenario.knockDegrees));
+                }
+                time[0] += kLoopPeriod;
+                io.updateInputs(inputs);
+                ik.setHeading(inputs.headingDegrees);
+
+                // Same as drive(), with the driver not turning.
+                boolean holdHeading =
+                        input.update(time[0], scenario.x, scenario.y, 0, inputs.headingDegrees);
+                double turn =
+                        DriveInput.calculateWheels(
+                                input.getXSpeed(),
+                                input.getYSpeed(),
+                                input.getZSpeed(),
+                                holdHeading,
+                                input.getDesiredDegrees(),
+                                true,
+                                inputs.headingDegrees,
+                                kMaxHeadingTurn,
+                                pid,
+                                ik,
+                                speeds);
+                io.setDutyCycles(
+                        speeds.frontLeft, speeds.rearLeft, speeds.frontRight, speeds.rearRight);
+                if (loop < 0) {
+                    continue;
+                }
+
+                // Scored on where the robot really points, not the noisy gyro; + is still off the
+                // way it was knocked.
+                double error =
+                        -HeadingHold.errorDegrees(
+                                hold.getDesiredDegrees(),
+                                Math.toDegrees(io.getChassis().getHeadingRadians()));
+                if (Math.abs(error) > kSettleBand) {
+                    lastOutside = time[0];
+                }
+                // Overshoot is error past the desired heading, the other way from the knock.
+                score.overshoot =
+                        Math.max(score.overshoot, -Math.signum(scenario.knockDegrees) * error);
+                // An oscillation is swinging out of the band to the other side.
+                if (Math.abs(error) > kSettleBand && Math.signum(error) != lastSign) {
+                    if (left) {
+                        score.oscillations++;
+                    }
+                    lastSign = Math.signum(error);
+                }
+                left |= Math.abs(error) > kSettleBand;
+                if (loop >= loops - steadyLoops) {
+                    score.steadyState += Math.abs(error) / steadyLoops;
+                }
+                score.chatter += Math.abs(turn - lastTurn) / loops;
+                lastTurn = turn;
+            }
+        }
+        score.settleTime += lastOutside;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long startNanos = System.nanoTime();
+
+        // Coarse grid, every point in parallel.
+        List<Future<Score>> gridFutures = new ArrayList<>();
+        for (double p : kGridP) {
+            for (double i : kGridI) {
+                for (double d : kGridD) {
+                    gridFutures.add(executor.submit(() -> evaluate(p, i, d)));
+                }
+            }
+        }
+        List<Score> scores = Collections.synchronizedList(new ArrayList<>());
+        for (Future<Score> future : gridFutures) {
+            scores.add(future.get());
+        }
+        scores.sort(Comparator.comparingDouble(score -> score.cost));
+        int gridCount = scores.size();
+
+        // Refine the best few, each search on its own thread. Searches in units of the smallest
+        // nonzero grid value so each gain moves about as easily, and negative gains cost the most.
+        List<Future<?>> refineFutures = new ArrayList<>();
+        for (Score start : new ArrayList<>(scores.subList(0, kRefineCount))) {
+            refineFutures.add(
+                    executor.submit(
+                            () -> {
+                                NelderMead search =
+                                        new NelderMead(
+                                                point -> {
+                                                    if (point[0] < 0
+                                                            || point[1] < 0
+                                                            || point[2] < 0) {
+                                                        return Double.MAX_VALUE;
+                                                    }
+                                                    Score score =
+                                                            evaluate(
+                                                                    point[0] * kGridP[0],
+                                                                    point[1] * kGridI[1],
+                                                                    point[2] * kGridD[1]);
+                                                    scores.add(score);
+                                                    return score.cost;
+                                                });
+                                search.setMaxEvaluations(kRefineEvaluations);
+                                search.minimize(
+                                        new double[] {
+                                            start.p / kGridP[0],
+                                            start.i / kGridI[1],
+                                            start.d / kGridD[1]
+                                        },
+                                        new double[] {1, 1, 1});
+                            }));
+        }
+        for (Future<?> future : refineFutures) {
+            future.get();
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+        List<Score> ranked = new ArrayList<>(scores);
+        ranked.sort(Comparator.comparingDouble(score -> score.cost));
+        Score current = evaluate(kZPID.getP(), kZPID.getI(), kZPID.getD());
+
+        System.out.printf(
+                "Scored %d grid points and %d refinements on %d threads in %.1fs%n",
+                gridCount, ranked.size() - gridCount, threads, seconds);
+        StringJoiner scenarios = new StringJoiner(", ", "Knocked off heading while ", "");
+        for (Scenario scenario : kScenarios) {
+            scenarios.add(scenario.name);
+        }
+        System.out.println(scenarios + "; totals below.");
+        System.out.println(
+                "  Rank        P        I        D   Settle s  Overshoot  Osc  Steady  Chatter"
+                        + "    Cost");
+        // Refinements end up clustered, only show distinct gains.
+        List<Score> table = new ArrayList<>();
+        for (Score score : ranked) {
+            if (table.size() == kTableSize) {
+                break;
+            }
+            if (table.stream().noneMatch(listed -> similar(listed, score))) {
+                table.add(score);
+                print(Integer.toString(table.size()), score);
+            }
+        }
+        print("Now", current);
+
+        Score best = ranked.get(0);
+        System.out.println("Recommended, for Constants.Drivetrain:");
+        System.out.printf(
+                "        public static final PIDController kZPID = new PIDController(%.5f, %.5f,"
+                        + " %.5f);%n",
+                best.p, best.i, best.d);
+    }
+
+    /** @return Whether every gain is within {@link #kDistinctGains} of the other's. */
+    private static boolean similar(Score a, Score b) {
+        return Math.abs(a.p - b.p) / kGridP[0] < kDistinctGains
+                && Math.abs(a.i - b.i) / kGridI[1] < kDistinctGains
+                && Math.abs(a.d - b.d) / kGridD[1] < kDistinctGains;
+    }
+
+    private static void print(String rank, Score score) {
+        System.out.printf(
+                "  %4s %8.5f %8.5f %8.5f %10.2f %10.2f %4d %7.3f %8.4f %7.3f%n",
+                rank,
+                score.p,
+                score.i,
+                score.d,
+                score.settleTime,
+                score.overshoot,
+                score.oscillations,
+                score.steadyState,
+                score.chatter,
+                score.cost);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.sim;
+
+import static frc.robot.Constants.Simulation.kTarmacDepth;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.commands.auto.ExitTarmacCmd;
+import frc.robot.subsystems.ArmSubsys;
+import frc.robot.subsystems.DrivetrainSubsys;
+import frc.robot.subsystems.IntakeSubsys;
+
+/**
+ * The autos {@link BatchSimRunner} can run, where each starts on the field, and how far it has to
+ * go to leave the tarmac.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public enum SimAuto {
+    // Against the fender, facing the hub.
+    kExitTarmac("ExitTarmac", ExitTarmacCmd::new, 6.9, 4.1, 0, kTarmacDepth);
+
+    /** Makes an auto's command. */
+    public interface Factory {
+        Command create(DrivetrainSubsys drivetrain, ArmSubsys arm, IntakeSubsys intake);
+    }
+
+    /** The name given on the command line. */
+    public final String name;
+
+    public final Factory factory;
+    // Where it starts on the field; meters, and degrees CCW+.
+    public final double startX;
+    public final double startY;
+    public final double startDegrees;
+    // How far it has to end from its start to earn taxi points, meters.
+    public final double taxiDistance;
+
+    SimAuto(
+            String name,
+            Factory factory,
+            double startX,
+            double startY,
+            double startDegrees,
+            double taxiDistance) {
+        this.name = name;
+        this.factory = factory;
+        this.startX = startX;
+        this.startY = startY;
+        this.startDegrees = startDegrees;
+        this.taxiDistance = taxiDistance;
+    }
+
+    /**
+     * Finds an auto by name, ignoring case.
+     *
+     * @param name The auto's name.
+     * @return The auto.
+     * @throws IllegalArgumentException If there isn't one by that name.
+     */
+    public static SimAuto fromName(String name) {
+        for (SimAuto auto : values()) {
+            if (auto.name.equalsIgnoreCase(name)) {
+                return auto;
+            }
+        }
+        throw new IllegalArgumentException("No auto named \"" + name + "\"");
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.sim;
+
+import static frc.robot.Constants.Drivetrain.kCompiledPathExtension;
+import static frc.robot.Constants.Drivetrain.kCompiledPathPeriod;
+import static frc.robot.Constants.Drivetrain.kMaxAutoAcceleration;
+import static frc.robot.Constants.Drivetrain.kMaxAutoVelocity;
+import static frc.robot.Constants.Drivetrain.kPathExtension;
+
+import frc.robot.RobotContainer;
+import frc.tigerlib.trajectory.SampledTrajectory;
+import frc.tigerlib.trajectory.TrajectoryCache;
+import frc.tigerlib.trajectory.TrajectoryFile;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compiles every deployed PathPlanner path into a {@link TrajectoryFile}, so the robot maps it at
+ * startup instead of generating it.
+ *
+ * <p>Paths are generated for the auto constraints in Constants and sampled every {@link
+ * frc.robot.Constants.Drivetrain#kCompiledPathPeriod}, with a checksum of the path they came from.
+ * Any compiled files left from paths that are gone are deleted. If a path or the constraints
+ * change without recompiling, the robot notices and generates that path itself, so compiling is
+ * never needed to deploy.
+ *
+ * <p>PathPlanner only reads paths from WPILib's deploy directory, which asks HAL where it's
+ * running, so this still needs the desktop natives; the paths directory given must be the
+ * deployed one. Kept with the tests so it stays out of the robot jar.
+ *
+ * <p>Run with: {@code ./gradlew compileTrajectories}, deploy and simulateJava run it first.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class TrajectoryCompiler {
+
+    /**
+     * Compiles every path.
+     *
+     * @param args The PathPlanner paths directory, then the directory to write to.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TrajectoryCompiler <paths directory> <output directory>");
+            System.exit(2);
+        }
+        File paths = new File(args[0]);
+        File output = new File(args[1]);
+        if (!output.isDirectory() && !output.mkdirs()) {
+            throw new IOException("Could not make " + output);
+        }
+        for (String stale : TrajectoryCache.findNames(output, kCompiledPathExtension)) {
+            File file = new File(output, stale + kCompiledPathExtension);
+            if (!file.delete()) {
+                throw new IOException("Could not delete " + file);
+            }
+        }
+
+        List<String> names = TrajectoryCache.findNames(paths, kPathExtension);
+        int failed = 0;
+        long allStart = System.nanoTime();
+        for (String name : names) {
+            long start = System.nanoTime();
+            try {
+                SampledTrajectory trajectory = RobotContainer.generatePath(name);
+                File file = new File(output, name + kCompiledPathExtension);
+                TrajectoryFile.write(
+                        trajectory,
+                        kCompiledPathPeriod,
+                        kMaxAutoVelocity,
+                        kMaxAutoAcceleration,
+                        TrajectoryFile.checksum(new File(paths, name + kPathExtension)),
+                        file);
+                System.out.printf(
+                        Locale.ROOT,
+                        "  %s: %.2f s, %d states, %.1f KiB, %.1f ms%n",
+                        name,
+                        trajectory.getTotalTime(),
+                        trajectory.size(),
+                        file.length() / 1024.0,
+                        (System.nanoTime() - start) / 1e6);
+            } catch (IOException | RuntimeException e) {
+                failed++;
+                System.err.println("  " + name + ": failed, " + e.getMessage());
+            }
+        }
+        System.out.printf(
+                Locale.ROOT,
+                "Compiled %d of %d paths into %s in %.1f ms%n",
+                names.size() - failed,
+                names.size(),
+                output,
+                (System.nanoTime() - allStart) / 1e6);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.sim;
+
+import static frc.robot.Constants.Drivetrain.kCompiledPathExtension;
+import static frc.robot.Constants.Drivetrain.kMaxAutoAcceleration;
+import static frc.robot.Constants.Drivetrain.kMaxAutoVelocity;
+
+import com.pathplanner.lib.PathPlanner;
+import frc.robot.RobotContainer;
+import frc.tigerlib.trajectory.TrajectoryCache;
+import frc.tigerlib.trajectory.TrajectoryFile;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares loading deployed paths with PathPlanner against mapping their compiled {@link
+ * TrajectoryFile}s.
+ *
+ * <p>For each path and each way of loading it: the first load in this JVM, like the robot's
+ * startup; the fastest of several more once warm; the bytes allocated per load, most of it garbage
+ * the robot's collector has to clear; and the heap kept per loaded trajectory. PathPlanner is
+ * measured on its own, and with the conversion to a {@link
+ * frc.tigerlib.trajectory.SampledTrajectory} the robot does after it.
+ *
+ * <p>PathPlanner loads from the deploy directory, so like {@link TrajectoryCompiler} this needs the
+ * desktop natives. Kept with the tests so it stays out of the robot jar.
+ *
+ * <p>Run with: {@code ./gradlew benchmarkTrajectories}, which compiles them first.
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class TrajectoryLoadBenchmark {
+
+    // Warm loads timed per path, the fastest is kept.
+    private static final int kRounds = 20;
+    // Copies held at once to measure retained heap.
+    private static final int kCopies = 20;
+
+    /** One way of loading a path. */
+    private interface Loader {
+        Object load(String name) throws IOException;
+    }
+
+    // Where the compiled paths are, from the arguments.
+    private static File sCompiled;
+
+    private static final String[] kLoaderNames = {"loadPath", "loadPath+sample", "mapped"};
+    private static final Loader[] kLoaders = {
+        name -> PathPlanner.loadPath(name, kMaxAutoVelocity, kMaxAutoAcceleration),
+        RobotContainer::generatePath,
+        name ->
+                TrajectoryFile.map(new File(sCompiled, name + kCompiledPathExtension))
+                        .getTrajectory()
+    };
+
+    // Keeps loaded copies reachable while the heap is measured.
+    private static volatile Object sSink;
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args The directory of compiled paths.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: TrajectoryLoadBenchmark <compiled paths directory>");
+            System.exit(2);
+        }
+        sCompiled = new File(args[0]);
+        List<String> names = TrajectoryCache.findNames(sCompiled, kCompiledPathExtension);
+        if (names.isEmpty()) {
+            System.out.println(
+                    "No compiled paths to compare, add some to deploy/pathplanner and run"
+                            + " ./gradlew compileTrajectories");
+            return;
+        }
+
+        // Startup first, before anything is warm; every path one way, then the next way.
+        double[][] cold = new double[kLoaders.length][names.size()];
+        for (int l = 0; l < kLoaders.length; l++) {
+            for (int n = 0; n < names.size(); n++) {
+                long start = System.nanoTime();
+                sSink = kLoaders[l].load(names.get(n));
+                cold[l][n] = (System.nanoTime() - start) / 1e6;
+            }
+        }
+
+        System.out.printf(
+                Locale.ROOT,
+                "%-24s %-16s %10s %10s %12s %12s%n",
+                "Path",
+                "Load",
+                "Cold ms",
+                "Warm ms",
+                "Alloc KiB",
+                "Kept KiB");
+        double[] coldTotals = new double[kLoaders.length];
+        for (int n = 0; n < names.size(); n++) {
+            String name = names.get(n);
+            for (int l = 0; l < kLoaders.length; l++) {
+                Loader loader = kLoaders[l];
+                double warm = Double.POSITIVE_INFINITY;
+                long allocated = Long.MAX_VALUE;
+                for (int i = 0; i < kRounds; i++) {
+                    long bytesBefore = getAllocatedBytes();
+                    long start = System.nanoTime();
+                    sSink = loader.load(name);
+                    warm = Math.min(warm, (System.nanoTime() - start) / 1e6);
+                    allocated = Math.min(allocated, getAllocatedBytes() - bytesBefore);
+                }
+                coldTotals[l] += cold[l][n];
+                System.out.printf(
+                        Locale.ROOT,
+                        "%-24s %-16s %10.2f %10.3f %12.1f %12.1f%n",
+                        name,
+                        kLoaderNames[l],
+                        cold[l][n],
+                        warm,
+                        allocated / 1024.0,
+                        getRetainedBytes(loader, name) / 1024.0);
+            }
+        }
+        System.out.println();
+        for (int l = 0; l < kLoaders.length; l++) {
+            System.out.printf(
+                    Locale.ROOT,
+                    "Startup, every path with %s: %.1f ms%n",
+                    kLoaderNames[l],
+                    coldTotals[l]);
+        }
+    }
+
+    /** @return Bytes this thread has allocated so far, or 0 if the JVM can't tell. */
+    private static long getAllocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /** @return Roughly how much heap one loaded copy of a path keeps, bytes. */
+    private static long getRetainedBytes(Loader loader, String name) throws IOException {
+        sSink = null;
+        long before = getUsedHeap();
+        Object[] copies = new Object[kCopies];
+        for (int i = 0; i < kCopies; i++) {
+            copies[i] = loader.load(name);
+        }
+        long after = getUsedHeap();
+        sSink = copies;
+        return Math.max(0, after - before) / kCopies;
+    }
+
+    private static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
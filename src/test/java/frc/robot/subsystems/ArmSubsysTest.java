@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.robot.subsystems.io.ArmIOSim;
+import frc.tigerlib.can.MatchMode;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ArmSubsysTest {
+
+    private static final double kDelta = 1e-9;
+    // The simulated arm takes 1.5 seconds end to end, give it 2.
+    private static final int kTravelLoops = 100;
+
+    @BeforeClass
+    public static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.notifyNewData();
+    }
+
+    @Test
+    public void startsDown() {
+        ArmSubsys arm = new ArmSubsys(new ArmIOSim());
+        arm.periodic();
+        assertTrue(arm.isDown());
+        assertFalse(arm.isUp());
+        assertEquals(0, arm.getOutput(), kDelta);
+        assertEquals(MatchMode.kTeleop, arm.mMode);
+    }
+
+    @Test
+    public void raisesAndLowers() {
+        ArmSubsys arm = new ArmSubsys(new ArmIOSim());
+        arm.raise();
+        arm.periodic();
+        assertEquals(1, arm.getOutput(), kDelta);
+        // Off the bottom, nowhere near the top.
+        assertTrue(arm.isNotDown());
+        assertTrue(arm.isNotUp());
+
+        for (int i = 0; i < kTravelLoops; i++) {
+            arm.periodic();
+        }
+        assertTrue(arm.isUp());
+        assertFalse(arm.isDown());
+        double top = arm.mInputs.position;
+        assertTrue(top > 0);
+
+        arm.holdUp();
+        arm.periodic();
+        assertEquals(0.1, arm.getOutput(), kDelta);
+        assertTrue(arm.isUp());
+
+        arm.lower();
+        for (int i = 0; i < kTravelLoops; i++) {
+            arm.periodic();
+        }
+        assertTrue(arm.isDown());
+        assertFalse(arm.isUp());
+        assertEquals(0, arm.mInputs.position, kDelta);
+
+        arm.disable();
+        arm.periodic();
+        assertEquals(0, arm.getOutput(), kDelta);
+    }
+
+    @Test
+    public void resetsPositionAtTheTop() {
+        ArmIOSim io = new ArmIOSim();
+        ArmSubsys arm = new ArmSubsys(io);
+        arm.raise();
+        for (int i = 0; i < kTravelLoops; i++) {
+            arm.periodic();
+        }
+        io.resetPosition();
+        arm.periodic();
+        assertEquals(0, arm.mInputs.position, kDelta);
+
+        // Down counts negative from the top.
+        arm.lower();
+        for (int i = 0; i < kTravelLoops; i++) {
+            arm.periodic();
+        }
+        assertTrue(arm.mInputs.position < 0);
+    }
+}
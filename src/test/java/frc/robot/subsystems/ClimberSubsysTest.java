@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.subsystems.io.ClimberIOSim;
+import frc.tigerlib.can.MatchMode;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ClimberSubsysTest {
+
+    private static final double kDelta = 1e-9;
+
+    @BeforeClass
+    public static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.notifyNewData();
+        // The rate limiter reads the clock, step it one loop at a time.
+        SimHooks.pauseTiming();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        SimHooks.resumeTiming();
+    }
+
+    /** Winches or rappels for a loop, then runs periodic. */
+    private static void step(ClimberSubsys climber, boolean winch) {
+        SimHooks.stepTiming(0.02);
+        if (winch) {
+            climber.winch();
+        } else {
+            climber.rappel();
+        }
+        climber.periodic();
+    }
+
+    @Test
+    public void rampsUpToFullOutput() {
+        ClimberSubsys climber = new ClimberSubsys(new ClimberIOSim());
+        climber.disable();
+        climber.periodic();
+        assertEquals(0, climber.getOutput(), kDelta);
+        assertEquals(MatchMode.kTeleop, climber.mMode);
+
+        // Limited to 2 per second, so a loop's worth at a time.
+        double last = 0;
+        for (int i = 0; i < 10; i++) {
+            step(climber, true);
+            assertTrue(climber.getOutput() > last);
+            assertTrue(climber.getOutput() < 1);
+            last = climber.getOutput();
+        }
+        for (int i = 0; i < 50; i++) {
+            step(climber, true);
+        }
+        assertEquals(1, climber.getOutput(), kDelta);
+    }
+
+    @Test
+    public void disablingRestartsTheRamp() {
+        ClimberSubsys climber = new ClimberSubsys(new ClimberIOSim());
+        climber.disable();
+        for (int i = 0; i < 60; i++) {
+            step(climber, true);
+        }
+        assertEquals(1, climber.getOutput(), kDelta);
+
+        climber.disable();
+        climber.periodic();
+        assertEquals(0, climber.getOutput(), kDelta);
+
+        // Rappels from a stop, not from full winch.
+        step(climber, false);
+        assertTrue(climber.getOutput() < 0);
+        assertTrue(climber.getOutput() > -0.5);
+        for (int i = 0; i < 60; i++) {
+            step(climber, false);
+        }
+        assertEquals(-1, climber.getOutput(), kDelta);
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.subsystems.io.DrivetrainIOSim;
+import frc.tigerlib.can.MatchMode;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DrivetrainSubsysTest {
+
+    private static final double kDelta = 1e-9;
+
+    @BeforeClass
+    public static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.notifyNewData();
+        // The sim steps its physics up to the clock, step it one loop at a time.
+        SimHooks.pauseTiming();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        SimHooks.resumeTiming();
+    }
+
+    /** Runs a loop of driving, the way the scheduler would. */
+    private static void step(DrivetrainSubsys drivetrain, double x, double y, double z) {
+        SimHooks.stepTiming(0.02);
+        drivetrain.periodic();
+        drivetrain.drive(x, y, z);
+    }
+
+    @Test
+    public void drivesForward() {
+        DrivetrainSubsys drivetrain = new DrivetrainSubsys(new DrivetrainIOSim());
+        drivetrain.resetOdometry(new Pose2d());
+        for (int i = 0; i < 75; i++) {
+            step(drivetrain, 1, 0, 0);
+        }
+        assertEquals(MatchMode.kTeleop, drivetrain.mMode);
+
+        // Every wheel turns forward when driving straight.
+        assertTrue(drivetrain.getFlVelocity() > 1);
+        assertTrue(drivetrain.getRlVelocity() > 1);
+        assertTrue(drivetrain.getFrVelocity() > 1);
+        assertTrue(drivetrain.getRrVelocity() > 1);
+        assertEquals(1, drivetrain.getCommandedSpeeds().frontLeft, 0.05);
+        assertEquals(1, drivetrain.getCommandedSpeeds().rearRight, 0.05);
+
+        Pose2d pose = drivetrain.getPose();
+        assertTrue(pose.getX() > 1);
+        assertEquals(0, pose.getY(), 0.1);
+        assertEquals(0, drivetrain.getHeadingDegrees(), 2);
+        // Without vision the estimate only has the wheels and gyro to go on, same as odometry.
+        assertEquals(pose.getX(), drivetrain.getOdometryPose().getX(), 0.05 * pose.getX());
+    }
+
+    @Test
+    public void stopsWhenDisabled() {
+        DrivetrainSubsys drivetrain = new DrivetrainSubsys(new DrivetrainIOSim());
+        for (int i = 0; i < 50; i++) {
+            step(drivetrain, 1, 0, 0);
+        }
+        assertTrue(drivetrain.getFlVelocity() > 1);
+
+        drivetrain.disable();
+        for (int i = 0; i < 50; i++) {
+            SimHooks.stepTiming(0.02);
+            drivetrain.periodic();
+        }
+        // Brake mode, while enabled.
+        assertEquals(0, drivetrain.getFlVelocity(), 0.2);
+        assertEquals(0, drivetrain.getRrVelocity(), 0.2);
+    }
+
+    @Test
+    public void turnsAndHoldsTheNewHeading() {
+        DrivetrainSubsys drivetrain = new DrivetrainSubsys(new DrivetrainIOSim());
+        drivetrain.periodic();
+        // Clockwise positive in, counter clockwise positive out.
+        for (int i = 0; i < 40; i++) {
+            step(drivetrain, 0, 0, 1);
+        }
+        assertTrue(drivetrain.getHeadingDegrees() < -10);
+
+        // Lets go of the stick, after settling it holds wherever the robot ended up.
+        for (int i = 0; i < 100; i++) {
+            step(drivetrain, 0, 0, 0);
+        }
+        double held = drivetrain.getDesiredHeading().getDegrees();
+        for (int i = 0; i < 50; i++) {
+            step(drivetrain, 0, 0, 0);
+        }
+        assertEquals(held, drivetrain.getDesiredHeading().getDegrees(), kDelta);
+        assertEquals(held, drivetrain.getHeadingDegrees(), 5);
+    }
+
+    @Test
+    public void resetsTheGyro() {
+        DrivetrainSubsys drivetrain = new DrivetrainSubsys(new DrivetrainIOSim());
+        drivetrain.resetOdometry(new Pose2d(1, 2, Rotation2d.fromDegrees(90)));
+        assertTrue(drivetrain.isLocalized());
+        for (int i = 0; i < 20; i++) {
+            step(drivetrain, 0, 0, 1);
+        }
+        drivetrain.resetGyro();
+        assertFalse(drivetrain.isLocalized());
+        SimHooks.stepTiming(0.02);
+        drivetrain.periodic();
+        // The sim keeps spinning down, but it reads from zero again.
+        assertEquals(0, drivetrain.getHeadingDegrees(), 2);
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.robot.subsystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.robot.subsystems.io.IntakeIOSim;
+import frc.tigerlib.can.MatchMode;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class IntakeSubsysTest {
+
+    private static final double kDelta = 1e-9;
+
+    @BeforeClass
+    public static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.notifyNewData();
+    }
+
+    @Test
+    public void readsOutputBackEachLoop() {
+        IntakeSubsys intake = new IntakeSubsys(new IntakeIOSim());
+        intake.periodic();
+        assertEquals(0, intake.getOutput(), kDelta);
+        assertEquals(MatchMode.kTeleop, intake.mMode);
+
+        intake.intake();
+        // Only what was read this loop is reported.
+        assertEquals(0, intake.getOutput(), kDelta);
+        intake.periodic();
+        assertEquals(1, intake.getOutput(), kDelta);
+
+        intake.eject();
+        intake.periodic();
+        assertEquals(-1, intake.getOutput(), kDelta);
+
+        intake.disable();
+        intake.periodic();
+        assertEquals(0, intake.getOutput(), kDelta);
+    }
+}
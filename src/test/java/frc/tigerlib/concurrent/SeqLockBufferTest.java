@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class SeqLockBufferTest {
+
+    private static void write(SeqLockBuffer buffer, double value) {
+        buffer.beginWrite();
+        for (int i = 0; i < buffer.size(); i++) {
+            buffer.set(i, value);
+        }
+        buffer.endWrite();
+    }
+
+    @Test
+    public void readsLatestWrite() {
+        SeqLockBuffer buffer = new SeqLockBuffer(3);
+        double[] out = new double[3];
+        assertEquals(0, buffer.read(out));
+        assertEquals(0, out[0], 0);
+
+        buffer.beginWrite();
+        buffer.set(0, 1);
+        buffer.set(1, 2);
+        buffer.set(2, 3);
+        buffer.endWrite();
+        assertEquals(1, buffer.read(out));
+        assertEquals(1, out[0], 0);
+        assertEquals(2, out[1], 0);
+        assertEquals(3, out[2], 0);
+
+        // Reading again doesn't change anything, writing again does.
+        assertEquals(1, buffer.read(out));
+        write(buffer, 7);
+        write(buffer, 8);
+        assertEquals(3, buffer.read(out));
+        assertEquals(8, out[1], 0);
+    }
+
+    @Test
+    public void readersNeverSeeTornWrites() throws InterruptedException {
+        SeqLockBuffer buffer = new SeqLockBuffer(16);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicInteger reads = new AtomicInteger();
+
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] =
+                    new Thread(
+                            () -> {
+                                double[] out = new double[16];
+                                long lastVersion = 0;
+                                while (running.get() && failure.get() == null) {
+                                    long version = buffer.read(out);
+                                    for (double value : out) {
+                                        // Each write is all its version.
+                                        if (value != version) {
+                                            failure.set("Torn at " + version + ": " + value);
+                                        }
+                                    }
+                                    if (version < lastVersion) {
+                                        failure.set("Went back to " + version);
+                                    }
+                                    lastVersion = version;
+                                    reads.incrementAndGet();
+                                }
+                            });
+            readers[r].start();
+        }
+
+        for (int i = 1; i <= 2_000_000 && failure.get() == null; i++) {
+            write(buffer, i);
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(null, failure.get());
+        assertTrue("Readers never ran", reads.get() > 0);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import edu.wpi.first.math.controller.PIDController;
+import frc.tigerlib.control.HeadingHold.State;
+import org.junit.Test;
+
+public class HeadingHoldTest {
+
+    private static final double kSettle = 0.5;
+    private static final double kDelta = 1e-9;
+
+    @Test
+    public void idleWhileTurning() {
+        HeadingHold hold = new HeadingHold(kSettle);
+        assertFalse(hold.update(0, false, 10));
+        assertFalse(hold.update(1, false, 20));
+        assertEquals(State.kIdle, hold.getState());
+        assertEquals(20, hold.getDesiredDegrees(), kDelta);
+    }
+
+    @Test
+    public void capturesHeadingAfterSettling() {
+        HeadingHold hold = new HeadingHold(kSettle);
+        assertFalse(hold.update(1, true, 30));
+        assertEquals(State.kSettling, hold.getState());
+        assertFalse(hold.update(1.25, true, 32));
+        assertEquals(State.kSettling, hold.getState());
+
+        // The robot coasted a little further before settling.
+        assertTrue(hold.update(1.5, true, 33));
+        assertEquals(State.kHolding, hold.getState());
+        assertEquals(33, hold.getDesiredDegrees(), kDelta);
+
+        // Holding keeps the captured heading as the robot gets knocked.
+        assertTrue(hold.update(2, true, 50));
+        assertEquals(33, hold.getDesiredDegrees(), kDelta);
+    }
+
+    @Test
+    public void turningAgainStopsHolding() {
+        HeadingHold hold = new HeadingHold(kSettle);
+        hold.update(0, true, 0);
+        hold.update(1, true, 0);
+        assertEquals(State.kHolding, hold.getState());
+
+        assertFalse(hold.update(1.25, false, 5));
+        assertEquals(State.kIdle, hold.getState());
+        assertEquals(5, hold.getDesiredDegrees(), kDelta);
+
+        // And settling starts over.
+        assertFalse(hold.update(1.5, true, 6));
+        assertFalse(hold.update(1.75, true, 6));
+        assertTrue(hold.update(2, true, 6));
+    }
+
+    @Test
+    public void resetStopsHolding() {
+        HeadingHold hold = new HeadingHold(kSettle);
+        hold.update(0, true, 0);
+        hold.update(1, true, 0);
+        hold.reset(90);
+        assertEquals(State.kIdle, hold.getState());
+        assertEquals(90, hold.getDesiredDegrees(), kDelta);
+    }
+
+    @Test
+    public void errorTakesShortestWay() {
+        assertEquals(20, HeadingHold.errorDegrees(10, -10), kDelta);
+        assertEquals(20, HeadingHold.errorDegrees(-170, 170), kDelta);
+        assertEquals(-20, HeadingHold.errorDegrees(170, -170), kDelta);
+        // Wound up a few turns.
+        assertEquals(5, HeadingHold.errorDegrees(5, 720), kDelta);
+        assertEquals(180, Math.abs(HeadingHold.errorDegrees(0, 180)), kDelta);
+    }
+
+    @Test
+    public void turnsBackTowardDesired() {
+        PIDController pid = new PIDController(0.01, 0, 0);
+        // Left of the desired heading, so turn clockwise; positive.
+        assertEquals(0.1, HeadingHold.turnSpeed(pid, 0, 10), kDelta);
+        assertEquals(-0.1, HeadingHold.turnSpeed(pid, 0, -10), kDelta);
+        // Wound up and across 180, still the short way; clockwise from 190 to 170.
+        assertEquals(0.2, HeadingHold.turnSpeed(pid, 170, -170 - 360), kDelta);
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.control;
+
+import static org.junit.Assert.assertEquals;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+import frc.tigerlib.trajectory.SampledTrajectory;
+import org.junit.Test;
+
+public class HolonomicFollowerTest {
+
+    private static final double kDelta = 1e-9;
+    // Roughly our robot; 10.18in by 10.857in from center.
+    private static final double kLeverArm = 0.2586 + 0.2758;
+    private static final double kMaxWheelSpeed = 4;
+
+    /** A trajectory holding one velocity for a second, and a follower with no correction. */
+    private static HolonomicFollower makeFollower(double vx, double vy, double omega) {
+        SampledTrajectory trajectory =
+                new SampledTrajectory(
+                        new double[] {0, 1},
+                        new double[] {0, vx},
+                        new double[] {0, vy},
+                        new double[] {0, omega},
+                        new double[] {vx, vx},
+                        new double[] {vy, vy},
+                        new double[] {omega, omega},
+                        new double[] {0, 0});
+        return new HolonomicFollower(
+                trajectory,
+                new PIDController(0, 0, 0),
+                new PIDController(0, 0, 0),
+                new PIDController(0, 0, 0),
+                kLeverArm,
+                kMaxWheelSpeed);
+    }
+
+    @Test
+    public void turningCounterClockwiseDrivesRightWheelsForward() {
+        MecanumDriveWheelSpeeds out = new MecanumDriveWheelSpeeds();
+        makeFollower(0, 0, 1).calculate(0.5, 0, 0, 0.5, out);
+        assertEquals(-kLeverArm, out.frontLeftMetersPerSecond, kDelta);
+        assertEquals(kLeverArm, out.frontRightMetersPerSecond, kDelta);
+        assertEquals(-kLeverArm, out.rearLeftMetersPerSecond, kDelta);
+        assertEquals(kLeverArm, out.rearRightMetersPerSecond, kDelta);
+    }
+
+    @Test
+    public void fieldVelocityIsTurnedIntoTheRobotsFrame() {
+        // Driving along field x while facing field y is strafing right.
+        MecanumDriveWheelSpeeds out = new MecanumDriveWheelSpeeds();
+        makeFollower(1, 0, 0).calculate(0.5, 0.5, 0, Math.PI / 2, out);
+        assertEquals(1, out.frontLeftMetersPerSecond, kDelta);
+        assertEquals(-1, out.frontRightMetersPerSecond, kDelta);
+        assertEquals(-1, out.rearLeftMetersPerSecond, kDelta);
+        assertEquals(1, out.rearRightMetersPerSecond, kDelta);
+    }
+
+    @Test
+    public void slowsEveryWheelAlike() {
+        MecanumDriveWheelSpeeds out = new MecanumDriveWheelSpeeds();
+        makeFollower(6, 2, 0).calculate(0.5, 3, 1, 0, out);
+        // Forward 6 and left 2 gives 4 and 8; scaled so the fastest is the max.
+        assertEquals(2, out.frontLeftMetersPerSecond, kDelta);
+        assertEquals(4, out.frontRightMetersPerSecond, kDelta);
+        assertEquals(4, out.rearLeftMetersPerSecond, kDelta);
+        assertEquals(2, out.rearRightMetersPerSecond, kDelta);
+    }
+
+    @Test
+    public void measuresError() {
+        HolonomicFollower follower = makeFollower(1, 0, 0);
+        follower.calculate(0.5, 0.2, 0.4, 0.1, new MecanumDriveWheelSpeeds());
+        assertEquals(0.3, follower.getErrorX(), kDelta);
+        assertEquals(-0.4, follower.getErrorY(), kDelta);
+        assertEquals(0.5, follower.getPositionError(), kDelta);
+        assertEquals(-0.1, follower.getHeadingError(), kDelta);
+    }
+}
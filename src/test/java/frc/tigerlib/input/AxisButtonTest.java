@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.GenericHIDSim;
+import frc.tigerlib.input.controller.XboxController;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AxisButtonTest {
+
+    private static final int kPort = 3;
+
+    @BeforeClass
+    public static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    private static void setAxes(double... values) {
+        GenericHIDSim sim = new GenericHIDSim(kPort);
+        sim.setAxisCount(values.length);
+        for (int i = 0; i < values.length; i++) {
+            sim.setRawAxis(i, values[i]);
+        }
+        sim.notifyNewData();
+    }
+
+    @Test
+    public void invertsTheValueNotTheIndex() {
+        setAxes(0.25, 0.5, 0, 0, 0.75, -1);
+        XboxController controller = new XboxController(kPort);
+        // Inverted, left x was read unchanged and right x read axis -4.
+        assertEquals(-0.25, controller.leftX().getVal(), 0);
+        assertEquals(-0.75, controller.rightX().getVal(), 0);
+        assertEquals(0.5, controller.leftY().getVal(), 0);
+        assertEquals(-1, controller.rightY().getVal(), 0);
+    }
+
+    @Test
+    public void appliesThresholds() {
+        setAxes(-0.99, 0, 0.01, 0.5, 0, 0.5);
+        XboxController controller = new XboxController(kPort);
+        assertTrue(controller.leftX().get());
+        assertFalse(controller.rightY().get());
+        assertFalse(controller.lt().get());
+        assertTrue(controller.rt().get());
+    }
+}
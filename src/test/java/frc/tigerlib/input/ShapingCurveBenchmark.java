@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.input;
+
+import frc.tigerlib.Util;
+import java.util.Random;
+
+/**
+ * Times a power {@link ShapingCurve} against {@link Util#smoothWClamp(double, double, double,
+ * double, double)}. That they agree is checked by {@link ShapingCurveTest}.
+ *
+ * <p>Run with: {@code ./gradlew benchmarkShapingCurve}
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class ShapingCurveBenchmark {
+
+    private static final double kDeadband = 0.2;
+    private static final double kExponent = 2.8;
+
+    private static final int kWarmupRounds = 5;
+    private static final int kRounds = 10;
+    private static final int kCalls = 1_000_000;
+
+    // Random stick positions, precomputed so only the shaping is timed.
+    private static final double[] sInputs = new double[kCalls];
+
+    public static void main(String[] args) {
+        ShapingCurve curve = ShapingCurve.power(kDeadband, kExponent);
+
+        Random random = new Random(7125);
+        for (int i = 0; i < kCalls; i++) {
+            sInputs[i] = random.nextDouble() * 2 - 1;
+        }
+
+        double powNanos = Double.MAX_VALUE;
+        double tableNanos = Double.MAX_VALUE;
+        double sink = 0;
+        for (int round = 0; round < kWarmupRounds + kRounds; round++) {
+            long start = System.nanoTime();
+            for (double x : sInputs) {
+                sink += Util.smoothWClamp(x, kDeadband, kExponent, -1, 1);
+            }
+            long middle = System.nanoTime();
+            for (double x : sInputs) {
+                sink += curve.apply(x);
+            }
+            long end = System.nanoTime();
+            if (round >= kWarmupRounds) {
+                powNanos = Math.min(powNanos, (middle - start) / (double) kCalls);
+                tableNanos = Math.min(tableNanos, (end - middle) / (double) kCalls);
+            }
+        }
+
+        System.out.printf("Util.smoothWClamp: %8.1f ns/call%n", powNanos);
+        System.out.printf("ShapingCurve:      %8.1f ns/call%n", tableNanos);
+        System.out.printf("Speedup:           %8.1fx (%.0f)%n", powNanos / tableNanos, sink);
+    }
+}
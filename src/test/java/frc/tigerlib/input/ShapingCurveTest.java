@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import frc.tigerlib.Util;
+import java.util.Properties;
+import org.junit.Test;
+
+public class ShapingCurveTest {
+
+    // Far below what a driver or motor controller can tell apart.
+    private static final double kMaxError = 1e-4;
+    private static final double kDeadband = 0.2;
+    private static final double kExponent = 2.8;
+    private static final double[] kXs = {0, 0.5, 1};
+    private static final double[] kYs = {0, 0.2, 1};
+
+    @Test
+    public void powerMatchesSmoothWClamp() {
+        ShapingCurve curve = ShapingCurve.power(kDeadband, kExponent);
+        // A little past [-1, 1], to check the clamp.
+        for (int i = -110_000; i <= 110_000; i++) {
+            double x = i / 100_000.0;
+            assertEquals(
+                    "At " + x,
+                    Util.smoothWClamp(x, kDeadband, kExponent, -1, 1),
+                    curve.apply(x),
+                    kMaxError);
+        }
+    }
+
+    @Test
+    public void piecewiseGoesThroughPoints() {
+        ShapingCurve curve = ShapingCurve.piecewise(0, kXs, kYs);
+        assertEquals(0, curve.apply(0), 0);
+        assertEquals(0.2, curve.apply(0.5), 1e-12);
+        assertEquals(1, curve.apply(1), 0);
+        assertEquals(-1, curve.apply(-1), 0);
+        assertEquals(0.6, curve.apply(0.75), 1e-12);
+        assertEquals(1, curve.apply(1.5), 0);
+    }
+
+    @Test
+    public void splineGoesThroughEndsWithoutOvershoot() {
+        ShapingCurve curve = ShapingCurve.spline(0, kXs, kYs);
+        assertEquals(0, curve.apply(0), 0);
+        assertEquals(0.2, curve.apply(0.5), 1e-12);
+        assertEquals(1, curve.apply(1), 0);
+        assertEquals(-1, curve.apply(-1), 0);
+        double last = 0;
+        for (int i = 1; i <= 1000; i++) {
+            double shaped = curve.apply(i / 1000.0);
+            assertTrue("Decreases at " + i / 1000.0, shaped >= last);
+            last = shaped;
+        }
+    }
+
+    @Test
+    public void zeroInsideDeadband() {
+        ShapingCurve[] curves = {
+            ShapingCurve.power(kDeadband, kExponent),
+            ShapingCurve.piecewise(kDeadband, kXs, kYs),
+            ShapingCurve.spline(kDeadband, kXs, kYs)
+        };
+        for (ShapingCurve curve : curves) {
+            assertEquals(0, curve.apply(0.199), 0);
+            assertEquals(0, curve.apply(-0.199), 0);
+            assertTrue(curve.apply(0.2) > 0);
+        }
+        // Past the deadband the curve sees the raw magnitude, not one rescaled from it.
+        assertEquals(0.1, curves[1].apply(0.25), 1e-12);
+    }
+
+    @Test
+    public void loadsFromProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("type", "piecewise");
+        properties.setProperty("deadband", "0.1");
+        properties.setProperty("points", "0:0, 0.5:0.2, 1:1");
+        ShapingCurve curve = ShapingCurve.fromProperties(properties);
+        assertEquals(0.1, curve.getDeadband(), 0);
+        assertEquals(0.2, curve.apply(0.5), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pointsMustCoverZeroToOne() {
+        ShapingCurve.piecewise(0, new double[] {0, 0.5}, new double[] {0, 1});
+    }
+}
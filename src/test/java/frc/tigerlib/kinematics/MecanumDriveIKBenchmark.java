@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+import edu.wpi.first.wpilibj.drive.MecanumDrive;
+import edu.wpi.first.wpilibj.drive.MecanumDrive.WheelSpeeds;
+import java.util.Random;
+
+/**
+ * Times {@link MecanumDriveIK} against {@link MecanumDrive#driveCartesianIK(double, double, double,
+ * double)}. That they agree is checked by {@link MecanumDriveIKTest}.
+ *
+ * <p>Run with: {@code ./gradlew benchmarkMecanumDriveIK}
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class MecanumDriveIKBenchmark {
+
+    private static final int kWarmupRounds = 5;
+    private static final int kRounds = 10;
+    private static final int kCalls = 1_000_000;
+    // Calls per heading, like a loop calling drive() a few times.
+    private static final int kCallsPerLoop = 4;
+
+    // Random driver input, precomputed so only the math is timed.
+    private static final double[][] sInputs = new double[kCalls][4];
+
+    public static void main(String[] args) {
+        Random random = new Random(7125);
+        for (double[] input : sInputs) {
+            input[0] = random.nextDouble() * 2.4 - 1.2;
+            input[1] = random.nextDouble() * 2.4 - 1.2;
+            input[2] = random.nextDouble() * 2 - 1;
+            input[3] = random.nextDouble() * 720 - 360;
+        }
+
+        double wpilibNanos = Double.MAX_VALUE;
+        double tigerlibNanos = Double.MAX_VALUE;
+        double sink = 0;
+        for (int round = 0; round < kWarmupRounds + kRounds; round++) {
+            long start = System.nanoTime();
+            sink += runWpilib();
+            long middle = System.nanoTime();
+            sink += runTigerlib();
+            long end = System.nanoTime();
+            if (round >= kWarmupRounds) {
+                wpilibNanos = Math.min(wpilibNanos, (middle - start) / (double) kCalls);
+                tigerlibNanos = Math.min(tigerlibNanos, (end - middle) / (double) kCalls);
+            }
+        }
+
+        System.out.printf("driveCartesianIK: %8.1f ns/call%n", wpilibNanos);
+        System.out.printf("MecanumDriveIK:   %8.1f ns/call%n", tigerlibNanos);
+        System.out.printf("Speedup:          %8.1fx (%.0f)%n", wpilibNanos / tigerlibNanos, sink);
+    }
+
+    /** Calls IK the way the drivetrain used to; new objects every call. */
+    private static double runWpilib() {
+        double sum = 0;
+        for (int i = 0; i < kCalls; i++) {
+            double[] in = sInputs[i];
+            double heading = sInputs[i - i % kCallsPerLoop][3];
+            WheelSpeeds speeds = MecanumDrive.driveCartesianIK(in[0], in[1], in[2], -heading);
+            sum += speeds.frontLeft;
+        }
+        return sum;
+    }
+
+    private static double runTigerlib() {
+        MecanumDriveIK ik = new MecanumDriveIK();
+        WheelSpeeds out = new WheelSpeeds();
+        double sum = 0;
+        for (int i = 0; i < kCalls; i++) {
+            double[] in = sInputs[i];
+            ik.setHeading(sInputs[i - i % kCallsPerLoop][3]);
+            ik.calculate(in[0], in[1], in[2], true, out);
+            sum += out.frontLeft;
+        }
+        return sum;
+    }
+}
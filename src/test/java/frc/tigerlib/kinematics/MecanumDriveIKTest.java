@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+import static org.junit.Assert.fail;
+
+import edu.wpi.first.wpilibj.drive.MecanumDrive;
+import edu.wpi.first.wpilibj.drive.MecanumDrive.WheelSpeeds;
+import org.junit.Test;
+
+public class MecanumDriveIKTest {
+
+    /** Inputs past [-1, 1] and turning with translation cover the clamp and normalize paths. */
+    @Test
+    public void matchesDriveCartesianIKExactly() {
+        MecanumDriveIK ik = new MecanumDriveIK();
+        WheelSpeeds out = new WheelSpeeds();
+        for (double heading = -540; heading <= 540; heading += 7.5) {
+            ik.setHeading(heading);
+            for (double y = -1.5; y <= 1.5; y += 0.125) {
+                for (double x = -1.5; x <= 1.5; x += 0.125) {
+                    for (double z = -1; z <= 1; z += 0.25) {
+                        for (int fieldOriented = 0; fieldOriented < 2; fieldOriented++) {
+                            WheelSpeeds expected =
+                                    MecanumDrive.driveCartesianIK(
+                                            y, x, z, fieldOriented == 1 ? -heading : 0.0);
+                            ik.calculate(y, x, z, fieldOriented == 1, out);
+                            if (expected.frontLeft != out.frontLeft
+                                    || expected.frontRight != out.frontRight
+                                    || expected.rearLeft != out.rearLeft
+                                    || expected.rearRight != out.rearRight) {
+                                fail(
+                                        String.format(
+                                                "Differs at y %s, x %s, z %s, heading %s%s",
+                                                y,
+                                                x,
+                                                z,
+                                                heading,
+                                                fieldOriented == 1 ? ", field oriented" : ""));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+import static org.junit.Assert.assertEquals;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
+import edu.wpi.first.math.kinematics.MecanumDriveOdometry;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+import java.util.Random;
+import org.junit.Test;
+
+public class MecanumOdometryTest {
+
+    private static final double kDelta = 1e-6;
+    private static final int kUpdates = 10_000;
+
+    // Roughly our robot; 10.18in by 10.857in from center, y left.
+    private static final Translation2d kFl = new Translation2d(0.2586, 0.2758);
+    private static final Translation2d kFr = new Translation2d(0.2586, -0.2758);
+    private static final Translation2d kRl = new Translation2d(-0.2586, 0.2758);
+    private static final Translation2d kRr = new Translation2d(-0.2586, -0.2758);
+
+    /**
+     * Drives both through the same random wheel movements, loop times and gyro readings. WPILib's
+     * takes velocities, so it's given each wheel's movement over that loop's time.
+     */
+    private static class Drive {
+        final Random mRandom;
+        final MecanumOdometry mOdometry;
+        final MecanumDriveOdometry mWpilib;
+        final double[] mPositions = new double[4];
+        double mGyro;
+        double mTime = 0;
+
+        Drive(long seed, Translation2d fl, Translation2d fr, Translation2d rl, Translation2d rr) {
+            mRandom = new Random(seed);
+            mGyro = mRandom.nextDouble() * 2 * Math.PI;
+            mOdometry = new MecanumOdometry(fl, fr, rl, rr);
+            // Ours starts with its heading following the gyro, so start WPILib's there too.
+            mWpilib =
+                    new MecanumDriveOdometry(
+                            new MecanumDriveKinematics(fl, fr, rl, rr),
+                            new Rotation2d(mGyro),
+                            new Pose2d(0, 0, new Rotation2d(mGyro)));
+            // The first update only records where things start, in both.
+            mOdometry.update(mGyro, 0, 0, 0, 0);
+            mWpilib.updateWithTime(mTime, new Rotation2d(mGyro), new MecanumDriveWheelSpeeds());
+        }
+
+        void step() {
+            // Up to 5m/s and 5rad/s, over loops of 5 to 30ms.
+            double dt = 0.005 + mRandom.nextDouble() * 0.025;
+            double[] velocities = new double[4];
+            for (int w = 0; w < 4; w++) {
+                velocities[w] = (mRandom.nextDouble() * 2 - 1) * 5;
+                mPositions[w] += velocities[w] * dt;
+            }
+            mGyro += (mRandom.nextDouble() * 2 - 1) * 5 * dt;
+            mTime += dt;
+
+            mOdometry.update(mGyro, mPositions[0], mPositions[1], mPositions[2], mPositions[3]);
+            mWpilib.updateWithTime(
+                    mTime,
+                    new Rotation2d(mGyro),
+                    new MecanumDriveWheelSpeeds(
+                            velocities[0], velocities[1], velocities[2], velocities[3]));
+        }
+
+        void assertPosesMatch() {
+            Pose2d expected = mWpilib.getPoseMeters();
+            Pose2d actual = mOdometry.getPose();
+            assertEquals(expected.getX(), actual.getX(), kDelta);
+            assertEquals(expected.getY(), actual.getY(), kDelta);
+            assertEquals(
+                    0, expected.getRotation().minus(actual.getRotation()).getRadians(), kDelta);
+            // The getters agree with the pose.
+            assertEquals(actual.getX(), mOdometry.getX(), 0);
+            assertEquals(actual.getY(), mOdometry.getY(), 0);
+        }
+    }
+
+    @Test
+    public void matchesMecanumDriveOdometry() {
+        Drive drive = new Drive(7125, kFl, kFr, kRl, kRr);
+        for (int i = 0; i < kUpdates; i++) {
+            drive.step();
+            if (i % 100 == 0) {
+                drive.assertPosesMatch();
+            }
+        }
+        drive.assertPosesMatch();
+    }
+
+    @Test
+    public void matchesWithUnevenWheels() {
+        // Wheels off center, so the forward kinematics aren't symmetric.
+        Drive drive =
+                new Drive(
+                        2022,
+                        new Translation2d(0.35, 0.25),
+                        new Translation2d(0.3, -0.28),
+                        new Translation2d(-0.2, 0.3),
+                        new Translation2d(-0.25, -0.22));
+        for (int i = 0; i < kUpdates; i++) {
+            drive.step();
+        }
+        drive.assertPosesMatch();
+    }
+
+    @Test
+    public void matchesAfterAReset() {
+        Drive drive = new Drive(254, kFl, kFr, kRl, kRr);
+        for (int i = 0; i < kUpdates / 2; i++) {
+            drive.step();
+        }
+
+        // Reset both mid drive, without resetting the wheels or gyro.
+        Pose2d pose = new Pose2d(3, -1.5, Rotation2d.fromDegrees(135));
+        double[] p = drive.mPositions;
+        drive.mOdometry.reset(
+                pose.getX(),
+                pose.getY(),
+                pose.getRotation().getRadians(),
+                drive.mGyro,
+                p[0],
+                p[1],
+                p[2],
+                p[3]);
+        drive.mWpilib.resetPosition(pose, new Rotation2d(drive.mGyro));
+        drive.assertPosesMatch();
+
+        for (int i = 0; i < kUpdates / 2; i++) {
+            drive.step();
+        }
+        drive.assertPosesMatch();
+    }
+
+    @Test
+    public void forwardKinematicsMatchWpilib() {
+        double[][] forward = MecanumOdometry.forwardKinematics(kFl, kFr, kRl, kRr);
+        MecanumDriveKinematics kinematics = new MecanumDriveKinematics(kFl, kFr, kRl, kRr);
+        // Each column is what one wheel alone does to the chassis.
+        double[][] wheels = {{1, 0, 0, 0}, {0, 1, 0, 0}, {0, 0, 1, 0}, {0, 0, 0, 1}};
+        for (int w = 0; w < 4; w++) {
+            ChassisSpeeds speeds =
+                    kinematics.toChassisSpeeds(
+                            new MecanumDriveWheelSpeeds(
+                                    wheels[w][0], wheels[w][1], wheels[w][2], wheels[w][3]));
+            assertEquals(speeds.vxMetersPerSecond, forward[0][w], 1e-9);
+            assertEquals(speeds.vyMetersPerSecond, forward[1][w], 1e-9);
+            assertEquals(speeds.omegaRadiansPerSecond, forward[2][w], 1e-9);
+        }
+    }
+}
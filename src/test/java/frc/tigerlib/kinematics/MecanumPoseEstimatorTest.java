@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MecanumPoseEstimatorTest {
+
+    private static final double kDt = 0.02;
+    private static final int kLoops = 50;
+
+    // Roughly our robot; 10.18in by 10.857in from center, y left.
+    private static final Translation2d kFl = new Translation2d(0.2586, 0.2758);
+    private static final Translation2d kFr = new Translation2d(0.2586, -0.2758);
+    private static final Translation2d kRl = new Translation2d(-0.2586, 0.2758);
+    private static final Translation2d kRr = new Translation2d(-0.2586, -0.2758);
+    private static final double kLever = 0.2586 + 0.2758;
+
+    private MecanumPoseEstimator mEstimator;
+    private double mTime;
+
+    @Before
+    public void setup() {
+        mEstimator = new MecanumPoseEstimator(kFl, kFr, kRl, kRr, 100);
+        mTime = 0;
+        mEstimator.update(mTime, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void followsWheelsAndGyro() {
+        // Forward at 1 m/s, then spin in place at 1 rad/s.
+        for (int i = 0; i < kLoops; i++) {
+            mEstimator.update(mTime += kDt, 0, 1, 1, 1, 1);
+        }
+        assertEquals(kLoops * kDt, mEstimator.getX(), 1e-9);
+        assertEquals(0, mEstimator.getY(), 1e-9);
+
+        double v = kLever;
+        for (int i = 1; i <= kLoops; i++) {
+            mEstimator.update(mTime += kDt, i * kDt, -v, v, -v, v);
+        }
+        assertEquals(kLoops * kDt, mEstimator.getHeadingRadians(), 1e-6);
+        assertEquals(kLoops * kDt, mEstimator.getX(), 1e-6);
+    }
+
+    @Test
+    public void visionHeadingSurvivesGyro() {
+        // Turning grows the heading's uncertainty, so vision can move it.
+        double v = kLever;
+        double gyro = 0;
+        for (int i = 0; i < kLoops; i++) {
+            gyro += kDt;
+            mEstimator.update(mTime += kDt, gyro, -v, v, -v, v);
+        }
+        double before = mEstimator.getHeadingRadians();
+        assertTrue(mEstimator.addVisionMeasurement(mTime, 0, 0, before + 0.1, 10, 0.001));
+        double corrected = mEstimator.getHeadingRadians();
+        assertTrue(corrected - before > 0.05);
+
+        // The gyro hasn't moved, so neither should the heading.
+        for (int i = 0; i < 10; i++) {
+            mEstimator.update(mTime += kDt, gyro, 0, 0, 0, 0);
+        }
+        assertEquals(corrected, mEstimator.getHeadingRadians(), 1e-9);
+    }
+
+    @Test
+    public void repeatedVisionIsNotAppliedTwice() {
+        // Driving forward grows x's uncertainty, so vision can move it.
+        for (int i = 0; i < kLoops; i++) {
+            mEstimator.update(mTime += kDt, 0, 1, 1, 1, 1);
+        }
+        double imageTime = mTime - 10 * kDt;
+        double seen = (kLoops - 10) * kDt + 0.5;
+        assertTrue(mEstimator.addVisionMeasurement(imageTime, seen, 0, 0, 1e-6, 1));
+        assertTrue(mEstimator.addVisionMeasurement(imageTime, seen, 0, 0, 1e-6, 1));
+        assertEquals(kLoops * kDt + 0.5, mEstimator.getX(), 1e-3);
+
+        // The history moved with it.
+        double[] past = new double[3];
+        assertTrue(mEstimator.getHistory().sample(imageTime, past));
+        assertEquals(seen, past[0], 1e-3);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
+import edu.wpi.first.math.kinematics.MecanumDriveOdometry;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+
+/**
+ * Times {@link MecanumOdometry} against WPILib's {@link MecanumDriveOdometry} on the same drive,
+ * and checks they end up in the same place. Needs no HAL, so it runs on a laptop or the rio.
+ *
+ * <p>Kept with the tests so it stays out of the robot jar. Run with: {@code ./gradlew
+ * benchmarkOdometry}
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class OdometryBenchmark {
+
+    private static final int kWarmupRounds = 5;
+    private static final int kRounds = 10;
+    private static final int kUpdates = 200_000;
+    private static final double kDt = 0.02;
+
+    // Roughly our robot; 10.18in by 10.857in from center, y left.
+    private static final Translation2d kFl = new Translation2d(0.2586, 0.2758);
+    private static final Translation2d kFr = new Translation2d(0.2586, -0.2758);
+    private static final Translation2d kRl = new Translation2d(-0.2586, 0.2758);
+    private static final Translation2d kRr = new Translation2d(-0.2586, -0.2758);
+
+    // The drive, precomputed so only the odometry is timed.
+    private static final double[] sGyro = new double[kUpdates];
+    private static final double[][] sVelocities = new double[kUpdates][4];
+    private static final double[][] sPositions = new double[kUpdates][4];
+
+    public static void main(String[] args) {
+        makeDrive();
+
+        double wpilibNanos = Double.MAX_VALUE;
+        double tigerlibNanos = Double.MAX_VALUE;
+        Pose2d wpilibPose = null;
+        Pose2d tigerlibPose = null;
+        for (int round = 0; round < kWarmupRounds + kRounds; round++) {
+            long start = System.nanoTime();
+            wpilibPose = runWpilib();
+            long middle = System.nanoTime();
+            tigerlibPose = runTigerlib();
+            long end = System.nanoTime();
+            if (round >= kWarmupRounds) {
+                wpilibNanos = Math.min(wpilibNanos, (middle - start) / (double) kUpdates);
+                tigerlibNanos = Math.min(tigerlibNanos, (end - middle) / (double) kUpdates);
+            }
+        }
+
+        System.out.printf("MecanumDriveOdometry: %8.1f ns/update%n", wpilibNanos);
+        System.out.printf("MecanumOdometry:      %8.1f ns/update%n", tigerlibNanos);
+        System.out.printf("Speedup:              %8.1fx%n", wpilibNanos / tigerlibNanos);
+        System.out.printf(
+                "Final poses differ by %.4fm, %.4fdeg%n",
+                wpilibPose.getTranslation().getDistance(tigerlibPose.getTranslation()),
+                wpilibPose.getRotation().minus(tigerlibPose.getRotation()).getDegrees());
+    }
+
+    /** Fills in a drive that strafes and turns, with wheel speeds from inverse kinematics. */
+    private static void makeDrive() {
+        double heading = 0;
+        double[] position = new double[4];
+        for (int i = 0; i < kUpdates; i++) {
+            double t = i * kDt;
+            double vx = 2 * Math.sin(t * 0.5);
+            double vy = Math.cos(t * 0.3);
+            double omega = 0.8 * Math.sin(t * 0.2);
+            double[] wheels = {
+                vx - vy - (kFl.getX() + kFl.getY()) * omega,
+                vx + vy + (kFr.getX() - kFr.getY()) * omega,
+                vx + vy + (kRl.getX() - kRl.getY()) * omega,
+                vx - vy - (kRr.getX() + kRr.getY()) * omega
+            };
+            heading += omega * kDt;
+            sGyro[i] = heading;
+            for (int w = 0; w < 4; w++) {
+                position[w] += wheels[w] * kDt;
+                sVelocities[i][w] = wheels[w];
+                sPositions[i][w] = position[w];
+            }
+        }
+    }
+
+    /** Updates the way the drivetrain used to; new objects every loop. */
+    private static Pose2d runWpilib() {
+        MecanumDriveOdometry odometry =
+                new MecanumDriveOdometry(
+                        new MecanumDriveKinematics(kFl, kFr, kRl, kRr), new Rotation2d());
+        Pose2d pose = null;
+        for (int i = 0; i < kUpdates; i++) {
+            double[] v = sVelocities[i];
+            pose =
+                    odometry.updateWithTime(
+                            (i + 1) * kDt,
+                            new Rotation2d(sGyro[i]),
+                            new MecanumDriveWheelSpeeds(v[0], v[1], v[2], v[3]));
+        }
+        return pose;
+    }
+
+    private static Pose2d runTigerlib() {
+        MecanumOdometry odometry = new MecanumOdometry(kFl, kFr, kRl, kRr);
+        odometry.update(0, 0, 0, 0, 0);
+        for (int i = 0; i < kUpdates; i++) {
+            double[] p = sPositions[i];
+            odometry.update(sGyro[i], p[0], p[1], p[2], p[3]);
+        }
+        return odometry.getPose();
+    }
+}
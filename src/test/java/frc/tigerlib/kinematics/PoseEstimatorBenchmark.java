@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.Random;
+
+/**
+ * Drives a simulated robot whose wheels slip when strafing, then compares how far {@link
+ * MecanumOdometry} and {@link MecanumPoseEstimator} end up from the truth, and what each costs.
+ * Needs no HAL, so it runs on a laptop or the rio.
+ *
+ * <p>The estimator is given a noisy gyro and a late, noisy vision pose every few loops; odometry
+ * only gets the wheels and gyro, as it can't use vision.
+ *
+ * <p>Run with: {@code ./gradlew benchmarkPoseEstimator}
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class PoseEstimatorBenchmark {
+
+    private static final int kWarmupRounds = 5;
+    private static final int kRounds = 10;
+    private static final int kUpdates = 7_500; // 2.5 matches
+    private static final double kDt = 0.02;
+
+    // How the simulated robot lies to us.
+    private static final double kStrafeSlip = 1.15; // wheels turn this much more than we strafe
+    private static final double kWheelNoise = 0.02; // m/s
+    private static final double kGyroNoise = Math.toRadians(0.1);
+    private static final double kVisionNoise = 0.05; // m
+    private static final double kVisionHeadingNoise = Math.toRadians(2);
+    private static final int kVisionEvery = 5; // loops
+    private static final int kVisionLatency = 3; // loops
+
+    // Roughly our robot; 10.18in by 10.857in from center, y left.
+    private static final Translation2d kFl = new Translation2d(0.2586, 0.2758);
+    private static final Translation2d kFr = new Translation2d(0.2586, -0.2758);
+    private static final Translation2d kRl = new Translation2d(-0.2586, 0.2758);
+    private static final Translation2d kRr = new Translation2d(-0.2586, -0.2758);
+
+    // The drive, precomputed so only the pose tracking is timed.
+    private static final double[][] sTruth = new double[kUpdates][3];
+    private static final double[] sGyro = new double[kUpdates];
+    private static final double[][] sVelocities = new double[kUpdates][4];
+    private static final double[][] sPositions = new double[kUpdates][4];
+    private static final double[][] sVision = new double[kUpdates][3];
+
+    public static void main(String[] args) {
+        makeDrive(new Random(7125));
+
+        double odometryNanos = Double.MAX_VALUE;
+        double estimatorNanos = Double.MAX_VALUE;
+        double[][] odometryPoses = new double[kUpdates][3];
+        double[][] estimatorPoses = new double[kUpdates][3];
+        for (int round = 0; round < kWarmupRounds + kRounds; round++) {
+            long start = System.nanoTime();
+            runOdometry(odometryPoses);
+            long middle = System.nanoTime();
+            runEstimator(estimatorPoses);
+            long end = System.nanoTime();
+            if (round >= kWarmupRounds) {
+                odometryNanos = Math.min(odometryNanos, (middle - start) / (double) kUpdates);
+                estimatorNanos = Math.min(estimatorNanos, (end - middle) / (double) kUpdates);
+            }
+        }
+
+        System.out.println("                  RMS err   max err   final err   ns/update");
+        printRow("MecanumOdometry", odometryPoses, odometryNanos);
+        printRow("PoseEstimator", estimatorPoses, estimatorNanos);
+    }
+
+    private static void printRow(String name, double[][] poses, double nanos) {
+        double sumSquares = 0;
+        double max = 0;
+        double error = 0;
+        for (int i = 0; i < kUpdates; i++) {
+            error = Math.hypot(poses[i][0] - sTruth[i][0], poses[i][1] - sTruth[i][1]);
+            sumSquares += error * error;
+            max = Math.max(max, error);
+        }
+        System.out.printf(
+                "%-16s %7.3fm  %7.3fm   %7.3fm   %9.1f%n",
+                name, Math.sqrt(sumSquares / kUpdates), max, error, nanos);
+    }
+
+    /** Fills in a drive that strafes and turns, with what each sensor would have seen. */
+    private static void makeDrive(Random random) {
+        double x = 0;
+        double y = 0;
+        double heading = 0;
+        double[] position = new double[4];
+        for (int i = 0; i < kUpdates; i++) {
+            double t = i * kDt;
+            double vx = 2 * Math.sin(t * 0.5);
+            double vy = Math.cos(t * 0.3);
+            double omega = 0.8 * Math.sin(t * 0.2);
+
+            // The wheels think we strafed farther than we did.
+            double wheelVy = vy * kStrafeSlip;
+            double[] wheels = {
+                vx - wheelVy - (kFl.getX() + kFl.getY()) * omega,
+                vx + wheelVy + (kFr.getX() - kFr.getY()) * omega,
+                vx + wheelVy + (kRl.getX() - kRl.getY()) * omega,
+                vx - wheelVy - (kRr.getX() + kRr.getY()) * omega
+            };
+            for (int w = 0; w < 4; w++) {
+                double measured = wheels[w] + random.nextGaussian() * kWheelNoise;
+                position[w] += measured * kDt;
+                sVelocities[i][w] = measured;
+                sPositions[i][w] = position[w];
+            }
+
+            double cos = Math.cos(heading);
+            double sin = Math.sin(heading);
+            x += (vx * cos - vy * sin) * kDt;
+            y += (vx * sin + vy * cos) * kDt;
+            heading += omega * kDt;
+            sTruth[i][0] = x;
+            sTruth[i][1] = y;
+            sTruth[i][2] = heading;
+            sGyro[i] = heading + random.nextGaussian() * kGyroNoise;
+
+            sVision[i][0] = x + random.nextGaussian() * kVisionNoise;
+            sVision[i][1] = y + random.nextGaussian() * kVisionNoise;
+            sVision[i][2] = heading + random.nextGaussian() * kVisionHeadingNoise;
+        }
+    }
+
+    private static void runOdometry(double[][] poses) {
+        MecanumOdometry odometry = new MecanumOdometry(kFl, kFr, kRl, kRr);
+        odometry.update(0, 0, 0, 0, 0);
+        for (int i = 0; i < kUpdates; i++) {
+            double[] p = sPositions[i];
+            odometry.update(sGyro[i], p[0], p[1], p[2], p[3]);
+            poses[i][0] = odometry.getX();
+            poses[i][1] = odometry.getY();
+            poses[i][2] = odometry.getHeadingRadians();
+        }
+    }
+
+    private static void runEstimator(double[][] poses) {
+        MecanumPoseEstimator estimator = new MecanumPoseEstimator(kFl, kFr, kRl, kRr, 100);
+        estimator.setVisionStdDevs(kVisionNoise, kVisionHeadingNoise);
+        estimator.update(0, 0, 0, 0, 0, 0);
+        for (int i = 0; i < kUpdates; i++) {
+            double[] v = sVelocities[i];
+            estimator.update((i + 1) * kDt, sGyro[i], v[0], v[1], v[2], v[3]);
+
+            // The image was taken a few loops ago, and only just got here.
+            int taken = i - kVisionLatency;
+            if (taken >= 0 && i % kVisionEvery == 0) {
+                double[] vision = sVision[taken];
+                estimator.addVisionMeasurement(
+                        (taken + 1) * kDt, vision[0], vision[1], vision[2]);
+            }
+            poses[i][0] = estimator.getX();
+            poses[i][1] = estimator.getY();
+            poses[i][2] = estimator.getHeadingRadians();
+        }
+    }
+}
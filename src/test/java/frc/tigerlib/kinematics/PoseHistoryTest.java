@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.kinematics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PoseHistoryTest {
+
+    private static final double kDelta = 1e-9;
+
+    @Test
+    public void emptyHistoryHasNoPose() {
+        PoseHistory history = new PoseHistory(4);
+        assertFalse(history.sample(0, new double[3]));
+        assertEquals(0, history.size());
+        assertTrue(Double.isNaN(history.getOldestTime()));
+        assertTrue(Double.isNaN(history.getNewestTime()));
+    }
+
+    @Test
+    public void interpolatesBetweenPoses() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(1, 0, 0, 0);
+        history.add(2, 2, -4, 1);
+
+        double[] pose = new double[3];
+        assertTrue(history.sample(1.25, pose));
+        assertArrayEquals(new double[] {0.5, -1, 0.25}, pose, kDelta);
+        assertTrue(history.sample(1, pose));
+        assertArrayEquals(new double[] {0, 0, 0}, pose, kDelta);
+    }
+
+    @Test
+    public void newerThanHistoryGetsNewestPose() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(1, 0, 0, 0);
+        history.add(2, 3, 4, 0.5);
+
+        double[] pose = new double[3];
+        assertTrue(history.sample(10, pose));
+        assertArrayEquals(new double[] {3, 4, 0.5}, pose, kDelta);
+    }
+
+    @Test
+    public void olderThanHistoryHasNoPose() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(1, 0, 0, 0);
+        history.add(2, 1, 1, 0);
+        assertFalse(history.sample(0.99, new double[3]));
+    }
+
+    @Test
+    public void headingTurnsTheShortWay() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(0, 0, 0, Math.toRadians(170));
+        history.add(1, 0, 0, Math.toRadians(-170));
+
+        double[] pose = new double[3];
+        assertTrue(history.sample(0.5, pose));
+        assertEquals(0, Math.IEEEremainder(pose[2] - Math.PI, 2 * Math.PI), kDelta);
+    }
+
+    @Test
+    public void overwritesOldestWhenFull() {
+        PoseHistory history = new PoseHistory(3);
+        for (int i = 0; i < 5; i++) {
+            history.add(i, i, 0, 0);
+        }
+        assertEquals(3, history.size());
+        assertEquals(2, history.getOldestTime(), kDelta);
+        assertEquals(4, history.getNewestTime(), kDelta);
+        assertFalse(history.sample(1.5, new double[3]));
+
+        // Interpolating across where the ring wraps.
+        double[] pose = new double[3];
+        assertTrue(history.sample(3.5, pose));
+        assertEquals(3.5, pose[0], kDelta);
+    }
+
+    @Test
+    public void ignoresPosesOutOfOrder() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(2, 1, 0, 0);
+        history.add(2, 5, 0, 0);
+        history.add(1, 5, 0, 0);
+        assertEquals(1, history.size());
+
+        double[] pose = new double[3];
+        assertTrue(history.sample(2, pose));
+        assertEquals(1, pose[0], kDelta);
+    }
+
+    @Test
+    public void offsetMovesEveryPose() {
+        PoseHistory history = new PoseHistory(3);
+        for (int i = 0; i < 4; i++) {
+            history.add(i, i, 0, 0);
+        }
+        history.offset(1, -2, 0.5);
+
+        double[] pose = new double[3];
+        assertTrue(history.sample(1, pose));
+        assertArrayEquals(new double[] {2, -2, 0.5}, pose, kDelta);
+        assertTrue(history.sample(3, pose));
+        assertArrayEquals(new double[] {4, -2, 0.5}, pose, kDelta);
+    }
+
+    @Test
+    public void clearEmptiesHistory() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(1, 1, 1, 1);
+        history.clear();
+        assertEquals(0, history.size());
+        assertFalse(history.sample(1, new double[3]));
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.logging;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class BinaryLoggerTest {
+
+    // Past two chunks of 25,000, so both chunk boundaries are crossed.
+    private static final int kRecords = 50_123;
+
+    private static BinaryLogger makeLogger() {
+        BinaryLogger logger = new BinaryLogger();
+        logger.addChannel("Drivetrain/Heading");
+        logger.addChannel("Arm/Is Up");
+        // An odd length, so the header needs padding.
+        logger.addChannel("x");
+        return logger;
+    }
+
+    /** A file that doesn't exist yet, in its own directory. */
+    private static File tempFile() throws IOException {
+        File directory = Files.createTempDirectory("logs").toFile();
+        directory.deleteOnExit();
+        File file = new File(directory, "00001.tblog");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static void writeRecord(BinaryLogger logger, int i) {
+        logger.set(0, i * 0.5);
+        logger.set(1, i % 2 == 0);
+        logger.set(2, -i);
+        logger.commit(1000 + i * 20_000L);
+    }
+
+    @Test
+    public void roundTripsAcrossChunks() throws IOException, InterruptedException {
+        File file = tempFile();
+        BinaryLogger logger = makeLogger();
+        logger.open(file);
+        for (int i = 0; i < kRecords; i++) {
+            writeRecord(logger, i);
+            if (i == 100) {
+                // Let the flush thread map the next chunk ahead; the second is mapped on the loop.
+                Thread.sleep(1500);
+            }
+        }
+        assertTrue(logger.isOpen());
+        assertEquals(kRecords, logger.getRecordCount());
+        logger.close();
+
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        byte[] magic = new byte[BinaryLogger.kMagic.length];
+        header.get(magic);
+        assertArrayEquals(BinaryLogger.kMagic, magic);
+        assertEquals(BinaryLogger.kVersion, header.getInt());
+        assertEquals(3, header.getInt());
+        int recordSize = header.getInt();
+        int headerSize = header.getInt();
+        assertEquals(Long.BYTES + 3 * Double.BYTES, recordSize);
+        // 40 fixed, then 3 lengths and 28 bytes of names, padded to 8 bytes.
+        assertEquals(80, headerSize);
+        assertEquals(kRecords, header.getLong(BinaryLogger.kRecordCountOffset));
+        // Closing trims the rest of the last chunk.
+        assertEquals(headerSize + (long) kRecords * recordSize, file.length());
+
+        BinaryLogReader reader = new BinaryLogReader(file);
+        assertEquals(
+                Arrays.asList("Drivetrain/Heading", "Arm/Is Up", "x"), reader.getChannelNames());
+        assertEquals(1, reader.findChannel("Arm/Is Up"));
+        assertEquals(-1, reader.findChannel("Arm/Output"));
+        assertEquals(kRecords, reader.getRecordCount());
+        for (int i = 0; i < kRecords; i++) {
+            assertEquals(1000 + i * 20_000L, reader.getTimestamp(i));
+            assertEquals(i * 0.5, reader.getValue(i, 0), 0);
+            assertEquals(i % 2 == 0 ? 1 : 0, reader.getValue(i, 1), 0);
+            assertEquals(-i, reader.getValue(i, 2), 0);
+        }
+    }
+
+    @Test
+    public void readerStopsAtUnwrittenRecords() throws IOException {
+        // A log that was never closed, as after a brownout, still has the empty end of its chunk.
+        File file = tempFile();
+        BinaryLogger logger = makeLogger();
+        logger.open(file);
+        for (int i = 0; i < 10; i++) {
+            writeRecord(logger, i);
+        }
+        assertTrue(file.length() > 10 * 32 + BinaryLogger.kFixedHeaderSize);
+        assertEquals(10, new BinaryLogReader(file).getRecordCount());
+        logger.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cantAddChannelsOnceOpen() throws IOException {
+        BinaryLogger logger = makeLogger();
+        logger.open(tempFile());
+        logger.addChannel("Late");
+    }
+
+    @Test
+    public void neverOverwritesALog() throws IOException {
+        File file = tempFile();
+        BinaryLogger first = makeLogger();
+        first.open(file);
+        for (int i = 0; i < 10; i++) {
+            writeRecord(first, i);
+        }
+        first.close();
+        long length = file.length();
+
+        try {
+            makeLogger().open(file);
+            fail("Opened a file that already had a log");
+        } catch (FileAlreadyExistsException e) {
+            // Expected.
+        }
+        assertEquals(length, file.length());
+        assertEquals(10, new BinaryLogReader(file).getRecordCount());
+
+        // The same boot number again, as after the rio's clock resets, gets a suffix.
+        File next = LogFiles.unusedFile(file.getParentFile(), 1, "", ".tblog");
+        assertEquals("00001-1.tblog", next.getName());
+        next.deleteOnExit();
+        BinaryLogger second = makeLogger();
+        second.open(next);
+        second.close();
+        assertEquals(length, file.length());
+    }
+
+    @Test
+    public void numbersBoots() throws IOException {
+        File directory = Files.createTempDirectory("logs").toFile();
+        assertEquals(1, LogFiles.nextBootNumber(directory));
+        assertEquals(1, LogFiles.nextBootNumber(new File(directory, "missing")));
+        String[] names = {
+            "00007.tblog", "00009_Q12_1.trace.csv", "00003-1.tblog", "20220301_100000.tblog"
+        };
+        for (String name : names) {
+            Files.write(new File(directory, name).toPath(), new byte[1]);
+        }
+        // Dated names from before boot numbers are skipped.
+        assertEquals(10, LogFiles.nextBootNumber(directory));
+        assertEquals(
+                "00010_Q12_2.trace.csv",
+                LogFiles.unusedFile(directory, 10, "_Q12_2", ".trace.csv").getName());
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void deletesOldestLogs() throws IOException {
+        File directory = Files.createTempDirectory("logs").toFile();
+        String[] names = {"00001.tblog", "00002.tblog", "00002_Q12_1.trace.csv"};
+        for (String name : names) {
+            Files.write(new File(directory, name).toPath(), new byte[100]);
+        }
+        BinaryLogger.deleteOldest(directory, 250);
+        assertFalse(new File(directory, names[0]).exists());
+        assertTrue(new File(directory, names[1]).exists());
+        assertTrue(new File(directory, names[2]).exists());
+
+        BinaryLogger.deleteOldest(directory, 1000);
+        assertEquals(2, directory.list().length);
+        // A missing directory is left alone.
+        BinaryLogger.deleteOldest(new File(directory, "missing"), 0);
+        BinaryLogger.deleteOldest(directory, 0);
+        directory.delete();
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class NelderMeadTest {
+
+    private static final double kDelta = 1e-3;
+
+    /** Curves into a long narrow valley, minimum 0 at (1, 1). */
+    private static double rosenbrock(double[] p) {
+        double a = 1 - p[0];
+        double b = p[1] - p[0] * p[0];
+        return a * a + 100 * b * b;
+    }
+
+    @Test
+    public void findsAShiftedQuadratic() {
+        NelderMead search =
+                new NelderMead(p -> (p[0] - 3) * (p[0] - 3) + 2 * (p[1] + 1) * (p[1] + 1) + 5);
+        search.setTolerance(1e-12);
+        double[] best = search.minimize(new double[] {0, 0}, new double[] {1, 1});
+        assertEquals(3, best[0], kDelta);
+        assertEquals(-1, best[1], kDelta);
+        // Converged, rather than running out of evaluations.
+        assertTrue(search.getEvaluations() < 200);
+    }
+
+    @Test
+    public void findsTheRosenbrockMinimum() {
+        NelderMead search = new NelderMead(NelderMeadTest::rosenbrock);
+        search.setMaxEvaluations(1000);
+        search.setTolerance(1e-14);
+        double[] best = search.minimize(new double[] {-1.2, 1}, new double[] {0.5, 0.5});
+        assertEquals(1, best[0], kDelta);
+        assertEquals(1, best[1], kDelta);
+        assertTrue(search.getEvaluations() < 1000);
+    }
+
+    @Test
+    public void stopsAtTheEvaluationLimit() {
+        int[] evaluations = {0};
+        NelderMead search =
+                new NelderMead(
+                        p -> {
+                            evaluations[0]++;
+                            return rosenbrock(p);
+                        });
+        // Never close enough to stop early.
+        search.setTolerance(0);
+        for (int max : new int[] {10, 20, 37, 50}) {
+            evaluations[0] = 0;
+            search.setMaxEvaluations(max);
+            search.minimize(new double[] {-1.2, 1}, new double[] {0.5, 0.5});
+            assertEquals(evaluations[0], search.getEvaluations());
+            // Finishes the step it's on; at most a reflection, a contraction and a shrink.
+            assertTrue(evaluations[0] >= max);
+            assertTrue(evaluations[0] <= max + 3);
+        }
+    }
+}
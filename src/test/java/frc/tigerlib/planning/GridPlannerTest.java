@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.planning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class GridPlannerTest {
+
+    /** A 2m by 1m field in 0.1m cells, with a wall across x = 1 open only near the top. */
+    private static OccupancyGrid makeWalledGrid() {
+        OccupancyGrid grid = new OccupancyGrid(2, 1, 0.1);
+        grid.addRectangle(0.95, 0, 1.05, 0.75);
+        return grid;
+    }
+
+    /** @return The path's length, meters, checking each leg is clear. */
+    private static double checkPath(GridPlanner planner, int start, int goal) {
+        OccupancyGrid grid = planner.getGrid();
+        int length = planner.getPathLength();
+        assertEquals(start, planner.getPathCell(0));
+        assertEquals(goal, planner.getPathCell(length - 1));
+        double meters = 0;
+        for (int i = 1; i < length; i++) {
+            int from = planner.getPathCell(i - 1);
+            int to = planner.getPathCell(i);
+            assertTrue("Leg " + i + " is blocked", grid.hasLineOfSight(from, to));
+            meters += Math.hypot(grid.getX(to) - grid.getX(from), grid.getY(to) - grid.getY(from));
+        }
+        return meters;
+    }
+
+    @Test
+    public void goesStraightAcrossOpenField() {
+        OccupancyGrid grid = new OccupancyGrid(2, 1, 0.1);
+        GridPlanner planner = new GridPlanner(grid, 10000);
+        int start = grid.getCell(0.05, 0.05);
+        int goal = grid.getCell(1.95, 0.65);
+        assertTrue(planner.plan(start, goal));
+        // Any angle, so no grid steps in between.
+        assertEquals(2, planner.getPathLength());
+    }
+
+    @Test
+    public void goesAroundWall() {
+        OccupancyGrid grid = makeWalledGrid();
+        GridPlanner planner = new GridPlanner(grid, 10000);
+        int start = grid.getCell(0.25, 0.15);
+        int goal = grid.getCell(1.75, 0.15);
+        assertTrue(planner.plan(start, goal));
+        double length = checkPath(planner, start, goal);
+
+        // No shorter than over the wall's corners, and not far from it.
+        double shortest = 2 * Math.hypot(0.75, 0.7);
+        assertTrue("Too short: " + length, length >= shortest - 0.1);
+        assertTrue("Too long: " + length, length <= shortest + 0.2);
+    }
+
+    @Test
+    public void failsWithoutWay() {
+        OccupancyGrid grid = makeWalledGrid();
+        grid.addRectangle(0.95, 0.75, 1.05, 1);
+        GridPlanner planner = new GridPlanner(grid, 10000);
+        assertFalse(planner.plan(grid.getCell(0.25, 0.15), grid.getCell(1.75, 0.15)));
+        assertEquals(0, planner.getPathLength());
+        // Gave up once every reachable cell was expanded.
+        assertTrue(planner.getExpansions() <= grid.getCellCount() / 2);
+    }
+
+    @Test
+    public void failsFromBlockedCell() {
+        OccupancyGrid grid = makeWalledGrid();
+        GridPlanner planner = new GridPlanner(grid, 10000);
+        assertFalse(planner.plan(grid.getCell(1, 0.15), grid.getCell(1.75, 0.15)));
+        assertFalse(planner.plan(grid.getCell(0.25, 0.15), grid.getCell(1, 0.15)));
+    }
+
+    @Test
+    public void givesUpAfterMaxExpansions() {
+        OccupancyGrid grid = makeWalledGrid();
+        GridPlanner planner = new GridPlanner(grid, 20);
+        assertFalse(planner.plan(grid.getCell(0.25, 0.15), grid.getCell(1.75, 0.15)));
+        assertEquals(21, planner.getExpansions());
+    }
+
+    @Test
+    public void searchesAgainWithoutClearing() {
+        OccupancyGrid grid = makeWalledGrid();
+        GridPlanner planner = new GridPlanner(grid, 10000);
+        int start = grid.getCell(0.25, 0.15);
+        int goal = grid.getCell(1.75, 0.15);
+        assertTrue(planner.plan(start, goal));
+        double first = checkPath(planner, start, goal);
+
+        // A different search in between mustn't leave anything behind.
+        assertTrue(planner.plan(goal, grid.getCell(1.95, 0.95)));
+        assertTrue(planner.plan(start, goal));
+        assertEquals(first, checkPath(planner, start, goal), 1e-9);
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.planning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Properties;
+import java.util.Random;
+import org.junit.Test;
+
+public class OccupancyGridTest {
+
+    @Test
+    public void loadsFromProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("length", "2");
+        properties.setProperty("width", "1");
+        properties.setProperty("rectangle.wall", "0.95, 0, 1.05, 0.75");
+        properties.setProperty("circle.post", "0.5, 0.5, 0.1");
+        OccupancyGrid grid = OccupancyGrid.fromProperties(properties, 0.1);
+
+        assertEquals(20, grid.getColumns());
+        assertEquals(10, grid.getRows());
+        assertTrue(grid.isBlocked(1, 0.35));
+        assertFalse(grid.isBlocked(1, 0.85));
+        assertTrue(grid.isBlocked(0.55, 0.55));
+        assertFalse(grid.isBlocked(0.25, 0.55));
+        // Off the field counts as blocked.
+        assertTrue(grid.isBlocked(-0.01, 0.5));
+        assertTrue(grid.isBlocked(0.5, 1.01));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownKeys() {
+        Properties properties = new Properties();
+        properties.setProperty("length", "2");
+        properties.setProperty("width", "1");
+        properties.setProperty("triangle.wall", "0, 0, 1, 1, 2, 0");
+        OccupancyGrid.fromProperties(properties, 0.1);
+    }
+
+    @Test
+    public void inflatesObstaclesAndWalls() {
+        OccupancyGrid grid = new OccupancyGrid(2, 1, 0.1);
+        grid.addCircle(1, 0.5, 0.1);
+        OccupancyGrid inflated = grid.inflate(0.2);
+
+        assertFalse(grid.isBlocked(0.75, 0.45));
+        assertTrue(inflated.isBlocked(0.85, 0.45));
+        assertFalse(inflated.isBlocked(0.65, 0.45));
+        // The walls too.
+        assertTrue(inflated.isBlocked(0.15, 0.45));
+        assertTrue(inflated.isBlocked(0.55, 0.95));
+        assertFalse(inflated.isBlocked(0.55, 0.25));
+    }
+
+    @Test
+    public void findsNearestFreeCell() {
+        OccupancyGrid grid = new OccupancyGrid(2, 1, 0.1);
+        grid.addRectangle(0.5, 0, 0.75, 1);
+        int free = grid.findNearestFree(grid.getCell(0.72, 0.45), 0.5);
+        assertEquals(0.85, grid.getX(free), 1e-9);
+        assertEquals(0.45, grid.getY(free), 1e-9);
+        // Free cells are their own nearest.
+        int cell = grid.getCell(0.25, 0.25);
+        assertEquals(cell, grid.findNearestFree(cell, 0.5));
+        assertEquals(-1, grid.findNearestFree(grid.getCell(0.62, 0.45), 0.05));
+    }
+
+    @Test
+    public void lineOfSightMatchesCrossedCells() {
+        OccupancyGrid grid = new OccupancyGrid(1, 1, 0.1);
+        grid.addRectangle(0.45, 0.45, 0.55, 0.55);
+        int lowerLeft = grid.getCell(0.05, 0.05);
+        assertFalse(grid.hasLineOfSight(lowerLeft, grid.getCell(0.95, 0.95)));
+        assertTrue(grid.hasLineOfSight(lowerLeft, grid.getCell(0.95, 0.05)));
+        assertTrue(grid.hasLineOfSight(lowerLeft, grid.getCell(0.35, 0.95)));
+        // Either way gives the same answer.
+        assertFalse(grid.hasLineOfSight(grid.getCell(0.95, 0.95), lowerLeft));
+    }
+
+    @Test
+    public void lineOfSightMatchesBruteForce() {
+        Random random = new Random(7125);
+        for (int g = 0; g < 10; g++) {
+            OccupancyGrid grid = new OccupancyGrid(3, 2, 0.1);
+            for (int i = 0; i < 8; i++) {
+                double x = random.nextDouble() * 3;
+                double y = random.nextDouble() * 2;
+                grid.addCircle(x, y, random.nextDouble() * 0.2);
+            }
+            for (int i = 0; i < 500; i++) {
+                int from = random.nextInt(grid.getCellCount());
+                int to = random.nextInt(grid.getCellCount());
+                assertEquals(
+                        "From " + from + " to " + to,
+                        isClear(grid, from, to),
+                        grid.hasLineOfSight(from, to));
+            }
+        }
+    }
+
+    /** Whether a line misses every blocked cell, edges and corners included. */
+    private static boolean isClear(OccupancyGrid grid, int from, int to) {
+        double x0 = grid.getX(from);
+        double y0 = grid.getY(from);
+        double dx = grid.getX(to) - x0;
+        double dy = grid.getY(to) - y0;
+        double half = grid.getResolution() / 2 + 1e-9;
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            if (!grid.isBlocked(cell)) {
+                continue;
+            }
+            // Clip the line to the cell's square; it touches if anything is left.
+            double enter = 0;
+            double exit = 1;
+            double[] p = {-dx, dx, -dy, dy};
+            double[] q = {
+                x0 - (grid.getX(cell) - half),
+                grid.getX(cell) + half - x0,
+                y0 - (grid.getY(cell) - half),
+                grid.getY(cell) + half - y0
+            };
+            for (int i = 0; i < 4 && enter <= exit; i++) {
+                if (p[i] == 0) {
+                    if (q[i] < 0) {
+                        exit = -1;
+                    }
+                } else if (p[i] < 0) {
+                    enter = Math.max(enter, q[i] / p[i]);
+                } else {
+                    exit = Math.min(exit, q[i] / p[i]);
+                }
+            }
+            if (enter <= exit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void diagonalCantSqueezeBetweenCorners() {
+        OccupancyGrid grid = new OccupancyGrid(1, 1, 0.1);
+        grid.addRectangle(0.1, 0, 0.2, 0.1);
+        grid.addRectangle(0, 0.1, 0.1, 0.2);
+        assertFalse(grid.hasLineOfSight(grid.getCell(0.05, 0.05), grid.getCell(0.15, 0.15)));
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.planning;
+
+import frc.tigerlib.trajectory.SampledTrajectory;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Times {@link TrajectoryPlanner} between random free points on a field map, with the cache
+ * emptied before each so every plan is searched and smoothed; then how long a cached plan takes.
+ * Needs no HAL, so it runs on a laptop.
+ *
+ * <p>Run with: {@code ./gradlew benchmarkTrajectoryPlanner [--args=<field map>]}
+ *
+ * @author Jeffrey Morris | Tigerbotics 7125
+ */
+public class TrajectoryPlannerBenchmark {
+
+    private static final String kDefaultMap = "src/main/deploy/field/rapidreact.properties";
+    private static final int kWarmupPlans = 500;
+    private static final int kPlans = 2000;
+
+    // Roughly our robot and its auto constraints, see Constants.Drivetrain.
+    private static final double kResolution = 0.1;
+    private static final double kClearance = 0.48;
+    private static final double kMargin = 0.15;
+    private static final double kMaxVelocity = 3;
+    private static final double kMaxAcceleration = 3;
+    private static final double kMaxAngularVelocity = Math.PI;
+    private static final int kMaxExpansions = 20000;
+
+    public static void main(String[] args) throws IOException {
+        OccupancyGrid field =
+                OccupancyGrid.load(new File(args.length > 0 ? args[0] : kDefaultMap), kResolution);
+        TrajectoryPlanner planner =
+                new TrajectoryPlanner(
+                        field,
+                        kClearance,
+                        kMargin,
+                        kMaxVelocity,
+                        kMaxAcceleration,
+                        kMaxAngularVelocity,
+                        kMaxExpansions,
+                        Math.toRadians(5),
+                        32);
+        System.out.printf("Warm up: %8.1f ms%n", planner.warmUp(kWarmupPlans) * 1e3);
+
+        OccupancyGrid grid = planner.getSearchGrid();
+        Random random = new Random(7125);
+        double[] millis = new double[kPlans];
+        int[] expansions = new int[kPlans];
+        int planned = 0;
+        int failed = 0;
+        double[] last = null;
+        while (planned < kPlans) {
+            int from = random.nextInt(grid.getCellCount());
+            int to = random.nextInt(grid.getCellCount());
+            if (grid.isBlocked(from) || grid.isBlocked(to)) {
+                continue;
+            }
+            last =
+                    new double[] {
+                        grid.getX(from),
+                        grid.getY(from),
+                        random.nextDouble() * 2 * Math.PI,
+                        grid.getX(to),
+                        grid.getY(to),
+                        random.nextDouble() * 2 * Math.PI
+                    };
+            planner.clearCache();
+            SampledTrajectory trajectory =
+                    planner.plan(last[0], last[1], last[2], last[3], last[4], last[5]);
+            if (trajectory == null) {
+                failed++;
+            }
+            millis[planned] = planner.getLastPlanMillis();
+            expansions[planned] = planner.getLastExpansions();
+            planned++;
+        }
+
+        double cachedMillis = Double.MAX_VALUE;
+        for (int i = 0; i < kPlans; i++) {
+            planner.plan(last[0], last[1], last[2], last[3], last[4], last[5]);
+            cachedMillis = Math.min(cachedMillis, planner.getLastPlanMillis());
+        }
+
+        Arrays.sort(millis);
+        Arrays.sort(expansions);
+        System.out.printf(
+                "%d plans over %dx%d cells, %d found no way%n",
+                kPlans,
+                grid.getColumns(),
+                grid.getRows(),
+                failed);
+        System.out.printf("Median:   %8.3f ms%n", millis[kPlans / 2]);
+        System.out.printf("P99:      %8.3f ms%n", millis[kPlans * 99 / 100]);
+        System.out.printf("Max:      %8.3f ms%n", millis[kPlans - 1]);
+        System.out.printf(
+                "Expanded: %8d median, %d max cells%n",
+                expansions[kPlans / 2],
+                expansions[kPlans - 1]);
+        System.out.printf("Cached:   %8.4f ms%n", cachedMillis);
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.profiling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
+import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CommandTracerTest {
+
+    // The scheduler is shared and hooks can't be removed, so every test uses the one tracer.
+    private static CommandTracer sTracer;
+
+    @BeforeClass
+    public static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.notifyNewData();
+        CommandScheduler.getInstance().cancelAll();
+        sTracer = new CommandTracer(64);
+        sTracer.install(CommandScheduler.getInstance());
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        CommandScheduler.getInstance().cancelAll();
+    }
+
+    /** A command that finishes after the given amount of executes, or never if negative. */
+    private static CommandBase executes(int count) {
+        int[] executed = {0};
+        return new FunctionalCommand(
+                () -> executed[0] = 0,
+                () -> executed[0]++,
+                interrupted -> {},
+                () -> count >= 0 && executed[0] >= count);
+    }
+
+    private static File tempFile() throws IOException {
+        File directory = Files.createTempDirectory("traces").toFile();
+        directory.deleteOnExit();
+        File file = new File(directory, "00001_1.trace.csv");
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void tracesAGroup() throws IOException {
+        // Two executes, then one; the scheduler only sees the group.
+        CommandBase group = new SequentialCommandGroup(executes(2), executes(1));
+        group.setName("Group");
+        CommandBase hold = executes(-1);
+        hold.setName("Hold");
+
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+        long start = sTracer.getEventCount();
+        scheduler.schedule(group, hold);
+        for (int i = 0; i < 3; i++) {
+            scheduler.run();
+        }
+        assertFalse(scheduler.isScheduled(group));
+        scheduler.cancel(hold);
+        assertEquals(10, sTracer.getEventCount() - start);
+        assertTrue(sTracer.hasNewEvents());
+
+        File file = tempFile();
+        sTracer.write(file);
+        assertFalse(sTracer.hasNewEvents());
+        List<String> lines = Files.readAllLines(file.toPath());
+
+        assertEquals("FPGA Time (s),Event,Command,Execute (ms)", lines.get(0));
+        String[][] expected = {
+            {"Initialize", "Group"},
+            {"Initialize", "Hold"},
+            {"Execute", "Group"},
+            {"Execute", "Hold"},
+            {"Execute", "Group"},
+            {"Execute", "Hold"},
+            {"Execute", "Group"},
+            {"Finish", "Group"},
+            {"Execute", "Hold"},
+            {"Interrupt", "Hold"},
+        };
+        // Only this test's events, the last ones in the trace.
+        int blank = lines.indexOf("");
+        assertTrue(blank > expected.length);
+        int first = blank - expected.length;
+        double lastTime = 0;
+        for (int e = 0; e < expected.length; e++) {
+            String[] row = lines.get(first + e).split(",", -1);
+            assertEquals(4, row.length);
+            double time = Double.parseDouble(row[0]);
+            assertTrue(time >= lastTime);
+            lastTime = time;
+            assertEquals(expected[e][0], row[1]);
+            assertEquals("\"" + expected[e][1] + "\"", row[2]);
+            // Only executes are timed.
+            assertEquals(expected[e][0].equals("Execute"), !row[3].isEmpty());
+        }
+
+        assertEquals(
+                "Command,Initializes,Executes,Finishes,Interrupts,Mean ms,Max ms",
+                lines.get(blank + 1));
+        List<String> totals = lines.subList(blank + 2, lines.size());
+        assertEquals(Arrays.asList("1", "3", "1", "0"), totalsOf(totals, "Group"));
+        assertEquals(Arrays.asList("1", "3", "0", "1"), totalsOf(totals, "Hold"));
+    }
+
+    /** @return The event counts in a command's totals row. */
+    private static List<String> totalsOf(List<String> totals, String name) {
+        for (String line : totals) {
+            String[] row = line.split(",");
+            if (row[0].equals("\"" + name + "\"")) {
+                assertEquals(7, row.length);
+                return Arrays.asList(row).subList(1, 5);
+            }
+        }
+        fail("No totals for " + name);
+        return null;
+    }
+
+    @Test
+    public void neverOverwritesATrace() throws IOException {
+        File file = tempFile();
+        Files.write(file.toPath(), new byte[] {1});
+        try {
+            sTracer.write(file);
+            fail("Wrote over an earlier trace");
+        } catch (FileAlreadyExistsException e) {
+            // Expected.
+        }
+        assertEquals(1, file.length());
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class SampleRingBufferTest {
+
+    /** Keeps every sample it's given, as "channel,timestamp,value". */
+    private static class ListConsumer implements SampleConsumer {
+        final List<String> mSamples = new ArrayList<>();
+
+        @Override
+        public void accept(int channel, long timestamp, double value) {
+            mSamples.add(channel + "," + timestamp + "," + value);
+        }
+    }
+
+    @Test
+    public void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(8, new SampleRingBuffer(5).capacity());
+        assertEquals(8, new SampleRingBuffer(8).capacity());
+        assertEquals(1024, new SampleRingBuffer(1000).capacity());
+    }
+
+    @Test
+    public void drainsInOrder() {
+        SampleRingBuffer buffer = new SampleRingBuffer(8);
+        assertTrue(buffer.offer(1, 100, 0.5));
+        assertTrue(buffer.offer(2, 200, -1));
+        assertEquals(2, buffer.size());
+
+        ListConsumer consumer = new ListConsumer();
+        assertEquals(2, buffer.drain(consumer, 10));
+        assertEquals(0, buffer.size());
+        assertEquals("1,100,0.5", consumer.mSamples.get(0));
+        assertEquals("2,200,-1.0", consumer.mSamples.get(1));
+        assertEquals(0, buffer.drain(consumer, 10));
+    }
+
+    @Test
+    public void wrapsAround() {
+        SampleRingBuffer buffer = new SampleRingBuffer(4);
+        ListConsumer consumer = new ListConsumer();
+        // Many times around, three in and two out each time, so the ends wrap at every offset.
+        int next = 0;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 3 && buffer.size() < buffer.capacity(); i++) {
+                assertTrue(buffer.offer(next, next, next));
+                next++;
+            }
+            buffer.drain(consumer, 2);
+        }
+        buffer.drain(consumer, Integer.MAX_VALUE);
+        assertEquals(next, consumer.mSamples.size());
+        for (int i = 0; i < next; i++) {
+            assertEquals(i + "," + i + "," + (double) i, consumer.mSamples.get(i));
+        }
+        assertEquals(0, buffer.getDropped());
+    }
+
+    @Test
+    public void dropsAndCountsWhenFull() {
+        SampleRingBuffer buffer = new SampleRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(0, i, i));
+        }
+        assertFalse(buffer.offer(0, 4, 4));
+        assertFalse(buffer.offer(0, 5, 5));
+        assertEquals(2, buffer.getDropped());
+        assertEquals(4, buffer.size());
+
+        // The oldest are kept, and there's room again once drained.
+        ListConsumer consumer = new ListConsumer();
+        assertEquals(1, buffer.drain(consumer, 1));
+        assertEquals("0,0,0.0", consumer.mSamples.get(0));
+        assertTrue(buffer.offer(0, 6, 6));
+        assertEquals(2, buffer.getDropped());
+        buffer.drain(consumer, 10);
+        assertEquals("0,6,6.0", consumer.mSamples.get(4));
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.trajectory;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SampledTrajectoryTest {
+
+    private static final double kDelta = 1e-9;
+
+    /** Two meters along x in two seconds, turning from 170 degrees to -170 on the way. */
+    private static SampledTrajectory makeTrajectory() {
+        return SampledTrajectory.withOmega(
+                new double[] {1, 2, 3},
+                new double[] {0, 1, 2},
+                new double[] {0, 0, 0},
+                new double[] {Math.toRadians(170), Math.toRadians(180), Math.toRadians(-170)},
+                new double[] {0, 1, 0},
+                new double[] {0, 0, 0},
+                new double[] {0, 0, 0});
+    }
+
+    @Test
+    public void interpolatesBetweenStates() {
+        SampledTrajectory trajectory = makeTrajectory();
+        SampledTrajectory.Sample sample = trajectory.sample(1.5, new SampledTrajectory.Sample());
+        assertEquals(1.5, sample.time, kDelta);
+        assertEquals(0.5, sample.x, kDelta);
+        assertEquals(0.5, sample.vx, kDelta);
+        assertEquals(Math.toRadians(175), sample.heading, kDelta);
+    }
+
+    @Test
+    public void hitsStatesExactly() {
+        SampledTrajectory trajectory = makeTrajectory();
+        SampledTrajectory.Sample sample = trajectory.sample(2, new SampledTrajectory.Sample());
+        assertEquals(1, sample.x, kDelta);
+        assertEquals(1, sample.vx, kDelta);
+    }
+
+    @Test
+    public void holdsEndsOutsideTimes() {
+        SampledTrajectory trajectory = makeTrajectory();
+        SampledTrajectory.Sample sample = new SampledTrajectory.Sample();
+        trajectory.sample(0, sample);
+        assertEquals(0, sample.x, kDelta);
+        assertEquals(0, sample.time, kDelta);
+        trajectory.sample(10, sample);
+        assertEquals(2, sample.x, kDelta);
+        assertEquals(1, trajectory.getStartTime(), kDelta);
+        assertEquals(2, trajectory.getTotalTime(), kDelta);
+    }
+
+    @Test
+    public void unwrapsHeadingsTheShortWay() {
+        SampledTrajectory trajectory = makeTrajectory();
+        SampledTrajectory.Sample sample = trajectory.sample(2.5, new SampledTrajectory.Sample());
+        // Through 180, not back around through 0.
+        assertEquals(Math.toRadians(185), sample.heading, kDelta);
+        assertEquals(Math.toRadians(10), sample.omega, kDelta);
+        assertEquals(
+                Math.cos(Math.toRadians(-170)),
+                trajectory.getFinalPose().getRotation().getCos(),
+                kDelta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void timesMustIncrease() {
+        double[] values = {0, 0};
+        new SampledTrajectory(
+                new double[] {1, 1}, values, values, values, values, values, values, values);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lengthsMustMatch() {
+        double[] values = {0, 0};
+        new SampledTrajectory(
+                new double[] {1, 2}, values, values, values, values, values, values, new double[1]);
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.trajectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class TrajectoryCacheTest {
+
+    private static final SampledTrajectory kTrajectory =
+            SampledTrajectory.withOmega(
+                    new double[] {0, 1, 2},
+                    new double[] {0, 1, 2},
+                    new double[] {0, 0, 0},
+                    new double[] {0, 0, 0},
+                    new double[] {0, 1, 0},
+                    new double[] {0, 0, 0},
+                    new double[] {0, 0, 0});
+
+    /** Loads "good" and "later"; "broken" throws, "huge" runs out of memory, "empty" gives null. */
+    private static TrajectoryCache makeCache() {
+        return new TrajectoryCache(
+                name -> {
+                    switch (name) {
+                        case "broken":
+                            throw new IllegalArgumentException("no such file");
+                        case "huge":
+                            throw new OutOfMemoryError();
+                        case "empty":
+                            return null;
+                        default:
+                            return kTrajectory;
+                    }
+                },
+                Arrays.asList("good", "broken", "huge", "empty", "later"));
+    }
+
+    /** Waits for every trajectory to load, or fail to. */
+    private static void waitForAll(TrajectoryCache cache) throws Exception {
+        cache.getFuture("later")
+                .handle((trajectory, e) -> trajectory)
+                .get(5, TimeUnit.SECONDS);
+        assertTrue(cache.isDone());
+    }
+
+    @Test
+    public void getsNothingBeforeLoading() {
+        TrajectoryCache cache = makeCache();
+        assertNull(cache.get("good"));
+        assertFalse(cache.isReady("good"));
+        assertFalse(cache.isDone());
+        assertEquals(0, cache.getReadyCount());
+        assertEquals(5, cache.size());
+        assertTrue(Double.isNaN(cache.getLoadSeconds("good")));
+        assertEquals(
+                "  good: loading\n  broken: loading\n  huge: loading\n  empty: loading\n"
+                        + "  later: loading\n",
+                cache.getReport());
+    }
+
+    @Test
+    public void loadsPastFailures() throws Exception {
+        TrajectoryCache cache = makeCache();
+        cache.start();
+        waitForAll(cache);
+
+        assertSame(kTrajectory, cache.get("good"));
+        assertSame(kTrajectory, cache.get("later"));
+        assertNull(cache.get("broken"));
+        assertNull(cache.get("huge"));
+        assertNull(cache.get("empty"));
+        assertNull(cache.get("unnamed"));
+        assertEquals(2, cache.getReadyCount());
+        assertTrue(cache.getLoadSeconds("huge") >= 0);
+        assertTrue(cache.getFuture("huge").isCompletedExceptionally());
+    }
+
+    @Test
+    public void reportsEachTrajectory() throws Exception {
+        TrajectoryCache cache = makeCache();
+        assertTrue(Double.isNaN(cache.getTotalLoadSeconds()));
+        cache.start();
+        waitForAll(cache);
+        // The futures finish just before the total is set.
+        for (int i = 0; i < 1000 && Double.isNaN(cache.getTotalLoadSeconds()); i++) {
+            Thread.sleep(1);
+        }
+        assertTrue(cache.getTotalLoadSeconds() >= cache.getLoadSeconds("good"));
+
+        String[] lines = cache.getReport().split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0], lines[0].matches("  good: [0-9.]+ ms, 3 states"));
+        assertTrue(lines[1], lines[1].matches("  broken: [0-9.]+ ms, failed, no such file"));
+        assertTrue(lines[2], lines[2].matches("  huge: [0-9.]+ ms, failed, .*OutOfMemoryError"));
+        assertTrue(lines[3], lines[3].matches("  empty: .* ms, failed, loader returned nothing"));
+        assertTrue(lines[4], lines[4].matches("  later: [0-9.]+ ms, 3 states"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void futureNeedsKnownName() {
+        makeCache().getFuture("unnamed");
+    }
+
+    @Test(expected = CompletionException.class)
+    public void futureFailsWithLoader() throws Exception {
+        TrajectoryCache cache = makeCache();
+        cache.start();
+        waitForAll(cache);
+        cache.getFuture("broken").join();
+    }
+}
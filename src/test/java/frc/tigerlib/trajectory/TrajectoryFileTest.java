@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2022, Tigerbotics' team members and all other contributors.
+ * Open source software; you can modify and/or share this software.
+ */
+package frc.tigerlib.trajectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.Test;
+
+public class TrajectoryFileTest {
+
+    private static final double kPeriod = 0.02;
+    private static final double kDelta = 1e-9;
+
+    /** Uneven states, ending off the timestep, so the last compiled state is the end time. */
+    private static SampledTrajectory makeTrajectory() {
+        return SampledTrajectory.withOmega(
+                new double[] {0.5, 0.73, 1.2, 1.911},
+                new double[] {0, 0.3, 1.1, 2},
+                new double[] {0, 0.1, 0.4, 0.2},
+                new double[] {0, 0.5, 3, -2.9},
+                new double[] {0, 1.2, 2, 0},
+                new double[] {0, 0.4, -0.3, 0},
+                new double[] {0.1, 0.2, 0.3, 0.4});
+    }
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("trajectory", ".traj");
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void roundTripsEveryStep() throws IOException {
+        SampledTrajectory original = makeTrajectory();
+        File file = tempFile();
+        TrajectoryFile.write(original, kPeriod, 3, 2.5, 7125, file);
+        TrajectoryFile mapped = TrajectoryFile.map(file);
+
+        assertEquals(kPeriod, mapped.getPeriod(), 0);
+        assertEquals(3, mapped.getMaxVelocity(), 0);
+        assertEquals(2.5, mapped.getMaxAcceleration(), 0);
+        assertEquals(7125, mapped.getSourceChecksum());
+        SampledTrajectory trajectory = mapped.getTrajectory();
+        assertEquals(original.getStartTime(), trajectory.getStartTime(), 0);
+        assertEquals(original.getEndTime(), trajectory.getEndTime(), 0);
+        assertEquals(72, trajectory.size());
+
+        SampledTrajectory.Sample expected = new SampledTrajectory.Sample();
+        SampledTrajectory.Sample actual = new SampledTrajectory.Sample();
+        for (int i = 0; i < trajectory.size(); i++) {
+            double time = Math.min(0.5 + i * kPeriod, original.getEndTime());
+            original.sample(time, expected);
+            trajectory.sample(time, actual);
+            String at = "At " + time;
+            assertEquals(at, expected.x, actual.x, kDelta);
+            assertEquals(at, expected.y, actual.y, kDelta);
+            assertEquals(at, expected.heading, actual.heading, kDelta);
+            assertEquals(at, expected.vx, actual.vx, kDelta);
+            assertEquals(at, expected.vy, actual.vy, kDelta);
+            assertEquals(at, expected.omega, actual.omega, kDelta);
+            assertEquals(at, expected.curvature, actual.curvature, kDelta);
+        }
+    }
+
+    @Test
+    public void checksumsChangeWithTheSource() throws IOException {
+        File source = tempFile();
+        Files.write(source.toPath(), "{\"waypoints\": []}".getBytes());
+        long checksum = TrajectoryFile.checksum(source);
+        assertEquals(checksum, TrajectoryFile.checksum(source));
+        Files.write(source.toPath(), "{\"waypoints\": [ ]}".getBytes());
+        assertNotEquals(checksum, TrajectoryFile.checksum(source));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        File file = tempFile();
+        Files.write(file.toPath(), new byte[64]);
+        TrajectoryFile.map(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedFiles() throws IOException {
+        File file = tempFile();
+        TrajectoryFile.write(makeTrajectory(), kPeriod, 3, 2.5, 7125, file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        byte[] truncated = new byte[bytes.length - 8];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        Files.write(file.toPath(), truncated);
+        TrajectoryFile.map(file);
+    }
+}